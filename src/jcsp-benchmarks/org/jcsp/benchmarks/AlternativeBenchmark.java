@@ -0,0 +1,143 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.One2OneChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Selection by an {@link Alternative} over N channel guards.
+ * <P>
+ * A producer process writes to the N channels in turn, so that (usually) just one
+ * guard is ready at each selection and the cost of enabling and disabling the others
+ * is included.  Each operation is one selection followed by the read of the selected channel.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AlternativeBenchmark
+{
+    @Param({"1", "10", "100", "1000"})
+    public int guards;
+
+    @Param({"select", "priSelect", "fairSelect"})
+    public String mode;
+
+    private AltingChannelInput<Object>[] in;
+
+    private Alternative alt;
+
+    private int selector;
+
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        final One2OneChannel<Object>[] c = Channel.one2oneArray(guards);
+        in = Channel.getInputArray(c);
+        final ChannelOutput<Object>[] out = Channel.getOutputArray(c);
+        alt = new Alternative(in);
+        selector = mode.equals("select") ? 0 : mode.equals("priSelect") ? 1 : 2;
+        running = true;
+        Pipes.start(new CSProcess()
+        {
+            public void run()
+            {
+                final Object message = new Object();
+                int i = 0;
+                while (running)
+                {
+                    out[i].write(message);
+                    i = (i + 1) % out.length;
+                }
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        running = false;
+        // release the producer from its last write (if it has not already seen the flag)
+        final Guard[] g = new Guard[guards + 1];
+        System.arraycopy(in, 0, g, 0, guards);
+        final CSTimer tim = new CSTimer();
+        tim.setAlarm(tim.read() + 100);
+        g[guards] = tim;
+        final int i = new Alternative(g).priSelect();
+        if (i < guards)
+        {
+            in[i].read();
+        }
+    }
+
+    @Benchmark
+    public Object select()
+    {
+        final int i;
+        switch (selector)
+        {
+            case 0:
+                i = alt.select();
+                break;
+            case 1:
+                i = alt.priSelect();
+                break;
+            default:
+                i = alt.fairSelect();
+                break;
+        }
+        return in[i].read();
+    }
+}
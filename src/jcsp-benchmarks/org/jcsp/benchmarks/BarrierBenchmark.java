@@ -0,0 +1,211 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.lang.AltingBarrier;
+import org.jcsp.lang.Barrier;
+import org.jcsp.lang.CSProcess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Synchronisation on a {@link Barrier} and on an {@link AltingBarrier}.
+ * <P>
+ * The benchmark thread and <TT>parties - 1</TT> partner processes sync repeatedly;
+ * each operation is one complete barrier cycle.  At tear-down the benchmark resigns,
+ * and each partner resigns as it notices, so that nobody is left waiting.
+ * <P>
+ * The <TT>independent</TT> benchmark measures a pair syncing on an {@link AltingBarrier}
+ * while <TT>others</TT> more pairs sync on barriers of their own.  The pairs share no
+ * barriers, so on a multi-core machine the cost should not grow with <TT>others</TT>.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BarrierBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class Plain
+    {
+        @Param({"2", "4", "8", "16"})
+        public int parties;
+
+        Barrier barrier;
+
+        volatile boolean running;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            barrier = new Barrier(parties);
+            running = true;
+            for (int i = 1; i < parties; i++)
+            {
+                Pipes.start(new CSProcess()
+                {
+                    public void run()
+                    {
+                        while (running)
+                        {
+                            barrier.sync();
+                        }
+                        barrier.resign();
+                    }
+                });
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            running = false;
+            barrier.resign();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Alting
+    {
+        @Param({"2", "4", "8", "16"})
+        public int parties;
+
+        AltingBarrier[] barrier;
+
+        volatile boolean running;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            barrier = AltingBarrier.create(parties);
+            running = true;
+            for (int i = 1; i < parties; i++)
+            {
+                final AltingBarrier b = barrier[i];
+                Pipes.start(new CSProcess()
+                {
+                    public void run()
+                    {
+                        while (running)
+                        {
+                            b.sync();
+                        }
+                        b.resign();
+                    }
+                });
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            running = false;
+            barrier[0].resign();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Independent
+    {
+        @Param({"0", "1", "3", "7"})
+        public int others;
+
+        AltingBarrier[] barrier;
+
+        volatile boolean running;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            barrier = AltingBarrier.create(2);
+            running = true;
+            startPartner(barrier[1]);
+            for (int i = 0; i < others; i++)
+            {
+                AltingBarrier[] pair = AltingBarrier.create(2);
+                startPartner(pair[0]);
+                startPartner(pair[1]);
+            }
+        }
+
+        private void startPartner(final AltingBarrier b)
+        {
+            Pipes.start(new CSProcess()
+            {
+                public void run()
+                {
+                    while (running)
+                    {
+                        b.sync();
+                    }
+                    b.resign();
+                }
+            });
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            running = false;
+            barrier[0].resign();
+        }
+    }
+
+    @Benchmark
+    public void barrierSync(Plain s)
+    {
+        s.barrier.sync();
+    }
+
+    @Benchmark
+    public void altingBarrierSync(Alting s)
+    {
+        s.barrier[0].sync();
+    }
+
+    @Benchmark
+    public void independentAltingBarrierSync(Independent s)
+    {
+        s.barrier[0].sync();
+    }
+}
@@ -0,0 +1,145 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.One2BroadcastChannel;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.ProcessManager;
+import org.jcsp.plugNplay.Delta;
+import org.jcsp.util.RingBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Broadcasting one value to <TT>readers</TT> sink processes.
+ * <P>
+ * <TT>broadcast</TT> writes to a {@link One2BroadcastChannel}, zero-buffered or
+ * buffered by a <TT>RingBuffer</TT> of <TT>capacity</TT>; <TT>delta</TT> writes to a
+ * {@link Delta} process, which writes each value in parallel to a zero-buffered channel
+ * for each reader.  Each operation is one value broadcast.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BroadcastBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class Broadcast
+    {
+        @Param({"1", "4", "16"})
+        public int readers;
+
+        @Param({"0", "64"})
+        public int capacity;
+
+        ChannelOutput<Object> out;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            One2BroadcastChannel<Object> c = (capacity == 0)
+                    ? Channel.<Object>one2broadcast(readers)
+                    : Channel.one2broadcast(readers, new RingBuffer<Object>(capacity));
+            out = c.out();
+            for (int i = 0; i < readers; i++)
+            {
+                Pipes.sink(c.in(i));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            out.write(Pipes.STOP);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Deltas
+    {
+        @Param({"1", "4", "16"})
+        public int readers;
+
+        ChannelOutput<Object> out;
+
+        ProcessManager delta;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            One2OneChannel<Object> in = Channel.one2one();
+            One2OneChannel<Object>[] c = Channel.one2oneArray(readers);
+            ChannelOutput<Object>[] outs = Channel.getOutputArray(c);
+            for (int i = 0; i < readers; i++)
+                Pipes.sink(c[i].in());
+            out = in.out();
+            delta = new ProcessManager(new Delta<Object>(in.in(), outs));
+            delta.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            // stops the sinks; the Delta is left blocked on its (daemon) thread
+            out.write(Pipes.STOP);
+        }
+    }
+
+    private static final Object MESSAGE = new Object();
+
+    @Benchmark
+    public void broadcast(Broadcast s)
+    {
+        s.out.write(MESSAGE);
+    }
+
+    @Benchmark
+    public void delta(Deltas s)
+    {
+        s.out.write(MESSAGE);
+    }
+}
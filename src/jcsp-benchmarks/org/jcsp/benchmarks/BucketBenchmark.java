@@ -0,0 +1,115 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jcsp.lang.Bucket;
+import org.jcsp.lang.CSProcess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Flushing a {@link Bucket}.
+ * <P>
+ * Partner processes repeatedly fall into the bucket; each operation waits until all of
+ * them are held and then flushes them out, which is one complete cycle.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class BucketBenchmark
+{
+    @Param({"1", "4", "16"})
+    public int processes;
+
+    private Bucket bucket;
+
+    private volatile boolean running;
+
+    private final AtomicInteger alive = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        bucket = new Bucket();
+        running = true;
+        alive.set(processes);
+        for (int i = 0; i < processes; i++)
+        {
+            Pipes.start(new CSProcess()
+            {
+                public void run()
+                {
+                    while (running)
+                    {
+                        bucket.fallInto();
+                    }
+                    alive.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        running = false;
+        while (alive.get() > 0)
+        {
+            bucket.flush();
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    public int cycle()
+    {
+        while (bucket.holding() < processes)
+        {
+            Thread.yield();
+        }
+        return bucket.flush();
+    }
+}
@@ -0,0 +1,353 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.BulkChannelInput;
+import org.jcsp.lang.BulkChannelOutput;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.util.Buffer;
+import org.jcsp.util.ChannelDataStore;
+import org.jcsp.util.InfiniteBuffer;
+import org.jcsp.util.OverFlowingBuffer;
+import org.jcsp.util.OverWriteOldestBuffer;
+import org.jcsp.util.OverWritingBuffer;
+import org.jcsp.util.RingBuffer;
+import org.jcsp.util.ZeroBuffer;
+import org.jcsp.util.ints.BufferInt;
+import org.jcsp.util.ints.ChannelDataStoreInt;
+import org.jcsp.util.ints.InfiniteBufferInt;
+import org.jcsp.util.ints.OverFlowingBufferInt;
+import org.jcsp.util.ints.OverWriteOldestBufferInt;
+import org.jcsp.util.ints.OverWritingBufferInt;
+import org.jcsp.util.ints.RingBufferInt;
+import org.jcsp.util.ints.ZeroBufferInt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Buffered object and int channels, with each of the <TT>org.jcsp.util</TT>
+ * (and <TT>org.jcsp.util.ints</TT>) buffer plugins.
+ * <P>
+ * Each benchmark measures the throughput of one-way communication to a sink process.
+ * The <TT>store</TT> parameter names the object buffer class; the corresponding
+ * <TT>...Int</TT> class is used for int channels.  A <TT>one2one</TT> channel with
+ * a <TT>RingBuffer</TT> is the lock-free ring channel, an <TT>any2one</TT>
+ * channel with one is the lock-free multi-writer ring channel, and <TT>one2any</TT>
+ * and <TT>any2any</TT> channels with one are the lock-free farm ring channel.
+ * <P>
+ * <TT>receiveFanIn</TT> measures the throughput of one reader fed by <TT>writers</TT>
+ * processes through an <TT>any2one</TT> channel.  <TT>sendFanOut</TT> measures the
+ * throughput of one writer feeding <TT>workers</TT> sink processes through a
+ * <TT>one2any</TT> channel.
+ * <P>
+ * <TT>sendBatch</TT> measures the same traffic moved with the bulk
+ * {@link BulkChannelOutput#write(Object[], int, int)} and
+ * {@link BulkChannelInput#drainTo(Object[], int)} operations, {@link #BATCH} at a time
+ * (the score is per message, so it compares directly with <TT>send</TT>).
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BufferedChannelBenchmark
+{
+    static ChannelDataStore<Object> store(String name, int capacity)
+    {
+        if (name.equals("Buffer"))
+            return new Buffer<Object>(capacity);
+        if (name.equals("InfiniteBuffer"))
+            return new InfiniteBuffer<Object>(capacity);
+        if (name.equals("OverFlowingBuffer"))
+            return new OverFlowingBuffer<Object>(capacity);
+        if (name.equals("OverWriteOldestBuffer"))
+            return new OverWriteOldestBuffer<Object>(capacity);
+        if (name.equals("OverWritingBuffer"))
+            return new OverWritingBuffer<Object>(capacity);
+        if (name.equals("ZeroBuffer"))
+            return new ZeroBuffer<Object>();
+        if (name.equals("RingBuffer"))
+            return new RingBuffer<Object>(capacity);
+        throw new IllegalArgumentException("Unknown buffer: " + name);
+    }
+
+    static ChannelDataStoreInt storeInt(String name, int capacity)
+    {
+        if (name.equals("Buffer"))
+            return new BufferInt(capacity);
+        if (name.equals("InfiniteBuffer"))
+            return new InfiniteBufferInt(capacity);
+        if (name.equals("OverFlowingBuffer"))
+            return new OverFlowingBufferInt(capacity);
+        if (name.equals("OverWriteOldestBuffer"))
+            return new OverWriteOldestBufferInt(capacity);
+        if (name.equals("OverWritingBuffer"))
+            return new OverWritingBufferInt(capacity);
+        if (name.equals("ZeroBuffer"))
+            return new ZeroBufferInt();
+        if (name.equals("RingBuffer"))
+            return new RingBufferInt(capacity);
+        throw new IllegalArgumentException("Unknown buffer: " + name);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Objects
+    {
+        @Param({"one2one", "any2one", "one2any", "any2any"})
+        public String kind;
+
+        @Param({"Buffer", "InfiniteBuffer", "OverFlowingBuffer", "OverWriteOldestBuffer",
+                "OverWritingBuffer", "ZeroBuffer", "RingBuffer"})
+        public String store;
+
+        @Param({"64"})
+        public int capacity;
+
+        Pipes.Pipe c;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            c = Pipes.pipe(kind, store(store, capacity));
+            Pipes.sink(c.in);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            c.out.write(Pipes.STOP);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Ints
+    {
+        @Param({"one2one", "any2one", "one2any", "any2any"})
+        public String kind;
+
+        @Param({"Buffer", "InfiniteBuffer", "OverFlowingBuffer", "OverWriteOldestBuffer",
+                "OverWritingBuffer", "ZeroBuffer", "RingBuffer"})
+        public String store;
+
+        @Param({"64"})
+        public int capacity;
+
+        Pipes.PipeInt c;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            c = Pipes.pipeInt(kind, storeInt(store, capacity));
+            Pipes.sinkInt(c.in);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            c.out.write(Pipes.STOP_INT);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Batches
+    {
+        @Param({"one2one", "any2one", "one2any", "any2any"})
+        public String kind;
+
+        @Param({"Buffer", "InfiniteBuffer", "RingBuffer"})
+        public String store;
+
+        @Param({"64"})
+        public int capacity;
+
+        BulkChannelOutput<Object> out;
+
+        final Object[] batch = new Object[BATCH];
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            Pipes.Pipe c = Pipes.pipe(kind, store(store, capacity));
+            out = Channel.getBulkOutput(c.out);
+            Pipes.drainingSink(Channel.getBulkInput(c.in), capacity + 1);
+            Arrays.fill(batch, MESSAGE);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            out.write(Pipes.STOP);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FanIn
+    {
+        @Param({"Buffer", "RingBuffer"})
+        public String store;
+
+        @Param({"1", "4", "16"})
+        public int writers;
+
+        @Param({"64"})
+        public int capacity;
+
+        AltingChannelInput<Object> in;
+
+        volatile boolean running;
+
+        final AtomicInteger stopped = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            Pipes.Pipe c = Pipes.pipe("any2one", store(store, capacity));
+            in = (AltingChannelInput<Object>) c.in;
+            running = true;
+            for (int i = 0; i < writers; i++)
+            {
+                final ChannelOutput<Object> out = c.out;
+                Pipes.start(new CSProcess()
+                {
+                    public void run()
+                    {
+                        while (running)
+                        {
+                            out.write(MESSAGE);
+                        }
+                        stopped.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            running = false;
+            while (stopped.get() < writers)
+            {
+                while (in.pending())
+                {
+                    in.read();
+                }
+                Thread.yield();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FanOut
+    {
+        @Param({"Buffer", "RingBuffer"})
+        public String store;
+
+        @Param({"1", "4", "32"})
+        public int workers;
+
+        @Param({"64"})
+        public int capacity;
+
+        Pipes.Pipe c;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            c = Pipes.pipe("one2any", store(store, capacity));
+            for (int i = 0; i < workers; i++)
+            {
+                Pipes.sink(c.in);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            for (int i = 0; i < workers; i++)
+            {
+                c.out.write(Pipes.STOP);
+            }
+        }
+    }
+
+    static final int BATCH = 16;
+
+    private static final Object MESSAGE = new Object();
+
+    @Benchmark
+    public void send(Objects s)
+    {
+        s.c.out.write(MESSAGE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void sendBatch(Batches s)
+    {
+        s.out.write(s.batch, 0, BATCH);
+    }
+
+    @Benchmark
+    public Object receiveFanIn(FanIn s)
+    {
+        return s.in.read();
+    }
+
+    @Benchmark
+    public void sendFanOut(FanOut s)
+    {
+        s.c.out.write(MESSAGE);
+    }
+
+    @Benchmark
+    public void sendInt(Ints s)
+    {
+        s.c.out.write(42);
+    }
+}
@@ -0,0 +1,239 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.lang.Any2AnyCallChannel;
+import org.jcsp.lang.Any2AnyDirectCallChannel;
+import org.jcsp.lang.Any2OneCallChannel;
+import org.jcsp.lang.Any2OneDirectCallChannel;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.DirectCall;
+import org.jcsp.lang.One2AnyCallChannel;
+import org.jcsp.lang.One2OneCallChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Round trips over CALL channels.
+ * <P>
+ * Each operation is one call by the benchmark thread, accepted by a server process.
+ * The <TT>Direct</TT> kinds hand the call to the server, which carries it out.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CallChannelBenchmark
+{
+    /** The interface offered by the CALL channels */
+    public interface Echo
+    {
+        public int echo(int x);
+    }
+
+    static class One2OneEchoChannel extends One2OneCallChannel implements Echo
+    {
+        public int echo(int x)
+        {
+            join();
+            final int result = ((Echo) server).echo(x);
+            fork();
+            return result;
+        }
+    }
+
+    static class Any2OneEchoChannel extends Any2OneCallChannel implements Echo
+    {
+        public int echo(int x)
+        {
+            join();
+            final int result = ((Echo) server).echo(x);
+            fork();
+            return result;
+        }
+    }
+
+    static class One2AnyEchoChannel extends One2AnyCallChannel implements Echo
+    {
+        public int echo(int x)
+        {
+            join();
+            final int result = ((Echo) server).echo(x);
+            fork();
+            return result;
+        }
+    }
+
+    static class Any2AnyEchoChannel extends Any2AnyCallChannel implements Echo
+    {
+        public int echo(int x)
+        {
+            join();
+            final int result = ((Echo) server).echo(x);
+            fork();
+            return result;
+        }
+    }
+
+    /** The call made over the direct CALL channels */
+    static class EchoCall extends DirectCall
+    {
+        int x;
+        int result;
+
+        protected void run(CSProcess server)
+        {
+            result = ((Echo) server).echo(x);
+        }
+    }
+
+    static class Any2OneDirectEchoChannel extends Any2OneDirectCallChannel implements Echo
+    {
+        public int echo(int x)
+        {
+            final EchoCall call = new EchoCall();
+            call.x = x;
+            call(call);
+            return call.result;
+        }
+    }
+
+    static class Any2AnyDirectEchoChannel extends Any2AnyDirectCallChannel implements Echo
+    {
+        public int echo(int x)
+        {
+            final EchoCall call = new EchoCall();
+            call.x = x;
+            call(call);
+            return call.result;
+        }
+    }
+
+    /** Accepts calls until it is called with {@link Pipes#STOP_INT} */
+    static abstract class Server implements CSProcess, Echo
+    {
+        private volatile boolean running = true;
+
+        public int echo(int x)
+        {
+            if (x == Pipes.STOP_INT)
+            {
+                running = false;
+            }
+            return x;
+        }
+
+        public void run()
+        {
+            while (running)
+            {
+                accept();
+            }
+        }
+
+        abstract void accept();
+    }
+
+    @Param({"one2one", "any2one", "one2any", "any2any", "any2oneDirect", "any2anyDirect"})
+    public String kind;
+
+    private Echo client;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        if (kind.equals("one2one"))
+        {
+            final One2OneEchoChannel c = new One2OneEchoChannel();
+            client = c;
+            Pipes.start(new Server() { void accept() { c.accept(this); } });
+        }
+        else if (kind.equals("any2one"))
+        {
+            final Any2OneEchoChannel c = new Any2OneEchoChannel();
+            client = c;
+            Pipes.start(new Server() { void accept() { c.accept(this); } });
+        }
+        else if (kind.equals("one2any"))
+        {
+            final One2AnyEchoChannel c = new One2AnyEchoChannel();
+            client = c;
+            Pipes.start(new Server() { void accept() { c.accept(this); } });
+        }
+        else if (kind.equals("any2any"))
+        {
+            final Any2AnyEchoChannel c = new Any2AnyEchoChannel();
+            client = c;
+            Pipes.start(new Server() { void accept() { c.accept(this); } });
+        }
+        else if (kind.equals("any2oneDirect"))
+        {
+            final Any2OneDirectEchoChannel c = new Any2OneDirectEchoChannel();
+            client = c;
+            Pipes.start(new Server() { void accept() { c.accept(this); } });
+        }
+        else if (kind.equals("any2anyDirect"))
+        {
+            final Any2AnyDirectEchoChannel c = new Any2AnyDirectEchoChannel();
+            client = c;
+            Pipes.start(new Server() { void accept() { c.accept(this); } });
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown channel kind: " + kind);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        client.echo(Pipes.STOP_INT);
+    }
+
+    @Benchmark
+    public int call()
+    {
+        return client.echo(42);
+    }
+}
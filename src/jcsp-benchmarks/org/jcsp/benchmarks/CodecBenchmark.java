@@ -0,0 +1,130 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+
+package org.jcsp.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.net2.CodecNetworkMessageFilter;
+import org.jcsp.net2.NetworkMessageFilter;
+import org.jcsp.net2.ObjectNetworkMessageFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding of net2 messages by the message filters.
+ * <P>
+ * Each operation encodes one message with the filter's TX side and decodes it again with the RX side. No network is
+ * involved.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CodecBenchmark
+{
+    /** A small message type, sent by {@link CodecNetworkMessageFilter.SchemaCodec} */
+    public static class Point implements java.io.Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        int x;
+
+        int y;
+
+        String label;
+    }
+
+    static
+    {
+        CodecNetworkMessageFilter.getDefaultRegistry().register(CodecNetworkMessageFilter.FIRST_CODEC_ID,
+                Point.class, new CodecNetworkMessageFilter.SchemaCodec(Point.class, new String[] { "x", "y", "label" }));
+    }
+
+    /** The filter used: the existing serializing filter, or the codec filter */
+    @Param({ "object", "codec" })
+    public String filter;
+
+    /** The message sent */
+    @Param({ "Integer", "String", "Point", "int[]" })
+    public String message;
+
+    private NetworkMessageFilter.FilterTx tx;
+
+    private NetworkMessageFilter.FilterRx rx;
+
+    private Object value;
+
+    @Setup
+    public void setup()
+    {
+        if (filter.equals("object"))
+        {
+            tx = new ObjectNetworkMessageFilter.FilterTX();
+            rx = new ObjectNetworkMessageFilter.FilterRX();
+        }
+        else
+        {
+            tx = new CodecNetworkMessageFilter.FilterTX();
+            rx = new CodecNetworkMessageFilter.FilterRX();
+        }
+        if (message.equals("Integer"))
+            value = Integer.valueOf(123456);
+        else if (message.equals("String"))
+            value = "a short string message";
+        else if (message.equals("Point"))
+        {
+            Point p = new Point();
+            p.x = 3;
+            p.y = 4;
+            p.label = "p";
+            value = p;
+        }
+        else
+            value = new int[16];
+    }
+
+    @Benchmark
+    public Object roundTrip() throws IOException
+    {
+        return rx.filterRX(tx.filterTX(value));
+    }
+}
@@ -0,0 +1,177 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.lang.Any2OneConnection;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelInput;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.Connection;
+import org.jcsp.lang.ConnectionClient;
+import org.jcsp.lang.ConnectionServer;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.One2OneConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Round trips over connections, against a pair of channels.
+ * <P>
+ * Each operation is one request by the benchmark thread and its reply from a server
+ * process, which closes the connection.  The <TT>channels</TT> kind does the same
+ * over a request and a reply <TT>One2OneChannel</TT>.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ConnectionBenchmark
+{
+    private static final Integer REQUEST = Integer.valueOf(42);
+
+    private static final Integer STOP = Integer.valueOf(Pipes.STOP_INT);
+
+    @Param({"channels", "one2one", "any2one", "one2oneDirect", "any2oneDirect"})
+    public String kind;
+
+    private ConnectionClient<Integer> client;
+
+    private ChannelOutput<Integer> request;
+
+    private ChannelInput<Integer> reply;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        if (kind.equals("channels"))
+        {
+            final One2OneChannel<Integer> toServer = Channel.one2one();
+            final One2OneChannel<Integer> fromServer = Channel.one2one();
+            request = toServer.out();
+            reply = fromServer.in();
+            Pipes.start(new CSProcess()
+            {
+                public void run()
+                {
+                    final ChannelInput<Integer> in = toServer.in();
+                    final ChannelOutput<Integer> out = fromServer.out();
+                    Integer x;
+                    do
+                    {
+                        x = in.read();
+                        out.write(x);
+                    }
+                    while (x.intValue() != Pipes.STOP_INT);
+                }
+            });
+            return;
+        }
+        final ConnectionServer<Integer> server;
+        if (kind.equals("one2one"))
+        {
+            final One2OneConnection<Integer> c = Connection.createOne2One();
+            client = c.client();
+            server = c.server();
+        }
+        else if (kind.equals("any2one"))
+        {
+            final Any2OneConnection<Integer> c = Connection.createAny2One();
+            client = c.client();
+            server = c.server();
+        }
+        else if (kind.equals("one2oneDirect"))
+        {
+            final One2OneConnection<Integer> c = Connection.createDirectOne2One();
+            client = c.client();
+            server = c.server();
+        }
+        else if (kind.equals("any2oneDirect"))
+        {
+            final Any2OneConnection<Integer> c = Connection.createDirectAny2One();
+            client = c.client();
+            server = c.server();
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown connection kind: " + kind);
+        }
+        Pipes.start(new CSProcess()
+        {
+            public void run()
+            {
+                Integer x;
+                do
+                {
+                    x = server.request();
+                    server.replyAndClose(x);
+                }
+                while (x.intValue() != Pipes.STOP_INT);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        roundTrip(STOP);
+    }
+
+    @Benchmark
+    public Integer roundTrip()
+    {
+        return roundTrip(REQUEST);
+    }
+
+    private Integer roundTrip(Integer x)
+    {
+        if (client == null)
+        {
+            request.write(x);
+            return reply.read();
+        }
+        client.request(x);
+        return client.reply();
+    }
+}
@@ -0,0 +1,145 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.lang.AtomicCrew;
+import org.jcsp.lang.Crew;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read and write sections of a {@link Crew} and of an {@link AtomicCrew}.
+ * <P>
+ * <TT>read</TT> and <TT>write</TT> measure an uncontended section;
+ * the <TT>mixed</TT> group runs three readers against one writer on a shared <TT>Crew</TT>.
+ * The <TT>atomic</TT> benchmarks do the same with an <TT>AtomicCrew</TT>, and
+ * <TT>optimisticRead</TT> measures an optimistic read section of one.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CrewBenchmark
+{
+    @State(Scope.Thread)
+    public static class Private
+    {
+        final Crew crew = new Crew();
+        final AtomicCrew atomic = new AtomicCrew();
+    }
+
+    @State(Scope.Group)
+    public static class Shared
+    {
+        final Crew crew = new Crew();
+        final AtomicCrew atomic = new AtomicCrew();
+    }
+
+    @Benchmark
+    public void read(Private s)
+    {
+        s.crew.startRead();
+        s.crew.endRead();
+    }
+
+    @Benchmark
+    public void write(Private s)
+    {
+        s.crew.startWrite();
+        s.crew.endWrite();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void mixedRead(Shared s)
+    {
+        s.crew.startRead();
+        s.crew.endRead();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite(Shared s)
+    {
+        s.crew.startWrite();
+        s.crew.endWrite();
+    }
+
+    @Benchmark
+    public void atomicRead(Private s)
+    {
+        s.atomic.startRead();
+        s.atomic.endRead();
+    }
+
+    @Benchmark
+    public void atomicWrite(Private s)
+    {
+        s.atomic.startWrite();
+        s.atomic.endWrite();
+    }
+
+    @Benchmark
+    public boolean optimisticRead(Private s)
+    {
+        return s.atomic.validate(s.atomic.tryOptimisticRead());
+    }
+
+    @Benchmark
+    @Group("atomicMixed")
+    @GroupThreads(3)
+    public void atomicMixedRead(Shared s)
+    {
+        s.atomic.startRead();
+        s.atomic.endRead();
+    }
+
+    @Benchmark
+    @Group("atomicMixed")
+    @GroupThreads(1)
+    public void atomicMixedWrite(Shared s)
+    {
+        s.atomic.startWrite();
+        s.atomic.endWrite();
+    }
+}
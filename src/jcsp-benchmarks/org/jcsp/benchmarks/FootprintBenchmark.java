@@ -0,0 +1,195 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.Any2OneChannel;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelInput;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.ProcessManager;
+
+/**
+ * Heap taken by channels and by processes.
+ * <P>
+ * This is not a JMH benchmark, as it measures space rather than time.  Run it as
+ * <PRE>
+ *   java org.jcsp.benchmarks.FootprintBenchmark [channels] [processes]
+ * </PRE>
+ * For each kind of one-one channel it reports:
+ * <UL>
+ *   <LI>the bytes per channel: a channel and the ends got from it, as held by a network
+ *       that keeps only the ends;
+ *   <LI>the bytes per process: a process blocked reading from its own channel, with its
+ *       {@link ProcessManager} and thread.  The channels are made beforehand, so this
+ *       is what running a process adds.  Thread stacks are outside the heap and are not
+ *       counted (virtual thread stacks are on the heap and are).
+ * </UL>
+ * The heap is measured after repeated garbage collections, so small differences
+ * are noise.  The defaults are 1000000 channels and 2000 processes.
+ */
+public class FootprintBenchmark
+{
+    static final String[] KINDS = {"one2one", "any2one", "one2oneSpinning", "one2oneCompact"};
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        final int channels = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        final int processes = (args.length > 1) ? Integer.parseInt(args[1]) : 2000;
+        System.out.println("kind                 bytes/channel  bytes/process");
+        for (int i = 0; i < KINDS.length; i++)
+        {
+            final double perChannel = bytesPerChannel(KINDS[i], channels);
+            final double perProcess = bytesPerProcess(KINDS[i], processes);
+            System.out.println(String.format("%-20s %13.1f %14.1f", KINDS[i], perChannel, perProcess));
+        }
+    }
+
+    static One2OneChannel<Object> channel(String kind)
+    {
+        if (kind.equals("one2one"))
+        {
+            return Channel.one2one();
+        }
+        else if (kind.equals("one2oneSpinning"))
+        {
+            return Channel.one2oneSpinning();
+        }
+        else if (kind.equals("one2oneCompact"))
+        {
+            return Channel.one2oneCompact();
+        }
+        throw new IllegalArgumentException("Unknown channel kind: " + kind);
+    }
+
+    static double bytesPerChannel(String kind, int n) throws InterruptedException
+    {
+        final ChannelInput<Object>[] in = new ChannelInput[n];
+        final ChannelOutput<Object>[] out = new ChannelOutput[n];
+        final long before = usedHeap();
+        if (kind.equals("any2one"))
+        {
+            for (int i = 0; i < n; i++)
+            {
+                final Any2OneChannel<Object> c = Channel.any2one();
+                in[i] = c.in();
+                out[i] = c.out();
+            }
+        }
+        else
+        {
+            for (int i = 0; i < n; i++)
+            {
+                final One2OneChannel<Object> c = channel(kind);
+                in[i] = c.in();
+                out[i] = c.out();
+            }
+        }
+        final long after = usedHeap();
+        // keep the ends reachable until measured
+        if ((in[n - 1] == null) || (out[n - 1] == null))
+        {
+            throw new IllegalStateException();
+        }
+        return (double) (after - before) / n;
+    }
+
+    static double bytesPerProcess(String kind, int n) throws InterruptedException
+    {
+        final AltingChannelInput<Object>[] in = new AltingChannelInput[n];
+        final ChannelOutput<Object>[] out = new ChannelOutput[n];
+        for (int i = 0; i < n; i++)
+        {
+            if (kind.equals("any2one"))
+            {
+                final Any2OneChannel<Object> c = Channel.any2one();
+                in[i] = c.in();
+                out[i] = c.out();
+            }
+            else
+            {
+                final One2OneChannel<Object> c = channel(kind);
+                in[i] = c.in();
+                out[i] = c.out();
+            }
+        }
+        final ProcessManager[] managers = new ProcessManager[n];
+        final AtomicInteger reading = new AtomicInteger();
+        final long before = usedHeap();
+        for (int i = 0; i < n; i++)
+        {
+            final ChannelInput<Object> cell = in[i];
+            managers[i] = new ProcessManager(new CSProcess()
+            {
+                public void run()
+                {
+                    reading.incrementAndGet();
+                    cell.read();
+                }
+            });
+            managers[i].start();
+        }
+        while (reading.get() < n)
+        {
+            Thread.sleep(10);
+        }
+        final long after = usedHeap();
+        for (int i = 0; i < n; i++)
+        {
+            out[i].write(Pipes.STOP);
+            managers[i].join();
+        }
+        return (double) (after - before) / n;
+    }
+
+    /**
+     * Returns the heap in use once garbage collection has stopped freeing any.
+     */
+    static long usedHeap() throws InterruptedException
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        for (int i = 0; i < 10; i++)
+        {
+            System.gc();
+            Thread.sleep(50);
+            final long now = runtime.totalMemory() - runtime.freeMemory();
+            if ((i >= 3) && (now >= used))
+            {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
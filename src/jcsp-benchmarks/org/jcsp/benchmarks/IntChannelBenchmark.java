@@ -0,0 +1,116 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Zero-buffered int channels: the int counterpart of {@link ChannelBenchmark}.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IntChannelBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class OneWay
+    {
+        @Param({"one2one", "any2one", "one2any", "any2any"})
+        public String kind;
+
+        Pipes.PipeInt c;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            c = Pipes.pipeInt(kind, null);
+            Pipes.sinkInt(c.in);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            c.out.write(Pipes.STOP_INT);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Echo
+    {
+        @Param({"one2one", "any2one", "one2any", "any2any"})
+        public String kind;
+
+        Pipes.PipeInt request, reply;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            request = Pipes.pipeInt(kind, null);
+            reply = Pipes.pipeInt(kind, null);
+            Pipes.echoInt(request.in, reply.out);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            request.out.write(Pipes.STOP_INT);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void send(OneWay s)
+    {
+        s.c.out.write(42);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int roundTrip(Echo s)
+    {
+        s.request.out.write(42);
+        return s.reply.in.read();
+    }
+}
@@ -0,0 +1,123 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+
+package org.jcsp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.Parallel;
+import org.jcsp.lang.ProcessPool;
+import org.jcsp.lang.Skip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The fixed cost of running a {@link Parallel} of <TT>processes</TT> processes that
+ * do nothing.
+ * <P>
+ * <TT>rerun</TT> runs the same <TT>Parallel</TT> repeatedly; <TT>fresh</TT> builds a
+ * new one for each run, as a process that composes its sub-processes on the fly
+ * would.  With the <TT>threads</TT> executor the <TT>Parallel</TT> uses threads of its
+ * own (released after each fresh run); with <TT>pool</TT> it uses the shared
+ * {@link ProcessPool}.
+ */
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class Processes
+    {
+        @Param({"threads", "pool"})
+        public String executor;
+
+        @Param({"2", "8"})
+        public int processes;
+
+        CSProcess[] body;
+
+        Parallel par;
+
+        @Setup(Level.Trial)
+        public void setup()
+        {
+            body = new CSProcess[processes];
+            for (int i = 0; i < processes; i++)
+            {
+                body[i] = new Skip();
+            }
+            par = make();
+        }
+
+        Parallel make()
+        {
+            Parallel p = new Parallel(body);
+            if (executor.equals("pool"))
+            {
+                p.setExecutor(ProcessPool.getShared());
+            }
+            return p;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            par.releaseAllThreads();
+        }
+    }
+
+    @Benchmark
+    public void rerun(Processes s)
+    {
+        s.par.run();
+    }
+
+    @Benchmark
+    public void fresh(Processes s)
+    {
+        Parallel p = s.make();
+        p.run();
+        p.releaseAllThreads();
+    }
+}
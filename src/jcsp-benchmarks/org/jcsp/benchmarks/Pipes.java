@@ -0,0 +1,305 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.benchmarks;
+
+import org.jcsp.lang.Any2AnyChannel;
+import org.jcsp.lang.Any2AnyChannelInt;
+import org.jcsp.lang.Any2OneChannel;
+import org.jcsp.lang.Any2OneChannelInt;
+import org.jcsp.lang.BulkChannelInput;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelInput;
+import org.jcsp.lang.ChannelInputInt;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.ChannelOutputInt;
+import org.jcsp.lang.One2AnyChannel;
+import org.jcsp.lang.One2AnyChannelInt;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.One2OneChannelInt;
+import org.jcsp.lang.ProcessManager;
+import org.jcsp.util.ChannelDataStore;
+import org.jcsp.util.RingBuffer;
+import org.jcsp.util.ints.ChannelDataStoreInt;
+import org.jcsp.util.ints.RingBufferInt;
+
+/**
+ * Channels and partner processes shared by the benchmarks.
+ * <P>
+ * The benchmark thread drives one end of a channel (or channel pair); the other end is
+ * served by a partner process running under a {@link ProcessManager}.  At tear-down the
+ * benchmark writes a {@link #STOP} (or {@link #STOP_INT}) sentinel, on which the partner
+ * terminates.
+ */
+final class Pipes
+{
+    /** The sentinel terminating a partner process */
+    static final Object STOP = new Object();
+
+    /** The sentinel terminating an int partner process */
+    static final int STOP_INT = Integer.MIN_VALUE;
+
+    /** The channel kinds accepted by {@link #pipe(String, ChannelDataStore)} */
+    static final String KINDS = "one2one, any2one, one2any, any2any, one2oneSpinning, one2anyFarm, any2anyFarm";
+
+    private Pipes()
+    {
+        //this class should not be instantiated
+    }
+
+    /** The two ends of an object channel */
+    static final class Pipe
+    {
+        final ChannelOutput<Object> out;
+        final ChannelInput<Object> in;
+
+        Pipe(ChannelOutput<Object> out, ChannelInput<Object> in)
+        {
+            this.out = out;
+            this.in = in;
+        }
+    }
+
+    /** The two ends of an int channel */
+    static final class PipeInt
+    {
+        final ChannelOutputInt out;
+        final ChannelInputInt in;
+
+        PipeInt(ChannelOutputInt out, ChannelInputInt in)
+        {
+            this.out = out;
+            this.in = in;
+        }
+    }
+
+    /**
+     * Constructs an object channel.
+     *
+     * @param kind one of {@link #KINDS}.
+     * @param buffer the buffer for the channel, or null for a zero-buffered channel.
+     */
+    static Pipe pipe(String kind, ChannelDataStore<Object> buffer)
+    {
+        if (kind.equals("one2one") && (buffer instanceof RingBuffer))
+        {
+            One2OneChannel<Object> c = Channel.one2one((RingBuffer<Object>) buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("one2one"))
+        {
+            One2OneChannel<Object> c = (buffer == null) ? Channel.<Object>one2one() : Channel.one2one(buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("any2one") && (buffer instanceof RingBuffer))
+        {
+            Any2OneChannel<Object> c = Channel.any2oneRing((RingBuffer<Object>) buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("any2one"))
+        {
+            Any2OneChannel<Object> c = (buffer == null) ? Channel.<Object>any2one() : Channel.any2one(buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("one2any") && (buffer instanceof RingBuffer))
+        {
+            One2AnyChannel<Object> c = Channel.one2anyRing((RingBuffer<Object>) buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("one2any"))
+        {
+            One2AnyChannel<Object> c = (buffer == null) ? Channel.<Object>one2any() : Channel.one2any(buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("any2any") && (buffer instanceof RingBuffer))
+        {
+            Any2AnyChannel<Object> c = Channel.any2anyRing((RingBuffer<Object>) buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("any2any"))
+        {
+            Any2AnyChannel<Object> c = (buffer == null) ? Channel.<Object>any2any() : Channel.any2any(buffer);
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("one2oneSpinning") && (buffer == null))
+        {
+            One2OneChannel<Object> c = Channel.<Object>one2oneSpinning();
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("one2anyFarm") && (buffer == null))
+        {
+            One2AnyChannel<Object> c = Channel.<Object>one2anyFarm();
+            return new Pipe(c.out(), c.in());
+        }
+        if (kind.equals("any2anyFarm") && (buffer == null))
+        {
+            Any2AnyChannel<Object> c = Channel.<Object>any2anyFarm();
+            return new Pipe(c.out(), c.in());
+        }
+        throw new IllegalArgumentException("Unknown channel kind: " + kind);
+    }
+
+    /**
+     * Constructs an int channel.
+     *
+     * @param kind one of <TT>one2one</TT>, <TT>any2one</TT>, <TT>one2any</TT> or <TT>any2any</TT>.
+     * @param buffer the buffer for the channel, or null for a zero-buffered channel.
+     */
+    static PipeInt pipeInt(String kind, ChannelDataStoreInt buffer)
+    {
+        if (kind.equals("one2one") && (buffer instanceof RingBufferInt))
+        {
+            One2OneChannelInt c = Channel.one2oneInt((RingBufferInt) buffer);
+            return new PipeInt(c.out(), c.in());
+        }
+        if (kind.equals("one2one"))
+        {
+            One2OneChannelInt c = (buffer == null) ? Channel.one2oneInt() : Channel.one2oneInt(buffer);
+            return new PipeInt(c.out(), c.in());
+        }
+        if (kind.equals("any2one"))
+        {
+            Any2OneChannelInt c = (buffer == null) ? Channel.any2oneInt() : Channel.any2oneInt(buffer);
+            return new PipeInt(c.out(), c.in());
+        }
+        if (kind.equals("one2any"))
+        {
+            One2AnyChannelInt c = (buffer == null) ? Channel.one2anyInt() : Channel.one2anyInt(buffer);
+            return new PipeInt(c.out(), c.in());
+        }
+        if (kind.equals("any2any"))
+        {
+            Any2AnyChannelInt c = (buffer == null) ? Channel.any2anyInt() : Channel.any2anyInt(buffer);
+            return new PipeInt(c.out(), c.in());
+        }
+        throw new IllegalArgumentException("Unknown channel kind: " + kind);
+    }
+
+    /**
+     * Starts a process that reads (and discards) objects until it reads {@link #STOP}.
+     */
+    static void sink(final ChannelInput<Object> in)
+    {
+        start(new CSProcess()
+        {
+            public void run()
+            {
+                while (in.read() != STOP)
+                {
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts a process that drains batches of objects (and discards them) until
+     * a batch contains {@link #STOP}.
+     */
+    static void drainingSink(final BulkChannelInput<Object> in, final int batch)
+    {
+        start(new CSProcess()
+        {
+            public void run()
+            {
+                final Object[] values = new Object[batch];
+                while (true)
+                {
+                    final int n = in.drainTo(values, batch);
+                    for (int i = 0; i < n; i++)
+                    {
+                        if (values[i] == STOP)
+                            return;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts a process that reads (and discards) ints until it reads {@link #STOP_INT}.
+     */
+    static void sinkInt(final ChannelInputInt in)
+    {
+        start(new CSProcess()
+        {
+            public void run()
+            {
+                while (in.read() != STOP_INT)
+                {
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts a process that copies objects from <TT>in</TT> to <TT>out</TT>
+     * until it reads {@link #STOP}.
+     */
+    static void echo(final ChannelInput<Object> in, final ChannelOutput<Object> out)
+    {
+        start(new CSProcess()
+        {
+            public void run()
+            {
+                Object x;
+                while ((x = in.read()) != STOP)
+                {
+                    out.write(x);
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts a process that copies ints from <TT>in</TT> to <TT>out</TT>
+     * until it reads {@link #STOP_INT}.
+     */
+    static void echoInt(final ChannelInputInt in, final ChannelOutputInt out)
+    {
+        start(new CSProcess()
+        {
+            public void run()
+            {
+                int x;
+                while ((x = in.read()) != STOP_INT)
+                {
+                    out.write(x);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a partner process concurrently with the benchmark.
+     */
+    static void start(CSProcess process)
+    {
+        new ProcessManager(process).start();
+    }
+}
@@ -0,0 +1,303 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.Threshold;
+
+/**
+ * This defines the Java Flight Recorder events of JCSP and records them for
+ * {@link FlightEvents}, which loads it by name on a Java platform with JFR.  It is
+ * built separately from the rest of JCSP, since it needs <TT>jdk.jfr</TT> (Java 11).
+ * <P>
+ * The events are in the category <TT>JCSP</TT>:
+ * <UL>
+ * <LI><TT>org.jcsp.ChannelRead</TT> and <TT>org.jcsp.ChannelWrite</TT>: a read or write
+ * that blocked for longer than the threshold (by default 10 ms), with the name of the channel end.
+ * <LI><TT>org.jcsp.AlternativeSelect</TT>: a selection that waited for longer than the
+ * threshold (by default 10 ms), with the name of the <TT>Alternative</TT>, its number of
+ * guards and the index of the one selected.
+ * <LI><TT>org.jcsp.BarrierSync</TT>: a barrier synchronisation that waited for longer than
+ * the threshold (by default 10 ms), with the name of the barrier.
+ * <LI><TT>org.jcsp.Poison</TT>: the poisoning of a channel through one of its ends,
+ * with the name of the end and the strength of the poison.
+ * <LI><TT>org.jcsp.ProcessStart</TT> and <TT>org.jcsp.ProcessRun</TT>: the start of a
+ * process run by a {@link Parallel} or {@link ProcessManager} and, when it terminates,
+ * the whole of its run, with the class of the process.
+ * </UL>
+ * The thresholds, like the other settings of the events, may be changed in the
+ * configuration of a recording.
+ */
+final class FlightRecording extends FlightEvents.Recorder
+{
+    @Name("org.jcsp.ChannelRead")
+    @Label("Channel Read")
+    @Category("JCSP")
+    @Description("A read that blocked waiting for a writer")
+    @Threshold("10 ms")
+    static final class ChannelRead extends Event
+    {
+        @Label("Channel")
+        String channel;
+
+        @Label("Extended")
+        @Description("Whether the read started an extended rendezvous")
+        boolean extended;
+    }
+
+    @Name("org.jcsp.ChannelWrite")
+    @Label("Channel Write")
+    @Category("JCSP")
+    @Description("A write that blocked waiting for a reader, or for room in the buffer")
+    @Threshold("10 ms")
+    static final class ChannelWrite extends Event
+    {
+        @Label("Channel")
+        String channel;
+    }
+
+    @Name("org.jcsp.AlternativeSelect")
+    @Label("Alternative Select")
+    @Category("JCSP")
+    @Description("A selection that waited for a guard to become ready")
+    @Threshold("10 ms")
+    static final class AlternativeSelect extends Event
+    {
+        @Label("Alternative")
+        String alternative;
+
+        @Label("Guards")
+        int guards;
+
+        @Label("Selected")
+        @Description("The index of the guard selected")
+        int selected;
+    }
+
+    @Name("org.jcsp.BarrierSync")
+    @Label("Barrier Sync")
+    @Category("JCSP")
+    @Description("A synchronisation that waited for the other processes enrolled on the barrier")
+    @Threshold("10 ms")
+    static final class BarrierSync extends Event
+    {
+        @Label("Barrier")
+        String barrier;
+    }
+
+    @Name("org.jcsp.Poison")
+    @Label("Poison")
+    @Category("JCSP")
+    @Description("The poisoning of a channel through one of its ends")
+    static final class Poison extends Event
+    {
+        @Label("Channel")
+        String channel;
+
+        @Label("Reader")
+        @Description("Whether the channel was poisoned through its reading end")
+        boolean reader;
+
+        @Label("Strength")
+        int strength;
+    }
+
+    @Name("org.jcsp.ProcessStart")
+    @Label("Process Start")
+    @Category("JCSP")
+    @Description("The start of a process")
+    static final class ProcessStart extends Event
+    {
+        @Label("Process")
+        String process;
+    }
+
+    @Name("org.jcsp.ProcessRun")
+    @Label("Process Run")
+    @Category("JCSP")
+    @Description("The run of a process, from its start to its termination")
+    static final class ProcessRun extends Event
+    {
+        @Label("Process")
+        String process;
+    }
+
+    FlightRecording()
+    {
+        //made by FlightEvents
+    }
+
+    /**
+     * Sets <TT>FlightEvents.recording</TT> whenever a recording starts or stops.
+     */
+    void install()
+    {
+        FlightRecorder.addListener(new FlightRecorderListener()
+        {
+            public void recorderInitialized(FlightRecorder recorder)
+            {
+                update(recorder);
+            }
+
+            public void recordingStateChanged(Recording recording)
+            {
+                update(FlightRecorder.getFlightRecorder());
+            }
+        });
+    }
+
+    private static void update(FlightRecorder recorder)
+    {
+        boolean running = false;
+        for (Recording r : recorder.getRecordings())
+        {
+            if (r.getState() == RecordingState.RUNNING)
+                running = true;
+        }
+        FlightEvents.recording = running;
+    }
+
+    <T> T read(Object end, ChannelInternals<T> channel, boolean extended)
+    {
+        final ChannelRead event = new ChannelRead();
+        event.begin();
+        final T value = extended ? channel.startRead() : channel.read();
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.channel = FlightEvents.nameOf(end);
+            event.extended = extended;
+            event.commit();
+        }
+        return value;
+    }
+
+    <T> void write(Object end, ChannelInternals<T> channel, T object)
+    {
+        final ChannelWrite event = new ChannelWrite();
+        event.begin();
+        channel.write(object);
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.channel = FlightEvents.nameOf(end);
+            event.commit();
+        }
+    }
+
+    void poison(Object end, boolean reader, int strength)
+    {
+        final Poison event = new Poison();
+        if (event.isEnabled())
+        {
+            event.channel = FlightEvents.nameOf(end);
+            event.reader = reader;
+            event.strength = strength;
+            event.commit();
+        }
+    }
+
+    Object startSelect()
+    {
+        final AlternativeSelect event = new AlternativeSelect();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    void selected(Object e, Alternative alt, int guards, int selected)
+    {
+        final AlternativeSelect event = (AlternativeSelect) e;
+        event.end();
+        if (event.shouldCommit())
+        {
+            final AlternativeMetrics metrics = alt.getMetrics();
+            event.alternative = (metrics != null) ? metrics.getName() : FlightEvents.nameOf(alt);
+            event.guards = guards;
+            event.selected = selected;
+            event.commit();
+        }
+    }
+
+    Object startSync()
+    {
+        final BarrierSync event = new BarrierSync();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    void synced(Object e, Barrier barrier)
+    {
+        final BarrierSync event = (BarrierSync) e;
+        event.end();
+        if (event.shouldCommit())
+        {
+            final BarrierMetrics metrics = barrier.getMetrics();
+            event.barrier = (metrics != null) ? metrics.getName() : FlightEvents.nameOf(barrier);
+            event.commit();
+        }
+    }
+
+    void run(CSProcess process)
+    {
+        final String name = process.getClass().getName();
+        final ProcessStart start = new ProcessStart();
+        if (start.isEnabled())
+        {
+            start.process = name;
+            start.commit();
+        }
+        final ProcessRun run = new ProcessRun();
+        run.begin();
+        try
+        {
+            process.run();
+        }
+        finally
+        {
+            run.end();
+            if (run.shouldCommit())
+            {
+                run.process = name;
+                run.commit();
+            }
+        }
+    }
+}
@@ -28,6 +28,10 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 //{{{  javadoc
 /**
  * This enables a process to wait passively for and choose
@@ -596,8 +600,26 @@ package org.jcsp.lang;
 
 public class Alternative
 {
-  /** The monitor synchronising the writers and alting reader */
+  /**
+   * The monitor that used to synchronise the writers and alting reader.
+   *
+   * @deprecated no longer used.  The writers and alting reader are now synchronised
+   * by a private <TT>java.util.concurrent</TT> lock, so holding this monitor does not
+   * exclude a guard from scheduling the selection.
+   */
   protected Object altMonitor = new Object ();
+
+  /**
+   * The lock synchronising the writers and alting reader.
+   * <P>
+   * A <TT>java.util.concurrent</TT> lock is used, rather than a Java monitor, so that
+   * a process running in a virtual thread does not pin its carrier thread while it
+   * waits for a guard to become ready (see {@link Parallel#setVirtualThreads(boolean)}).
+   */
+  private final ReentrantLock altLock;
+
+  /** The condition on which the alting process waits for a guard to become ready */
+  private final Condition altReady;
   
   private static final int enabling = 0;
   private static final int waiting = 1;
@@ -621,6 +643,13 @@ public class Alternative
 
   /** This indicates whether an AltingBarrier is one of the Guards. */
   private boolean barrierPresent;
+
+  /**
+   * This coordinates the enable and disable sequences of the Guards that are
+   * AltingBarriers (or are synchronised by them) with those of other Alternatives
+   * over the same barriers.  It is null if there are none.
+   */
+  private final AltingBarrierCoordinate coordinate;
   
   /** This flag is set by a successful AltingBarrier enable/disable. */
   private boolean barrierTrigger = false;
@@ -631,7 +660,7 @@ public class Alternative
   /**
    * This is the index variable used during the enable/disable sequences.
    * This has been made global to simplify the call-back (setTimeout) from
-   * a CSTimer that is being enabled.  That call-back sets the timeout, msecs
+   * a CSTimer that is being enabled.  That call-back sets the timeout, deadline
    * and timeIndex variables below.  The latter variable is needed only to
    * work around the bug that Java wait-with-timeouts sometimes return early.
    */
@@ -640,8 +669,18 @@ public class Alternative
   /** This flag is set if one of the enabled guards was a CSTimer guard. */
   private boolean timeout = false;
 
-  /** If one or more guards were CSTimers, this holds the earliest timeout. */
-  private long msecs;
+  /**
+   * If one or more guards were CSTimers, this holds the earliest timeout
+   * (as a <TT>System.nanoTime</TT> value).
+   */
+  private long deadline;
+
+  /**
+   * While the alting process waits with a timeout, this is the alarm set in the
+   * shared {@link TimerWheel}.  An alarm expiring after it has been replaced or
+   * cleared is ignored.
+   */
+  private Timeout timeoutAlarm = null;
 
   /**
    * If one or more guards were CSTimers, this holds the index of the one
@@ -649,6 +688,35 @@ public class Alternative
    */
   private int timeIndex;
 
+  /**
+   * For an <code>Alternative</code> that keeps its channel guards enabled between
+   * selections, this holds the {@link Registration} each such guard is enabled with.
+   * It is null for the other guards, and the array is null for an ordinary
+   * <code>Alternative</code>.
+   */
+  private final Registration[] registration;
+
+  /**
+   * A bit for each registered guard that has been scheduled since it was last checked.
+   * Set by the scheduling processes and cleared by the alting process.
+   */
+  private final AtomicLongArray readyBits;
+
+  /** The indices, in order, of the guards enabled and disabled on every select. */
+  private final int[] transientGuard;
+
+  /** The number of entries of transientGuard enabled by the last enable sequence. */
+  private int transientEnabled;
+
+  /** The indices of registered guards that must be enabled again before the next select. */
+  private final int[] stale;
+
+  /** The number of indices held in stale. */
+  private int staleCount;
+
+  /** The metrics recording the selections, or null if they are not measured. */
+  private AlternativeMetrics metrics = null;
+
   /**
    * Construct an <code>Alternative</code> object operating on the {@link Guard}
    * array of events.  Supported guard events are channel inputs
@@ -660,19 +728,89 @@ public class Alternative
    *
    * @param guard the event guards over which the select operations will be made.
    */
-    public Alternative(final Guard[] guard)
-    {
-    	this.guard = guard;
-	    for (int i = 0; i < guard.length; i++)
-	    {
-	        if (guard[i] instanceof MultiwaySynchronisation)
-	    	{
-		        barrierPresent = true;
-				return;
-      		}
-    	}
-	    barrierPresent = false;
-	}
+  public Alternative (final Guard[] guard) {
+    this (guard, false);
+  }
+
+  /**
+   * Construct an <code>Alternative</code> object operating on the {@link Guard}
+   * array of events, optionally keeping its channel input guards enabled between
+   * selections.
+   * <P>
+   * An ordinary <code>Alternative</code> enables and disables every guard on each
+   * select, which costs a lock per guard.  When <code>persistent</code> is true,
+   * the input guards of the standard one-to-one and any-to-one channels
+   * ({@link AltingChannelInput} and its <TT>int</TT>, <TT>long</TT> and
+   * <TT>double</TT> variants, buffered or not) are enabled once and stay enabled.
+   * Their channels report each one that becomes ready and a select need only look
+   * at those, so a server <I>ALT</I>ing over thousands of channels does work in
+   * proportion to the number that are ready rather than the number there are.
+   * Other guards (timeouts, skips, barriers, wrapped channel ends, symmetric,
+   * spinning, compact, ring-buffered and broadcast channels, CALL channel accepts
+   * and so on) are enabled and disabled on every select as before, and the
+   * <I>fair</I>, <I>pri</I> and pre-conditioned selections keep their meaning.
+   * <P>
+   * While the channel guards are enabled, they must only be read after they have been
+   * selected (or after {@link AltingChannelInput#pending pending} has returned true),
+   * and must not be used in another <code>Alternative</code>.  {@link #release} disables
+   * them until the next select.
+   *
+   * @param guard the event guards over which the select operations will be made.
+   * @param persistent true to keep the channel input guards enabled between selections.
+   */
+  public Alternative (final Guard[] guard, final boolean persistent) {
+    this.guard = guard;
+    altLock = new ReentrantLock ();
+    altReady = altLock.newCondition ();
+    barrierPresent = false;
+    for (int i = 0; i < guard.length; i++) {
+      if (guard[i] instanceof MultiwaySynchronisation) {
+        barrierPresent = true;
+      }
+    }
+    coordinate = barrierPresent ? AltingBarrierCoordinate.join (guard) : null;
+    if (persistent) {
+      registration = new Registration[guard.length];
+      int nRegistered = 0;
+      for (int i = 0; i < guard.length; i++) {
+        if (staysEnabled (guard[i])) {
+          registration[i] = new Registration (this, i);
+          nRegistered++;
+        }
+      }
+      transientGuard = new int[guard.length - nRegistered];
+      stale = new int[nRegistered];
+      for (int i = 0, t = 0; i < guard.length; i++) {
+        if (registration[i] == null) {
+          transientGuard[t++] = i;
+        } else {
+          stale[staleCount++] = i;
+        }
+      }
+      readyBits = new AtomicLongArray ((guard.length + 63) >>> 6);
+    } else {
+      registration = null;
+      transientGuard = null;
+      stale = null;
+      readyBits = null;
+    }
+  }
+
+  /**
+   * Constructs the stand-in {@link Registration} for one guard of a persistent
+   * <code>Alternative</code>.  It has no guards of its own and is never selected on.
+   */
+  private Alternative () {
+    guard = null;
+    altLock = null;
+    altReady = null;
+    barrierPresent = false;
+    coordinate = null;
+    registration = null;
+    transientGuard = null;
+    stale = null;
+    readyBits = null;
+  }
 
   /**
    * Returns the index of one of the ready guards. The method will block
@@ -690,76 +828,26 @@ public class Alternative
    * the one with the lowest index is selected.
    */
   public final int priSelect () {
+    final long start = (metrics == null) ? 0 : System.nanoTime ();
+    final Object event = FlightEvents.startSelect ();
     // if (barrierPresent) {
     //   throw new AlternativeError (
     //     "*** Cannot 'priSelect' with an AltingBarrier in the Guard array"
     //   );
     // }
+    if (registration != null) {
+      favourite = 0;
+      persistentSelect (null, "priSelect ()");
+      return measured (start, event);
+    }
     state = enabling;
     favourite = 0;
     enableGuards ();
-    synchronized (altMonitor) {
-      if (state == enabling) {
-        state = waiting;
-        try {
-          if (timeout) {
-            long delay = msecs - System.currentTimeMillis ();
-            if (delay > Spurious.earlyTimeout) {
-	      altMonitor.wait (delay);
-/*
-	      while ((state == waiting) &&
-	             ((delay = (msecs - System.currentTimeMillis ()))
-		      > Spurious.earlyTimeout)) {
-                if (Spurious.logging) {
-	          SpuriousLog.record (SpuriousLog.AlternativeSelectWithTimeout);
-	        }
-	        altMonitor.wait (delay);
-	      }
-	      if ((state == waiting) && (delay > 0)) {
-	        if (Spurious.logging) {
-	          SpuriousLog.incEarlyTimeouts ();
-	        }
-              }
-*/
-	      while (state == waiting) {
-	        delay = msecs - System.currentTimeMillis ();
-		if (delay > Spurious.earlyTimeout) {
-		  if (Spurious.logging) {
-	            SpuriousLog.record (SpuriousLog.AlternativeSelectWithTimeout);
-	          }
-	          altMonitor.wait (delay);
-		}
-		else {
-		  if ((delay > 0) && (Spurious.logging)) {
-	            SpuriousLog.incEarlyTimeouts ();
-	          }
-	          break;
-		}
-	      }		  
-// System.out.println (state + " [" + delay + "]");
-	    }
-          } else {
-            altMonitor.wait ();
-	    while (state == waiting) {
-	      if (Spurious.logging) {
-	        SpuriousLog.record (SpuriousLog.AlternativeSelect);
-	      }
-	      altMonitor.wait ();
-	    }
-          }
-        }
-        catch (InterruptedException e) {
-          throw new ProcessInterruptedException (
-	    "*** Thrown from Alternative.priSelect ()\n" + e.toString ()
-	  );
-        }
-        state = ready;
-      }
-    }
+    waitForSelection ("priSelect ()");
     disableGuards ();
     state = inactive;
     timeout = false;
-    return selected;
+    return measured (start, event);
   }
 
   /**
@@ -770,81 +858,25 @@ public class Alternative
    * priority next time around.</I>
    */
   public final int fairSelect () {
+    final long start = (metrics == null) ? 0 : System.nanoTime ();
+    final Object event = FlightEvents.startSelect ();
+    if (registration != null) {
+      persistentSelect (null, "fairSelect/select ()");
+      favourite = selected + 1;
+      if (favourite == guard.length)
+        favourite = 0;
+      return measured (start, event);
+    }
     state = enabling;
     enableGuards ();
-    synchronized (altMonitor) {
-      if (state == enabling) {
-        state = waiting;
-        try {
-          if (timeout) {
-            long delay = msecs - System.currentTimeMillis ();
-            // NOTE: below is code that demonstrates whether wait (delay)
-            // sometimes returns early!  Because this happens in some JVMs,
-            // we are forced into a workaround - see disableGuards ().
-            //   long now = System.currentTimeMillis ();
-            //   long delay = msecs - now;
-            if (delay > Spurious.earlyTimeout) {
-	      altMonitor.wait (delay);
-/*
-	      while ((state == waiting) &&
-	             ((delay = msecs - System.currentTimeMillis ())
-		      > Spurious.earlyTimeout)) {
-                if (Spurious.logging) {
-	          SpuriousLog.record (SpuriousLog.AlternativeSelectWithTimeout);
-	        }
-	        altMonitor.wait (delay);
-	      }
-	      if ((state == waiting) && (delay > 0)) {
-	        if (Spurious.logging) {
-	          SpuriousLog.incEarlyTimeouts ();
-	        }
-              }
-*/
-	      while (state == waiting) {
-	        delay = msecs - System.currentTimeMillis ();
-		if (delay > Spurious.earlyTimeout) {
-		  if (Spurious.logging) {
-	            SpuriousLog.record (SpuriousLog.AlternativeSelectWithTimeout);
-	          }
-	          altMonitor.wait (delay);
-		}
-		else {
-		  if ((delay > 0) && (Spurious.logging)) {
-	            SpuriousLog.incEarlyTimeouts ();
-	          }
-	          break;
-		}
-	      }		  
-	    }
-            //   long then = System.currentTimeMillis ();
-            //   System.out.println ("*** fairSelect: " + msecs +
-            //                       ", " + now + ", " + delay +
-            //                       ", " + then);
-          } else {
-            altMonitor.wait ();
-	    while (state == waiting) {
-	      if (Spurious.logging) {
-	        SpuriousLog.record (SpuriousLog.AlternativeSelect);
-	      }
-	      altMonitor.wait ();
-	    }
-          }
-        }
-        catch (InterruptedException e) {
-          throw new ProcessInterruptedException (
-	    "*** Thrown from Alternative.fairSelect/select ()\n" + e.toString ()
-	  );
-        }
-        state = ready;
-      }
-    }
+    waitForSelection ("fairSelect/select ()");
     disableGuards ();
     state = inactive;
     favourite = selected + 1;
     if (favourite == guard.length) 
     	favourite = 0;
     timeout = false;
-    return selected;
+    return measured (start, event);
   }
 
   /**
@@ -855,7 +887,7 @@ public class Alternative
   private final void enableGuards () {
     if (barrierPresent) {
       // System.out.println ("ENABLE barrier(s) present ...");
-      AltingBarrierCoordinate.startEnable ();
+      coordinate.startEnable ();
     }
     barrierSelected = NONE_SELECTED;
     for (enableIndex = favourite; enableIndex < guard.length; enableIndex++) {
@@ -872,7 +904,7 @@ public class Alternative
           barrierTrigger = false;
 	} else if (barrierPresent) {
 	  // System.out.println ("ENABLE " + enableIndex + " NON-BARRIER SUCCEED");
-          AltingBarrierCoordinate.finishEnable ();
+          coordinate.finishEnable ();
         }
         return;
       } // else {
@@ -897,7 +929,7 @@ public class Alternative
           barrierTrigger = false;
 	} else if (barrierPresent) {
 	  // System.out.println ("ENABLE " + enableIndex + " NON-BARRIER SUCCEED");
-          AltingBarrierCoordinate.finishEnable ();
+          coordinate.finishEnable ();
         }
         return;
       } // else {
@@ -911,7 +943,7 @@ public class Alternative
     // System.out.println ("ENABLE ALL FAIL");
     selected = NONE_SELECTED;
     if (barrierPresent) {
-      AltingBarrierCoordinate.finishEnable ();
+      coordinate.finishEnable ();
     }
   }
 
@@ -964,28 +996,57 @@ public class Alternative
     }
     if (barrierSelected != NONE_SELECTED) {        // We must choose a barrier sync
       selected = barrierSelected;                  // if one is ready - so that all
-      AltingBarrierCoordinate.finishDisable ();    // parties make the same choice.
+      coordinate.finishDisable ();                 // parties make the same choice.
     }
   }
 
   /**
-   * This is the call-back from enabling a CSTimer guard.  It is part of the
-   * work-around for Java wait-with-timeouts sometimes returning early.
+   * This is the call-back from enabling a CSTimer guard, giving its timeout
+   * as a <TT>System.nanoTime</TT> value.  The index of the guard is kept as part
+   * of the work-around for timeouts sometimes being found not quite expired.
    * It is still in the flow of control of the ALTing process.
    */
-  void setTimeout (long msecs) {
+  void setTimeout (long deadline) {
     if (timeout) {
-      if (msecs < this.msecs) {
-        this.msecs = msecs;
+      if ((deadline - this.deadline) < 0) {
+        this.deadline = deadline;
         timeIndex = enableIndex;
       }
     } else {
       timeout = true;
-      this.msecs = msecs;
+      this.deadline = deadline;
       timeIndex = enableIndex;
     }
   }
 
+  /**
+   * The alarm set for a timed wait.  It schedules the alting process if that is
+   * still waiting for it.
+   */
+  private final class Timeout extends TimerWheel.Alarm {
+    void expire () {
+      timedOut (this);
+    }
+  }
+
+  /**
+   * Called when a timeout alarm expires.
+   *
+   * @param alarm the alarm that expired.
+   */
+  private void timedOut (final Timeout alarm) {
+    altLock.lock ();
+    try {
+      if ((alarm == timeoutAlarm) && (state == waiting)) {
+        state = ready;
+        altReady.signal ();
+      }
+    }
+    finally {
+      altLock.unlock ();
+    }
+  }
+
   /**
    * This is a call-back from an AltingBarrier.
    * It is still in the flow of control of the ALTing process.
@@ -1000,19 +1061,70 @@ public class Alternative
    * to an enabled channel guard.
    */
   void schedule () {
-    synchronized (altMonitor) {
+    altLock.lock ();
+    try {
       switch (state) {
         case enabling:
           state = ready;
         break;
         case waiting:
           state = ready;
-          altMonitor.notify ();
+          altReady.signal ();
         break;
         // case ready: case inactive:
         // break
       }
     }
+    finally {
+      altLock.unlock ();
+    }
+  }
+
+  /**
+   * Blocks the alting process, after its guards have been enabled, until one
+   * of them is scheduled or the earliest timeout (if any) has expired.  Timeouts
+   * are not timed waits: an alarm is set in the shared {@link TimerWheel}, so that
+   * many processes waiting with timeouts share a single timer thread.
+   *
+   * @param from the select method (for the message of an interrupt).
+   */
+  private void waitForSelection (final String from) {
+    altLock.lock ();
+    try {
+      if (state == enabling) {
+        state = waiting;
+        if (timeout) {
+          // The timeout is left to the shared timer, which schedules us when it expires
+          timeoutAlarm = new Timeout ();
+          TimerWheel.getInstance ().add (timeoutAlarm, deadline);
+        }
+        try {
+          altReady.await ();
+          while (state == waiting) {
+            if (Spurious.logging) {
+              SpuriousLog.record (timeout ? SpuriousLog.AlternativeSelectWithTimeout
+                                          : SpuriousLog.AlternativeSelect);
+            }
+            altReady.await ();
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessInterruptedException (
+            "*** Thrown from Alternative." + from + "\n" + e.toString ()
+          );
+        }
+        finally {
+          if (timeoutAlarm != null) {
+            TimerWheel.getInstance ().cancel (timeoutAlarm);
+            timeoutAlarm = null;
+          }
+        }
+        state = ready;
+      }
+    }
+    finally {
+      altLock.unlock ();
+    }
   }
 
 
@@ -1046,6 +1158,8 @@ public class Alternative
    * @param preCondition the guards from which to select
    */
   public final int priSelect (boolean[] preCondition) {
+    final long start = (metrics == null) ? 0 : System.nanoTime ();
+    final Object event = FlightEvents.startSelect ();
     // if (barrierPresent) {
     //   throw new AlternativeError (
     //     "*** Cannot 'priSelect' with an AltingBarrier in the Guard array"
@@ -1057,55 +1171,19 @@ public class Alternative
         "*** whose length does not match its guard array"
       );
     }
+    if (registration != null) {
+      favourite = 0;
+      persistentSelect (preCondition, "priSelect (boolean[])");
+      return measured (start, event);
+    }
     state = enabling;
     favourite = 0;
     enableGuards (preCondition);
-    synchronized (altMonitor) {
-      if (state == enabling) {
-        state = waiting;
-        try {
-          if (timeout) {
-            long delay = msecs - System.currentTimeMillis ();
-            if (delay > Spurious.earlyTimeout) {
-	      altMonitor.wait (delay);
-	      while (state == waiting) {
-	        delay = msecs - System.currentTimeMillis ();
-		if (delay > Spurious.earlyTimeout) {
-		  if (Spurious.logging) {
-	            SpuriousLog.record (SpuriousLog.AlternativeSelectWithTimeout);
-	          }
-	          altMonitor.wait (delay);
-		}
-		else {
-		  if ((delay > 0) && (Spurious.logging)) {
-	            SpuriousLog.incEarlyTimeouts ();
-	          }
-	          break;
-		}
-	      }
-	    }
-          } else {
-            altMonitor.wait ();
-	    while (state == waiting) {
-	      if (Spurious.logging) {
-	        SpuriousLog.record (SpuriousLog.AlternativeSelect);
-	      }
-	      altMonitor.wait ();
-	    }
-          }
-        }
-        catch (InterruptedException e) {
-          throw new ProcessInterruptedException (
-	    "*** Thrown from Alternative.priSelect (boolean[])\n" + e.toString ()
-	  );
-        }
-        state = ready;
-      }
-    }
+    waitForSelection ("priSelect (boolean[])");
     disableGuards (preCondition);
     state = inactive;
     timeout = false;
-    return selected;
+    return measured (start, event);
   }
 
   /**
@@ -1122,62 +1200,29 @@ public class Alternative
    * @param preCondition the guards from which to select
    */
   public final int fairSelect (boolean[] preCondition) {
+    final long start = (metrics == null) ? 0 : System.nanoTime ();
+    final Object event = FlightEvents.startSelect ();
     if (preCondition.length != guard.length) {
       throw new IllegalArgumentException (
         "*** org.jcsp.lang.Alternative.select called with a preCondition array\n" +
         "*** whose length does not match its guard array"
       );
     }
+    if (registration != null) {
+      persistentSelect (preCondition, "fairSelect/select (boolean[])");
+      favourite = selected + 1;
+      if (favourite == guard.length) favourite = 0;
+      return measured (start, event);
+    }
     state = enabling;
     enableGuards (preCondition);
-    synchronized (altMonitor) {
-      if (state == enabling) {
-        state = waiting;
-        try {
-          if (timeout) {
-            long delay = msecs - System.currentTimeMillis ();
-            if (delay > Spurious.earlyTimeout) {
-	      altMonitor.wait (delay);
-	      while (state == waiting) {
-	        delay = msecs - System.currentTimeMillis ();
-		if (delay > Spurious.earlyTimeout) {
-		  if (Spurious.logging) {
-	            SpuriousLog.record (SpuriousLog.AlternativeSelectWithTimeout);
-	          }
-	          altMonitor.wait (delay);
-		}
-		else {
-		  if ((delay > 0) && (Spurious.logging)) {
-	            SpuriousLog.incEarlyTimeouts ();
-	          }
-	          break;
-		}
-	      }
-	    }
-          } else {
-            altMonitor.wait ();
-	    while (state == waiting) {
-	      if (Spurious.logging) {
-	        SpuriousLog.record (SpuriousLog.AlternativeSelect);
-	      }
-	      altMonitor.wait ();
-	    }
-          }
-        }
-        catch (InterruptedException e) {
-          throw new ProcessInterruptedException (
-	    "*** Thrown from Alternative.fairSelect/select (boolean[])\n" + e.toString ()
-          );
-        }
-        state = ready;
-      }
-    }
+    waitForSelection ("fairSelect/select (boolean[])");
     disableGuards (preCondition);
     state = inactive;
     favourite = selected + 1;
     if (favourite == guard.length) favourite = 0;
     timeout = false;
-    return selected;
+    return measured (start, event);
   }
 
   /**
@@ -1191,7 +1236,7 @@ public class Alternative
    */
   private final void enableGuards (boolean[] preCondition) {
     if (barrierPresent) {
-      AltingBarrierCoordinate.startEnable ();
+      coordinate.startEnable ();
     }
     barrierSelected = NONE_SELECTED;
     for (enableIndex = favourite; enableIndex < guard.length; enableIndex++) {
@@ -1202,7 +1247,7 @@ public class Alternative
 	  barrierSelected = selected;
           barrierTrigger = false;
 	} else if (barrierPresent) {
-          AltingBarrierCoordinate.finishEnable ();
+          coordinate.finishEnable ();
         }
         return;
       }
@@ -1215,14 +1260,14 @@ public class Alternative
 	  barrierSelected = selected;
           barrierTrigger = false;
 	} else if (barrierPresent) {
-          AltingBarrierCoordinate.finishEnable ();
+          coordinate.finishEnable ();
         }
         return;
       }
     }
     selected = NONE_SELECTED;
     if (barrierPresent) {
-      AltingBarrierCoordinate.finishEnable ();
+      coordinate.finishEnable ();
     }
   }
 
@@ -1276,8 +1321,359 @@ public class Alternative
     }
     if (barrierSelected != NONE_SELECTED) {        // We must choose a barrier sync
       selected = barrierSelected;                  // if one is ready - so that all
-      AltingBarrierCoordinate.finishDisable ();    // parties make the same choice.
+      coordinate.finishDisable ();                 // parties make the same choice.
+    }
+  }
+
+
+  /////////////////// Metrics ///////////////////
+
+
+  /**
+   * Sets the metrics recording the selections made by this <code>Alternative</code>:
+   * how many there are, how long they take and how often each guard is selected.
+   * This must be done before, or between, selections.  By default, selections are
+   * not measured.
+   *
+   * @param metrics the metrics, or null to stop measuring.
+   */
+  public void setMetrics (final AlternativeMetrics metrics) {
+    if (metrics != null) {
+      metrics.guards (guard.length);
+    }
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the metrics recording the selections made by this <code>Alternative</code>,
+   * or null if they are not measured.
+   */
+  public AlternativeMetrics getMetrics () {
+    return metrics;
+  }
+
+  /**
+   * Records the selection just made, if selections are measured or a flight recording
+   * event was started for it, and returns its index.
+   */
+  private int measured (final long start, final Object event) {
+    if (metrics != null) {
+      metrics.selected (selected, start);
+    }
+    if (event != null) {
+      FlightEvents.selected (event, this, guard.length, selected);
+    }
+    return selected;
+  }
+
+
+  /////////////////// Persistent enabling of channel guards ///////////////////
+
+
+  /**
+   * Disables the channel input guards that a persistent <code>Alternative</code>
+   * keeps enabled between selections.  This must be called before those channels
+   * are read, other than after their selection, or used in another <code>Alternative</code>.
+   * The guards are enabled again by the next select.  This does nothing for an
+   * ordinary <code>Alternative</code>.
+   */
+  public void release () {
+    if (registration == null) {
+      return;
+    }
+    staleCount = 0;
+    for (int i = 0; i < guard.length; i++) {
+      if (registration[i] != null) {
+        guard[i].disable ();
+        clearReady (i);
+        stale[staleCount++] = i;
+      }
+    }
+  }
+
+  /**
+   * Returns true if a guard can be left enabled between selections: the reading
+   * end of a channel whose internals are {@link PersistentlyEnabled}.
+   */
+  private static boolean staysEnabled (final Guard guard) {
+    if (guard instanceof AltingChannelInputImpl) {
+      return ((AltingChannelInputImpl) guard).staysEnabled ();
+    }
+    if (guard instanceof AltingChannelInputIntImpl) {
+      return ((AltingChannelInputIntImpl) guard).staysEnabled ();
+    }
+    if (guard instanceof AltingChannelInputLongImpl) {
+      return ((AltingChannelInputLongImpl) guard).staysEnabled ();
+    }
+    if (guard instanceof AltingChannelInputDoubleImpl) {
+      return ((AltingChannelInputDoubleImpl) guard).staysEnabled ();
+    }
+    return false;
+  }
+
+  /**
+   * The select sequence of a persistent <code>Alternative</code>.  Registered guards
+   * found ready are checked once more before one is chosen, as a channel read outside
+   * a select may leave a stale ready bit.  If that leaves nothing to choose, the
+   * sequence is repeated.
+   */
+  private int persistentSelect (final boolean[] preCondition, final String from) {
+    do {
+      // Set under the lock, so that guards scheduled from now on see it
+      altLock.lock ();
+      try {
+        state = enabling;
+      }
+      finally {
+        altLock.unlock ();
+      }
+      timeout = false;
+      enableRegistered ();
+      enableTransient (preCondition);
+      waitForSelection (from);
+      disableTransient (preCondition);
+      chooseRegistered (preCondition);
+      if (barrierSelected != NONE_SELECTED) {      // We must choose a barrier sync
+        selected = barrierSelected;                // if one is ready - so that all
+        coordinate.finishDisable ();               // parties make the same choice.
+      }
+      state = inactive;
+    } while (selected == NONE_SELECTED);
+    if (registration[selected] != null) {
+      stale[staleCount++] = selected;
+    }
+    timeout = false;
+    return selected;
+  }
+
+  /**
+   * Enables the registered guards that are not already enabled: all of them before
+   * the first select, then the one last selected.  The ready mark is cleared first,
+   * so that a guard scheduled once it is enabled is marked again.
+   */
+  private void enableRegistered () {
+    while (staleCount > 0) {
+      final int i = stale[--staleCount];
+      clearReady (i);
+      if (guard[i].enable (registration[i])) {
+        setReady (i);
+      }
+    }
+  }
+
+  /**
+   * Enables the transient guards, in order from the favourite, up to the first
+   * registered guard marked ready.  If one of them is ready, it sets selected to its
+   * index, state to ready and returns.  Otherwise selected is set to the registered
+   * guard marked ready, or NONE_SELECTED.
+   */
+  private void enableTransient (final boolean[] preCondition) {
+    if (barrierPresent) {
+      coordinate.startEnable ();
+    }
+    barrierSelected = NONE_SELECTED;
+    final int n = guard.length;
+    final int first = firstReady (preCondition);
+    final int limit = (first == NONE_SELECTED) ? n : (first - favourite + n) % n;
+    final int start = firstTransient ();
+    for (transientEnabled = 0; transientEnabled < transientGuard.length; transientEnabled++) {
+      enableIndex = transientGuard[(start + transientEnabled) % transientGuard.length];
+      if ((enableIndex - favourite + n) % n >= limit) {
+        break;
+      }
+      if (((preCondition == null) || preCondition[enableIndex]) && guard[enableIndex].enable (this)) {
+        selected = enableIndex;
+        state = ready;
+        if (barrierTrigger) {
+          barrierSelected = selected;
+          barrierTrigger = false;
+        } else if (barrierPresent) {
+          coordinate.finishEnable ();
+        }
+        return;
+      }
+    }
+    selected = first;
+    if (first != NONE_SELECTED) {
+      state = ready;
+    }
+    if (barrierPresent) {
+      coordinate.finishEnable ();
+    }
+  }
+
+  /**
+   * Disables the transient guards enabled by enableTransient, in reverse order.
+   * Sets selected to the first of them, in order from the favourite, that is ready,
+   * or NONE_SELECTED.
+   */
+  private void disableTransient (final boolean[] preCondition) {
+    final int start = firstTransient ();
+    int chosen = NONE_SELECTED;
+    if (transientEnabled < transientGuard.length) {
+      final int last = transientGuard[(start + transientEnabled) % transientGuard.length];
+      if (last == selected) {
+        chosen = selected;       // its enable succeeded, so it was not enabled
+      }
+    }
+    for (int k = transientEnabled - 1; k >= 0; k--) {
+      final int i = transientGuard[(start + k) % transientGuard.length];
+      if (((preCondition == null) || preCondition[i]) && guard[i].disable ()) {
+        chosen = i;
+        if (barrierTrigger) {
+          if (barrierSelected != NONE_SELECTED) {
+            throw new JCSP_InternalError (
+              "\n*** Second AltingBarrier completed in ALT sequence: " +
+              barrierSelected + " and " + i
+            );
+          }
+          barrierSelected = i;
+          barrierTrigger = false;
+        }
+      }
+    }
+    selected = chosen;
+  }
+
+  /**
+   * Chooses the first registered guard, in order from the favourite and before any
+   * selected transient guard, that is marked ready and still is.  Each one looked
+   * at is enabled again, so a guard that is no longer ready stays registered.  If
+   * nothing is chosen and a timeout was set, the timer is chosen.
+   */
+  private void chooseRegistered (final boolean[] preCondition) {
+    final int n = guard.length;
+    final int end = favourite + ((selected == NONE_SELECTED) ? n : (selected - favourite + n) % n);
+    if (!chooseReady (favourite, Math.min (end, n), preCondition) && (end > n)) {
+      chooseReady (0, end - n, preCondition);
+    }
+    if ((selected == NONE_SELECTED) && timeout) {
+      // NOTE: see disableGuards.  Java wait-with-timeouts sometimes return early.
+      selected = timeIndex;
+    }
+  }
+
+  /**
+   * Chooses the first guard in the range from (inclusive) to to (exclusive) that is
+   * marked ready and still is, setting selected and returning true.
+   */
+  private boolean chooseReady (final int from, final int to, final boolean[] preCondition) {
+    for (int i = nextReady (from, to, preCondition); i != NONE_SELECTED; i = nextReady (i + 1, to, preCondition)) {
+      clearReady (i);
+      if (guard[i].enable (registration[i])) {
+        setReady (i);            // while marked, its channel need not schedule us
+        selected = i;
+        return true;
+      }
     }
+    return false;
+  }
+
+  /**
+   * Returns the first registered guard marked ready, in order from the favourite,
+   * or NONE_SELECTED.
+   */
+  private int firstReady (final boolean[] preCondition) {
+    final int i = nextReady (favourite, guard.length, preCondition);
+    return (i != NONE_SELECTED) ? i : nextReady (0, favourite, preCondition);
+  }
+
+  /**
+   * Returns the first guard in the range from (inclusive) to to (exclusive) that is
+   * marked ready and whose pre-condition holds, or NONE_SELECTED.
+   */
+  private int nextReady (int from, final int to, final boolean[] preCondition) {
+    while (from < to) {
+      final int base = from & ~63;
+      long bits = readyBits.get (from >>> 6) & (-1L << from);
+      while (bits != 0) {
+        final int i = base + Long.numberOfTrailingZeros (bits);
+        if (i >= to) {
+          return NONE_SELECTED;
+        }
+        if ((preCondition == null) || preCondition[i]) {
+          return i;
+        }
+        bits &= bits - 1;
+      }
+      from = base + 64;
+    }
+    return NONE_SELECTED;
+  }
+
+  /**
+   * Returns the position in transientGuard of the first transient guard at or after
+   * the favourite, wrapping round to 0.
+   */
+  private int firstTransient () {
+    int k = 0;
+    while ((k < transientGuard.length) && (transientGuard[k] < favourite)) {
+      k++;
+    }
+    return (k == transientGuard.length) ? 0 : k;
+  }
+
+  /**
+   * Marks a registered guard ready.  Returns false if it was already marked.
+   */
+  private boolean setReady (final int i) {
+    final long bit = 1L << i;
+    while (true) {
+      final long bits = readyBits.get (i >>> 6);
+      if ((bits & bit) != 0) {
+        return false;
+      }
+      if (readyBits.compareAndSet (i >>> 6, bits, bits | bit)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Clears the ready mark of a registered guard.
+   */
+  private void clearReady (final int i) {
+    final long bit = 1L << i;
+    while (true) {
+      final long bits = readyBits.get (i >>> 6);
+      if (((bits & bit) == 0) || readyBits.compareAndSet (i >>> 6, bits, bits & ~bit)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Called, through its {@link Registration}, when a registered guard has been
+   * scheduled.  If the guard was already marked ready, the alting process has yet
+   * to look at it and there is no need to schedule it again.
+   */
+  private void scheduled (final int i) {
+    if (setReady (i)) {
+      schedule ();
+    }
+  }
+
+  /**
+   * Stands in for a persistent <code>Alternative</code> in the channel of one of its
+   * registered guards, so that scheduling it says which guard has become ready.
+   */
+  private static final class Registration extends Alternative {
+
+    /** The Alternative the guard belongs to. */
+    private final Alternative owner;
+
+    /** The index of the guard. */
+    private final int index;
+
+    Registration (final Alternative owner, final int index) {
+      this.owner = owner;
+      this.index = index;
+    }
+
+    void schedule () {
+      owner.scheduled (index);
+    }
+
   }
 
 }
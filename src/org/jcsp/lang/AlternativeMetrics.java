@@ -0,0 +1,199 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.ObjectName;
+
+/**
+ * This collects the metrics of an {@link Alternative} and publishes them by JMX.
+ * <H2>Description</H2>
+ * An <TT>AlternativeMetrics</TT> counts the selections made by an <TT>Alternative</TT>,
+ * the time they take (from the call of a <TT>select</TT> method until it returns,
+ * which is mostly the time spent waiting for a guard to become ready) and how often
+ * each guard is selected.  It is registered, by {@link #register register}, with the
+ * platform MBean server under the name <TT>org.jcsp:type=Alternative,name="<I>name</I>"</TT>.
+ * <P>
+ * Measuring is opt-in: an <TT>Alternative</TT> is measured once it is given metrics
+ * with {@link Alternative#setMetrics(AlternativeMetrics)}.  One set of metrics may be
+ * given to several <TT>Alternative</TT>s, such as those of a number of servers
+ * of the same kind.
+ *
+ * @see org.jcsp.lang.AlternativeMetricsMBean
+ * @see org.jcsp.lang.ChannelMetrics
+ */
+
+public final class AlternativeMetrics implements AlternativeMetricsMBean
+{
+    /** The name of the Alternative */
+    private final String name;
+
+    /** The name under which this is registered, or null if it is not */
+    private volatile ObjectName objectName;
+
+    /** The number of selections */
+    private final StripedCounter selects = new StripedCounter();
+
+    /** The total time spent in selections */
+    private final StripedCounter selectNanos = new StripedCounter();
+
+    /** The longest time spent in a selection */
+    private final AtomicLong maxSelectNanos = new AtomicLong();
+
+    /** The number of selections of each guard, enlarged by guards */
+    private volatile AtomicLongArray guardSelections = new AtomicLongArray(0);
+
+    /**
+     * Constructs the metrics of an <TT>Alternative</TT>, without registering them.
+     *
+     * @param name the name of the <TT>Alternative</TT>.
+     */
+    public AlternativeMetrics(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Constructs the metrics of an <TT>Alternative</TT> and registers them with the
+     * platform MBean server.
+     *
+     * @param name the name of the <TT>Alternative</TT>.
+     * @return the metrics.
+     *
+     * @throws IllegalArgumentException if metrics are already registered with the name.
+     */
+    public static AlternativeMetrics register(String name)
+    {
+        final AlternativeMetrics metrics = new AlternativeMetrics(name);
+        metrics.objectName = MetricsRegistry.register(metrics, "Alternative", name);
+        return metrics;
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if they are registered.
+     */
+    public void unregister()
+    {
+        final ObjectName registered = objectName;
+        if (registered != null)
+        {
+            objectName = null;
+            MetricsRegistry.unregister(registered);
+        }
+    }
+
+    /**
+     * Returns the name under which these metrics are registered, or null if they are not.
+     */
+    public ObjectName getObjectName()
+    {
+        return objectName;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getSelects()
+    {
+        return selects.sum();
+    }
+
+    public long getSelectNanos()
+    {
+        return selectNanos.sum();
+    }
+
+    public long getMeanSelectNanos()
+    {
+        final long n = selects.sum();
+        return (n == 0) ? 0 : selectNanos.sum() / n;
+    }
+
+    public long getMaxSelectNanos()
+    {
+        return maxSelectNanos.get();
+    }
+
+    public long[] getGuardSelections()
+    {
+        final AtomicLongArray counts = guardSelections;
+        final long[] values = new long[counts.length()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = counts.get(i);
+        return values;
+    }
+
+    public void reset()
+    {
+        selects.reset();
+        selectNanos.reset();
+        maxSelectNanos.set(0);
+        final AtomicLongArray counts = guardSelections;
+        for (int i = 0; i < counts.length(); i++)
+            counts.set(i, 0);
+    }
+
+    public String toString()
+    {
+        return "AlternativeMetrics[" + name + ": selects=" + getSelects() + ", selectNanos=" + getSelectNanos()
+            + ", maxSelectNanos=" + getMaxSelectNanos() + "]";
+    }
+
+    /**
+     * Makes room to count the selections of an <TT>Alternative</TT> with the given number of guards.
+     */
+    synchronized void guards(int n)
+    {
+        final AtomicLongArray counts = guardSelections;
+        if (counts.length() < n)
+        {
+            final AtomicLongArray larger = new AtomicLongArray(n);
+            for (int i = 0; i < counts.length(); i++)
+                larger.set(i, counts.get(i));
+            guardSelections = larger;
+        }
+    }
+
+    /**
+     * Records the selection of a guard by a select that started at the given time.
+     */
+    void selected(int index, long start)
+    {
+        final long nanos = System.nanoTime() - start;
+        selectNanos.add(nanos);
+        selects.add(1);
+        if (nanos > maxSelectNanos.get())
+            MetricsRegistry.max(maxSelectNanos, nanos);
+        guardSelections.incrementAndGet(index);
+    }
+}
@@ -0,0 +1,73 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * The management interface of {@link AlternativeMetrics}, through which the metrics of
+ * an {@link Alternative} are published by JMX.
+ *
+ * @see org.jcsp.lang.AlternativeMetrics
+ */
+public interface AlternativeMetricsMBean
+{
+    /**
+     * Returns the name of the <TT>Alternative</TT>.
+     */
+    public String getName();
+
+    /**
+     * Returns the number of selections made.
+     */
+    public long getSelects();
+
+    /**
+     * Returns the total time, in nanoseconds, spent in selections.
+     */
+    public long getSelectNanos();
+
+    /**
+     * Returns the mean time, in nanoseconds, of a selection.
+     */
+    public long getMeanSelectNanos();
+
+    /**
+     * Returns the longest time, in nanoseconds, of a selection.
+     */
+    public long getMaxSelectNanos();
+
+    /**
+     * Returns the number of times each guard has been selected, by index.
+     */
+    public long[] getGuardSelections();
+
+    /**
+     * Sets the counts and times to zero.
+     */
+    public void reset();
+}
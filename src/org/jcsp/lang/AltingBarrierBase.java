@@ -38,6 +38,9 @@ class AltingBarrierBase {       // package-only visible class
 
   /** The number of processes not yet offered to sync on this barrier. */
   private int countdown = 0;
+
+  /** Coordinates ALT sequences over this barrier with those over the barriers it is grouped with. */
+  final AltingBarrierCoordinate coordinate = new AltingBarrierCoordinate ();
   
   /*
    * This creates, and returns, more front-ends to be held by newly enrolling
@@ -169,8 +172,8 @@ class AltingBarrierBase {       // package-only visible class
     if (countdown == 0) {
       countdown = enrolled;
       if (enrolled > 0) {
-        AltingBarrierCoordinate.startEnable ();
-        AltingBarrierCoordinate.startDisable (enrolled);
+        coordinate.startEnable ();
+        coordinate.startDisable (enrolled);
         AltingBarrier fe = frontEnds;
         while (fe != null) {
           fe.schedule ();
@@ -235,8 +238,8 @@ class AltingBarrierBase {       // package-only visible class
     if (countdown == 0) {
       countdown = enrolled;
       if (enrolled > 0) {
-        AltingBarrierCoordinate.startEnable ();
-        AltingBarrierCoordinate.startDisable (enrolled);
+        coordinate.startEnable ();
+        coordinate.startDisable (enrolled);
         AltingBarrier fe = frontEnds;
         while (fe != null) {
           fe.schedule ();
@@ -265,7 +268,7 @@ class AltingBarrierBase {       // package-only visible class
     countdown--;
     if (countdown == 0) {
       countdown = enrolled;
-      AltingBarrierCoordinate.startDisable (enrolled);
+      coordinate.startDisable (enrolled);
       AltingBarrier fe = frontEnds;
       while (fe != null) {
         fe.schedule ();
@@ -308,8 +311,8 @@ class AltingBarrierBase {       // package-only visible class
     if (countdown == 0) {
       countdown = enrolled;
       if (enrolled > 0) {
-        AltingBarrierCoordinate.startEnable ();
-        AltingBarrierCoordinate.startDisable (enrolled);
+        coordinate.startEnable ();
+        coordinate.startDisable (enrolled);
         AltingBarrier fe = frontEnds;
         while (fe != null) {
           fe.schedule ();
@@ -25,11 +25,36 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 class AltingBarrierCoordinate {     // package-only visible class
 
+  /*
+   * Enable and disable sequences involving barriers are coordinated within
+   * groups of barriers.  Each AltingBarrierBase starts in a group of its own.
+   * The groups of barriers guarding the same Alternative are joined, when it
+   * is constructed, so that a group holds every barrier that any ALT over one
+   * of its barriers may offer.  Sequences over barriers in different groups
+   * cannot affect each other and do not contend.
+   * <P>
+   * A group is represented by its root coordinate.  A joined group forwards
+   * to the group it joined through its parent.  Groups are only joined when
+   * no sequence is active in either, so the root of a group cannot change
+   * while one is.
+   */
+
+  /** Source of the ids that order the joining of groups. */
+  private static final AtomicInteger ids = new AtomicInteger ();
+
+  /** The order in which groups are locked when they are joined. */
+  private final int id = ids.getAndIncrement ();
+
+  /** The group this has joined, or null if it is the root of its group. */
+  private volatile AltingBarrierCoordinate parent = null;
+
   /*
    * This records number of processes active in ALT enable/disable sequences
-   * involving a barrier.
+   * involving a barrier of this group.
    * <P>
    * Only one process may be engaged in an enable sequence involving a barrier.
    * <P>
@@ -45,52 +70,137 @@ class AltingBarrierCoordinate {     // package-only visible class
    * sequence becomes as though it had been triggered by that successful barrier
    * enable (rather than the non-barrier event).
    */
-  private static int active = 0;
+  private int active = 0;
+
+  /*
+   * Joins the groups of all the barriers among the guards of an Alternative and
+   * returns the coordinate of the joined group (a new one if there are none).
+   */
+  static AltingBarrierCoordinate join (Guard[] guard) {
+    AltingBarrierCoordinate group = null;
+    for (int i = 0; i < guard.length; i++) {
+      final AltingBarrier ab = barrier (guard[i]);
+      if ((ab != null) && (ab.base != null)) {
+        if (group == null) {
+          group = ab.base.coordinate;
+        } else {
+          join (group, ab.base.coordinate);
+        }
+      }
+    }
+    return (group == null) ? new AltingBarrierCoordinate () : group;
+  }
 
-  /** Lock object for coordinating enable/disable sequences. */
-  private static Object activeLock = new Object ();
+  /* Returns the AltingBarrier front-end a guard synchronises on, or null. */
+  private static AltingBarrier barrier (Guard guard) {
+    if (guard instanceof AltingBarrier) {
+      return (AltingBarrier) guard;
+    } else if (guard instanceof AltingChannelInputSymmetricImpl) {
+      return ((AltingChannelInputSymmetricImpl) guard).ab;
+    } else if (guard instanceof AltingChannelInputIntSymmetricImpl) {
+      return ((AltingChannelInputIntSymmetricImpl) guard).ab;
+    } else if (guard instanceof AltingChannelOutputSymmetricImpl) {
+      return ((AltingChannelOutputSymmetricImpl) guard).ab;
+    } else if (guard instanceof AltingChannelOutputIntSymmetricImpl) {
+      return ((AltingChannelOutputIntSymmetricImpl) guard).ab;
+    }
+    return null;
+  }
 
-  /* Invoked at start of an enable sequence involving a barrier. */
-  static void startEnable () {
-    synchronized (activeLock) {
-      if (active > 0) {
+  /*
+   * Joins two groups.  This waits until neither is active, holding the one
+   * with the lower id while waiting for the other, so that joins cannot
+   * deadlock.
+   */
+  private static void join (AltingBarrierCoordinate a, AltingBarrierCoordinate b) {
+    while (true) {
+      final AltingBarrierCoordinate ra = a.root ();
+      final AltingBarrierCoordinate rb = b.root ();
+      if (ra == rb) {
+        return;
+      }
+      final AltingBarrierCoordinate first = (ra.id < rb.id) ? ra : rb;
+      final AltingBarrierCoordinate second = (ra.id < rb.id) ? rb : ra;
+      if (first.acquire ()) {
         try {
-	  activeLock.wait ();
-          while (active > 0) {
-            // This may be a spurious wakeup.  More likely, this is a properly
-	    // notified wakeup that has been raced to the 'activelock' monitor
-	    // by another thread (quite possibly the notifying one) that has
-	    // (re-)acquired it and set 'active' greater than zero.  We have
-	    // not instrumented the code to tell the difference.  Either way:
-            activeLock.wait ();
-	  }
-	}
-        catch (InterruptedException e) {
-          throw new ProcessInterruptedException (e.toString ());
+          if (second.acquire ()) {
+            synchronized (second) {
+              second.parent = first;
+              second.active = 0;
+              second.notifyAll ();            // waiters move to the joined group
+            }
+            return;
+          }
+        }
+        finally {
+          first.release ();
         }
       }
-      if (active != 0) {
-        throw new JCSP_InternalError (
-	  "\n*** AltingBarrier enable sequence starting " +
-	  "with 'active' count not equal to zero: " + active
-	);
-      }
-      active = 1;
     }
   }
 
-  /* Invoked at finish of an unsuccessful enable sequence involving a barrier. */
-  static void finishEnable () {
-    synchronized (activeLock) {
-      if (active != 1) {
-        throw new JCSP_InternalError (
-	  "\n*** AltingBarrier enable sequence finished " +
-	  "with 'active' count not equal to one: " + active
-	);
+  /* Returns the root coordinate of this group. */
+  private AltingBarrierCoordinate root () {
+    AltingBarrierCoordinate c = this;
+    while (c.parent != null) {
+      c = c.parent;
+    }
+    return c;
+  }
+
+  /*
+   * Waits until no sequence is active in this group and starts an enable
+   * sequence.  Returns false, having started nothing, if this has joined
+   * another group.
+   */
+  private synchronized boolean acquire () {
+    try {
+      while ((active > 0) && (parent == null)) {
+        // This may be a spurious wakeup.  More likely, this is a properly
+        // notified wakeup that has been raced to the monitor by another
+        // thread (quite possibly the notifying one) that has (re-)acquired
+        // it and set 'active' greater than zero.  Either way, wait again.
+        wait ();
       }
-      active = 0;
-      activeLock.notify ();
     }
+    catch (InterruptedException e) {
+      throw new ProcessInterruptedException (e.toString ());
+    }
+    if (parent != null) {
+      return false;
+    }
+    if (active != 0) {
+      throw new JCSP_InternalError (
+        "\n*** AltingBarrier enable sequence starting " +
+        "with 'active' count not equal to zero: " + active
+      );
+    }
+    active = 1;
+    return true;
+  }
+
+  /* Finishes an enable sequence started by acquire. */
+  private synchronized void release () {
+    if (active != 1) {
+      throw new JCSP_InternalError (
+        "\n*** AltingBarrier enable sequence finished " +
+        "with 'active' count not equal to one: " + active
+      );
+    }
+    active = 0;
+    notify ();
+  }
+
+  /* Invoked at start of an enable sequence involving a barrier. */
+  void startEnable () {
+    while (!root ().acquire ()) {
+      // the group was joined to another while we waited
+    }
+  }
+
+  /* Invoked at finish of an unsuccessful enable sequence involving a barrier. */
+  void finishEnable () {
+    root ().release ();
   }
 
   /*
@@ -98,35 +208,37 @@ class AltingBarrierCoordinate {     // package-only visible class
    *
    * @param n The number of processes being released to start their disable sequences.
    */
-  static void startDisable (int n) {
+  void startDisable (int n) {
     if (n <= 0) {
       throw new JCSP_InternalError (
         "\n*** attempt to start " + n + " disable sequences!"
       );
     }
-    synchronized (activeLock) {               // not necessary ... ?
-      if (active != 1) {
+    final AltingBarrierCoordinate root = root ();
+    synchronized (root) {                     // not necessary ... ?
+      if (root.active != 1) {
         throw new JCSP_InternalError (
-	  "\n*** completed AltingBarrier found in ALT sequence " +
-	  "with 'active' count not equal to one: " + active
-	);
+          "\n*** completed AltingBarrier found in ALT sequence " +
+          "with 'active' count not equal to one: " + root.active
+        );
       }
-      active = n;
+      root.active = n;
     }
   }
 
   /* Invoked at finish of a disable sequence selecting a barrier. */
-  static void finishDisable () {
-    synchronized (activeLock) {
-      if (active < 1) {
+  void finishDisable () {
+    final AltingBarrierCoordinate root = root ();
+    synchronized (root) {
+      if (root.active < 1) {
         throw new JCSP_InternalError (
-	  "\n*** AltingBarrier disable sequence finished " +
-	  "with 'active' count less than one: " + active
-	);
+          "\n*** AltingBarrier disable sequence finished " +
+          "with 'active' count less than one: " + root.active
+        );
       }
-      active--;
-      if (active == 0) {
-        activeLock.notify ();
+      root.active--;
+      if (root.active == 0) {
+        root.notify ();
       }
     }
   }
@@ -0,0 +1,78 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+class AltingChannelInputDoubleImpl extends AltingChannelInputDouble {
+
+	private ChannelInternalsDouble channel;
+	private int immunity;
+	
+	AltingChannelInputDoubleImpl(ChannelInternalsDouble _channel, int _immunity) {
+		channel = _channel;
+		immunity = _immunity;
+	}
+
+	/**
+	 * Returns true if this may be left enabled in an {@link Alternative} between selections.
+	 */
+	boolean staysEnabled() {
+		return channel instanceof PersistentlyEnabled;
+	}
+	
+	
+	public boolean pending() {
+		return channel.readerPending();
+	}
+	
+	boolean disable() {
+		return channel.readerDisable();
+	}
+
+	boolean enable(Alternative alt) {
+		return channel.readerEnable(alt);
+	}
+
+	public void endRead() {
+		channel.endRead();
+	}
+
+	public double read() {
+		return channel.read();
+	}
+
+	public double startRead() {
+		return channel.startRead();
+	}
+
+	public void poison(int strength) {
+		if (strength > immunity) {
+			channel.readerPoison(strength);
+		}
+	}
+
+}
@@ -36,6 +36,13 @@ class AltingChannelInputImpl<T> extends AltingChannelInput<T> {
 		channel = _channel;
 		immunity = _immunity;
 	}
+
+	/**
+	 * Returns true if this may be left enabled in an {@link Alternative} between selections.
+	 */
+	boolean staysEnabled() {
+		return channel instanceof PersistentlyEnabled;
+	}
 	
 	
 	public boolean pending() {
@@ -55,15 +62,24 @@ class AltingChannelInputImpl<T> extends AltingChannelInput<T> {
 	}
 
 	public T read() {
+		if (FlightEvents.recording) {
+			return FlightEvents.read(this, channel, false);
+		}
 		return channel.read();
 	}
 
 	public T startRead() {
+		if (FlightEvents.recording) {
+			return FlightEvents.read(this, channel, true);
+		}
 		return channel.startRead();
 	}
 
 	public void poison(int strength) {
 		if (strength > immunity) {
+			if (FlightEvents.recording) {
+				FlightEvents.poison(this, true, strength);
+			}
 			channel.readerPoison(strength);
 		}
 	}
@@ -36,6 +36,13 @@ class AltingChannelInputIntImpl extends AltingChannelInputInt {
 		channel = _channel;
 		immunity = _immunity;
 	}
+
+	/**
+	 * Returns true if this may be left enabled in an {@link Alternative} between selections.
+	 */
+	boolean staysEnabled() {
+		return channel instanceof PersistentlyEnabled;
+	}
 	
 	
 	public boolean pending() {
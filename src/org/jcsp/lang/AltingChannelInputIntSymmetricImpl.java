@@ -28,7 +28,7 @@ package org.jcsp.lang;
 class AltingChannelInputIntSymmetricImpl extends AltingChannelInputInt
   implements MultiwaySynchronisation {
 
-  private final AltingBarrier ab;
+  final AltingBarrier ab;
 
   private final ChannelInputInt in;
 
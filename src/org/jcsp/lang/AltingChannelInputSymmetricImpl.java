@@ -28,7 +28,7 @@ package org.jcsp.lang;
 class AltingChannelInputSymmetricImpl<T> extends AltingChannelInput<T>
   implements MultiwaySynchronisation {
 
-  private final AltingBarrier ab;
+  final AltingBarrier ab;
 
   private final ChannelInput<T> in;
 
@@ -28,7 +28,7 @@ package org.jcsp.lang;
 class AltingChannelOutputIntSymmetricImpl extends AltingChannelOutputInt
   implements MultiwaySynchronisation {
 
-  private final AltingBarrier ab;
+  final AltingBarrier ab;
 
   private final ChannelOutputInt out;
 
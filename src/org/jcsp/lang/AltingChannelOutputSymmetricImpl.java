@@ -28,7 +28,7 @@ package org.jcsp.lang;
 class AltingChannelOutputSymmetricImpl<T> extends AltingChannelOutput<T>
   implements MultiwaySynchronisation {
 
-  private final AltingBarrier ab;
+  final AltingBarrier ab;
 
   private final ChannelOutput<T> out;
 
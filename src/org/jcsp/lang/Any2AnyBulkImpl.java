@@ -0,0 +1,79 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link Any2AnyImpl} over a buffered channel, adding the bulk operations.
+ * A bulk write holds the shared write lock for the whole batch, and a bulk read
+ * holds the shared read lock while it drains the buffer.
+ */
+class Any2AnyBulkImpl<T> extends Any2AnyImpl<T> implements BulkChannelInternals<T> {
+
+	private BulkChannelInternals<T> channel;
+
+	Any2AnyBulkImpl(BulkChannelInternals<T> _channel) {
+		super(_channel);
+		channel = _channel;
+	}
+
+	public int drainTo(T[] values, int max) {
+		Mutex readMutex = getReadMutex();
+		readMutex.claim();
+		try
+		{
+			return channel.drainTo(values, max);
+		}
+		finally
+		{
+			readMutex.release();
+		}
+	}
+
+	public void write(T[] values, int off, int len) {
+		ReentrantLock writeMonitor = getWriteMonitor();
+		writeMonitor.lock();
+		try {
+			channel.write(values, off, len);
+		}
+		finally {
+			writeMonitor.unlock();
+		}
+	}
+
+	public SharedChannelInput<T> in() {
+		return new SharedBulkChannelInputImpl<T>(this,0);
+	}
+
+	public SharedChannelOutput<T> out() {
+		return new SharedBulkChannelOutputImpl<T>(this,0);
+	}
+
+}
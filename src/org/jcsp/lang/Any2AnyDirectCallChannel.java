@@ -0,0 +1,91 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * This is the super-class for any-to-any <TT>interface</TT>-specific CALL channels
+ * whose calls are carried out by the <I>servers</I>, handed to them directly.
+ * It is safe for use by many clients and many servers, and so also serves for
+ * one-to-any CALL channels.
+ * <H2>Description</H2>
+ * Please see {@link Any2OneDirectCallChannel} for how a direct CALL channel works
+ * and is written, and {@link Any2AnyCallChannel} for the use of <I>any-any</I>
+ * CALL channels.  As with those, <I>servers</I> cannot <TT>ALT</TT> over the channel.
+ * <P>
+ * Each CALL is accepted by just one <I>server</I>.  The <I>servers</I> take CALLs in
+ * turn but, unlike those of an <TT>Any2AnyCallChannel</TT>, carry them out concurrently.
+ *
+ * @see org.jcsp.lang.Any2AnyCallChannel
+ * @see org.jcsp.lang.Any2OneDirectCallChannel
+ * @see org.jcsp.lang.DirectCall
+ */
+
+public abstract class Any2AnyDirectCallChannel implements ChannelAccept
+{
+    /** The calls made and not yet accepted */
+    private final CallHandOff calls = new CallHandOff (true);
+
+    /**
+     * This is invoked by a <I>server</I> when it commits to accepting a CALL
+     * from a <I>client</I>.  The parameter supplied must be a reference to this <I>server</I>.
+     * It will not complete until a CALL has been made and carried out.
+     *
+     * @param server the <I>server</I> process receiving the CALL.
+     * @return the value given by the <I>client</I> to {@link #call(DirectCall, int)},
+     * indicating which method was called.
+     */
+    public int accept (CSProcess server)
+    {
+        return calls.accept (server);
+    }
+
+    /**
+     * This is invoked by a method of the channel to make a CALL: it will not complete
+     * until a <I>server</I> has accepted the CALL and carried it out.
+     *
+     * @param call the CALL.
+     * @param selected the value to be returned to the <I>server</I> by its
+     * {@link #accept accept}, indicating which method was called.
+     */
+    protected void call (DirectCall call, int selected)
+    {
+        calls.call (call, selected);
+    }
+
+    /**
+     * This is invoked by a method of the channel to make a CALL, returning zero to the
+     * <I>server</I>'s {@link #accept accept}.
+     *
+     * @param call the CALL.
+     */
+    protected void call (DirectCall call)
+    {
+        calls.call (call, 0);
+    }
+}
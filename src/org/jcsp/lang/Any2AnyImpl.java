@@ -27,16 +27,28 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 class Any2AnyImpl<T> implements Any2AnyChannel<T>, ChannelInternals<T> {
 
         private ChannelInternals<T> channel;
         /** The mutex on which readers must synchronize */
         private final Mutex readMutex = new Mutex();
-        private final Object writeMonitor = new Object();
+        private final ReentrantLock writeMonitor = new ReentrantLock();
     
         Any2AnyImpl(ChannelInternals<T> _channel) {
                 channel = _channel;
         }
+
+        /** The reader mutex, for the bulk reads of {@link Any2AnyBulkImpl} */
+        Mutex getReadMutex() {
+                return readMutex;
+        }
+
+        /** The writer lock, for the bulk writes of {@link Any2AnyBulkImpl} */
+        ReentrantLock getWriteMonitor() {
+                return writeMonitor;
+        }
         
         public SharedChannelInput<T> in() {
                 return new SharedChannelInputImpl(this,0);
@@ -101,15 +113,23 @@ class Any2AnyImpl<T> implements Any2AnyChannel<T>, ChannelInternals<T> {
         }
 
         public void write(T obj) {
-                synchronized (writeMonitor) {
+                writeMonitor.lock();
+                try {
                         channel.write(obj);
+                }
+                finally {
+                        writeMonitor.unlock();
                 }                
         }
 
         public void writerPoison(int strength) {
-                synchronized (writeMonitor) {                
+                writeMonitor.lock();
+                try {                
                         channel.writerPoison(strength);
                 }
+                finally {
+                        writeMonitor.unlock();
+                }
         }
 
 }
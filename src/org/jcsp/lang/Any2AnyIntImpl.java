@@ -27,12 +27,14 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 class Any2AnyIntImpl implements Any2AnyChannelInt, ChannelInternalsInt {
 
 	private ChannelInternalsInt channel;
 	/** The mutex on which readers must synchronize */
     private final Mutex readMutex = new Mutex();
-    private final Object writeMonitor = new Object();
+    private final ReentrantLock writeMonitor = new ReentrantLock();
     
     Any2AnyIntImpl(ChannelInternalsInt _channel) {
 		channel = _channel;
@@ -101,15 +103,23 @@ class Any2AnyIntImpl implements Any2AnyChannelInt, ChannelInternalsInt {
 	}
 
 	public void write(int n) {
-		synchronized (writeMonitor) {
+		writeMonitor.lock();
+		try {
 			channel.write(n);
+		}
+		finally {
+			writeMonitor.unlock();
 		}		
 	}
 
 	public void writerPoison(int strength) {
-		synchronized (writeMonitor) {		
+		writeMonitor.lock();
+		try {		
 			channel.writerPoison(strength);
 		}
+		finally {
+			writeMonitor.unlock();
+		}
 	}
 
 }
@@ -0,0 +1,48 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * This implements an any-to-one double channel,
+ * safe for use by many writers and one reader.Refer to the {@link Any2OneChannelDouble} interface for
+ * a fuller description.
+ *
+ * @see org.jcsp.lang.One2OneChannelDoubleImpl
+ * @see org.jcsp.lang.One2AnyChannelDoubleImpl
+ * @see org.jcsp.lang.Any2AnyChannelDoubleImpl
+ * @see org.jcsp.util.doubles.ChannelDataStoreDouble
+ *
+ */
+
+class Any2OneChannelDoubleImpl extends Any2OneDoubleImpl
+{
+	Any2OneChannelDoubleImpl() {
+		super(new One2OneChannelDoubleImpl());
+	}
+}
@@ -0,0 +1,140 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * This is the super-class for any-to-one <TT>interface</TT>-specific CALL channels
+ * whose calls are carried out by the <I>server</I>, handed to it directly.
+ * It is safe for use by many clients and one server, and so also serves for
+ * one-to-one CALL channels.
+ * <H2>Description</H2>
+ * Please see {@link One2OneCallChannel} for general information about CALL channels.
+ * A {@link Any2OneCallChannel} makes each call in the <I>client</I>'s own thread:
+ * the <I>client</I> synchronises with the <I>server</I> (<TT>join</TT>), invokes the
+ * <I>server</I>'s method and synchronises again to release it (<TT>fork</TT>).  That
+ * is two rendezvous, in which the <I>client</I> and <I>server</I> each wait for the
+ * other.  A direct CALL channel instead hands the call itself, as a {@link DirectCall},
+ * to the <I>server</I>, which carries it out during its <TT>accept</TT> and then
+ * releases the <I>client</I>.  The <I>client</I> waits once, and a round trip takes
+ * one hand-off in each direction, roughly halving its latency.
+ * <P>
+ * So far as <I>clients</I> and <I>servers</I> are concerned, there is no difference:
+ * the <I>client</I> calls a method of the channel, and the <I>server</I> accepts with
+ * <TT>accept (this)</TT> (and may <TT>ALT</TT> over the channel).  Only the methods of
+ * the channel are written differently:
+ * <PRE>
+ * import org.jcsp.lang.*;
+ * <I></I>
+ * public class Any2OneFooChannel extends Any2OneDirectCallChannel implements Foo {
+ * <I></I>
+ *   public static final int CALCULATE = 0;
+ *   public static final int PROCESSQUERY = 1;
+ *   public static final int SHUTDOWN = 2;
+ * <I></I>
+ *   public int calculate (final int i, final boolean b) {
+ *     final CalculateCall call = new CalculateCall (i, b);
+ *     call (call, CALCULATE);
+ *     return call.result;
+ *   }
+ * <I></I>
+ *   ...  and similarly for processQuery and shutdown
+ * <I></I>
+ * }
+ * </PRE>
+ * where <TT>CalculateCall</TT> is as shown for {@link DirectCall}.  The <I>server</I>'s
+ * method runs in the <I>server</I>'s thread, so it must not rely on being run by the
+ * <I>client</I>.  Anything it throws is thrown to the <I>client</I>.
+ * <P>
+ * <I>Note:</I> a <I>client</I> waiting for its call cannot be interrupted, as the
+ * <I>server</I> may already be carrying it out.  An interrupt is kept for later.
+ *
+ * @see org.jcsp.lang.Any2OneCallChannel
+ * @see org.jcsp.lang.Any2AnyDirectCallChannel
+ * @see org.jcsp.lang.DirectCall
+ */
+
+public abstract class Any2OneDirectCallChannel extends AltingChannelAccept
+{
+    /** The calls made and not yet accepted */
+    private final CallHandOff calls = new CallHandOff (false);
+
+    /**
+     * This is invoked by a <I>server</I> when it commits to accepting a CALL
+     * from a <I>client</I>.  The parameter supplied must be a reference to this <I>server</I>.
+     * It will not complete until a CALL has been made and carried out.
+     *
+     * @param server the <I>server</I> process receiving the CALL.
+     * @return the value given by the <I>client</I> to {@link #call(DirectCall, int)},
+     * indicating which method was called.
+     */
+    public int accept (CSProcess server)
+    {
+        return calls.accept (server);
+    }
+
+    /**
+     * This is invoked by a method of the channel to make a CALL: it will not complete
+     * until a <I>server</I> has accepted the CALL and carried it out.
+     *
+     * @param call the CALL.
+     * @param selected the value to be returned to the <I>server</I> by its
+     * {@link #accept accept}, indicating which method was called.
+     */
+    protected void call (DirectCall call, int selected)
+    {
+        calls.call (call, selected);
+    }
+
+    /**
+     * This is invoked by a method of the channel to make a CALL, returning zero to the
+     * <I>server</I>'s {@link #accept accept}.
+     *
+     * @param call the CALL.
+     */
+    protected void call (DirectCall call)
+    {
+        calls.call (call, 0);
+    }
+
+    /**
+     * This is one of the {@link Guard} methods needed by the {@link Alternative} class.
+     */
+    boolean enable (Alternative alt)
+    {
+        return calls.enable (alt);
+    }
+
+    /**
+     * This is one of the {@link Guard} methods needed by the {@link Alternative} class.
+     */
+    boolean disable ()
+    {
+        return calls.disable ();
+    }
+}
@@ -27,15 +27,22 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 class Any2OneImpl<T> implements ChannelInternals<T>, Any2OneChannel<T> {
 
 	private ChannelInternals<T> channel;
-	private final Object writeMonitor = new Object();
+	private final ReentrantLock writeMonitor = new ReentrantLock();
 	
 	Any2OneImpl(ChannelInternals<T> _channel) {
 		channel = _channel;
 	}
 
+	/** The writer lock, for the bulk writes of {@link Any2OneBulkImpl} */
+	ReentrantLock getWriteMonitor() {
+		return writeMonitor;
+	}
+
 	//Begin never used:
 	public void endRead() {
 		channel.endRead();
@@ -68,16 +75,24 @@ class Any2OneImpl<T> implements ChannelInternals<T>, Any2OneChannel<T> {
 	//End never used
 
 	public void write(T obj) {
-		synchronized (writeMonitor) {
+		writeMonitor.lock();
+		try {
 			channel.write(obj);
 		}
+		finally {
+			writeMonitor.unlock();
+		}
 
 	}
 
 	public void writerPoison(int strength) {
-		synchronized (writeMonitor) {
+		writeMonitor.lock();
+		try {
 			channel.writerPoison(strength);
 		}
+		finally {
+			writeMonitor.unlock();
+		}
 
 	}
 
@@ -27,10 +27,12 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.ReentrantLock;
+
 class Any2OneIntImpl implements ChannelInternalsInt, Any2OneChannelInt {
 
 	private ChannelInternalsInt channel;
-	private final Object writeMonitor = new Object();
+	private final ReentrantLock writeMonitor = new ReentrantLock();
 	
 	Any2OneIntImpl(ChannelInternalsInt _channel) {
 		channel = _channel;
@@ -68,16 +70,24 @@ class Any2OneIntImpl implements ChannelInternalsInt, Any2OneChannelInt {
 	//End never used
 
 	public void write(int n) {
-		synchronized (writeMonitor) {
+		writeMonitor.lock();
+		try {
 			channel.write(n);
 		}
+		finally {
+			writeMonitor.unlock();
+		}
 
 	}
 
 	public void writerPoison(int strength) {
-		synchronized (writeMonitor) {
+		writeMonitor.lock();
+		try {
 			channel.writerPoison(strength);
 		}
+		finally {
+			writeMonitor.unlock();
+		}
 
 	}
 
@@ -0,0 +1,102 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+class Any2OneLongImpl implements ChannelInternalsLong, Any2OneChannelLong {
+
+	private ChannelInternalsLong channel;
+	private final ReentrantLock writeMonitor = new ReentrantLock();
+	
+	Any2OneLongImpl(ChannelInternalsLong _channel) {
+		channel = _channel;
+	}
+
+	//Begin never used:
+	public void endRead() {
+		channel.endRead();
+	}
+
+	public long read() {
+		return channel.read();
+	}
+
+	public boolean readerDisable() {
+		return channel.readerDisable();
+	}
+
+	public boolean readerEnable(Alternative alt) {
+		return channel.readerEnable(alt);
+	}
+
+	public boolean readerPending() {
+		return channel.readerPending();
+	}
+
+	public void readerPoison(int strength) {
+		channel.readerPoison(strength);
+
+	}
+
+	public long startRead() {
+		return channel.startRead();
+	}
+	//End never used
+
+	public void write(long n) {
+		writeMonitor.lock();
+		try {
+			channel.write(n);
+		}
+		finally {
+			writeMonitor.unlock();
+		}
+
+	}
+
+	public void writerPoison(int strength) {
+		writeMonitor.lock();
+		try {
+			channel.writerPoison(strength);
+		}
+		finally {
+			writeMonitor.unlock();
+		}
+
+	}
+
+	public AltingChannelInputLong in() {
+		return new AltingChannelInputLongImpl(channel,0);
+	}
+
+	public SharedChannelOutputLong out() {
+		return new SharedChannelOutputLongImpl(this,0);
+	}
+
+}
@@ -0,0 +1,416 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This is a <I>Concurrent Read Exclusive Write</I> (CREW) lock, with the same use and
+ * fairness as a {@link Crew}, that needs no server process and adds optimistic reads.
+ * <H2>Description</H2>
+ * A {@link Crew} lock is served by a private process, with which each
+ * <TT>startRead</TT>, <TT>endRead</TT>, <TT>startWrite</TT> and <TT>endWrite</TT>
+ * communicates over a channel.  That is simple to reason about, but every read section
+ * costs two channel communications (and the context switches to and from the server),
+ * and every lock has a thread of its own.
+ * <P>
+ * An <TT>AtomicCrew</TT> keeps the number of readers, whether a writer is present and
+ * whether any process is waiting in a single atomic word.  A reader or writer that finds
+ * the lock free takes it with a single atomic update and releases it with another:
+ * no process is woken and no thread is needed.  Only a process that must wait joins a
+ * queue, on which it parks until it is given the lock.
+ * <P>
+ * The guarantees are those of a <TT>Crew</TT>: processes are admitted in the order
+ * they arrive once any have had to wait, so a writer is not starved by a stream of
+ * readers, nor readers by writers.  A reader arriving while a writer waits queues
+ * behind that writer, and the readers queued behind a writer are all admitted
+ * together when it finishes.
+ * <H2>Optimistic Reads</H2>
+ * A short read section may instead be run <I>optimistically</I>, without taking the
+ * lock at all, and then checked:
+ * <PRE>
+ *   long stamp = crew.tryOptimisticRead ();
+ *   ...                                  // read the fields of resource into locals
+ *   if (!crew.validate (stamp)) {        // a writer intervened: read again, properly
+ *     crew.startRead ();
+ *     try {
+ *       ...                              // read the fields of resource into locals
+ *     }
+ *     finally {
+ *       crew.endRead ();
+ *     }
+ *   }
+ *   ...                                  // use the locals
+ * </PRE>
+ * {@link #validate validate} returns true only if no writer has held the lock since
+ * the stamp was taken, in which case the values read are consistent.  Until then they
+ * may not be: an optimistic section must only read into local variables and must not
+ * act on what it reads (follow references that may be null, index arrays, loop and so
+ * on) before it is validated.  An optimistic read costs two reads of the atomic word,
+ * writes nothing shared and never blocks.
+ * <P>
+ * <I>Note:</I> as with a <TT>Crew</TT>, the lock is not re-entrant and the
+ * <TT>start</TT> and <TT>end</TT> methods must be correctly paired.
+ *
+ * @see org.jcsp.lang.Crew
+ */
+
+public class AtomicCrew
+{
+    /** The unit of the count of readers holding the lock */
+    private static final long READER = 1L;
+
+    /** The bits of the state holding the count of readers */
+    private static final long READERS = (1L << 31) - 1;
+
+    /** The bit of the state set while a process is queued */
+    private static final long QUEUED = 1L << 31;
+
+    /** The bit of the state set while a writer holds the lock */
+    private static final long WRITER = 1L << 32;
+
+    /** The unit of the count of writes, in the remaining bits of the state */
+    private static final long VERSION = 1L << 33;
+
+    /** The bits of the state making an optimistic read stamp: the count of writes and the writer bit */
+    private static final long STAMP = ~(READERS | QUEUED);
+
+    /** <TT>VarHandle.acquireFence()</TT>, or null if it is not supported (before Java 9) */
+    private static final MethodHandle acquireFence;
+
+    static
+    {
+        MethodHandle fence = null;
+        try
+        {
+            fence = MethodHandles.lookup ().findStatic (Class.forName ("java.lang.invoke.VarHandle"),
+                                                        "acquireFence", MethodType.methodType (void.class));
+        }
+        catch (Exception e)
+        {
+            fence = null;
+        }
+        acquireFence = fence;
+    }
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    /**
+     * A process waiting in the queue.
+     */
+    private static final class Waiter
+    {
+        final Thread thread = Thread.currentThread ();
+
+        final boolean writer;
+
+        /** WAITING, then GRANTED when it is given the lock or CANCELLED if it is interrupted first */
+        final AtomicInteger state = new AtomicInteger (WAITING);
+
+        /** The next waiter in the queue, guarded by queueLock */
+        Waiter next;
+
+        Waiter (boolean writer)
+        {
+            this.writer = writer;
+        }
+    }
+
+    /** The count of writes, the writer and queued bits and the count of readers */
+    private final AtomicLong state = new AtomicLong (VERSION);
+
+    /** Guards the queue, for the short time it takes to join it or admit from it */
+    private final ReentrantLock queueLock = new ReentrantLock ();
+
+    /** The first and last waiters in the queue, guarded by queueLock */
+    private Waiter head, tail;
+
+    private final Object shared;
+
+    /**
+     * Construct a lock for CREW-guarded operations on a shared resource.
+     */
+    public AtomicCrew ()
+    {
+        this.shared = null;
+    }
+
+    /**
+     * Construct a lock for CREW-guarded operations on a shared resource.
+     *
+     * @param shared the shared resource for which this lock is to be used (see
+     * {@link #getShared <TT>getShared</TT>}).
+     */
+    public AtomicCrew (Object shared)
+    {
+        this.shared = shared;
+    }
+
+    /**
+     * This must be invoked <I>before</I> any read operations on the associated shared resource.
+     */
+    public void startRead ()
+    {
+        long s = state.get ();
+        while ((s & (WRITER | QUEUED)) == 0)
+        {
+            if (state.compareAndSet (s, s + READER))
+            {
+                return;
+            }
+            s = state.get ();
+        }
+        await (new Waiter (false), "startRead ()");
+    }
+
+    /**
+     * This must be invoked <I>after</I> any read operations on the associated shared resource.
+     */
+    public void endRead ()
+    {
+        final long s = state.addAndGet (-READER);
+        if ((s & (READERS | QUEUED)) == QUEUED)
+        {
+            admit ();
+        }
+    }
+
+    /**
+     * This must be invoked <I>before</I> any write operations on the associated shared resource.
+     */
+    public void startWrite ()
+    {
+        final long s = state.get ();
+        if (((s & (WRITER | QUEUED | READERS)) == 0) && state.compareAndSet (s, s | WRITER))
+        {
+            return;
+        }
+        await (new Waiter (true), "startWrite ()");
+    }
+
+    /**
+     * This must be invoked <I>after</I> any write operations on the associated shared resource.
+     */
+    public void endWrite ()
+    {
+        // clears the writer bit and counts the write, invalidating optimistic reads
+        final long s = state.addAndGet (VERSION - WRITER);
+        if ((s & QUEUED) != 0)
+        {
+            admit ();
+        }
+    }
+
+    /**
+     * Starts an optimistic read section, returning a stamp to be checked by
+     * {@link #validate validate} at its end.  This never blocks.
+     *
+     * @return the stamp, or zero if a writer holds the lock (in which case
+     * <TT>validate</TT> will fail).
+     */
+    public long tryOptimisticRead ()
+    {
+        final long s = state.get ();
+        return ((s & WRITER) != 0) ? 0 : (s & STAMP);
+    }
+
+    /**
+     * Ends an optimistic read section, returning whether the values read since the
+     * stamp was taken are consistent: that is, whether no writer has held the lock
+     * in the meantime.  If not, the section must be repeated holding the lock.
+     *
+     * @param stamp the stamp returned by {@link #tryOptimisticRead tryOptimisticRead}.
+     * @return true if the section read consistent values.
+     */
+    public boolean validate (long stamp)
+    {
+        if (acquireFence != null)
+        {
+            try
+            {
+                acquireFence.invokeExact ();
+            }
+            catch (Throwable e)
+            {
+                throw new JCSP_InternalError ("*** Unable to order an optimistic read\n" + e.toString ());
+            }
+            return (stamp != 0) && ((state.get () & STAMP) == stamp);
+        }
+        // without fences, the reads of the section are ordered by an atomic update
+        final long s = state.get ();
+        return (stamp != 0) && state.compareAndSet (s, s) && ((s & STAMP) == stamp);
+    }
+
+    /**
+     * This returns the shared resource associated with this lock by its
+     * {@link #AtomicCrew(java.lang.Object) constructor}.
+     * Note: if the {@link #AtomicCrew parameterless constructor} was used,
+     * this will return <TT>null</TT>.
+     *
+     * @return the shared resource associated with this lock.
+     */
+    public Object getShared ()
+    {
+        return shared;
+    }
+
+    /**
+     * Queues a waiter, admits it at once if it can be, and otherwise waits (spinning
+     * for a bounded period, then parking) until it is admitted.  A waiter still
+     * waiting when the thread is interrupted is cancelled.  Otherwise the interrupt
+     * is kept for later.
+     */
+    private void await (Waiter waiter, String where)
+    {
+        queueLock.lock ();
+        try
+        {
+            if (tail == null)
+            {
+                head = waiter;
+            }
+            else
+            {
+                tail.next = waiter;
+            }
+            tail = waiter;
+            long s;
+            do
+            {
+                s = state.get ();
+            }
+            while (((s & QUEUED) == 0) && !state.compareAndSet (s, s | QUEUED));
+            admitQueued ();
+        }
+        finally
+        {
+            queueLock.unlock ();
+        }
+        boolean interrupted = false;
+        for (int spins = 0; waiter.state.get () != GRANTED; spins++)
+        {
+            if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+            {
+                continue;
+            }
+            LockSupport.park (this);
+            if (Thread.interrupted ())
+            {
+                if (waiter.state.compareAndSet (WAITING, CANCELLED))
+                {
+                    // a cancelled writer at the head may have been holding back readers
+                    admit ();
+                    throw new ProcessInterruptedException ("*** Thrown from AtomicCrew." + where + "\n"
+                                                           + new InterruptedException ().toString ());
+                }
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread ().interrupt ();
+        }
+    }
+
+    /**
+     * Admits what can be admitted from the queue.
+     */
+    private void admit ()
+    {
+        queueLock.lock ();
+        try
+        {
+            admitQueued ();
+        }
+        finally
+        {
+            queueLock.unlock ();
+        }
+    }
+
+    /**
+     * Admits waiters, in order, from the head of the queue: a writer if no process holds
+     * the lock, or all the readers up to the next writer if no writer holds it.  Cancelled
+     * waiters are dropped.  Clears the queued bit if that empties the queue.  The queue
+     * lock must be held.
+     */
+    private void admitQueued ()
+    {
+        while (head != null)
+        {
+            final Waiter w = head;
+            if (w.state.get () != CANCELLED)
+            {
+                final long s = state.get ();
+                final long held = w.writer ? (WRITER | READERS) : WRITER;
+                if (((s & held) != 0) || !state.compareAndSet (s, w.writer ? (s | WRITER) : (s + READER)))
+                {
+                    if ((s & held) != 0)
+                    {
+                        return;
+                    }
+                    continue;      // a reader left, or a writer finished: look again
+                }
+                if (!w.state.compareAndSet (WAITING, GRANTED))
+                {
+                    // cancelled meanwhile: give back what it was given
+                    state.addAndGet (w.writer ? -WRITER : -READER);
+                }
+                else
+                {
+                    LockSupport.unpark (w.thread);
+                }
+            }
+            head = w.next;
+            w.next = null;
+            if (head == null)
+            {
+                tail = null;
+                long s;
+                do
+                {
+                    s = state.get ();
+                }
+                while (!state.compareAndSet (s, s & ~QUEUED));
+            }
+            else if (w.writer && (w.state.get () == GRANTED))
+            {
+                return;
+            }
+        }
+    }
+}
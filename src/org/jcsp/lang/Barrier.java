@@ -29,6 +29,8 @@
 package org.jcsp.lang;
 
 import java.io.Serializable;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This enables <I>barrier</I> synchronisation between a set of processes.
@@ -378,15 +380,29 @@ public class Barrier implements Serializable
   private int countDown = 0;
 
   /**
-   * The monitor lock used for synchronisation.
+   * The lock used for synchronisation.
+   * <P>
+   * This is a <TT>java.util.concurrent</TT> lock, rather than a Java monitor, so that
+   * a process running in a virtual thread does not pin its carrier thread while it
+   * waits on the barrier.
    */
-  private Object barrierLock = new Object ();
+  private final ReentrantLock barrierLock = new ReentrantLock ();
+
+  /**
+   * The condition on which processes wait for the current cycle to complete.
+   */
+  private final Condition barrierCycle = barrierLock.newCondition ();
 
   /**
    * The even/odd flag used to detect spurious wakeups.
    */
   private boolean evenOddCycle = true;      // could be initialised to false ...
 
+  /**
+   * The metrics recording the synchronisations, or null if they are not measured.
+   */
+  transient volatile BarrierMetrics metrics = null;
+
   /**
    * Construct a barrier initially associated with no processes.
    */
@@ -436,10 +452,14 @@ public class Barrier implements Serializable
         "*** Attempt to set a negative enrollment on a barrier\n"
       );
     }
-    synchronized (barrierLock) {
+    barrierLock.lock ();
+    try {
       this.nEnrolled = nEnrolled;
       countDown = nEnrolled;
     }
+    finally {
+      barrierLock.unlock ();
+    }
 //System.out.println ("Barrier.reset : " + nEnrolled + ", " + countDown);
   }
 
@@ -449,18 +469,22 @@ public class Barrier implements Serializable
    * processes associated with the barrier have synchronised (or resigned).
    */
   public void sync () {
-    synchronized (barrierLock) {
+    final BarrierMetrics m = metrics;
+    final long start = (m == null) ? 0 : System.nanoTime ();
+    final Object event = FlightEvents.startSync ();
+    barrierLock.lock ();
+    try {
       countDown--;
 //System.out.println ("Barrier.sync : " + nEnrolled + ", " + countDown);
       if (countDown > 0) {
         try {
           boolean spuriousCycle = evenOddCycle;
-          barrierLock.wait ();
+          barrierCycle.await ();
 	  while (spuriousCycle == evenOddCycle) {
 	    if (Spurious.logging) {
 	      SpuriousLog.record (SpuriousLog.BarrierSync);
 	    }
-	    barrierLock.wait ();
+	    barrierCycle.await ();
           }	  
         }
         catch (InterruptedException e) {
@@ -472,9 +496,37 @@ public class Barrier implements Serializable
         countDown = nEnrolled;
         evenOddCycle = !evenOddCycle;         // to detect spurious wakeups  :(
 //System.out.println ("Barrier.sync : " + nEnrolled + ", " + countDown);
-        barrierLock.notifyAll ();
+        barrierCycle.signalAll ();
       }
     }
+    finally {
+      barrierLock.unlock ();
+    }
+    if (m != null) {
+      m.synced (start);
+    }
+    if (event != null) {
+      FlightEvents.synced (event, this);
+    }
+  }
+
+  /**
+   * Sets the metrics recording the synchronisations made on this barrier: how many
+   * there are and how long the processes spend in them.  By default, they are not
+   * measured.
+   *
+   * @param metrics the metrics, or null to stop measuring.
+   */
+  public void setMetrics (final BarrierMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the metrics recording the synchronisations made on this barrier,
+   * or null if they are not measured.
+   */
+  public BarrierMetrics getMetrics () {
+    return metrics;
   }
 
   /**
@@ -505,10 +557,14 @@ public class Barrier implements Serializable
    * If not honoured, things will go wrong.
    */
   public void enroll () {
-    synchronized (barrierLock) {
+    barrierLock.lock ();
+    try {
       nEnrolled++;
       countDown++;
     }
+    finally {
+      barrierLock.unlock ();
+    }
 //System.out.println ("Barrier.enroll : " + nEnrolled + ", " + countDown);
   }
 
@@ -536,7 +592,8 @@ public class Barrier implements Serializable
    * 
    */
   public void resign () {
-    synchronized (barrierLock) {
+    barrierLock.lock ();
+    try {
       nEnrolled--;
       countDown--;
 //System.out.println ("Barrier.resign : " + nEnrolled + ", " + countDown);
@@ -544,7 +601,7 @@ public class Barrier implements Serializable
         countDown = nEnrolled;
         evenOddCycle = !evenOddCycle;         // to detect spurious wakeups  :(
 //System.out.println ("Barrier.resign : " + nEnrolled + ", " + countDown);
-        barrierLock.notifyAll ();
+        barrierCycle.signalAll ();
       }
       else if (countDown < 0) {
         throw new BarrierError (
@@ -552,6 +609,9 @@ public class Barrier implements Serializable
 	);
       }
     }
+    finally {
+      barrierLock.unlock ();
+    }
   }
 
 }
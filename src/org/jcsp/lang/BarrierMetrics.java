@@ -0,0 +1,149 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import javax.management.ObjectName;
+
+/**
+ * This collects the metrics of a {@link Barrier} and publishes them by JMX.
+ * <H2>Description</H2>
+ * A <TT>BarrierMetrics</TT> counts the synchronisations made on a barrier and the
+ * time the processes spend in them, waiting for the others.  It is registered,
+ * by {@link #register register}, with the platform MBean server under the name
+ * <TT>org.jcsp:type=Barrier,name="<I>name</I>"</TT>.
+ * <P>
+ * Measuring is opt-in: a barrier is measured once it is given metrics with
+ * {@link Barrier#setMetrics(BarrierMetrics)}.  The counters are striped, so that
+ * the processes synchronising on the barrier do not contend for them.
+ *
+ * @see org.jcsp.lang.BarrierMetricsMBean
+ * @see org.jcsp.lang.ChannelMetrics
+ */
+
+public final class BarrierMetrics implements BarrierMetricsMBean
+{
+    /** The name of the barrier */
+    private final String name;
+
+    /** The name under which this is registered, or null if it is not */
+    private volatile ObjectName objectName;
+
+    /** The number of synchronisations */
+    private final StripedCounter syncs = new StripedCounter();
+
+    /** The total time spent in synchronisations */
+    private final StripedCounter syncNanos = new StripedCounter();
+
+    /**
+     * Constructs the metrics of a barrier, without registering them.
+     *
+     * @param name the name of the barrier.
+     */
+    public BarrierMetrics(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Constructs the metrics of a barrier and registers them with the platform MBean server.
+     *
+     * @param name the name of the barrier.
+     * @return the metrics.
+     *
+     * @throws IllegalArgumentException if metrics are already registered with the name.
+     */
+    public static BarrierMetrics register(String name)
+    {
+        final BarrierMetrics metrics = new BarrierMetrics(name);
+        metrics.objectName = MetricsRegistry.register(metrics, "Barrier", name);
+        return metrics;
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if they are registered.
+     */
+    public void unregister()
+    {
+        final ObjectName registered = objectName;
+        if (registered != null)
+        {
+            objectName = null;
+            MetricsRegistry.unregister(registered);
+        }
+    }
+
+    /**
+     * Returns the name under which these metrics are registered, or null if they are not.
+     */
+    public ObjectName getObjectName()
+    {
+        return objectName;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getSyncs()
+    {
+        return syncs.sum();
+    }
+
+    public long getSyncWaitNanos()
+    {
+        return syncNanos.sum();
+    }
+
+    public long getMeanSyncWaitNanos()
+    {
+        final long n = syncs.sum();
+        return (n == 0) ? 0 : syncNanos.sum() / n;
+    }
+
+    public void reset()
+    {
+        syncs.reset();
+        syncNanos.reset();
+    }
+
+    public String toString()
+    {
+        return "BarrierMetrics[" + name + ": syncs=" + getSyncs() + ", syncWaitNanos=" + getSyncWaitNanos() + "]";
+    }
+
+    /**
+     * Records a synchronisation that started at the given time.
+     */
+    void synced(long start)
+    {
+        syncNanos.add(System.nanoTime() - start);
+        syncs.add(1);
+    }
+}
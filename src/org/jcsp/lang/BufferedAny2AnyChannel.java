@@ -80,7 +80,7 @@ import org.jcsp.util.*;
  * @author P.D. Austin and P.H. Welch
  */
 
-class BufferedAny2AnyChannel<T> extends Any2AnyImpl<T>
+class BufferedAny2AnyChannel<T> extends Any2AnyBulkImpl<T>
 {
 	/**
      * Constructs a new BufferedAny2AnyChannel with the specified ChannelDataStore.
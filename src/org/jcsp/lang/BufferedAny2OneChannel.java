@@ -75,7 +75,7 @@ import org.jcsp.util.*;
  * @author P.H. Welch
  */
 
-class BufferedAny2OneChannel<T> extends Any2OneImpl<T>
+class BufferedAny2OneChannel<T> extends Any2OneBulkImpl<T>
 {
 	/**
      * Constructs a new BufferedAny2OneChannel with the specified ChannelDataStore.
@@ -86,4 +86,16 @@ class BufferedAny2OneChannel<T> extends Any2OneImpl<T>
     {
         super(new BufferedOne2OneChannel<T>(data));
     }
+
+    /**
+     * Constructs a new BufferedAny2OneChannel with the specified ChannelDataStore,
+     * or with a clone of it.
+     *
+     * @param data The ChannelDataStore used to store the data for the channel
+     * @param copy whether the channel should clone <TT>data</TT> rather than use it
+     */
+    BufferedAny2OneChannel(ChannelDataStore<T> data, boolean copy)
+    {
+        super(new BufferedOne2OneChannel<T>(data, copy));
+    }
 }
@@ -80,7 +80,7 @@ import org.jcsp.util.*;
  * @author P.H. Welch
  */
 
-class BufferedOne2AnyChannel<T> extends One2AnyImpl<T>
+class BufferedOne2AnyChannel<T> extends One2AnyBulkImpl<T>
 {
     /**
      * Constructs a new BufferedOne2AnyChannel with the specified ChannelDataStore.
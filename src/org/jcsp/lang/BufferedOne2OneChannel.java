@@ -28,6 +28,9 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.jcsp.util.*;
 
 /**
@@ -61,12 +64,15 @@ import org.jcsp.util.*;
  * @author P.H. Welch
  */
 
-class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T>
+class BufferedOne2OneChannel<T> implements One2OneChannel<T>, BulkChannelInternals<T>, PersistentlyEnabled
 {
     /** The ChannelDataStore used to store the data for the channel */
     private final ChannelDataStore<T> data;
     
-    private final Object rwMonitor = new Object();
+    private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+    /** The condition on which the reader and writer wait for each other */
+    private final Condition rwReady = rwMonitor.newCondition ();
     
     private Alternative alt;
     
@@ -76,11 +82,23 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      * @param data the ChannelDataStore used to store the data for the channel
      */
     public BufferedOne2OneChannel(ChannelDataStore<T> data)
+    {
+        this(data, true);
+    }
+
+    /**
+     * Constructs a new BufferedOne2OneChannel with the specified ChannelDataStore,
+     * or with a clone of it.
+     *
+     * @param data the ChannelDataStore used to store the data for the channel
+     * @param copy whether the channel should clone <TT>data</TT> rather than use it
+     */
+    BufferedOne2OneChannel(ChannelDataStore<T> data, boolean copy)
     {
         if (data == null)
             throw new IllegalArgumentException
                     ("Null ChannelDataStore given to channel constructor ...\n");
-        this.data = (ChannelDataStore<T>) data.clone();
+        this.data = copy ? (ChannelDataStore<T>) data.clone() : data;
     }
 
     /**
@@ -89,15 +107,16 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      * @return the object read from the channel.
      */
     public T read () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         if (data.getState () == ChannelDataStore.EMPTY) {
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
   	  while (data.getState () == ChannelDataStore.EMPTY) {
   	    if (Spurious.logging) {
   	      SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
   	    }
-  	    rwMonitor.wait ();
+  	    rwReady.await ();
   	  }
           }
           catch (InterruptedException e) {
@@ -106,21 +125,25 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
             );
           }
         }
-        rwMonitor.notify ();
+        rwReady.signal ();
         return data.get ();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     public T startRead() {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         if (data.getState () == ChannelDataStore.EMPTY) {
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
       while (data.getState () == ChannelDataStore.EMPTY) {
         if (Spurious.logging) {
           SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
         }
-        rwMonitor.wait ();
+        rwReady.await ();
       }
           }
           catch (InterruptedException e) {
@@ -132,12 +155,19 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
         
         return data.startGet();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     public void endRead() {
-      synchronized(rwMonitor) {
+      rwMonitor.lock ();
+      try {
         data.endGet();
-        rwMonitor.notify ();
+        rwReady.signal ();
+      }
+      finally {
+        rwMonitor.unlock ();
       }
     }
 
@@ -147,21 +177,22 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      * @param value the object to write to the channel.
      */
     public void write (T value) {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         data.put (value);
         if (alt != null) {
           alt.schedule ();
         } else {
-          rwMonitor.notify ();
+          rwReady.signal ();
         }
         if (data.getState () == ChannelDataStore.FULL) {
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
   	  while (data.getState () == ChannelDataStore.FULL) {
   	    if (Spurious.logging) {
   	      SpuriousLog.record (SpuriousLog.One2OneChannelXWrite);
   	    }
-  	    rwMonitor.wait ();
+  	    rwReady.await ();
   	  }
           }
           catch (InterruptedException e) {
@@ -171,6 +202,134 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
           }
         }
       }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+
+    /**
+     * Writes <TT>len</TT> <TT>Object</TT>s, taken from <TT>values</TT> starting at
+     * <TT>off</TT>, to the channel.  Each time the buffer has room, as many as fit
+     * are put in one go and the reader is woken once.
+     *
+     * @param values the array holding the objects to write to the channel.
+     * @param off the index of the first object to write.
+     * @param len the number of objects to write.
+     */
+    public void write (T[] values, int off, int len) {
+      if (off < 0 || len < 0 || off + len > values.length)
+        throw new IndexOutOfBoundsException
+                ("*** Bad range given to One2OneChannel.write (Object[], int, int)\n");
+      rwMonitor.lock ();
+      try {
+        while (len > 0) {
+          final int n = putAll (data, values, off, len);
+          off += n;
+          len -= n;
+          if (alt != null) {
+            alt.schedule ();
+          } else {
+            rwReady.signal ();
+          }
+          if (data.getState () == ChannelDataStore.FULL) {
+            try {
+              rwReady.await ();
+              while (data.getState () == ChannelDataStore.FULL) {
+                if (Spurious.logging) {
+                  SpuriousLog.record (SpuriousLog.One2OneChannelXWrite);
+                }
+                rwReady.await ();
+              }
+            }
+            catch (InterruptedException e) {
+              throw new ProcessInterruptedException (
+                "*** Thrown from One2OneChannel.write (Object[], int, int)\n" + e.toString ()
+              );
+            }
+          }
+        }
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+
+    /**
+     * Reads all the <TT>Object</TT>s held by the channel, up to <TT>max</TT> of them,
+     * into <TT>values</TT>.  Blocks until there is at least one.
+     *
+     * @param values the array to receive the objects read from the channel.
+     * @param max the maximum number of objects to read.
+     * @return the number of objects read.
+     */
+    public int drainTo (T[] values, int max) {
+      if (max < 0 || max > values.length)
+        throw new IndexOutOfBoundsException
+                ("*** Bad maximum given to One2OneChannel.drainTo (Object[], int)\n");
+      if (max == 0)
+        return 0;
+      rwMonitor.lock ();
+      try {
+        if (data.getState () == ChannelDataStore.EMPTY) {
+          try {
+            rwReady.await ();
+            while (data.getState () == ChannelDataStore.EMPTY) {
+              if (Spurious.logging) {
+                SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
+              }
+              rwReady.await ();
+            }
+          }
+          catch (InterruptedException e) {
+            throw new ProcessInterruptedException (
+              "*** Thrown from One2OneChannel.drainTo (Object[], int)\n" + e.toString ()
+            );
+          }
+        }
+        rwReady.signal ();
+        return getAll (data, values, 0, max);
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+
+    /**
+     * Puts as many of <TT>values</TT> into <TT>data</TT> as it will accept, using
+     * {@link BulkChannelDataStore#putAll} if <TT>data</TT> supports it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>data</TT> is not <TT>FULL</TT> and <TT>len</TT> is positive.
+     *
+     * @return the number of values put.
+     */
+    static <T> int putAll (ChannelDataStore<T> data, T[] values, int off, int len) {
+      if (data instanceof BulkChannelDataStore) {
+        return ((BulkChannelDataStore<T>) data).putAll (values, off, len);
+      }
+      int n = 0;
+      do {
+        data.put (values[off + n++]);
+      } while ((n < len) && (data.getState () != ChannelDataStore.FULL));
+      return n;
+    }
+
+    /**
+     * Takes up to <TT>max</TT> values out of <TT>data</TT>, using
+     * {@link BulkChannelDataStore#getAll} if <TT>data</TT> supports it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>data</TT> is not <TT>EMPTY</TT> and <TT>max</TT> is positive.
+     *
+     * @return the number of values taken.
+     */
+    static <T> int getAll (ChannelDataStore<T> data, T[] values, int off, int max) {
+      if (data instanceof BulkChannelDataStore) {
+        return ((BulkChannelDataStore<T>) data).getAll (values, off, max);
+      }
+      int n = 0;
+      do {
+        values[off + n++] = data.get ();
+      } while ((n < max) && (data.getState () != ChannelDataStore.EMPTY));
+      return n;
     }
 
     /**
@@ -183,7 +342,8 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      * @return true if the channel has data that can be read, else false
      */
     public boolean readerEnable (Alternative alt) {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         if (data.getState () == ChannelDataStore.EMPTY) {
           this.alt = alt;
           return false;
@@ -192,6 +352,9 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
           return true;
         }
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
 
     /**
@@ -203,10 +366,14 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      * @return true if the channel has data that can be read, else false
      */
     public boolean readerDisable () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         alt = null;
         return data.getState () != ChannelDataStore.EMPTY;
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
 
     /**
@@ -245,9 +412,13 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      * @return state of the channel.
      */
     public boolean readerPending () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         return (data.getState () != ChannelDataStore.EMPTY);
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     /**
@@ -261,7 +432,7 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      */
     public AltingChannelInput<T> in()
     {
-        return new AltingChannelInputImpl<T>(this,0);
+        return new AltingBulkChannelInputImpl<T>(this,0);
     }
 
     /**
@@ -275,7 +446,7 @@ class BufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T
      */
     public ChannelOutput<T> out()
     {
-        return new ChannelOutputImpl<T>(this,0);
+        return new BulkChannelOutputImpl<T>(this,0);
     }
     
 //  No poison in these channels:
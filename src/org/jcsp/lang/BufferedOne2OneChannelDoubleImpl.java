@@ -0,0 +1,324 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jcsp.util.ChannelDataStore;
+import org.jcsp.util.doubles.*;
+
+/**
+ * This implements a one-to-one double channel with user-definable buffering.
+ * <H2>Description</H2>
+ * <TT>BufferedOne2OneChannelDoubleImpl</TT> implements a one-to-one double channel with
+ * user-definable buffering.  Multiple readers or multiple writers are
+ * not allowed -- these are catered for by {@link BufferedAny2OneChannel},
+ * {@link BufferedOne2AnyChannel} or {@link BufferedAny2AnyChannel}.
+ * <P>
+ * The reading process may {@link Alternative <TT>ALT</TT>} on this channel.
+ * The writing process is committed (i.e. it may not back off).
+ * <P>
+ * The constructor requires the user to provide
+ * the channel with a <I>plug-in</I> driver conforming to the
+ * {@link org.jcsp.util.doubles.ChannelDataStoreDouble <TT>ChannelDataStoreDouble</TT>}
+ * interface.  This allows a variety of different channel semantics to be
+ * introduced -- including buffered channels of user-defined capacity
+ * (including infinite), overwriting channels (with various overwriting
+ * policies) etc..
+ * Standard examples are given in the <TT>org.jcsp.util</TT> package, but
+ * <I>careful users</I> may write their own.
+ *
+ * @see org.jcsp.lang.Alternative
+ * @see org.jcsp.lang.BufferedAny2OneChannelDoubleImpl
+ * @see org.jcsp.lang.BufferedOne2AnyChannelDoubleImpl
+ * @see org.jcsp.lang.BufferedAny2AnyChannelDoubleImpl
+ * @see org.jcsp.util.doubles.ChannelDataStoreDouble
+ *
+ */
+
+class BufferedOne2OneChannelDoubleImpl implements One2OneChannelDouble, ChannelInternalsDouble, PersistentlyEnabled
+{
+  /** The monitor synchronising reader and writer on this channel */
+  private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+  /** The condition on which the reader and writer wait for each other */
+  private final Condition rwReady = rwMonitor.newCondition ();
+
+  /** The Alternative class that controls the selection */
+  private Alternative alt;
+  
+    /** The ChannelDataStoreDouble used to store the data for the channel */
+
+    private final ChannelDataStoreDouble data;  
+    
+    /*************Methods from One2OneChannelDouble******************************/
+
+    /**
+     * Returns the <code>AltingChannelInputDouble</code> object to use for this
+     * channel. As <code>One2OneChannelDoubleImpl</code> implements
+     * <code>AltingChannelInputDouble</code> itself, this method simply returns
+     * a reference to the object that it is called on.
+     *
+     * @return the <code>AltingChannelInputDouble</code> object to use for this
+     *          channel.
+     */
+    public AltingChannelInputDouble in()
+    {
+        return new AltingChannelInputDoubleImpl(this,0);
+    }
+
+    /**
+     * Returns the <code>ChannelOutputDouble</code> object to use for this
+     * channel. As <code>One2OneChannelDoubleImpl</code> implements
+     * <code>ChannelOutputDouble</code> itself, this method simply returns
+     * a reference to the object that it is called on.
+     *
+     * @return the <code>ChannelOutputDouble</code> object to use for this
+     *          channel.
+     */
+    public ChannelOutputDouble out()
+    {
+    	return new ChannelOutputDoubleImpl(this,0);
+    }
+
+    /**
+     * Constructs a new BufferedOne2OneChannelDoubleImpl with the specified ChannelDataStoreDouble.
+     *
+     * @param data the ChannelDataStoreDouble used to store the data for the channel
+     */
+    public BufferedOne2OneChannelDoubleImpl(ChannelDataStoreDouble data)
+    {
+        if (data == null)
+            throw new IllegalArgumentException
+                    ("Null ChannelDataStoreDouble given to channel constructor ...\n");
+        this.data = (ChannelDataStoreDouble) data.clone();
+    }
+
+    /**
+     * Reads a <TT>double</TT> from the channel.
+     *
+     * @return the double read from the channel.
+     */
+    public double read () {
+      rwMonitor.lock ();
+      try {
+        if (data.getState () == ChannelDataStoreDouble.EMPTY) {
+          try {
+            rwReady.await ();
+  	  while (data.getState () == ChannelDataStoreDouble.EMPTY) {
+  	    if (Spurious.logging) {
+  	      SpuriousLog.record (SpuriousLog.One2OneChannelIntXRead);
+  	    }
+  	    rwReady.await ();
+  	  }
+          }
+          catch (InterruptedException e) {
+            throw new ProcessInterruptedException (
+              "*** Thrown from One2OneChannelDouble.read (double)\n" + e.toString ()
+            );
+          }
+        }
+        rwReady.signal ();
+        return data.get ();
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+
+    public double startRead() {
+      rwMonitor.lock ();
+      try {
+        if (data.getState () == ChannelDataStore.EMPTY) {
+          try {
+            rwReady.await ();
+      while (data.getState () == ChannelDataStore.EMPTY) {
+        if (Spurious.logging) {
+          SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
+        }
+        rwReady.await ();
+      }
+          }
+          catch (InterruptedException e) {
+            throw new ProcessInterruptedException (
+              "*** Thrown from One2OneChannel.read (double)\n" + e.toString ()
+            );
+          }
+        }
+        
+        return data.startGet();
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+    
+    public void endRead() {
+      rwMonitor.lock ();
+      try {
+        data.endGet();
+        rwReady.signal ();
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }    
+    
+    /**
+     * Writes a <TT>double</TT> to the channel.
+     *
+     * @param value the double to write to the channel.
+     */
+    public void write (double value) {
+      rwMonitor.lock ();
+      try {
+        data.put (value);
+        if (alt != null) {
+          alt.schedule ();
+        } else {
+          rwReady.signal ();
+        }
+        if (data.getState () == ChannelDataStoreDouble.FULL) {
+          try {
+            rwReady.await ();
+  	  while (data.getState () == ChannelDataStoreDouble.FULL) {
+  	    if (Spurious.logging) {
+  	      SpuriousLog.record (SpuriousLog.One2OneChannelIntXWrite);
+  	    }
+  	    rwReady.await ();
+  	  }
+          }
+          catch (InterruptedException e) {
+            throw new ProcessInterruptedException (
+              "*** Thrown from One2OneChannelDouble.write (double)\n" + e.toString ()
+            );
+          }
+        }
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+
+    /**
+     * turns on Alternative selection for the channel. Returns true if the
+     * channel has data that can be read immediately.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @param alt the Alternative class which will control the selection
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerEnable (Alternative alt) {
+      rwMonitor.lock ();
+      try {
+        if (data.getState () == ChannelDataStoreDouble.EMPTY) {
+          this.alt = alt;
+          return false;
+        }
+        else {
+          return true;
+        }
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+
+    /**
+     * turns off Alternative selection for the channel. Returns true if the
+     * channel contained data that can be read.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerDisable () {
+      rwMonitor.lock ();
+      try {
+        alt = null;
+        return data.getState () != ChannelDataStoreDouble.EMPTY;
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+
+    /**
+     * Returns whether there is data pending on this channel.
+     * <P>
+     * <I>Note: if there is, it won't go away until you read it.  But if there
+     * isn't, there may be some by the time you check the result of this method.</I>
+     * <P>
+     * This method is provided for convenience.  Its functionality can be provided
+     * by <I>Pri Alting</I> the channel against a <TT>SKIP</TT> guard, although
+     * at greater run-time and syntactic cost.  For example, the following code
+     * fragment:
+     * <PRE>
+     *   if (c.pending ()) {
+     *     double x = c.read ();
+     *     ...  do something with x
+     *   } else (
+     *     ...  do something else
+     *   }
+     * </PRE>
+     * is equivalent to:
+     * <PRE>
+     *   if (c_pending.priSelect () == 0) {
+     *     double x = c.read ();
+     *     ...  do something with x
+     *   } else (
+     *     ...  do something else
+     * }
+     * </PRE>
+     * where earlier would have had to have been declared:
+     * <PRE>
+     * final Alternative c_pending =
+     *   new Alternative (new Guard[] {c, new Skip ()});
+     * </PRE>
+     *
+     * @return state of the channel.
+     */
+    public boolean readerPending () {
+      rwMonitor.lock ();
+      try {
+        return (data.getState () != ChannelDataStoreDouble.EMPTY);
+      }
+      finally {
+        rwMonitor.unlock ();
+      }
+    }
+    
+//  No poison in these channels:
+	  public void writerPoison(int strength) {	  
+	  }
+	  public void readerPoison(int strength) {	  
+	  }
+}
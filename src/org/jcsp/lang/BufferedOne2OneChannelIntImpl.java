@@ -28,6 +28,9 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.jcsp.util.ChannelDataStore;
 import org.jcsp.util.ints.*;
 
@@ -62,10 +65,13 @@ import org.jcsp.util.ints.*;
  * @author P.H. Welch
  */
 
-class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInternalsInt
+class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInternalsInt, PersistentlyEnabled
 {
   /** The monitor synchronising reader and writer on this channel */
-  private Object rwMonitor = new Object();
+  private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+  /** The condition on which the reader and writer wait for each other */
+  private final Condition rwReady = rwMonitor.newCondition ();
 
   /** The Alternative class that controls the selection */
   private Alternative alt;
@@ -123,15 +129,16 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
      * @return the integer read from the channel.
      */
     public int read () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         if (data.getState () == ChannelDataStoreInt.EMPTY) {
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
   	  while (data.getState () == ChannelDataStoreInt.EMPTY) {
   	    if (Spurious.logging) {
   	      SpuriousLog.record (SpuriousLog.One2OneChannelIntXRead);
   	    }
-  	    rwMonitor.wait ();
+  	    rwReady.await ();
   	  }
           }
           catch (InterruptedException e) {
@@ -140,21 +147,25 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
             );
           }
         }
-        rwMonitor.notify ();
+        rwReady.signal ();
         return data.get ();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
 
     public int startRead() {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         if (data.getState () == ChannelDataStore.EMPTY) {
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
       while (data.getState () == ChannelDataStore.EMPTY) {
         if (Spurious.logging) {
           SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
         }
-        rwMonitor.wait ();
+        rwReady.await ();
       }
           }
           catch (InterruptedException e) {
@@ -166,12 +177,19 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
         
         return data.startGet();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     public void endRead() {
-      synchronized(rwMonitor) {
+      rwMonitor.lock ();
+      try {
         data.endGet();
-        rwMonitor.notify ();
+        rwReady.signal ();
+      }
+      finally {
+        rwMonitor.unlock ();
       }
     }    
     
@@ -181,21 +199,22 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
      * @param value the integer to write to the channel.
      */
     public void write (int value) {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         data.put (value);
         if (alt != null) {
           alt.schedule ();
         } else {
-          rwMonitor.notify ();
+          rwReady.signal ();
         }
         if (data.getState () == ChannelDataStoreInt.FULL) {
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
   	  while (data.getState () == ChannelDataStoreInt.FULL) {
   	    if (Spurious.logging) {
   	      SpuriousLog.record (SpuriousLog.One2OneChannelIntXWrite);
   	    }
-  	    rwMonitor.wait ();
+  	    rwReady.await ();
   	  }
           }
           catch (InterruptedException e) {
@@ -205,6 +224,9 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
           }
         }
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
 
     /**
@@ -217,7 +239,8 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
      * @return true if the channel has data that can be read, else false
      */
     public boolean readerEnable (Alternative alt) {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         if (data.getState () == ChannelDataStoreInt.EMPTY) {
           this.alt = alt;
           return false;
@@ -226,6 +249,9 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
           return true;
         }
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
 
     /**
@@ -237,10 +263,14 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
      * @return true if the channel has data that can be read, else false
      */
     public boolean readerDisable () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         alt = null;
         return data.getState () != ChannelDataStoreInt.EMPTY;
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
 
     /**
@@ -279,9 +309,13 @@ class BufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInterna
      * @return state of the channel.
      */
     public boolean readerPending () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         return (data.getState () != ChannelDataStoreInt.EMPTY);
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
 //  No poison in these channels:
@@ -0,0 +1,70 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * This extends {@link ChannelInput} with a bulk read for buffered channels.
+ * <H2>Description</H2>
+ * The reading-ends of the buffered object channels returned by {@link Channel}
+ * (and the channel factories) implement this interface as well as
+ * {@link AltingChannelInput} (or {@link SharedChannelInput}).
+ * {@link Channel#getBulkInput(ChannelInput)} reaches it:
+ * <PRE>
+ *   final BulkChannelInput&lt;Object&gt; in = Channel.getBulkInput (c.in ());
+ *   final Object[] batch = new Object[64];
+ *   ...
+ *   final int n = in.drainTo (batch, batch.length);
+ *   for (int i = 0; i &lt; n; i++) {
+ *     ...  process batch[i]
+ *   }
+ * </PRE>
+ * Everything currently held by the buffer (up to the given maximum) is moved out
+ * under a single acquisition of the channel's monitor, with a single wake-up
+ * of the writer.
+ * It may be used after an {@link Alternative} has selected the channel, just like
+ * {@link #read()}.
+ * <P>
+ * Unbuffered channels do not implement this interface.
+ *
+ * @see BulkChannelOutput
+ * @see org.jcsp.util.BulkChannelDataStore#getAll(Object[], int, int)
+ */
+public interface BulkChannelInput<T> extends ChannelInput<T>
+{
+    /**
+     * Reads as many Objects as are available, up to <TT>max</TT>, into
+     * <TT>values</TT> starting at index 0.  If none are available, this blocks
+     * until at least one is (so it returns at least one unless <TT>max</TT> is zero).
+     *
+     * @param values the array to receive the Objects.
+     * @param max the maximum number of Objects to read.
+     * @return the number of Objects read.
+     */
+    public int drainTo(T[] values, int max);
+}
@@ -0,0 +1,71 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * This extends {@link ChannelOutput} with a bulk <TT>write</TT> for buffered channels.
+ * <H2>Description</H2>
+ * The writing-ends of the buffered object channels returned by {@link Channel}
+ * (and the channel factories) implement this interface as well as
+ * {@link ChannelOutput} (or {@link SharedChannelOutput}).
+ * {@link Channel#getBulkOutput(ChannelOutput)} reaches it:
+ * <PRE>
+ *   final One2OneChannel&lt;Object&gt; c = Channel.one2one (new Buffer&lt;Object&gt; (100));
+ *   final BulkChannelOutput&lt;Object&gt; out = Channel.getBulkOutput (c.out ());
+ *   ...
+ *   out.write (batch, 0, batch.length);
+ * </PRE>
+ * Writing a batch has the same effect as writing each of its elements in turn
+ * (and, on a shared end, no other writer can interleave with it).  But each time
+ * the buffer has room, as many elements as will fit are moved in under a single
+ * acquisition of the channel's monitor, with a single wake-up of the reader.
+ * For streams of small messages this removes most of the per-message
+ * synchronisation cost.
+ * <P>
+ * Unbuffered channels do not implement this interface.
+ *
+ * @see BulkChannelInput
+ * @see org.jcsp.util.BulkChannelDataStore#putAll(Object[], int, int)
+ */
+public interface BulkChannelOutput<T> extends ChannelOutput<T>
+{
+    /**
+     * Writes <TT>len</TT> Objects, taken in order from <TT>values</TT> starting at
+     * index <TT>off</TT>, to the channel.  This blocks until the last of them has been
+     * accepted, exactly as the equivalent sequence of single <TT>write</TT>s would.
+     * <P>
+     * If the channel is poisoned part way through, the elements already written
+     * stay written and a {@link PoisonException} is thrown.
+     *
+     * @param values the array holding the Objects to write.
+     * @param off the index of the first Object to write.
+     * @param len the number of Objects to write.
+     */
+    public void write(T[] values, int off, int len);
+}
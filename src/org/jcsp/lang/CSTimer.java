@@ -49,6 +49,19 @@ package org.jcsp.lang;
  * <I>Implementation note: all </I><TT>CSTimer</TT><I>s currently
  * use the same </I><TT>System.currentTimeMillis</TT><I> time.</I>
  * </P>
+ * <P>
+ * For finer timing, each method has a nanosecond variant
+ * ({@link #readNanos <TT>readNanos</TT>}, {@link #setAlarmNanos <TT>setAlarmNanos</TT>},
+ * {@link #afterNanos <TT>afterNanos</TT>} and {@link #sleepNanos <TT>sleepNanos</TT>}),
+ * using <TT>System.nanoTime</TT> values.  These are not related to the millisecond
+ * times and the two must not be mixed.
+ * </P>
+ * <P>
+ * <I>Implementation note: timeouts and sleeps are not timed waits by the
+ * processes concerned.  They are kept by a single timer thread, shared by all
+ * </I><TT>CSTimer</TT><I>s, which wakes each process as its time is reached.
+ * So large numbers of processes can wait with timeouts at little cost.</I>
+ * </P>
  * <H2>Examples</H2>
  * The use of a <TT>CSTimer</TT> for setting timeouts on channel input is documented
  * in the {@link Alternative} class (see the examples
@@ -120,6 +133,17 @@ public class CSTimer extends Guard
      */
     private long msecs = 0;
 
+    /**
+     * The absolute timeout value (a <TT>System.nanoTime</TT> value) set by
+     * {@link #setAlarmNanos(long)}.
+     */
+    private long nanos = 0;
+
+    /**
+     * Set if the timeout was last set by {@link #setAlarmNanos(long)}.
+     */
+    private boolean nanoAlarm = false;
+
     /**
      * Sets the absolute timeout value that will trigger an <TT>Alternative</TT>
      * <I>select</I> operation (when this <TT>CSTimer</TT> is one of the guards
@@ -130,6 +154,29 @@ public class CSTimer extends Guard
     public void setAlarm(final long msecs)
     {
         this.msecs = msecs;
+        this.nanoAlarm = false;
+    }
+
+    /**
+     * Sets the absolute timeout value, in nanoseconds, that will trigger an
+     * <TT>Alternative</TT> <I>select</I> operation (when this <TT>CSTimer</TT> is
+     * one of the guards with which that <TT>Alternative</TT> was constructed).
+     *
+     * @param nanos the absolute timeout value, as returned by {@link #readNanos()}.
+     */
+    public void setAlarmNanos(final long nanos)
+    {
+        this.nanos = nanos;
+        this.nanoAlarm = true;
+    }
+
+    /**
+     * Returns the alarm value that has been set by the previous call to
+     * {@link #setAlarmNanos(long)}.
+     */
+    public long getAlarmNanos()
+    {
+        return nanos;
     }
 
     /**
@@ -154,6 +201,7 @@ public class CSTimer extends Guard
     public void set(final long msecs)
     {
         this.msecs = msecs;
+        this.nanoAlarm = false;
     }
 
     /**
@@ -166,6 +214,17 @@ public class CSTimer extends Guard
         return System.currentTimeMillis();
     }
 
+    /**
+     * Returns the current time in nanoseconds, measured from an arbitrary origin.
+     * This is only of use for timeouts and sleeps given in nanoseconds.
+     *
+     * @return the current <TT>System.nanoTime</TT> value
+     */
+    public long readNanos()
+    {
+        return System.nanoTime();
+    }
+
     /**
      * Puts the process to sleep until an absolute time is reached.
      *
@@ -175,15 +234,17 @@ public class CSTimer extends Guard
     {
         final long delay = msecs - System.currentTimeMillis();
         if (delay > 0)
-            try
-            {
-                Thread.sleep(delay);
-            }
-            catch (InterruptedException e)
-            {
-                throw new ProcessInterruptedException
-                        ("*** Thrown from CSTimer.after (long)\n" + e.toString());
-            }
+            TimerWheel.getInstance().sleepUntil(System.nanoTime() + (delay * 1000000L), "CSTimer.after (long)");
+    }
+
+    /**
+     * Puts the process to sleep until an absolute time, in nanoseconds, is reached.
+     *
+     * @param nanos the absolute time awaited, as returned by {@link #readNanos()}.  Note: if this time has already been reached, this returns straight away.
+     */
+    public void afterNanos(final long nanos)
+    {
+        TimerWheel.getInstance().sleepUntil(nanos, "CSTimer.afterNanos (long)");
     }
 
     /**
@@ -194,15 +255,18 @@ public class CSTimer extends Guard
     public void sleep(final long msecs)
     {
         if (msecs > 0)
-            try
-            {
-                Thread.sleep(msecs);
-            }
-            catch (InterruptedException e)
-            {
-                throw new ProcessInterruptedException
-                        ("*** Thrown from CSTimer.sleep (long)\n" + e.toString());
-            }
+            TimerWheel.getInstance().sleepUntil(System.nanoTime() + (msecs * 1000000L), "CSTimer.sleep (long)");
+    }
+
+    /**
+     * Puts the process to sleep for a specified time (nanoseconds).
+     *
+     * @param nanos the length of the sleep period.  Note: if this is negative, this returns straight away.
+     */
+    public void sleepNanos(final long nanos)
+    {
+        if (nanos > 0)
+            TimerWheel.getInstance().sleepUntil(System.nanoTime() + nanos, "CSTimer.sleepNanos (long)");
     }
 
     /**
@@ -211,10 +275,19 @@ public class CSTimer extends Guard
      * @param alt the Alternative doing the enabling.
      */
     boolean enable (Alternative alt) {
-        if ((msecs - System.currentTimeMillis ()) <= Spurious.earlyTimeout) {
+        if (nanoAlarm) {
+          if ((nanos - System.nanoTime ()) <= 0) {
+            return true;
+          } else {
+            alt.setTimeout (nanos);
+            return false;
+          }
+        }
+        final long delay = msecs - System.currentTimeMillis ();
+        if (delay <= Spurious.earlyTimeout) {
           return true;
         } else {
-          alt.setTimeout (msecs);
+          alt.setTimeout (System.nanoTime () + (delay * 1000000L));
           return false;
         }
       }
@@ -226,9 +299,12 @@ public class CSTimer extends Guard
         // final long now = System.currentTimeMillis ();
         // System.out.println ("*** CSTimer.disable: " + msecs + ", " + now);
         // return (msecs <= now);
+        if (nanoAlarm) {
+          return ((nanos - System.nanoTime ()) <= 0);
+        }
         return ((msecs - System.currentTimeMillis ()) <= Spurious.earlyTimeout);
         // WARNING: the above is an insufficient test to see if the timeout
-        // has expired ... since Java wait-with-timeouts sometimes return
-        // early!  See the implementation of Alternative for a work-around.
+        // has expired ... since the millisecond and nanosecond clocks may
+        // disagree slightly!  See the implementation of Alternative for a work-around.
       }
 }
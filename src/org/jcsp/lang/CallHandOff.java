@@ -0,0 +1,296 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This hands calls from <I>clients</I> directly to an accepting <I>server</I>,
+ * for the direct CALL channels.
+ * <H2>Description</H2>
+ * A <I>client</I> pushes its {@link DirectCall} onto a stack and parks.  The
+ * <I>server</I>, in <TT>accept</TT>, takes the whole stack at once (reversing it,
+ * so that calls are accepted in the order they were made), runs a call and then
+ * releases its <I>client</I>.  So each call costs one hand-off in each direction,
+ * where a {@link Any2OneCallChannel} makes two rendezvous (<TT>join</TT> and
+ * <TT>fork</TT>), with the <I>client</I> and <I>server</I> waiting on each other
+ * in between.
+ * <P>
+ * The <I>client</I> that makes the stack non-empty wakes the <I>server</I> (or
+ * schedules its {@link Alternative}).  The <I>server</I> publishes its thread before
+ * re-checking the stack, so a wake-up cannot be lost.  An <TT>Alternative</TT> is
+ * registered as by a {@link RingBufferedAny2OneChannel}.
+ * <P>
+ * If there may be several <I>servers</I>, taking a call is guarded by a lock, so
+ * that each call is taken by one of them.  The calls themselves run concurrently.
+ */
+final class CallHandOff
+{
+    private static final int IDLE = 0;
+    private static final int ALTING = 1;
+    private static final int SIGNALLING = 2;
+
+    /** The calls made and not yet taken by a server, most recent first */
+    private final AtomicReference<DirectCall> made = new AtomicReference<DirectCall> ();
+
+    /** The calls taken by a server and not yet accepted, oldest first (guarded by takeLock, if any) */
+    private DirectCall taken;
+
+    /** Guards taking calls, if there may be several servers */
+    private final ReentrantLock takeLock;
+
+    /** The thread of a server while it is (or is about to be) blocked */
+    private volatile Thread server;
+
+    /** Whether the server has enabled the channel in an Alternative */
+    private final AtomicInteger altState = new AtomicInteger (IDLE);
+
+    /** The Alternative class that controls the selection */
+    private volatile Alternative alt;
+
+    CallHandOff (boolean sharedServers)
+    {
+        takeLock = sharedServers ? new ReentrantLock () : null;
+    }
+
+    /**
+     * Makes a call: hands it to a server and waits until it has been carried out.
+     * The wait is not interruptible, as the server may already be running the call,
+     * but an interrupt is kept for later.
+     */
+    void call (DirectCall call, int selected)
+    {
+        call.client = Thread.currentThread ();
+        call.selected = selected;
+        call.failure = null;
+        call.done = false;
+        DirectCall top;
+        do
+        {
+            top = made.get ();
+            call.next = top;
+        }
+        while (!made.compareAndSet (top, call));
+        if (top == null)
+        {
+            final Thread s = server;
+            if (s != null)
+            {
+                LockSupport.unpark (s);
+            }
+            if ((altState.get () == ALTING) && altState.compareAndSet (ALTING, SIGNALLING))
+            {
+                alt.schedule ();
+                altState.set (IDLE);
+            }
+        }
+        boolean interrupted = false;
+        for (int spins = 0; !call.done; spins++)
+        {
+            if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+            {
+                continue;
+            }
+            LockSupport.park (this);
+            if (Thread.interrupted ())
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread ().interrupt ();
+        }
+        final Throwable failure = call.failure;
+        if (failure != null)
+        {
+            call.failure = null;
+            if (failure instanceof Error)
+            {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
+    }
+
+    /**
+     * Accepts a call: waits for one, runs it and releases its client.
+     *
+     * @return the value given by the client for the server.
+     */
+    int accept (CSProcess process)
+    {
+        final DirectCall call;
+        if (takeLock == null)
+        {
+            call = take ();
+        }
+        else
+        {
+            takeLock.lock ();
+            try
+            {
+                call = take ();
+            }
+            finally
+            {
+                takeLock.unlock ();
+            }
+        }
+        try
+        {
+            call.run (process);
+        }
+        catch (RuntimeException e)
+        {
+            call.failure = e;
+        }
+        catch (Error e)
+        {
+            call.failure = e;
+        }
+        // the call may be reused as soon as it is done
+        final Thread client = call.client;
+        final int selected = call.selected;
+        call.client = null;
+        call.done = true;
+        LockSupport.unpark (client);
+        return selected;
+    }
+
+    /**
+     * Takes the oldest call not yet accepted, waiting for one if there is none.
+     */
+    private DirectCall take ()
+    {
+        if (taken == null)
+        {
+            DirectCall calls = made.getAndSet (null);
+            if (calls == null)
+            {
+                calls = await ();
+            }
+            // reverse the stack into the order the calls were made
+            DirectCall oldest = null;
+            while (calls != null)
+            {
+                final DirectCall next = calls.next;
+                calls.next = oldest;
+                oldest = calls;
+                calls = next;
+            }
+            taken = oldest;
+        }
+        final DirectCall call = taken;
+        taken = call.next;
+        call.next = null;
+        return call;
+    }
+
+    /**
+     * Waits until a call is made, returning the stack of calls.
+     */
+    private DirectCall await ()
+    {
+        for (int spins = 0; true; spins++)
+        {
+            if (made.get () != null)
+            {
+                return made.getAndSet (null);
+            }
+            if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+            {
+                continue;
+            }
+            server = Thread.currentThread ();
+            if (made.get () == null)
+            {
+                LockSupport.park (this);
+            }
+            server = null;
+            if (Thread.interrupted ())
+            {
+                throw new ProcessInterruptedException ("*** Thrown from the accept () of a direct CALL channel\n"
+                                                       + new InterruptedException ().toString ());
+            }
+        }
+    }
+
+    /**
+     * Returns whether there is a call waiting to be accepted.
+     */
+    boolean pending ()
+    {
+        return (taken != null) || (made.get () != null);
+    }
+
+    /**
+     * Turns on Alternative selection for the channel.  Returns true if a call is waiting.
+     */
+    boolean enable (Alternative alt)
+    {
+        if (pending ())
+        {
+            return true;
+        }
+        // a client may still be scheduling the Alternative from a previous enable
+        while (altState.get () == SIGNALLING)
+        {
+            Thread.yield ();
+        }
+        this.alt = alt;
+        altState.set (ALTING);
+        // a call may have been made before the ALTING state was visible to the clients
+        return pending ();
+    }
+
+    /**
+     * Turns off Alternative selection for the channel.  Returns true if a call is waiting.
+     */
+    boolean disable ()
+    {
+        while (true)
+        {
+            final int s = altState.get ();
+            if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else if ((s == IDLE) || altState.compareAndSet (ALTING, IDLE))
+            {
+                break;
+            }
+        }
+        alt = null;
+        return pending ();
+    }
+}
@@ -29,14 +29,19 @@
 package org.jcsp.lang;
 
 import org.jcsp.util.ChannelDataStore;
+import org.jcsp.util.MappedBuffer;
+import org.jcsp.util.RingBuffer;
+import org.jcsp.util.doubles.ChannelDataStoreDouble;
 import org.jcsp.util.ints.ChannelDataStoreInt;
+import org.jcsp.util.ints.RingBufferInt;
+import org.jcsp.util.longs.ChannelDataStoreLong;
 
 /**
  * <p>This class provides static factory methods for constructing
  * all the different types of channel.
  * </p>
  * <p>
- * Channels carry either <i>Objects</i> or <i>integers</i>.
+ * Channels carry <i>Objects</i>, <i>integers</i>, <i>longs</i> or <i>doubles</i>.
  * </p>
  * <p>
  * Basic channels are zero-buffered: the writer and reader processes must synchronise.
@@ -169,6 +174,70 @@ public class Channel
     	return new Any2AnyChannelImpl<T>();
     }
 
+    /**
+     * This constructs a <i>one-any</i> Object channel for handing out work to a farm of
+     * reader processes.
+     * <p>
+     * The semantics are those of {@link #one2any()}, but the readers do not queue on a
+     * mutex to enter the channel: idle readers wait on a lock-free stack and the writer
+     * hands each message directly to one of them.  Idle readers are served last-in
+     * first-out.  The channel cannot be poisoned.
+     *
+     * @return the channel.
+     */
+    public static <T> One2AnyChannel<T> one2anyFarm()
+    {
+    	return new FarmAny2AnyChannel<T>();
+    }
+
+    /**
+     * This constructs an <i>any-any</i> Object channel for handing out work to a farm of
+     * reader processes.
+     * <p>
+     * The semantics are those of {@link #any2any()}, but neither the readers nor the
+     * writers queue on a mutex to enter the channel: whichever side has to wait does so
+     * on a lock-free stack, and the other side completes the hand-off directly.  The
+     * order in which the messages of different writers are read is not defined.  The
+     * channel cannot be poisoned.
+     *
+     * @return the channel.
+     */
+    public static <T> Any2AnyChannel<T> any2anyFarm()
+    {
+    	return new FarmAny2AnyChannel<T>();
+    }
+
+    /**
+     * This constructs an <i>Object carrying</i> channel that broadcasts each message
+     * from <i>one</i> writer to <i>every</i> one of a fixed number of readers.
+     * Each reader has its own input end, and may <i>ALT</i> on it.
+     * The channel is zero-buffered &ndash; the writer is released only when every reader
+     * has taken the message.  The channel cannot be poisoned.
+     *
+     * @param readers the number of readers.
+     * @return the channel.
+     */
+    public static <T> One2BroadcastChannel<T> one2broadcast(int readers)
+    {
+    	return new One2BroadcastChannelImpl<T>(readers);
+    }
+
+    /**
+     * This constructs an <i>Object carrying</i> channel that broadcasts each message
+     * from <i>one</i> writer to <i>every</i> one of a fixed number of readers, buffered
+     * by a ring of the size given to a {@link RingBuffer}: the writer may run ahead of
+     * the slowest reader by that many messages (with a size of zero, the channel is
+     * zero-buffered).  The channel cannot be poisoned.
+     *
+     * @param readers the number of readers.
+     * @param buffer defines the size (the channel allocates its own ring).
+     * @return the channel.
+     */
+    public static <T> One2BroadcastChannel<T> one2broadcast(int readers, RingBuffer<T> buffer)
+    {
+    	return new One2BroadcastChannelImpl<T>(readers, buffer);
+    }
+
     /**
      * This constructs a <i>one-one</i> Object channel with user chosen buffering size and policy.
      *
@@ -191,6 +260,24 @@ public class Channel
     	return new BufferedOne2AnyChannel<T>(buffer);
     }
     
+    /**
+     * This constructs a <i>one-any</i> Object channel buffered by a lock-free ring with the
+     * capacity of a {@link RingBuffer}.
+     * <p>
+     * The semantics are those of {@link #one2any(ChannelDataStore)} with a
+     * {@link org.jcsp.util.Buffer}, but the readers do not queue on a mutex: they claim
+     * messages from the ring with an atomic update, and wait on a lock-free stack while
+     * it is empty.  A bulk read takes a whole batch of messages in one update.  This suits
+     * a producer feeding a farm of workers.  The channel cannot be poisoned.
+     *
+     * @param buffer defines the size (the channel allocates its own ring).
+     * @return the channel.
+     */
+    public static <T> One2AnyChannel<T> one2anyRing(RingBuffer<T> buffer)
+    {
+    	return new RingBufferedAny2AnyChannel<T>(buffer);
+    }
+    
     /**
      * This constructs an <i>any-one</i> Object channel with user chosen buffering size and policy.
      *
@@ -202,6 +289,24 @@ public class Channel
     	return new BufferedAny2OneChannel<T>(buffer);
     }
     
+    /**
+     * This constructs an <i>any-one</i> Object channel buffered by a lock-free ring with the
+     * capacity of a {@link RingBuffer}.
+     * <p>
+     * The semantics are those of {@link #any2one(ChannelDataStore)} with a
+     * {@link org.jcsp.util.Buffer}, but the channel does not use a Java monitor: writers
+     * claim slots in the ring with an atomic update, so they do not queue for a lock,
+     * and only wait while the buffer is full.  The reader only waits while it is empty.
+     * This suits many producers feeding one consumer.  The channel cannot be poisoned.
+     *
+     * @param buffer defines the size (the channel allocates its own ring).
+     * @return the channel.
+     */
+    public static <T> Any2OneChannel<T> any2oneRing(RingBuffer<T> buffer)
+    {
+    	return new RingBufferedAny2OneChannel<T>(buffer);
+    }
+    
     /**
      * This constructs an <i>any-any</i> Object channel with user chosen buffering size and policy.
      *
@@ -213,6 +318,24 @@ public class Channel
     	return new BufferedAny2AnyChannel<T>(buffer);
     }
     
+    /**
+     * This constructs an <i>any-any</i> Object channel buffered by a lock-free ring with the
+     * capacity of a {@link RingBuffer}.
+     * <p>
+     * The semantics are those of {@link #any2any(ChannelDataStore)} with a
+     * {@link org.jcsp.util.Buffer}, but neither the writers nor the readers take a lock:
+     * both claim slots in the ring with atomic updates.  Readers wait on a lock-free stack
+     * while it is empty, and a bulk read takes a whole batch of messages in one update.
+     * This suits producers feeding a farm of workers.  The channel cannot be poisoned.
+     *
+     * @param buffer defines the size (the channel allocates its own ring).
+     * @return the channel.
+     */
+    public static <T> Any2AnyChannel<T> any2anyRing(RingBuffer<T> buffer)
+    {
+    	return new RingBufferedAny2AnyChannel<T>(buffer);
+    }
+    
     /**
      * This constructs a poisonable <i>one-one</i> Object channel.
      *
@@ -305,6 +428,102 @@ public class Channel
     	return new PoisonableBufferedAny2AnyChannel<T>(buffer, immunity);
     }
     
+    /**
+     * This constructs an <i>Object carrying</i> channel that
+     * may only be connected to <i>one</i> writer and <i>one</i> reader process at a time.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     * <p>
+     * The semantics are those of {@link #one2one()}, but the channel does not use
+     * a Java monitor: the rendezvous is made through an atomic state word and a
+     * waiting process spins briefly before parking its thread.  This can
+     * considerably reduce the cost of each communication when the processes
+     * run on different processors and arrive at the channel at nearly the same time.
+     *
+     * @return the channel.
+     */
+    public static <T> One2OneChannel<T> one2oneSpinning()
+    {
+    	return new SpinningOne2OneChannelImpl<T>();
+    }
+    
+    /**
+     * This constructs a poisonable <i>one-one</i> Object channel with the
+     * implementation described in {@link #one2oneSpinning()}.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static <T> One2OneChannel<T> one2oneSpinning(int immunity)
+    {
+    	return new SpinningOne2OneChannelImpl<T>(immunity);
+    }
+    
+    /**
+     * This constructs an <i>Object carrying</i> channel that
+     * may only be connected to <i>one</i> writer and <i>one</i> reader process at a time.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     * <p>
+     * The semantics are those of {@link #one2one()}, except that the channel cannot be
+     * poisoned, but the channel is as small as it can be: it uses no monitor, it is
+     * its own input and output end (so <code>in()</code> and <code>out()</code> allocate
+     * nothing) and it needs nothing extra to be used in an {@link Alternative}.  It is
+     * meant for networks of millions of channels, where heap is the limit.
+     *
+     * @return the channel.
+     */
+    public static <T> One2OneChannel<T> one2oneCompact()
+    {
+    	return new CompactOne2OneChannel<T>();
+    }
+    
+    /**
+     * This constructs a <i>one-one</i> Object channel buffered by a {@link RingBuffer}.
+     * <p>
+     * The semantics are those of {@link #one2one(ChannelDataStore)} with a
+     * {@link org.jcsp.util.Buffer} of the ring's capacity, but the channel does not use
+     * a Java monitor: while the buffer is neither empty nor full, the writer and
+     * the reader proceed without sharing any lock.  This suits high-rate streams
+     * between one producer and one consumer running on different processors.
+     *
+     * @param buffer defines the size (the channel will clone its own).
+     * @return the channel.
+     */
+    public static <T> One2OneChannel<T> one2one(RingBuffer<T> buffer)
+    {
+    	return new RingBufferedOne2OneChannel<T>(buffer);
+    }
+    
+    /**
+     * This constructs a <i>one-one</i> Object channel buffered by a {@link MappedBuffer}.
+     * <p>
+     * Unlike {@link #one2one(ChannelDataStore)}, the channel does not clone the buffer
+     * but uses it, so the messages already in the buffer's file are the first read from
+     * the channel, and those written and not read are still in the file afterwards.  The
+     * buffer must back no other channel, and should be closed when the channel is
+     * finished with.
+     *
+     * @param buffer the buffer for the channel.
+     * @return the channel.
+     */
+    public static <T> One2OneChannel<T> one2oneMapped(MappedBuffer<T> buffer)
+    {
+    	return new BufferedOne2OneChannel<T>(buffer, false);
+    }
+    
+    /**
+     * This constructs an <i>any-one</i> Object channel buffered by a {@link MappedBuffer}.
+     * <p>
+     * As with {@link #one2oneMapped(MappedBuffer)}, the channel uses the buffer rather
+     * than a clone of it.
+     *
+     * @param buffer the buffer for the channel.
+     * @return the channel.
+     */
+    public static <T> Any2OneChannel<T> any2oneMapped(MappedBuffer<T> buffer)
+    {
+    	return new BufferedAny2OneChannel<T>(buffer, false);
+    }
+    
     /**
      * This constructs an array of <i>one-one</i> Object channels.
      *
@@ -805,6 +1024,53 @@ public class Channel
     	return new PoisonableBufferedAny2AnyChannelInt(buffer, immunity);
     }
     
+    /**
+     * This constructs a <i>one-one</i> integer channel buffered by a {@link RingBufferInt}.
+     * <p>
+     * The semantics are those of {@link #one2oneInt(ChannelDataStoreInt)} with a
+     * {@link org.jcsp.util.ints.BufferInt} of the ring's capacity, but the channel does not use
+     * a Java monitor: while the buffer is neither empty nor full, the writer and
+     * the reader proceed without sharing any lock.
+     *
+     * @param buffer defines the size (the channel will clone its own).
+     * @return the channel.
+     */
+    public static One2OneChannelInt one2oneInt(RingBufferInt buffer)
+    {
+    	return new RingBufferedOne2OneChannelIntImpl(buffer);
+    }
+
+    /**
+     * This constructs an <i>integer carrying</i> channel that broadcasts each message
+     * from <i>one</i> writer to <i>every</i> one of a fixed number of readers.
+     * Each reader has its own input end, and may <i>ALT</i> on it.
+     * The channel is zero-buffered &ndash; the writer is released only when every reader
+     * has taken the message.  The channel cannot be poisoned.
+     *
+     * @param readers the number of readers.
+     * @return the channel.
+     */
+    public static One2BroadcastChannelInt one2broadcastInt(int readers)
+    {
+    	return new One2BroadcastChannelIntImpl(readers);
+    }
+
+    /**
+     * This constructs an <i>integer carrying</i> channel that broadcasts each message
+     * from <i>one</i> writer to <i>every</i> one of a fixed number of readers, buffered
+     * by a ring of the size given to a {@link RingBufferInt}: the writer may run ahead of
+     * the slowest reader by that many messages (with a size of zero, the channel is
+     * zero-buffered).  The channel cannot be poisoned.
+     *
+     * @param readers the number of readers.
+     * @param buffer defines the size (the channel allocates its own ring).
+     * @return the channel.
+     */
+    public static One2BroadcastChannelInt one2broadcastInt(int readers, RingBufferInt buffer)
+    {
+    	return new One2BroadcastChannelIntImpl(readers, buffer);
+    }
+    
     /**
      * This constructs an array of <i>one-one</i> integer channels.
      *
@@ -1108,133 +1374,1071 @@ public class Channel
     	return r;
     }
     
-    /* Helper methods to get arrays of channel ends ... */
-
     /**
-     * This extracts the <i>input-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>input-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs a <i>long carrying</i> channel that
+     * may only be connected to <i>one</i> writer and <i>one</i> reader process at a time.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
      *
-     * @param c an array of channels.
-     * @return the array of <i>input-ends</i> from the given channel array.
+     * @return the channel.
      */
-    public static <T> AltingChannelInput<T>[] getInputArray(One2OneChannel<T>[] c)
+    public static One2OneChannelLong one2oneLong()
     {
-        AltingChannelInput<T>[] in = (AltingChannelInput<T>[]) new AltingChannelInput[c.length];
-        for (int i = 0; i < c.length; i++)
-           in[i] = c[i].in();
-        return in;
+    	return new One2OneChannelLongImpl();
     }
-
+    
     /**
-     * This extracts the <i>input-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>input-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs a <i>long carrying</i> channel that
+     * may only be connected to <i>one</i> writer at a time,
+     * but <i>any</i> number of reader processes.
+     * The readers contend safely with each other to take the next message.
+     * Each message flows from the writer to <i>just one</i> of the readers &ndash;
+     * this is not a broadcasting channel.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
      *
-     * @param c an array of channels.
-     * @return the array of <i>input-ends</i> from the given channel array.
+     * @return the channel.
      */
-    public static <T> SharedChannelInput<T>[] getInputArray(One2AnyChannel<T>[] c)
+    public static One2AnyChannelLong one2anyLong()
     {
-        SharedChannelInput<T>[] in = (SharedChannelInput<T>[]) new SharedChannelInput[c.length];
-        for (int i = 0; i < c.length; i++)
-            in[i] = c[i].in();
-        return in;
+    	return new One2AnyChannelLongImpl();
     }
-
+    
     /**
-     * This extracts the <i>input-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>input-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs a <i>long carrying</i> channel that
+     * may be connected to <i>any</i> number of writer processes,
+     * but only <i>one</i> reader at a time.
+     * The writers contend safely with each other to send the next message.
+     * Each message flows from <i>just one</i> of the writers to the reader &ndash;
+     * this is not a combining channel.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
      *
-     * @param c an array of channels.
-     * @return the array of <i>input-ends</i> from the given channel array.
+     * @return the channel.
      */
-    public static <T> AltingChannelInput<T>[] getInputArray(Any2OneChannel<T>[] c)
+    public static Any2OneChannelLong any2oneLong()
     {
-        AltingChannelInput<T>[] in = (AltingChannelInput<T>[]) new AltingChannelInput[c.length];
-        for (int i = 0; i < c.length; i++)
-            in[i] = c[i].in();
-        return in;
+    	return new Any2OneChannelLongImpl();
     }
     
     /**
-     * This extracts the <i>input-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>input-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs a <i>long carrying</i> channel that
+     * may be connected to <i>any</i> number of writer processes
+     * and <i>any</i> number of reader processes.
+     * The writers contend safely with each other to send the next message.
+     * The readers contend safely with each other to take the next message.
+     * Each message flows from <i>just one</i> of the writers to <i>just one</i> of the readers &ndash;
+     * this is not a broadcasting-and-combining channel.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
      *
-     * @param c an array of channels.
-     * @return the array of <i>input-ends</i> from the given channel array.
+     * @return the channel.
      */
-    public static <T> SharedChannelInput<T>[] getInputArray(Any2AnyChannel<T>[] c)
+    public static Any2AnyChannelLong any2anyLong()
     {
-        SharedChannelInput<T>[] in = (SharedChannelInput<T>[]) new SharedChannelInput[c.length];
-        for (int i = 0; i < c.length; i++)
-            in[i] = c[i].in();
-        return in;
+    	return new Any2AnyChannelLongImpl();
     }
-
+    
     /**
-     * This extracts the <i>output-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>output-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs a <i>one-one</i> long channel with user chosen buffering size and policy.
      *
-     * @param c an array of channels.
-     * @return the array of <i>output-ends</i> from the given channel array.
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
      */
-    public static <T> ChannelOutput<T>[] getOutputArray(One2OneChannel<T>[] c)
+    public static One2OneChannelLong one2oneLong(ChannelDataStoreLong buffer)
     {
-        ChannelOutput<T>[] in = (ChannelOutput<T>[]) new ChannelOutput[c.length];
-        for (int i = 0; i < c.length; i++)
-            in[i] = c[i].out();
-        return in;
+    	return new BufferedOne2OneChannelLongImpl(buffer);
     }
-
+    
     /**
-     * This extracts the <i>output-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>output-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs a <i>one-any</i> long channel with user chosen buffering size and policy.
      *
-     * @param c an array of channels.
-     * @return the array of <i>output-ends</i> from the given channel array.
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
      */
-    public static <T> ChannelOutput<T>[] getOutputArray(One2AnyChannel<T>[] c)
+    public static One2AnyChannelLong one2anyLong(ChannelDataStoreLong buffer)
     {
-        ChannelOutput<T>[] in = (ChannelOutput<T>[]) new ChannelOutput[c.length];
-        for (int i = 0; i < c.length; i++)
-            in[i] = c[i].out();
-        return in;
+    	return new BufferedOne2AnyChannelLongImpl(buffer);
     }
-
+    
     /**
-     * This extracts the <i>output-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>output-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs an <i>any-one</i> long channel with user chosen buffering size and policy.
      *
-     * @param c an array of channels.
-     * @return the array of <i>output-ends</i> from the given channel array.
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
      */
-    public static <T> SharedChannelOutput<T>[] getOutputArray(Any2OneChannel<T>[] c)
+    public static Any2OneChannelLong any2oneLong(ChannelDataStoreLong buffer)
     {
-        SharedChannelOutput<T>[] in = (SharedChannelOutput<T>[]) new SharedChannelOutput[c.length];
-        for (int i = 0; i < c.length; i++)
-            in[i] = c[i].out();
-        return in;
+    	return new BufferedAny2OneChannelLongImpl(buffer);
     }
-
+    
     /**
-     * This extracts the <i>output-ends</i> from the given channel array.
-     * Each element of the returned array is the <i>output-end</i> of the channel
-     * at the corresponding index in the given channel array.
+     * This constructs an <i>any-any</i> long channel with user chosen buffering size and policy.
      *
-     * @param c an array of channels.
-     * @return the array of <i>output-ends</i> from the given channel array.
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
      */
-    public static <T> SharedChannelOutput<T>[] getOutputArray(Any2AnyChannel<T>[] c)
+    public static Any2AnyChannelLong any2anyLong(ChannelDataStoreLong buffer)
     {
-        SharedChannelOutput<T>[] in = (SharedChannelOutput<T>[]) new SharedChannelOutput[c.length];
-        for (int i = 0; i < c.length; i++)
-            in[i] = c[i].out();
+    	return new BufferedAny2AnyChannelLongImpl(buffer);
+    }
+    
+    /**
+     * This constructs a poisonable <i>one-one</i> long channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2OneChannelLong one2oneLong(int immunity)
+    {
+    	return new PoisonableOne2OneChannelLongImpl(immunity);
+    }
+    
+    /**
+     * This constructs a poisonable <i>one-any</i> long channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2AnyChannelLong one2anyLong(int immunity)
+    {
+    	return new PoisonableOne2AnyChannelLongImpl(immunity);
+    }
+    
+    /**
+     * This constructs a poisonable <i>any-one</i> long channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2OneChannelLong any2oneLong(int immunity)
+    {
+    	return new PoisonableAny2OneChannelLongImpl(immunity);
+    }
+    
+    /**
+     * This constructs a poisonable <i>any-any</i> long channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2AnyChannelLong any2anyLong(int immunity)
+    {
+    	return new PoisonableAny2AnyChannelLongImpl(immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>one-one</i> long channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2OneChannelLong one2oneLong(ChannelDataStoreLong buffer, int immunity)
+    {
+    	return new PoisonableBufferedOne2OneChannelLong(buffer, immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>one-any</i> long channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2AnyChannelLong one2anyLong(ChannelDataStoreLong buffer, int immunity)
+    {
+    	return new PoisonableBufferedOne2AnyChannelLong(buffer, immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>any-one</i> long channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2OneChannelLong any2oneLong(ChannelDataStoreLong buffer, int immunity)
+    {
+    	return new PoisonableBufferedAny2OneChannelLong(buffer, immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>any-any</i> long channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2AnyChannelLong any2anyLong(ChannelDataStoreLong buffer, int immunity)
+    {
+    	return new PoisonableBufferedAny2AnyChannelLong(buffer, immunity);
+    }
+    
+    /**
+     * This constructs an array of <i>one-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static One2OneChannelLong[] one2oneLongArray(int size)
+    {
+    	One2OneChannelLong[] r = new One2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneLong();    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of <i>one-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static One2AnyChannelLong[] one2anyLongArray(int size)
+    {
+    	One2AnyChannelLong[] r = new One2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyLong();    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of <i>any-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static Any2OneChannelLong[] any2oneLongArray(int size)
+    {
+    	Any2OneChannelLong[] r = new Any2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneLong();    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of <i>any-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static Any2AnyChannelLong[] any2anyLongArray(int size)
+    {
+    	Any2AnyChannelLong[] r = new Any2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyLong();
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>one-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2OneChannelLong[] one2oneLongArray(int size, int immunity)
+    {
+    	One2OneChannelLong[] r = new One2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneLong(immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>one-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2AnyChannelLong[] one2anyLongArray(int size, int immunity)
+    {
+    	One2AnyChannelLong[] r = new One2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyLong(immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>any-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2OneChannelLong[] any2oneLongArray(int size, int immunity)
+    {
+    	Any2OneChannelLong[] r = new Any2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneLong(immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>any-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2AnyChannelLong[] any2anyLongArray(int size, int immunity)
+    {
+    	Any2AnyChannelLong[] r = new Any2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyLong(immunity);
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>one-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static One2OneChannelLong[] one2oneLongArray(int size, ChannelDataStoreLong buffer)
+    {
+    	One2OneChannelLong[] r = new One2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneLong(buffer);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>one-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static One2AnyChannelLong[] one2anyLongArray(int size, ChannelDataStoreLong buffer)
+    {
+    	One2AnyChannelLong[] r = new One2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyLong(buffer);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>any-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static Any2OneChannelLong[] any2oneLongArray(int size, ChannelDataStoreLong buffer)
+    {
+    	Any2OneChannelLong[] r = new Any2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneLong(buffer);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>any-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static Any2AnyChannelLong[] any2anyLongArray(int size, ChannelDataStoreLong buffer)
+    {
+    	Any2AnyChannelLong[] r = new Any2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyLong(buffer);
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>one-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2OneChannelLong[] one2oneLongArray(int size, ChannelDataStoreLong buffer, int immunity)
+    {
+    	One2OneChannelLong[] r = new One2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneLong(buffer,immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>one-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2AnyChannelLong[] one2anyLongArray(int size, ChannelDataStoreLong buffer, int immunity)
+    {
+    	One2AnyChannelLong[] r = new One2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyLong(buffer,immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>any-one</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2OneChannelLong[] any2oneLongArray(int size, ChannelDataStoreLong buffer, int immunity)
+    {
+    	Any2OneChannelLong[] r = new Any2OneChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneLong(buffer,immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>any-any</i> long channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2AnyChannelLong[] any2anyLongArray(int size, ChannelDataStoreLong buffer, int immunity)
+    {
+    	Any2AnyChannelLong[] r = new Any2AnyChannelLong[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyLong(buffer,immunity);
+    	}
+    	return r;
+    }
+
+    /**
+     * This constructs a <i>double carrying</i> channel that
+     * may only be connected to <i>one</i> writer and <i>one</i> reader process at a time.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     *
+     * @return the channel.
+     */
+    public static One2OneChannelDouble one2oneDouble()
+    {
+    	return new One2OneChannelDoubleImpl();
+    }
+    
+    /**
+     * This constructs a <i>double carrying</i> channel that
+     * may only be connected to <i>one</i> writer at a time,
+     * but <i>any</i> number of reader processes.
+     * The readers contend safely with each other to take the next message.
+     * Each message flows from the writer to <i>just one</i> of the readers &ndash;
+     * this is not a broadcasting channel.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     *
+     * @return the channel.
+     */
+    public static One2AnyChannelDouble one2anyDouble()
+    {
+    	return new One2AnyChannelDoubleImpl();
+    }
+    
+    /**
+     * This constructs a <i>double carrying</i> channel that
+     * may be connected to <i>any</i> number of writer processes,
+     * but only <i>one</i> reader at a time.
+     * The writers contend safely with each other to send the next message.
+     * Each message flows from <i>just one</i> of the writers to the reader &ndash;
+     * this is not a combining channel.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     *
+     * @return the channel.
+     */
+    public static Any2OneChannelDouble any2oneDouble()
+    {
+    	return new Any2OneChannelDoubleImpl();
+    }
+    
+    /**
+     * This constructs a <i>double carrying</i> channel that
+     * may be connected to <i>any</i> number of writer processes
+     * and <i>any</i> number of reader processes.
+     * The writers contend safely with each other to send the next message.
+     * The readers contend safely with each other to take the next message.
+     * Each message flows from <i>just one</i> of the writers to <i>just one</i> of the readers &ndash;
+     * this is not a broadcasting-and-combining channel.
+     * The channel is zero-buffered &ndash; the writer and reader processes must synchronise.
+     *
+     * @return the channel.
+     */
+    public static Any2AnyChannelDouble any2anyDouble()
+    {
+    	return new Any2AnyChannelDoubleImpl();
+    }
+    
+    /**
+     * This constructs a <i>one-one</i> double channel with user chosen buffering size and policy.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
+     */
+    public static One2OneChannelDouble one2oneDouble(ChannelDataStoreDouble buffer)
+    {
+    	return new BufferedOne2OneChannelDoubleImpl(buffer);
+    }
+    
+    /**
+     * This constructs a <i>one-any</i> double channel with user chosen buffering size and policy.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
+     */
+    public static One2AnyChannelDouble one2anyDouble(ChannelDataStoreDouble buffer)
+    {
+    	return new BufferedOne2AnyChannelDoubleImpl(buffer);
+    }
+    
+    /**
+     * This constructs an <i>any-one</i> double channel with user chosen buffering size and policy.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
+     */
+    public static Any2OneChannelDouble any2oneDouble(ChannelDataStoreDouble buffer)
+    {
+    	return new BufferedAny2OneChannelDoubleImpl(buffer);
+    }
+    
+    /**
+     * This constructs an <i>any-any</i> double channel with user chosen buffering size and policy.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel.
+     */
+    public static Any2AnyChannelDouble any2anyDouble(ChannelDataStoreDouble buffer)
+    {
+    	return new BufferedAny2AnyChannelDoubleImpl(buffer);
+    }
+    
+    /**
+     * This constructs a poisonable <i>one-one</i> double channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2OneChannelDouble one2oneDouble(int immunity)
+    {
+    	return new PoisonableOne2OneChannelDoubleImpl(immunity);
+    }
+    
+    /**
+     * This constructs a poisonable <i>one-any</i> double channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2AnyChannelDouble one2anyDouble(int immunity)
+    {
+    	return new PoisonableOne2AnyChannelDoubleImpl(immunity);
+    }
+    
+    /**
+     * This constructs a poisonable <i>any-one</i> double channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2OneChannelDouble any2oneDouble(int immunity)
+    {
+    	return new PoisonableAny2OneChannelDoubleImpl(immunity);
+    }
+    
+    /**
+     * This constructs a poisonable <i>any-any</i> double channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2AnyChannelDouble any2anyDouble(int immunity)
+    {
+    	return new PoisonableAny2AnyChannelDoubleImpl(immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>one-one</i> double channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2OneChannelDouble one2oneDouble(ChannelDataStoreDouble buffer, int immunity)
+    {
+    	return new PoisonableBufferedOne2OneChannelDouble(buffer, immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>one-any</i> double channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static One2AnyChannelDouble one2anyDouble(ChannelDataStoreDouble buffer, int immunity)
+    {
+    	return new PoisonableBufferedOne2AnyChannelDouble(buffer, immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>any-one</i> double channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2OneChannelDouble any2oneDouble(ChannelDataStoreDouble buffer, int immunity)
+    {
+    	return new PoisonableBufferedAny2OneChannelDouble(buffer, immunity);
+    }
+    
+    /**
+     * This constructs a buffered poisonable <i>any-any</i> double channel.
+     *
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     * @return the channel.
+     */
+    public static Any2AnyChannelDouble any2anyDouble(ChannelDataStoreDouble buffer, int immunity)
+    {
+    	return new PoisonableBufferedAny2AnyChannelDouble(buffer, immunity);
+    }
+    
+    /**
+     * This constructs an array of <i>one-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static One2OneChannelDouble[] one2oneDoubleArray(int size)
+    {
+    	One2OneChannelDouble[] r = new One2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneDouble();    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of <i>one-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static One2AnyChannelDouble[] one2anyDoubleArray(int size)
+    {
+    	One2AnyChannelDouble[] r = new One2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyDouble();    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of <i>any-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static Any2OneChannelDouble[] any2oneDoubleArray(int size)
+    {
+    	Any2OneChannelDouble[] r = new Any2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneDouble();    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of <i>any-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @return the channel array.
+     */
+    public static Any2AnyChannelDouble[] any2anyDoubleArray(int size)
+    {
+    	Any2AnyChannelDouble[] r = new Any2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyDouble();
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>one-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2OneChannelDouble[] one2oneDoubleArray(int size, int immunity)
+    {
+    	One2OneChannelDouble[] r = new One2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneDouble(immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>one-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2AnyChannelDouble[] one2anyDoubleArray(int size, int immunity)
+    {
+    	One2AnyChannelDouble[] r = new One2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyDouble(immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>any-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2OneChannelDouble[] any2oneDoubleArray(int size, int immunity)
+    {
+    	Any2OneChannelDouble[] r = new Any2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneDouble(immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of poisonable <i>any-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2AnyChannelDouble[] any2anyDoubleArray(int size, int immunity)
+    {
+    	Any2AnyChannelDouble[] r = new Any2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyDouble(immunity);
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>one-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static One2OneChannelDouble[] one2oneDoubleArray(int size, ChannelDataStoreDouble buffer)
+    {
+    	One2OneChannelDouble[] r = new One2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneDouble(buffer);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>one-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static One2AnyChannelDouble[] one2anyDoubleArray(int size, ChannelDataStoreDouble buffer)
+    {
+    	One2AnyChannelDouble[] r = new One2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyDouble(buffer);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>any-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static Any2OneChannelDouble[] any2oneDoubleArray(int size, ChannelDataStoreDouble buffer)
+    {
+    	Any2OneChannelDouble[] r = new Any2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneDouble(buffer);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered <i>any-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @return the channel array.
+     */
+    public static Any2AnyChannelDouble[] any2anyDoubleArray(int size, ChannelDataStoreDouble buffer)
+    {
+    	Any2AnyChannelDouble[] r = new Any2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyDouble(buffer);
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>one-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2OneChannelDouble[] one2oneDoubleArray(int size, ChannelDataStoreDouble buffer, int immunity)
+    {
+    	One2OneChannelDouble[] r = new One2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2oneDouble(buffer,immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>one-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static One2AnyChannelDouble[] one2anyDoubleArray(int size, ChannelDataStoreDouble buffer, int immunity)
+    {
+    	One2AnyChannelDouble[] r = new One2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = one2anyDouble(buffer,immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>any-one</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2OneChannelDouble[] any2oneDoubleArray(int size, ChannelDataStoreDouble buffer, int immunity)
+    {
+    	Any2OneChannelDouble[] r = new Any2OneChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2oneDouble(buffer,immunity);    	
+    	}
+    	return r;
+    }
+    
+    /**
+     * This constructs an array of buffered poisonable <i>any-any</i> double channels.
+     *
+     * @param size defines size of the array (must be positive).
+     * @param buffer defines size and policy (the channel will clone its own).
+     * @param immunity the channels are immune to poison strengths up to and including this level.
+     * @return the channel array.
+     */
+    public static Any2AnyChannelDouble[] any2anyDoubleArray(int size, ChannelDataStoreDouble buffer, int immunity)
+    {
+    	Any2AnyChannelDouble[] r = new Any2AnyChannelDouble[size];
+    	for (int i = 0;i < size;i++)
+    	{
+    		r[i] = any2anyDouble(buffer,immunity);
+    	}
+    	return r;
+    }
+    
+    /* Helper methods to get arrays of channel ends ... */
+
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static <T> AltingChannelInput<T>[] getInputArray(One2OneChannel<T>[] c)
+    {
+        AltingChannelInput<T>[] in = (AltingChannelInput<T>[]) new AltingChannelInput[c.length];
+        for (int i = 0; i < c.length; i++)
+           in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static <T> SharedChannelInput<T>[] getInputArray(One2AnyChannel<T>[] c)
+    {
+        SharedChannelInput<T>[] in = (SharedChannelInput<T>[]) new SharedChannelInput[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static <T> AltingChannelInput<T>[] getInputArray(Any2OneChannel<T>[] c)
+    {
+        AltingChannelInput<T>[] in = (AltingChannelInput<T>[]) new AltingChannelInput[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+    
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static <T> SharedChannelInput<T>[] getInputArray(Any2AnyChannel<T>[] c)
+    {
+        SharedChannelInput<T>[] in = (SharedChannelInput<T>[]) new SharedChannelInput[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static <T> ChannelOutput<T>[] getOutputArray(One2OneChannel<T>[] c)
+    {
+        ChannelOutput<T>[] in = (ChannelOutput<T>[]) new ChannelOutput[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static <T> ChannelOutput<T>[] getOutputArray(One2AnyChannel<T>[] c)
+    {
+        ChannelOutput<T>[] in = (ChannelOutput<T>[]) new ChannelOutput[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static <T> SharedChannelOutput<T>[] getOutputArray(Any2OneChannel<T>[] c)
+    {
+        SharedChannelOutput<T>[] in = (SharedChannelOutput<T>[]) new SharedChannelOutput[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static <T> SharedChannelOutput<T>[] getOutputArray(Any2AnyChannel<T>[] c)
+    {
+        SharedChannelOutput<T>[] in = (SharedChannelOutput<T>[]) new SharedChannelOutput[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
         return in;
     }
 
@@ -1366,6 +2570,296 @@ public class Channel
         return in;
     }
     
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static AltingChannelInputLong[] getInputArray(One2OneChannelLong[] c)
+    {
+        AltingChannelInputLong[] in = new AltingChannelInputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+           in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static SharedChannelInputLong[] getInputArray(One2AnyChannelLong[] c)
+    {
+        SharedChannelInputLong[] in = new SharedChannelInputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static AltingChannelInputLong[] getInputArray(Any2OneChannelLong[] c)
+    {
+        AltingChannelInputLong[] in = new AltingChannelInputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+    
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static SharedChannelInputLong[] getInputArray(Any2AnyChannelLong[] c)
+    {
+        SharedChannelInputLong[] in = new SharedChannelInputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static ChannelOutputLong[] getOutputArray(One2OneChannelLong[] c)
+    {
+        ChannelOutputLong[] in = new ChannelOutputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static ChannelOutputLong[] getOutputArray(One2AnyChannelLong[] c)
+    {
+        ChannelOutputLong[] in = new ChannelOutputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static SharedChannelOutputLong[] getOutputArray(Any2OneChannelLong[] c)
+    {
+        SharedChannelOutputLong[] in = new SharedChannelOutputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static SharedChannelOutputLong[] getOutputArray(Any2AnyChannelLong[] c)
+    {
+        SharedChannelOutputLong[] in = new SharedChannelOutputLong[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+    
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static AltingChannelInputDouble[] getInputArray(One2OneChannelDouble[] c)
+    {
+        AltingChannelInputDouble[] in = new AltingChannelInputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+           in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static SharedChannelInputDouble[] getInputArray(One2AnyChannelDouble[] c)
+    {
+        SharedChannelInputDouble[] in = new SharedChannelInputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static AltingChannelInputDouble[] getInputArray(Any2OneChannelDouble[] c)
+    {
+        AltingChannelInputDouble[] in = new AltingChannelInputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+    
+    /**
+     * This extracts the <i>input-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>input-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>input-ends</i> from the given channel array.
+     */
+    public static SharedChannelInputDouble[] getInputArray(Any2AnyChannelDouble[] c)
+    {
+        SharedChannelInputDouble[] in = new SharedChannelInputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].in();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static ChannelOutputDouble[] getOutputArray(One2OneChannelDouble[] c)
+    {
+        ChannelOutputDouble[] in = new ChannelOutputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static ChannelOutputDouble[] getOutputArray(One2AnyChannelDouble[] c)
+    {
+        ChannelOutputDouble[] in = new ChannelOutputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static SharedChannelOutputDouble[] getOutputArray(Any2OneChannelDouble[] c)
+    {
+        SharedChannelOutputDouble[] in = new SharedChannelOutputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /**
+     * This extracts the <i>output-ends</i> from the given channel array.
+     * Each element of the returned array is the <i>output-end</i> of the channel
+     * at the corresponding index in the given channel array.
+     *
+     * @param c an array of channels.
+     * @return the array of <i>output-ends</i> from the given channel array.
+     */
+    public static SharedChannelOutputDouble[] getOutputArray(Any2AnyChannelDouble[] c)
+    {
+        SharedChannelOutputDouble[] in = new SharedChannelOutputDouble[c.length];
+        for (int i = 0; i < c.length; i++)
+            in[i] = c[i].out();
+        return in;
+    }
+
+    /* Helper methods to reach the bulk operations of buffered channel ends ... */
+
+    /**
+     * This returns the bulk view of the given <i>input-end</i>.
+     * The reading-ends of the buffered object channels returned by this class
+     * (and the channel factories) all provide one.
+     *
+     * @param in the <i>input-end</i> of a buffered channel.
+     * @return the same channel end, as a {@link BulkChannelInput}.
+     * @throws IllegalArgumentException if the channel end does not support bulk reads.
+     */
+    public static <T> BulkChannelInput<T> getBulkInput(ChannelInput<T> in)
+    {
+        if (!(in instanceof BulkChannelInput))
+            throw new IllegalArgumentException("*** Not a buffered channel input-end: " + in);
+        return (BulkChannelInput<T>) in;
+    }
+
+    /**
+     * This returns the bulk view of the given <i>output-end</i>.
+     * The writing-ends of the buffered object channels returned by this class
+     * (and the channel factories) all provide one.
+     *
+     * @param out the <i>output-end</i> of a buffered channel.
+     * @return the same channel end, as a {@link BulkChannelOutput}.
+     * @throws IllegalArgumentException if the channel end does not support bulk writes.
+     */
+    public static <T> BulkChannelOutput<T> getBulkOutput(ChannelOutput<T> out)
+    {
+        if (!(out instanceof BulkChannelOutput))
+            throw new IllegalArgumentException("*** Not a buffered channel output-end: " + out);
+        return (BulkChannelOutput<T>) out;
+    }
+    
     /* Methods that are the same as the Factory Methods (all now deprecated) */
 
     /**
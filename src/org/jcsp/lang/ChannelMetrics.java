@@ -0,0 +1,494 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+import org.jcsp.util.BulkChannelDataStore;
+import org.jcsp.util.ChannelDataStore;
+
+/**
+ * This collects the metrics of a channel and publishes them by JMX.
+ * <H2>Description</H2>
+ * A <TT>ChannelMetrics</TT> counts the messages read from and written to a channel,
+ * the time its readers and writers spend blocked in those reads and writes and,
+ * for a buffered channel, how many messages its buffer holds (and has held at most).
+ * It is registered, by {@link #register register}, with the platform MBean server
+ * under the name <TT>org.jcsp:type=Channel,name="<I>name</I>"</TT>, so that a tool
+ * such as <TT>jconsole</TT> can show which channels of a network its processes
+ * spend their time waiting on.
+ * <P>
+ * Measuring is opt-in and costs nothing for channels that are not measured.  The
+ * ends of a measured channel, and the buffer it is constructed with, are wrapped by
+ * the {@link #in(AltingChannelInput) in}, {@link #out(ChannelOutput) out} and
+ * {@link #buffer buffer} methods, and only the wrapped ends are measured.  Their
+ * counters are striped, so that the processes using a shared channel do not contend
+ * for them:
+ * <PRE>
+ *   final ChannelMetrics metrics = ChannelMetrics.register ("requests");
+ *   final Any2OneChannel requests = Channel.any2one (metrics.buffer (new Buffer (64)));
+ *   final AltingChannelInput in = metrics.in (requests.in ());
+ *   final SharedChannelOutput out = metrics.out (requests.out ());
+ *   ...
+ *   metrics.unregister ();
+ * </PRE>
+ * The wrapped input of an <TT>ALT</TT>able channel may be used as a guard like the
+ * input it wraps, including by an {@link Alternative} that keeps its guards enabled.
+ * The time it spends ready is then counted by the {@link AlternativeMetrics} of the
+ * <TT>Alternative</TT>, rather than as time blocked in a read.
+ * <P>
+ * The ends wrapped are also given the name of the channel in the Java Flight Recorder
+ * events they record (see the <I>Flight Recording</I> section of {@link Parallel}).
+ * <P>
+ * <I>Note:</I> the occupancy of the buffer is counted by wrapping the
+ * {@link ChannelDataStore}, so a channel given a {@link org.jcsp.util.RingBuffer} in
+ * this way is built on that buffer, rather than on the lock-free ring it otherwise
+ * chooses.  For the overwriting and overflowing buffers, which never report being
+ * full, the occupancy counts the messages written since the buffer was last empty.
+ *
+ * @see org.jcsp.lang.ChannelMetricsMBean
+ * @see org.jcsp.lang.AlternativeMetrics
+ * @see org.jcsp.lang.BarrierMetrics
+ */
+
+public final class ChannelMetrics implements ChannelMetricsMBean
+{
+    /** The name of the channel */
+    private final String name;
+
+    /** The name under which this is registered, or null if it is not */
+    private volatile ObjectName objectName;
+
+    /** The number of messages read */
+    private final StripedCounter reads = new StripedCounter();
+
+    /** The number of messages written */
+    private final StripedCounter writes = new StripedCounter();
+
+    /** The total time spent in reads */
+    private final StripedCounter readNanos = new StripedCounter();
+
+    /** The total time spent in writes */
+    private final StripedCounter writeNanos = new StripedCounter();
+
+    /** The number of messages held in the buffers wrapped by this */
+    private final AtomicLong occupancy = new AtomicLong();
+
+    /** The most messages held in the buffers wrapped by this */
+    private final AtomicLong highWater = new AtomicLong();
+
+    /**
+     * Constructs the metrics of a channel, without registering them.
+     *
+     * @param name the name of the channel.
+     */
+    public ChannelMetrics(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Constructs the metrics of a channel and registers them with the platform MBean server.
+     *
+     * @param name the name of the channel.
+     * @return the metrics.
+     *
+     * @throws IllegalArgumentException if metrics are already registered with the name.
+     */
+    public static ChannelMetrics register(String name)
+    {
+        final ChannelMetrics metrics = new ChannelMetrics(name);
+        metrics.objectName = MetricsRegistry.register(metrics, "Channel", name);
+        return metrics;
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server, if they are registered.
+     * The wrapped channel ends continue to be measured.
+     */
+    public void unregister()
+    {
+        final ObjectName registered = objectName;
+        if (registered != null)
+        {
+            objectName = null;
+            MetricsRegistry.unregister(registered);
+        }
+    }
+
+    /**
+     * Returns the name under which these metrics are registered, or null if they are not.
+     */
+    public ObjectName getObjectName()
+    {
+        return objectName;
+    }
+
+    /**
+     * Wraps the input end of an <TT>ALT</TT>able channel, so that its reads are measured.
+     *
+     * @param in the input end.
+     * @return the measured input end.
+     */
+    public <T> AltingChannelInput<T> in(AltingChannelInput<T> in)
+    {
+        FlightEvents.setName(in, name);
+        return new MeasuredAltingInput<T>(in, this);
+    }
+
+    /**
+     * Wraps the input end of a shared channel, so that its reads are measured.
+     *
+     * @param in the input end.
+     * @return the measured input end.
+     */
+    public <T> SharedChannelInput<T> in(SharedChannelInput<T> in)
+    {
+        FlightEvents.setName(in, name);
+        return new MeasuredInput<T>(in, this);
+    }
+
+    /**
+     * Wraps the input end of a channel, so that its reads are measured.
+     *
+     * @param in the input end.
+     * @return the measured input end.
+     */
+    public <T> ChannelInput<T> in(ChannelInput<T> in)
+    {
+        FlightEvents.setName(in, name);
+        return new MeasuredInput<T>(in, this);
+    }
+
+    /**
+     * Wraps the output end of a shared channel, so that its writes are measured.
+     *
+     * @param out the output end.
+     * @return the measured output end.
+     */
+    public <T> SharedChannelOutput<T> out(SharedChannelOutput<T> out)
+    {
+        FlightEvents.setName(out, name);
+        return new MeasuredOutput<T>(out, this);
+    }
+
+    /**
+     * Wraps the output end of a channel, so that its writes are measured.
+     *
+     * @param out the output end.
+     * @return the measured output end.
+     */
+    public <T> ChannelOutput<T> out(ChannelOutput<T> out)
+    {
+        FlightEvents.setName(out, name);
+        return new MeasuredOutput<T>(out, this);
+    }
+
+    /**
+     * Wraps a buffer, so that its occupancy is measured.  The wrapped buffer should be
+     * given to the constructor of the channel, which clones it: the clone is measured too.
+     * A buffer is used under the lock of its channel, so its occupancy is counted by a
+     * single counter rather than a striped one.
+     *
+     * @param buffer the buffer.
+     * @return the measured buffer.
+     */
+    public <T> ChannelDataStore<T> buffer(ChannelDataStore<T> buffer)
+    {
+        return new MeasuredBuffer<T>(buffer, this);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getReads()
+    {
+        return reads.sum();
+    }
+
+    public long getWrites()
+    {
+        return writes.sum();
+    }
+
+    public long getReadWaitNanos()
+    {
+        return readNanos.sum();
+    }
+
+    public long getWriteWaitNanos()
+    {
+        return writeNanos.sum();
+    }
+
+    public long getBufferOccupancy()
+    {
+        return occupancy.get();
+    }
+
+    public long getBufferHighWater()
+    {
+        return highWater.get();
+    }
+
+    public void reset()
+    {
+        reads.reset();
+        writes.reset();
+        readNanos.reset();
+        writeNanos.reset();
+        highWater.set(occupancy.get());
+    }
+
+    public String toString()
+    {
+        return "ChannelMetrics[" + name + ": reads=" + getReads() + ", writes=" + getWrites()
+            + ", readWaitNanos=" + getReadWaitNanos() + ", writeWaitNanos=" + getWriteWaitNanos()
+            + ", bufferOccupancy=" + getBufferOccupancy() + ", bufferHighWater=" + getBufferHighWater() + "]";
+    }
+
+    /**
+     * Records a read that started at the given time.
+     */
+    void read(long start)
+    {
+        readNanos.add(System.nanoTime() - start);
+        reads.add(1);
+    }
+
+    /**
+     * Records a write that started at the given time.
+     */
+    void written(long start)
+    {
+        writeNanos.add(System.nanoTime() - start);
+        writes.add(1);
+    }
+
+    /**
+     * Records a change in the number of messages held by a buffer.
+     */
+    void stored(int delta)
+    {
+        if (delta != 0)
+            MetricsRegistry.max(highWater, occupancy.addAndGet(delta));
+    }
+
+    /**
+     * The measured input end of an <TT>ALT</TT>able channel.  As a wrapper, it is
+     * unwrapped by an <TT>Alternative</TT> that keeps its guards enabled.
+     */
+    private static final class MeasuredAltingInput<T> extends AltingChannelInputWrapper<T>
+    {
+        private final ChannelMetrics metrics;
+
+        MeasuredAltingInput(AltingChannelInput<T> in, ChannelMetrics metrics)
+        {
+            super(in);
+            this.metrics = metrics;
+        }
+
+        public T read()
+        {
+            final long start = System.nanoTime();
+            final T value = super.read();
+            metrics.read(start);
+            return value;
+        }
+
+        public T startRead()
+        {
+            final long start = System.nanoTime();
+            final T value = super.startRead();
+            metrics.read(start);
+            return value;
+        }
+    }
+
+    /**
+     * The measured input end of a channel.
+     */
+    private static final class MeasuredInput<T> implements SharedChannelInput<T>
+    {
+        private final ChannelInput<T> in;
+
+        private final ChannelMetrics metrics;
+
+        MeasuredInput(ChannelInput<T> in, ChannelMetrics metrics)
+        {
+            this.in = in;
+            this.metrics = metrics;
+        }
+
+        public T read()
+        {
+            final long start = System.nanoTime();
+            final T value = in.read();
+            metrics.read(start);
+            return value;
+        }
+
+        public T startRead()
+        {
+            final long start = System.nanoTime();
+            final T value = in.startRead();
+            metrics.read(start);
+            return value;
+        }
+
+        public void endRead()
+        {
+            in.endRead();
+        }
+
+        public void poison(int strength)
+        {
+            in.poison(strength);
+        }
+    }
+
+    /**
+     * The measured output end of a channel.
+     */
+    private static final class MeasuredOutput<T> implements SharedChannelOutput<T>
+    {
+        private final ChannelOutput<T> out;
+
+        private final ChannelMetrics metrics;
+
+        MeasuredOutput(ChannelOutput<T> out, ChannelMetrics metrics)
+        {
+            this.out = out;
+            this.metrics = metrics;
+        }
+
+        public void write(T object)
+        {
+            final long start = System.nanoTime();
+            out.write(object);
+            metrics.written(start);
+        }
+
+        public void poison(int strength)
+        {
+            out.poison(strength);
+        }
+    }
+
+    /**
+     * A measured buffer.  Its own count of the messages it holds is corrected each time
+     * it becomes empty, for the buffers that drop messages rather than become full.
+     */
+    private static final class MeasuredBuffer<T> implements BulkChannelDataStore<T>
+    {
+        private final ChannelDataStore<T> buffer;
+
+        private final ChannelMetrics metrics;
+
+        /** The number of messages held, updated under the lock of the channel */
+        private int size = 0;
+
+        MeasuredBuffer(ChannelDataStore<T> buffer, ChannelMetrics metrics)
+        {
+            this.buffer = buffer;
+            this.metrics = metrics;
+        }
+
+        public int getState()
+        {
+            return buffer.getState();
+        }
+
+        public void put(T value)
+        {
+            buffer.put(value);
+            added(1);
+        }
+
+        public T get()
+        {
+            final T value = buffer.get();
+            removed(1);
+            return value;
+        }
+
+        public T startGet()
+        {
+            return buffer.startGet();
+        }
+
+        public void endGet()
+        {
+            buffer.endGet();
+            removed(1);
+        }
+
+        public int putAll(T[] values, int off, int len)
+        {
+            final int n = BufferedOne2OneChannel.putAll(buffer, values, off, len);
+            added(n);
+            return n;
+        }
+
+        public int getAll(T[] values, int off, int max)
+        {
+            final int n = BufferedOne2OneChannel.getAll(buffer, values, off, max);
+            removed(n);
+            return n;
+        }
+
+        public Object clone()
+        {
+            return new MeasuredBuffer<T>((ChannelDataStore<T>) buffer.clone(), metrics);
+        }
+
+        public void removeAll()
+        {
+            buffer.removeAll();
+            removed(size);
+        }
+
+        private void added(int n)
+        {
+            size += n;
+            metrics.stored(n);
+        }
+
+        private void removed(int n)
+        {
+            final int left = (buffer.getState() == EMPTY) ? 0 : Math.max(0, size - n);
+            metrics.stored(left - size);
+            size = left;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * The management interface of {@link ChannelMetrics}, through which the metrics of a
+ * channel are published by JMX.
+ *
+ * @see org.jcsp.lang.ChannelMetrics
+ */
+public interface ChannelMetricsMBean
+{
+    /**
+     * Returns the name of the channel.
+     */
+    public String getName();
+
+    /**
+     * Returns the number of messages read from the channel.
+     */
+    public long getReads();
+
+    /**
+     * Returns the number of messages written to the channel.
+     */
+    public long getWrites();
+
+    /**
+     * Returns the total time, in nanoseconds, that readers have spent in reads from the channel.
+     */
+    public long getReadWaitNanos();
+
+    /**
+     * Returns the total time, in nanoseconds, that writers have spent in writes to the channel.
+     */
+    public long getWriteWaitNanos();
+
+    /**
+     * Returns the number of messages held in the buffer of the channel.
+     */
+    public long getBufferOccupancy();
+
+    /**
+     * Returns the most messages that have been held in the buffer of the channel.
+     */
+    public long getBufferHighWater();
+
+    /**
+     * Sets the counts and times to zero, and the high-water mark to the current occupancy.
+     */
+    public void reset();
+}
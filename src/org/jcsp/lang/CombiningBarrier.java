@@ -0,0 +1,500 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This is a {@link Barrier} for many processes synchronising often, such as the
+ * workers of a bulk-synchronous computation.
+ * <H2>Description</H2>
+ * <TT>CombiningBarrier</TT> has the same semantics as {@link Barrier}, including
+ * {@link #enroll <TT>enroll</TT>}, {@link #resign <TT>resign</TT>} and
+ * {@link #reset(int) <TT>reset</TT>}, and can be used wherever a <TT>Barrier</TT> is.
+ * A <TT>Barrier</TT> takes a single lock for every synchronisation and wakes every
+ * waiting process from the last, so its cost grows in proportion to the number of
+ * processes.  A <TT>CombiningBarrier</TT> grows in proportion to its logarithm:
+ * <UL>
+ *   <LI>
+ *     Arrivals are counted in a combining tree.  Each process counts itself at the
+ *     leaf chosen by its thread (there are about as many leaves as processors) and
+ *     the last process expected at a node carries that node's count up to its parent.
+ *     Only the last process to arrive reaches the root.
+ *   <LI>
+ *     A sense (phase) number is changed to release the processes.  A waiting process
+ *     first spins on it (only on multi-processor machines) and then parks.  Parked
+ *     processes are woken by a binary tree of their peers: each one woken wakes two more.
+ * </UL>
+ * The number expected at each leaf is learnt from the previous synchronisation.  Until
+ * it is known, or after the set of processes changes (by <TT>enroll</TT>, <TT>resign</TT>
+ * or <TT>reset</TT>, or a process moving between threads), arrivals are counted under a
+ * lock, as a <TT>Barrier</TT> does.  The next synchronisation uses the tree again.
+ *
+ * @see org.jcsp.lang.Barrier
+ */
+
+public class CombiningBarrier extends Barrier
+{
+  /** The SUID of this class. */
+  private static final long serialVersionUID = 1L;
+
+  /** The number of children of each node of the combining tree. */
+  private static final int FAN_IN = 4;
+
+  /**
+   * The number of times a waiting process re-checks the phase before parking.
+   * Spinning is pointless on a uni-processor, since no other process can arrive
+   * until we give up the processor.
+   */
+  static final int SPIN_LIMIT =
+    (Runtime.getRuntime ().availableProcessors () > 1) ? 4096 : 0;
+
+  /** The states of a {@link Waiter}. */
+  private static final int WAITING = 0, CLAIMED = 1, CANCELLED = 2;
+
+  /**
+   * A node of the combining tree.
+   */
+  private static final class Node implements Serializable
+  {
+    /** The SUID of this class. */
+    private static final long serialVersionUID = 1L;
+
+    /** The parent node, or null for the root. */
+    final Node parent;
+
+    /**
+     * The number of arrivals counted at this node (the low 32 bits) and the phase they
+     * were counted in (the high 32 bits).  A count from an earlier phase counts as none,
+     * so the counts need not be cleared between phases.  For a leaf, each arriving process
+     * adds one.  For other nodes, each complete child adds its expected.
+     */
+    final AtomicLong count = new AtomicLong ();
+
+    /**
+     * The count at which this node is complete.  Only changed, under the lock, between phases.
+     */
+    int expected = 0;
+
+    Node (final Node parent)
+    {
+      this.parent = parent;
+    }
+
+    /**
+     * Adds to the count for phase <TT>p</TT> and returns the new count, or -1 if the node
+     * is already counting a later phase.  That happens only to a process carrying a count
+     * up the tree after its phase was ended under the lock.
+     */
+    int add (final int p, final int n)
+    {
+      while (true) {
+        final long c = count.get ();
+        final int tag = (int) (c >>> 32);
+        if ((tag != p) && (tag - p > 0)) {
+          return -1;
+        }
+        final int sum = ((tag == p) ? (int) c : 0) + n;
+        if (count.compareAndSet (c, ((long) p << 32) | sum)) {
+          return sum;
+        }
+      }
+    }
+
+    /**
+     * Returns the count for phase <TT>p</TT>.
+     */
+    int get (final int p)
+    {
+      final long c = count.get ();
+      return ((int) (c >>> 32) == p) ? (int) c : 0;
+    }
+  }
+
+  /**
+   * A phase of the barrier.  A new one is started each time the processes are released.
+   */
+  private static final class Phase implements Serializable
+  {
+    /** The SUID of this class. */
+    private static final long serialVersionUID = 1L;
+
+    /** The phase number, which tags the counts of the tree. */
+    final int number;
+
+    /** Set when the processes synchronising in this phase are released. */
+    volatile boolean ended = false;
+
+    /** The stack of processes parked in this phase. */
+    final AtomicReference<Waiter> waiting = new AtomicReference<Waiter> ();
+
+    Phase (final int number)
+    {
+      this.number = number;
+    }
+  }
+
+  /**
+   * A parked process, held on the stack of waiters for its phase.
+   */
+  private static final class Waiter implements Serializable
+  {
+    /** The SUID of this class. */
+    private static final long serialVersionUID = 1L;
+
+    /** The parked thread. */
+    final transient Thread thread = Thread.currentThread ();
+
+    /** WAITING, CLAIMED by a process waking it, or CANCELLED by itself. */
+    final AtomicInteger state = new AtomicInteger (WAITING);
+
+    /** The next waiter on the stack. */
+    Waiter next;
+  }
+
+  /** The leaves of the combining tree.  The number of them is a power of two. */
+  private final Node[] leaves;
+
+  /** All the nodes of the tree, each level in turn from the leaves to the root. */
+  private final Node[] nodes;
+
+  /** Guards membership changes, and the change from each phase to the next. */
+  private final ReentrantLock lock = new ReentrantLock ();
+
+  /** The number of processes enrolled. */
+  private int nEnrolled = 0;
+
+  /**
+   * The current phase.  Ended and replaced (under the lock) by the last process to arrive,
+   * to release the processes waiting in it.
+   */
+  private volatile Phase phase = new Phase (0);
+
+  /**
+   * Set when the expected counts of the tree cannot be relied on, so that arrivals must be
+   * counted under the lock.
+   */
+  private volatile boolean disordered = true;
+
+  /**
+   * Construct a barrier initially associated with no processes.
+   */
+  public CombiningBarrier ()
+  {
+    this (0);
+  }
+
+  /**
+   * Construct a barrier (initially) associated with <TT>nEnrolled</TT> processes.
+   * It is the responsibility of the constructing process to pass this (by constructor
+   * or <TT>set</TT> method) to each process that will be synchronising on the barrier,
+   * <I>before</I> firing up those processes.
+   *
+   * @param nEnrolled the number of processes (initially) associated with this barrier.
+   *
+   * @throws IllegalArgumentException if <TT>nEnrolled</TT> &lt; <TT>0</TT>.
+   */
+  public CombiningBarrier (final int nEnrolled)
+  {
+    if (nEnrolled < 0) {
+      throw new IllegalArgumentException (
+        "*** Attempt to set a negative enrollment on a barrier\n"
+      );
+    }
+    this.nEnrolled = nEnrolled;
+    int nLeaves = 1;
+    while (nLeaves < Runtime.getRuntime ().availableProcessors ()) {
+      nLeaves <<= 1;
+    }
+    // The width of each level, from the leaves up to the root
+    int nLevels = 1;
+    for (int width = nLeaves; width > 1; width = (width + FAN_IN - 1) / FAN_IN) {
+      nLevels++;
+    }
+    final int[] width = new int[nLevels];
+    int nNodes = 0;
+    width[0] = nLeaves;
+    for (int i = 1; i < nLevels; i++) {
+      width[i] = (width[i - 1] + FAN_IN - 1) / FAN_IN;
+    }
+    for (int i = 0; i < nLevels; i++) {
+      nNodes += width[i];
+    }
+    // Build from the root down, storing the levels from the leaves up
+    nodes = new Node[nNodes];
+    Node[] above = null;
+    int end = nNodes;
+    for (int i = nLevels - 1; i >= 0; i--) {
+      final Node[] level = new Node[width[i]];
+      for (int j = 0; j < level.length; j++) {
+        level[j] = new Node ((above == null) ? null : above[j / FAN_IN]);
+      }
+      end -= level.length;
+      System.arraycopy (level, 0, nodes, end, level.length);
+      above = level;
+    }
+    leaves = above;
+  }
+
+  /**
+   * Resets the number of processes associated with this barrier.
+   * <P>
+   * <I>Note: this must only be used when no process is synchronising on the barrier,
+   * as for {@link Barrier#reset(int)}.</I>
+   *
+   * @param nEnrolled the number of processes reset to this barrier.
+   *
+   * @throws IllegalArgumentException if <TT>nEnrolled</TT> &lt; <TT>0</TT>.
+   */
+  public void reset (final int nEnrolled)
+  {
+    if (nEnrolled < 0) {
+      throw new IllegalArgumentException (
+        "*** Attempt to set a negative enrollment on a barrier\n"
+      );
+    }
+    lock.lock ();
+    try {
+      this.nEnrolled = nEnrolled;
+      disordered = true;
+      // Discard the arrivals of the current phase
+      for (int i = 0; i < nodes.length; i++) {
+        nodes[i].count.set ((long) phase.number << 32);
+      }
+    }
+    finally {
+      lock.unlock ();
+    }
+  }
+
+  /**
+   * Synchronise the invoking process on this barrier.
+   * <I>Any</I> process synchronising on this barrier will be blocked until <I>all</I>
+   * processes associated with the barrier have synchronised (or resigned).
+   */
+  public void sync ()
+  {
+    final BarrierMetrics m = metrics;
+    final long start = (m == null) ? 0 : System.nanoTime ();
+    final Object event = FlightEvents.startSync ();
+    final Phase ph = phase;
+    final int p = ph.number;
+    final Node leaf = leaves[(int) Thread.currentThread ().getId () & (leaves.length - 1)];
+    final int c = leaf.add (p, 1);
+    // disordered is read after counting, so a process setting it then sees this arrival
+    boolean complete = false;
+    if (disordered || (c > leaf.expected)) {
+      disordered = true;
+      complete = true;
+    } else if (c == leaf.expected) {
+      // Carry the count up the tree for as long as we complete each node
+      Node node = leaf;
+      complete = true;
+      while (complete && (node.parent != null)) {
+        final int n = node.expected;
+        node = node.parent;
+        complete = (node.add (p, n) == node.expected);
+      }
+    }
+    if (complete) {
+      lock.lock ();
+      try {
+        if ((phase == ph) && (arrived (p) >= nEnrolled)) {
+          nextPhase ();
+        }
+      }
+      finally {
+        lock.unlock ();
+      }
+    }
+    if (ph.ended) {
+      wake (ph.waiting, 2);
+    } else {
+      await (ph);
+    }
+    if (m != null) {
+      m.synced (start);
+    }
+    if (event != null) {
+      FlightEvents.synced (event, this);
+    }
+  }
+
+  /**
+   * Associate the invoking process with this barrier.
+   */
+  public void enroll ()
+  {
+    lock.lock ();
+    try {
+      nEnrolled++;
+      disordered = true;
+    }
+    finally {
+      lock.unlock ();
+    }
+  }
+
+  /**
+   * Disassociate the invoking process from this barrier.
+   * <P>
+   * If all other processes associated with the barrier have synchronised on it,
+   * this releases them.
+   */
+  public void resign ()
+  {
+    boolean released = false;
+    final Phase ph;
+    lock.lock ();
+    try {
+      ph = phase;
+      nEnrolled--;
+      disordered = true;
+      final int n = arrived (ph.number);
+      if (n == nEnrolled) {
+        nextPhase ();
+        released = true;
+      } else if (n > nEnrolled) {
+        throw new BarrierError (
+          "*** A process has resigned on a barrier without first enrolling\n"
+        );
+      }
+    }
+    finally {
+      lock.unlock ();
+    }
+    if (released) {
+      wake (ph.waiting, 2);
+    }
+  }
+
+  /**
+   * Returns the number of arrivals in phase <TT>p</TT>.  Called with the lock held.
+   */
+  private int arrived (final int p)
+  {
+    int n = 0;
+    for (int i = 0; i < leaves.length; i++) {
+      n += leaves[i].get (p);
+    }
+    return n;
+  }
+
+  /**
+   * Ends the current phase, releasing the processes waiting in it.  Called with the lock
+   * held, by the last process to arrive.  If the arrivals were counted under the lock,
+   * the numbers that arrived at each leaf become those expected there next time.
+   */
+  private void nextPhase ()
+  {
+    final Phase ph = phase;
+    if (disordered) {
+      int n = 0;
+      for (int i = 0; i < nodes.length; i++) {
+        nodes[i].expected = (i < leaves.length) ? leaves[i].get (ph.number) : 0;
+      }
+      // Each node above the leaves expects the sum of its children's expected counts.
+      // Children come before their parents in nodes.
+      for (int i = 0; i < nodes.length; i++) {
+        if (i < leaves.length) {
+          n += nodes[i].expected;
+        }
+        if ((nodes[i].parent != null) && (nodes[i].expected > 0)) {
+          nodes[i].parent.expected += nodes[i].expected;
+        }
+      }
+      disordered = (n != nEnrolled);
+    }
+    phase = new Phase (ph.number + 1);
+    ph.ended = true;
+  }
+
+  /**
+   * Waits for a phase to end: spinning, then parking on the stack of waiters for the
+   * phase.  A process woken by another wakes two more.
+   */
+  private void await (final Phase ph)
+  {
+    for (int i = 0; i < SPIN_LIMIT; i++) {
+      if (ph.ended) {
+        return;
+      }
+    }
+    final AtomicReference<Waiter> stack = ph.waiting;
+    final Waiter waiter = new Waiter ();
+    do {
+      waiter.next = stack.get ();
+    } while (!stack.compareAndSet (waiter.next, waiter));
+    boolean interrupted = false;
+    while (!ph.ended) {
+      LockSupport.park (this);
+      if (Thread.interrupted ()) {
+        if (!ph.ended && waiter.state.compareAndSet (WAITING, CANCELLED)) {
+          throw new ProcessInterruptedException ("*** Thrown from CombiningBarrier.sync ()\n"
+                                                 + new InterruptedException ().toString ());
+        }
+        // Already claimed, so the phase is ending: keep waiting, and keep the interrupt for later
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread ().interrupt ();
+    }
+    if (!waiter.state.compareAndSet (WAITING, CANCELLED)) {
+      // We were claimed by a process waking us, so must pass the wake-up on
+      wake (stack, 2);
+    }
+  }
+
+  /**
+   * Claims and unparks up to <TT>n</TT> waiters from a stack of waiters whose phase has
+   * ended.  Waiters that have already left are discarded.
+   */
+  private static void wake (final AtomicReference<Waiter> stack, int n)
+  {
+    while (n > 0) {
+      Waiter waiter;
+      do {
+        waiter = stack.get ();
+        if (waiter == null) {
+          return;
+        }
+      } while (!stack.compareAndSet (waiter, waiter.next));
+      if (waiter.state.compareAndSet (WAITING, CLAIMED)) {
+        LockSupport.unpark (waiter.thread);
+        n--;
+      }
+    }
+  }
+}
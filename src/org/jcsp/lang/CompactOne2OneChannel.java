@@ -0,0 +1,338 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This implements a one-to-one object channel in as few bytes as possible.
+ * <H2>Description</H2>
+ * <TT>CompactOne2OneChannel</TT> has the rendezvous of {@link SpinningOne2OneChannelImpl}
+ * (a single state word, with a waiting process spinning briefly and then parking),
+ * but is built for networks with very many channels, where the heap they take is
+ * what limits the size of the network:
+ * <UL>
+ *   <LI>there is no monitor object and no separate atomic: the state word is a field
+ *       of the channel, updated through a shared field updater;
+ *   <LI>the channel is its own input and output end, so {@link #in()} and {@link #out()}
+ *       return the channel itself, however often they are called;
+ *   <LI>the reader's {@link Alternative}, when it <I>ALT</I>s, is held in the same
+ *       field as its thread when it blocks, as it never does both at once.
+ * </UL>
+ * The channel is four fields (the state, the object being passed, the writer's
+ * thread and the reader's thread or <TT>Alternative</TT>), which is 32 bytes with
+ * compressed references, where a {@link One2OneChannelImpl} and its two ends take
+ * three or four times as much.
+ * <P>
+ * The reader may <I>ALT</I> on the channel and extended rendezvous is supported.
+ * The channel cannot be poisoned: {@link #poison(int)} does nothing.  As there are
+ * no separate ends, reads and writes are not reported to a Flight Recording.
+ *
+ * @see org.jcsp.lang.Channel#one2oneCompact()
+ * @see org.jcsp.lang.SpinningOne2OneChannelImpl
+ */
+class CompactOne2OneChannel<T> extends AltingChannelInput<T> implements One2OneChannel<T>, ChannelOutput<T>
+{
+    private static final int EMPTY = 0;
+    private static final int READER_WAITING = 1;
+    private static final int ALTING = 2;
+    private static final int SIGNALLING = 3;
+    private static final int DATA = 4;
+    private static final int READING = 5;
+
+    private static final AtomicIntegerFieldUpdater<CompactOne2OneChannel> STATE =
+        AtomicIntegerFieldUpdater.newUpdater (CompactOne2OneChannel.class, "state");
+
+    /** The rendezvous state word */
+    private volatile int state = EMPTY;
+
+    /** The object being passed, published by the move to <TT>DATA</TT> */
+    private T hold;
+
+    /** The thread of the writer while it is (or is about to be) blocked */
+    private volatile Thread writer;
+
+    /**
+     * The thread of the reader while it is (or is about to be) blocked, or the
+     * Alternative that controls the selection while the reader is <I>ALT</I>ing.
+     */
+    private volatile Object reader;
+
+    /*************Methods from One2OneChannel******************************/
+
+    /**
+     * Returns the <code>AltingChannelInput</code> to use for this channel.
+     * As <code>CompactOne2OneChannel</code> implements
+     * <code>AltingChannelInput</code> itself, this method simply returns
+     * a reference to the object that it is called on.
+     *
+     * @return the <code>AltingChannelInput</code> object to use for this
+     *          channel.
+     */
+    public AltingChannelInput<T> in ()
+    {
+        return this;
+    }
+
+    /**
+     * Returns the <code>ChannelOutput</code> object to use for this channel.
+     * As <code>CompactOne2OneChannel</code> implements
+     * <code>ChannelOutput</code> itself, this method simply returns
+     * a reference to the object that it is called on.
+     *
+     * @return the <code>ChannelOutput</code> object to use for this
+     *          channel.
+     */
+    public ChannelOutput<T> out ()
+    {
+        return this;
+    }
+
+    /**
+     * Spins (for a bounded number of calls) and then parks the current thread.
+     * The caller must re-check its condition on return.
+     *
+     * @param spins the number of times this has been called in the current wait.
+     * @param where the operation to report if the thread is interrupted.
+     */
+    private void pause (int spins, String where)
+    {
+        if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+        {
+            return;
+        }
+        LockSupport.park (this);
+        if (Thread.interrupted ())
+        {
+            throw new ProcessInterruptedException ("*** Thrown from One2OneChannel." + where + "\n"
+                                                   + new InterruptedException ().toString ());
+        }
+    }
+
+    /*************Methods from ChannelOutput*******************************/
+
+    /**
+     * Writes an <TT>Object</TT> to the channel.
+     *
+     * @param value the object to write to the channel.
+     */
+    public void write (T value)
+    {
+        hold = value;
+        writer = Thread.currentThread ();
+        while (true)
+        {
+            final int s = state;
+            if (s == EMPTY)
+            {
+                if (STATE.compareAndSet (this, EMPTY, DATA))
+                {
+                    break;
+                }
+            }
+            else if (s == READER_WAITING)
+            {
+                final Thread r = (Thread) reader;
+                if (STATE.compareAndSet (this, READER_WAITING, DATA))
+                {
+                    LockSupport.unpark (r);
+                    break;
+                }
+            }
+            else if (s == ALTING)
+            {
+                final Alternative alt = (Alternative) reader;
+                if (STATE.compareAndSet (this, ALTING, SIGNALLING))
+                {
+                    alt.schedule ();
+                    state = DATA;
+                    break;
+                }
+            }
+            else
+            {
+                throw new JCSP_InternalError ("*** Second writer on a One2OneChannel (state " + s + ")");
+            }
+        }
+        // wait for the reader to take the object (or finish its extended rendezvous)
+        for (int spins = 0; true; spins++)
+        {
+            final int s = state;
+            if ((s != DATA) && (s != READING))
+            {
+                return;
+            }
+            pause (spins, "write (Object)");
+        }
+    }
+
+    /** ***********Methods from AltingChannelInput************************* */
+
+    /**
+     * Blocks the reader until the writer has deposited its object
+     * and then moves the state from <TT>DATA</TT> to <TT>next</TT>.
+     * Only the reader leaves the <TT>DATA</TT> state.
+     */
+    private T take (int next, String where)
+    {
+        for (int spins = 0; true; )
+        {
+            final int s = state;
+            if (s == DATA)
+            {
+                final T value = hold;
+                hold = null;
+                state = next;
+                return value;
+            }
+            else if (s == EMPTY)
+            {
+                reader = Thread.currentThread ();
+                STATE.compareAndSet (this, EMPTY, READER_WAITING);
+            }
+            else if (s == READER_WAITING)
+            {
+                pause (spins++, where);
+            }
+            else if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else
+            {
+                throw new JCSP_InternalError ("*** Illegal read on a One2OneChannel (state " + s + ")");
+            }
+        }
+    }
+
+    /**
+     * Reads an <TT>Object</TT> from the channel.
+     *
+     * @return the object read from the channel.
+     */
+    public T read ()
+    {
+        final T value = take (EMPTY, "read ()");
+        LockSupport.unpark (writer);
+        return value;
+    }
+
+    public T startRead ()
+    {
+        return take (READING, "startRead ()");
+    }
+
+    public void endRead ()
+    {
+        state = EMPTY;
+        LockSupport.unpark (writer);
+    }
+
+    /**
+     * turns on Alternative selection for the channel. Returns true if the
+     * channel has data that can be read immediately.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @param alt the Alternative class which will control the selection
+     * @return true if the channel has data that can be read, else false
+     */
+    boolean enable (Alternative alt)
+    {
+        if (state == DATA)
+        {
+            return true;
+        }
+        reader = alt;
+        // only the writer can have moved the state on from EMPTY, to DATA
+        return !STATE.compareAndSet (this, EMPTY, ALTING);
+    }
+
+    /**
+     * turns off Alternative selection for the channel. Returns true if the
+     * channel contained data that can be read.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @return true if the channel has data that can be read, else false
+     */
+    boolean disable ()
+    {
+        while (true)
+        {
+            final int s = state;
+            if (s == ALTING)
+            {
+                if (STATE.compareAndSet (this, ALTING, EMPTY))
+                {
+                    reader = null;
+                    return false;
+                }
+            }
+            else if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else
+            {
+                reader = null;
+                return s == DATA;
+            }
+        }
+    }
+
+    /**
+     * Returns whether there is data pending on this channel.
+     * <P>
+     * <I>Note: if there is, it won't go away until you read it.  But if there
+     * isn't, there may be some by the time you check the result of this method.</I>
+     *
+     * @return state of the channel.
+     */
+    public boolean pending ()
+    {
+        int s = state;
+        while (s == SIGNALLING)
+        {
+            Thread.yield ();
+            s = state;
+        }
+        return s == DATA;
+    }
+
+    /**
+     * This channel cannot be poisoned, so this does nothing.
+     *
+     * @param strength the strength of the poison (ignored).
+     */
+    public void poison (int strength)
+    {
+    }
+}
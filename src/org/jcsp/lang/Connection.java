@@ -81,6 +81,22 @@ public class Connection
         return factory.createAny2Any();
     }
 
+    /**
+     * @see org.jcsp.lang.StandardConnectionFactory#createDirectOne2One()
+     */
+    public static <T> One2OneConnection<T> createDirectOne2One()
+    {
+        return factory.createDirectOne2One();
+    }
+
+    /**
+     * @see org.jcsp.lang.StandardConnectionFactory#createDirectAny2One()
+     */
+    public static <T> Any2OneConnection<T> createDirectAny2One()
+    {
+        return factory.createDirectAny2One();
+    }
+
     /**
      * @see org.jcsp.lang.ConnectionArrayFactory#createOne2One(int)
      */
@@ -389,6 +389,11 @@ package org.jcsp.lang;
  * and can lead to infinite starvation.  This is a problem for <I>any</I> Java system
  * relying on good behaviour from <TT>synchronized</TT>, not just for JCSP's
  * <I>any-1</I> channels or <TT>Crew</TT> locks.
+ * <P>
+ * An {@link AtomicCrew} gives the same guarantees without a server process or
+ * channel communications, and also offers optimistic reads.
+ *
+ * @see org.jcsp.lang.AtomicCrew
  *
  * @author P.H. Welch
  */
@@ -0,0 +1,91 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * This is a call made over a direct CALL channel ({@link Any2OneDirectCallChannel}
+ * or {@link Any2AnyDirectCallChannel}), to be carried out by the <I>server</I> that
+ * accepts it.
+ * <H2>Description</H2>
+ * A method of a direct CALL channel packages its call as a <TT>DirectCall</TT>, whose
+ * {@link #run run} method invokes the method of the <I>server</I> and keeps its
+ * result, and hands it to the <I>server</I> with the channel's <TT>call</TT> method:
+ * <PRE>
+ *   public int calculate (final int i, final boolean b) {
+ *     final CalculateCall call = new CalculateCall (i, b);
+ *     call (call, CALCULATE);
+ *     return call.result;
+ *   }
+ * <I></I>
+ *   private static class CalculateCall extends DirectCall {
+ *     private final int i;
+ *     private final boolean b;
+ *     int result;
+ *     CalculateCall (final int i, final boolean b) {
+ *       this.i = i;
+ *       this.b = b;
+ *     }
+ *     protected void run (final CSProcess server) {
+ *       result = ((Foo) server).calculate (i, b);
+ *     }
+ *   }
+ * </PRE>
+ * A <TT>DirectCall</TT> may be reused by its <I>client</I> once the call has
+ * returned, but must not be used for two calls at once.
+ *
+ * @see org.jcsp.lang.Any2OneDirectCallChannel
+ * @see org.jcsp.lang.Any2AnyDirectCallChannel
+ */
+
+public abstract class DirectCall
+{
+    /** The thread of the client making the call */
+    Thread client;
+
+    /** The value to be returned to the server by its accept */
+    int selected;
+
+    /** Set, by the server, once the call has been carried out */
+    volatile boolean done;
+
+    /** What the call threw, if anything */
+    Throwable failure;
+
+    /** The next call on the stack of calls made, or in the list of those taken by the server */
+    DirectCall next;
+
+    /**
+     * Carries out the call, by invoking the relevant method of the <I>server</I>.
+     * This is run by the <I>server</I>, during its <TT>accept</TT>.  Anything it throws
+     * is thrown to the <I>client</I>, rather than the <I>server</I>.
+     *
+     * @param server the <I>server</I> process accepting the call.
+     */
+    protected abstract void run (CSProcess server);
+}
@@ -0,0 +1,487 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is an implementation of <code>One2OneConnection</code> and
+ * <code>Any2OneConnection</code> that carries each request and reply through
+ * a single slot, rather than over internal channels.
+ * <P>
+ * The slot holds one message and a state: <TT>EMPTY</TT>, <TT>REQUEST</TT>
+ * (put by the client, not yet taken by the server) or <TT>REPLY</TT> (put by
+ * the server, not yet taken by the client).  Only the client in session writes
+ * a request and only the server writes a reply, so each change of state is a
+ * single volatile write, and the party waiting for it spins briefly and then
+ * parks.  Nothing is allocated per request.
+ * <P>
+ * The clients of an <code>Any2OneConnection</code> claim the connection for the
+ * length of a session (from their first request until the server closes it), in
+ * turn, on a queue made from one node per client end.  The server end and the
+ * client ends may be used as guards in an {@link Alternative}, as with the
+ * channel based connections.
+ */
+class DirectConnectionImpl<T> implements One2OneConnection<T>, Any2OneConnection<T>
+{
+    private static final int EMPTY = 0;
+    private static final int REQUEST = 1;
+    private static final int REPLY = 2;
+
+    private static final int IDLE = 0;
+    private static final int ALTING = 1;
+    private static final int SIGNALLING = 2;
+
+    /** The state of the slot */
+    private volatile int state = EMPTY;
+
+    /** The request or reply held by the slot (published by the write of state) */
+    private T data;
+
+    /** Whether the server kept the connection open with its reply */
+    private boolean open;
+
+    /** The server waiting for a request */
+    private final Party serverParty = new Party();
+
+    /** The client in session waiting for a reply */
+    private final Party clientParty = new Party();
+
+    /** The last node in the queue of clients claiming the connection, or null if there is one client */
+    private final AtomicReference<Claim> claimTail;
+
+    private final Server<T> server;
+
+    /** The client end, if there is only one */
+    private final Client<T> client;
+
+    /**
+     * Constructs a new connection.
+     *
+     * @param sharedClients true if the connection may have several clients.
+     */
+    DirectConnectionImpl(boolean sharedClients)
+    {
+        super();
+        server = new Server<T>(this);
+        if (sharedClients)
+        {
+            claimTail = new AtomicReference<Claim>(new Claim());
+            client = null;
+        }
+        else
+        {
+            claimTail = null;
+            client = new Client<T>(this);
+        }
+    }
+
+    /**
+     * Returns a client end of the connection.  If the connection has one client,
+     * this will always return the same object.  Otherwise, each client end
+     * returned can be used by a single process at any instance.
+     *
+     * @return the client end.
+     */
+    public SharedAltingConnectionClient<T> client()
+    {
+        return (client != null) ? client : new Client<T>(this);
+    }
+
+    /**
+     * Returns the server end of the connection, which can be used by a single
+     * process at any instance.
+     *
+     * @return the server end.
+     */
+    public AltingConnectionServer<T> server()
+    {
+        return server;
+    }
+
+    /**
+     * Puts a request in the slot, for the server.
+     */
+    private void putRequest(T request)
+    {
+        data = request;
+        state = REQUEST;
+        signal(serverParty);
+    }
+
+    /**
+     * Waits for and takes a request from the slot.
+     */
+    private T takeRequest()
+    {
+        await(serverParty, REQUEST, "request ()");
+        final T request = data;
+        data = null;
+        state = EMPTY;
+        return request;
+    }
+
+    /**
+     * Puts a reply in the slot, for the client in session.
+     */
+    private void putReply(T reply, boolean keepOpen)
+    {
+        data = reply;
+        open = keepOpen;
+        state = REPLY;
+        signal(clientParty);
+    }
+
+    /**
+     * Waits for and takes a reply from the slot, leaving whether the server kept
+     * the connection open in <code>open</code>.
+     */
+    private T takeReply()
+    {
+        await(clientParty, REPLY, "reply ()");
+        final T reply = data;
+        data = null;
+        state = EMPTY;
+        return reply;
+    }
+
+    /**
+     * Wakes a party that may be waiting for the state of the slot it has just been
+     * given, or schedules its Alternative.
+     */
+    private void signal(Party party)
+    {
+        final Thread t = party.thread;
+        if (t != null)
+        {
+            LockSupport.unpark(t);
+        }
+        if ((party.altState.get() == ALTING) && party.altState.compareAndSet(ALTING, SIGNALLING))
+        {
+            party.alt.schedule();
+            party.altState.set(IDLE);
+        }
+    }
+
+    /**
+     * Waits until the slot is in the wanted state.  The party publishes its thread
+     * before checking again, so a wake-up cannot be lost.
+     */
+    private void await(Party party, int wanted, String where)
+    {
+        for (int spins = 0; state != wanted; spins++)
+        {
+            if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+            {
+                continue;
+            }
+            party.thread = Thread.currentThread();
+            if (state != wanted)
+            {
+                LockSupport.park(this);
+            }
+            party.thread = null;
+            if (Thread.interrupted())
+            {
+                throw new ProcessInterruptedException("*** Thrown from the " + where + " of a direct connection\n"
+                                                      + new InterruptedException().toString());
+            }
+        }
+    }
+
+    /**
+     * Turns on Alternative selection for a party.  Returns true if the slot is
+     * already in the wanted state.
+     */
+    private boolean enable(Party party, int wanted, Alternative alt)
+    {
+        if (state == wanted)
+        {
+            return true;
+        }
+        // the other party may still be scheduling the Alternative from a previous enable
+        while (party.altState.get() == SIGNALLING)
+        {
+            Thread.yield();
+        }
+        party.alt = alt;
+        party.altState.set(ALTING);
+        // the slot may have changed before the ALTING state was visible to the other party
+        return state == wanted;
+    }
+
+    /**
+     * Turns off Alternative selection for a party.  Returns true if the slot is in
+     * the wanted state.
+     */
+    private boolean disable(Party party, int wanted)
+    {
+        while (true)
+        {
+            final int s = party.altState.get();
+            if (s == SIGNALLING)
+            {
+                Thread.yield();
+            }
+            else if ((s == IDLE) || party.altState.compareAndSet(ALTING, IDLE))
+            {
+                break;
+            }
+        }
+        party.alt = null;
+        return state == wanted;
+    }
+
+    /**
+     * Claims the connection for a client's session, waiting in turn behind the
+     * clients already holding or claiming it.  The wait is not interruptible, but
+     * an interrupt is kept for later.
+     */
+    private void claim(Client<T> c)
+    {
+        final Claim node = c.node;
+        node.held = true;
+        final Claim pred = claimTail.getAndSet(node);
+        boolean interrupted = false;
+        for (int spins = 0; pred.held; spins++)
+        {
+            if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+            {
+                continue;
+            }
+            pred.waiter = Thread.currentThread();
+            if (pred.held)
+            {
+                LockSupport.park(this);
+            }
+            if (Thread.interrupted())
+            {
+                interrupted = true;
+            }
+        }
+        pred.waiter = null;
+        c.pred = pred;
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ends a client's session, letting the next client in.  The client takes its
+     * predecessor's node for its next claim, as no other client refers to it now.
+     */
+    private void release(Client<T> c)
+    {
+        final Claim node = c.node;
+        node.held = false;
+        final Thread next = node.waiter;
+        if (next != null)
+        {
+            LockSupport.unpark(next);
+        }
+        c.node = c.pred;
+        c.pred = null;
+    }
+
+    /**
+     * A process waiting on the slot, either by blocking or in an Alternative.
+     */
+    private static final class Party
+    {
+        /** The thread of the process while it is (or is about to be) blocked */
+        volatile Thread thread;
+
+        /** Whether the process has enabled its end in an Alternative */
+        final AtomicInteger altState = new AtomicInteger(IDLE);
+
+        /** The Alternative class that controls the selection */
+        volatile Alternative alt;
+    }
+
+    /**
+     * A node in the queue of clients claiming the connection.
+     */
+    private static final class Claim
+    {
+        /** Whether the client that queued this node holds, or is waiting for, the connection */
+        volatile boolean held;
+
+        /** The next client in the queue, while it is (or is about to be) blocked */
+        volatile Thread waiter;
+    }
+
+    /**
+     * The server end of a direct connection.
+     */
+    private static final class Server<T> extends AltingConnectionServer<T>
+    {
+        private static final int SERVER_STATE_CLOSED = 1;
+        private static final int SERVER_STATE_OPEN = 2;
+        private static final int SERVER_STATE_RECEIVED = 3;
+
+        private final DirectConnectionImpl<T> conn;
+
+        private int currentServerState = SERVER_STATE_CLOSED;
+
+        Server(DirectConnectionImpl<T> conn)
+        {
+            super(null);
+            this.conn = conn;
+        }
+
+        public T request() throws IllegalStateException
+        {
+            if (currentServerState == SERVER_STATE_RECEIVED)
+                throw new IllegalStateException
+                        ("Cannot call request() twice on ConnectionServer without replying to the client first.");
+            final T request = conn.takeRequest();
+            currentServerState = SERVER_STATE_RECEIVED;
+            return request;
+        }
+
+        public void reply(T data) throws IllegalStateException
+        {
+            reply(data, false);
+        }
+
+        public void reply(T data, boolean close) throws IllegalStateException
+        {
+            if (currentServerState != SERVER_STATE_RECEIVED)
+                throw new IllegalStateException
+                        ("Cannot call reply(Object, boolean) on a ConnectionServer that has not received an unacknowledge request.");
+            // set the state first, as the client may make a new request as soon as it has the reply
+            currentServerState = close ? SERVER_STATE_CLOSED : SERVER_STATE_OPEN;
+            conn.putReply(data, !close);
+        }
+
+        public void replyAndClose(T data) throws IllegalStateException
+        {
+            reply(data, true);
+        }
+
+        boolean enable(Alternative alt)
+        {
+            return conn.enable(conn.serverParty, REQUEST, alt);
+        }
+
+        boolean disable()
+        {
+            return conn.disable(conn.serverParty, REQUEST);
+        }
+
+        public boolean pending()
+        {
+            return conn.state == REQUEST;
+        }
+    }
+
+    /**
+     * A client end of a direct connection.  The channels of the superclass are not
+     * used.
+     */
+    private static final class Client<T> extends SharedAltingConnectionClient<T>
+    {
+        private static final int CLIENT_STATE_CLOSED = 1;
+        private static final int CLIENT_STATE_MADE_REQ = 2;
+        private static final int CLIENT_STATE_OPEN = 3;
+
+        private final DirectConnectionImpl<T> conn;
+
+        private int currentClientState = CLIENT_STATE_CLOSED;
+
+        /** The node this client queues with when claiming a shared connection */
+        private Claim node;
+
+        /** The node ahead of ours in the queue, while the connection is claimed */
+        private Claim pred;
+
+        Client(DirectConnectionImpl<T> conn)
+        {
+            super(null, null, null, null, null, null, conn);
+            this.conn = conn;
+            if (conn.claimTail != null)
+                node = new Claim();
+        }
+
+        public void request(T data) throws IllegalStateException
+        {
+            if (currentClientState == CLIENT_STATE_MADE_REQ)
+                throw new IllegalStateException
+                        ("Cannot call request(Object) twice without calling reply().");
+            //this will claim the use of the client
+            if ((currentClientState == CLIENT_STATE_CLOSED) && (node != null))
+                conn.claim(this);
+            conn.putRequest(data);
+            currentClientState = CLIENT_STATE_MADE_REQ;
+        }
+
+        public T reply() throws IllegalStateException
+        {
+            if (currentClientState != CLIENT_STATE_MADE_REQ)
+                throw new IllegalStateException
+                        ("Cannot call reply() on a ConnectionClient that is not waiting for a reply.");
+            final T reply = conn.takeReply();
+            if (conn.open)
+                currentClientState = CLIENT_STATE_OPEN;
+            else
+            {
+                currentClientState = CLIENT_STATE_CLOSED;
+                if (node != null)
+                    conn.release(this);
+            }
+            return reply;
+        }
+
+        public boolean isOpen() throws IllegalStateException
+        {
+            if (currentClientState == CLIENT_STATE_MADE_REQ)
+                throw new IllegalStateException
+                        ("Can only call isOpen() just after a reply has been received from the server.");
+            return currentClientState == CLIENT_STATE_OPEN;
+        }
+
+        boolean enable(Alternative alt)
+        {
+            return conn.enable(conn.clientParty, REPLY, alt);
+        }
+
+        boolean disable()
+        {
+            return conn.disable(conn.clientParty, REPLY);
+        }
+
+        public boolean pending()
+        {
+            return conn.state == REPLY;
+        }
+    }
+}
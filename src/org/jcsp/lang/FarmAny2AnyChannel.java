@@ -0,0 +1,319 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This implements a synchronising any-to-any object channel for farms of worker
+ * processes, without a monitor or a reader mutex.
+ * <H2>Description</H2>
+ * <TT>FarmAny2AnyChannel</TT> has the semantics of a (zero-buffered) {@link Any2AnyChannel}:
+ * each <TT>write</TT> completes when one reader has taken the value, and extended
+ * rendezvous is supported.  It is made for one or more writers handing out work to
+ * many readers, such as a farm of workers.
+ * <P>
+ * The usual shared channels make readers claim a {@link Mutex} before entering the
+ * channel, so that idle readers queue on the mutex and are woken one at a time.
+ * Here, processes that cannot complete at once push themselves on a lock-free stack:
+ * idle readers, or writers that found no reader waiting.  The stack only ever holds
+ * readers or writers.  A process finding the other kind on top pops it and completes
+ * the hand-off directly: a writer hands its value to the reader and unparks it, and a
+ * reader takes the value of the writer and unparks that.  Waiting processes spin for a
+ * short, bounded period (only on multi-processor machines) and then park.
+ * <P>
+ * Waiting processes are served last-in first-out.  For a farm, this keeps the most
+ * recently active workers busy and lets the others stay parked, but it means that the
+ * order in which the values of different writers are read is not defined.
+ * <P>
+ * These channels cannot be poisoned.
+ *
+ * @see org.jcsp.lang.Channel#one2anyFarm()
+ * @see org.jcsp.lang.Channel#any2anyFarm()
+ * @see org.jcsp.lang.One2AnyChannel
+ * @see org.jcsp.lang.Any2AnyChannel
+ */
+
+class FarmAny2AnyChannel<T> implements One2AnyChannel<T>, Any2AnyChannel<T>, ChannelInternals<T>
+{
+    /** The mode of a node pushed by a writer */
+    private static final int DATA = 0;
+
+    /** The mode of a node pushed by a reader */
+    private static final int REQUEST = 1;
+
+    /** The states of a node, in the order they are passed through */
+    private static final int CANCELLED = -1;
+    private static final int WAITING = 0;
+    private static final int TAKEN = 1;
+    private static final int MATCHED = 2;
+    private static final int RELEASED = 3;
+
+    /**
+     * A waiting writer or reader.
+     */
+    private static final class Node
+    {
+        /** DATA or REQUEST */
+        final int mode;
+
+        /** The thread that pushed the node */
+        final Thread thread = Thread.currentThread ();
+
+        /** Whether a REQUEST is for an extended rendezvous */
+        final boolean extended;
+
+        /**
+         * The value, set before the node is pushed for DATA, or before it is matched for
+         * a REQUEST.  Published by the update of state.
+         */
+        Object item;
+
+        /**
+         * WAITING, until matched by the other side: TAKEN by an extended read of DATA, or
+         * else MATCHED, and then RELEASED by the end of an extended read.  CANCELLED if
+         * the waiting process is interrupted first.
+         */
+        final AtomicInteger state = new AtomicInteger (WAITING);
+
+        /** The writer that matched an extended REQUEST, waiting for it to be released */
+        volatile Thread partner;
+
+        /** The next node down the stack */
+        Node next;
+
+        Node (int mode, Object item, boolean extended)
+        {
+            this.mode = mode;
+            this.item = item;
+            this.extended = extended;
+        }
+    }
+
+    /** The top of the stack of waiting processes */
+    private final AtomicReference<Node> top = new AtomicReference<Node> ();
+
+    /** The node of each reader in the middle of an extended rendezvous */
+    private final ThreadLocal<Node> extendedRead = new ThreadLocal<Node> ();
+
+    /*************Methods from Any2AnyChannel******************************/
+
+    /**
+     * Returns the <code>SharedChannelInput</code> object to use for this channel.
+     *
+     * @return the <code>SharedChannelInput</code> object to use for this
+     *          channel.
+     */
+    public SharedChannelInput<T> in ()
+    {
+        return new SharedChannelInputImpl<T> (this, 0);
+    }
+
+    /**
+     * Returns the <code>SharedChannelOutput</code> object to use for this channel.
+     *
+     * @return the <code>SharedChannelOutput</code> object to use for this
+     *          channel.
+     */
+    public SharedChannelOutput<T> out ()
+    {
+        return new SharedChannelOutputImpl<T> (this, 0);
+    }
+
+    /**
+     * Waits until the state of a node is at least <TT>until</TT>: spinning for a bounded
+     * period, then parking.  A node that is still WAITING when the thread is interrupted
+     * is cancelled.  Otherwise the interrupt is kept for later.
+     */
+    private void await (Node node, int until, String where)
+    {
+        boolean interrupted = false;
+        for (int spins = 0; node.state.get () < until; spins++)
+        {
+            if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+            {
+                continue;
+            }
+            LockSupport.park (this);
+            if (Thread.interrupted ())
+            {
+                if (node.state.compareAndSet (WAITING, CANCELLED))
+                {
+                    throw new ProcessInterruptedException ("*** Thrown from Any2AnyChannel." + where + "\n"
+                                                           + new InterruptedException ().toString ());
+                }
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread ().interrupt ();
+        }
+    }
+
+    /*************Methods from SharedChannelOutput*************************/
+
+    /**
+     * Writes an <TT>Object</TT> to the channel.
+     *
+     * @param value the object to write to the channel.
+     */
+    public void write (T value)
+    {
+        while (true)
+        {
+            final Node h = top.get ();
+            if ((h == null) || (h.mode == DATA))
+            {
+                final Node node = new Node (DATA, value, false);
+                node.next = h;
+                if (top.compareAndSet (h, node))
+                {
+                    await (node, MATCHED, "write (Object)");
+                    return;
+                }
+            }
+            else if (top.compareAndSet (h, h.next))
+            {
+                // h is a waiting reader
+                h.item = value;
+                if (h.extended)
+                {
+                    h.partner = Thread.currentThread ();
+                }
+                if (h.state.compareAndSet (WAITING, MATCHED))
+                {
+                    LockSupport.unpark (h.thread);
+                    if (h.extended)
+                    {
+                        await (h, RELEASED, "write (Object)");
+                    }
+                    return;
+                }
+                // the reader was interrupted: try again
+            }
+        }
+    }
+
+    /** ***********Methods from SharedChannelInput************************* */
+
+    /**
+     * Takes a value from a waiting writer, or waits for one.
+     */
+    private T take (boolean extended, String where)
+    {
+        while (true)
+        {
+            final Node h = top.get ();
+            if ((h == null) || (h.mode == REQUEST))
+            {
+                final Node node = new Node (REQUEST, null, extended);
+                node.next = h;
+                if (top.compareAndSet (h, node))
+                {
+                    await (node, MATCHED, where);
+                    if (extended)
+                    {
+                        extendedRead.set (node);
+                    }
+                    return (T) node.item;
+                }
+            }
+            else if (top.compareAndSet (h, h.next))
+            {
+                // h is a waiting writer
+                if (h.state.compareAndSet (WAITING, extended ? TAKEN : MATCHED))
+                {
+                    final T value = (T) h.item;
+                    if (extended)
+                    {
+                        extendedRead.set (h);
+                    }
+                    else
+                    {
+                        LockSupport.unpark (h.thread);
+                    }
+                    return value;
+                }
+                // the writer was interrupted: try again
+            }
+        }
+    }
+
+    /**
+     * Reads an <TT>Object</TT> from the channel.
+     *
+     * @return the object read from the channel.
+     */
+    public T read ()
+    {
+        return take (false, "read ()");
+    }
+
+    public T startRead ()
+    {
+        return take (true, "startRead ()");
+    }
+
+    public void endRead ()
+    {
+        final Node node = extendedRead.get ();
+        extendedRead.set (null);
+        node.state.set (RELEASED);
+        LockSupport.unpark ((node.mode == DATA) ? node.thread : node.partner);
+    }
+
+//  Only used by Alternative, which cannot select on a shared input:
+    public boolean readerEnable (Alternative alt)
+    {
+        return false;
+    }
+
+    public boolean readerDisable ()
+    {
+        return false;
+    }
+
+    public boolean readerPending ()
+    {
+        return false;
+    }
+
+//  No poison in these channels:
+    public void writerPoison (int strength)
+    {
+    }
+
+    public void readerPoison (int strength)
+    {
+    }
+
+}
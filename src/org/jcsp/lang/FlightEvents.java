@@ -0,0 +1,215 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This is where JCSP reports the events it records with the Java Flight Recorder
+ * (JFR): blocking channel reads and writes, <TT>Alternative</TT> selections, barrier
+ * synchronisations, poisonings and the running of processes.  The events themselves
+ * need <TT>jdk.jfr</TT>, so they are defined, and recorded, by a {@link Recorder}
+ * that is built separately from the rest of JCSP (from <TT>src/jcsp-jfr</TT>) and
+ * loaded by name.
+ * <P>
+ * Nothing is recorded unless a flight recording is running, and until then each
+ * place that reports an event only reads the volatile {@link #recording} flag.  On a
+ * Java platform without JFR (before Java 11), if the recorder was not built, or if
+ * the system property <TT>org.jcsp.jfr</TT> is <TT>false</TT>, there is no recorder
+ * and the flag is never set.
+ * <P>
+ * The ends of a channel, an <TT>Alternative</TT> or a barrier are named in their
+ * events by the name of their metrics (see {@link ChannelMetrics}), or otherwise by
+ * their class and identity hash code.
+ */
+final class FlightEvents
+{
+    /**
+     * Records the events reported to {@link FlightEvents}; its methods are only called
+     * while recording.  The one implementation, <TT>org.jcsp.lang.FlightRecording</TT>,
+     * needs <TT>jdk.jfr</TT>.
+     */
+    static abstract class Recorder
+    {
+        /**
+         * Arranges for {@link FlightEvents#recording} to be set whenever a recording
+         * starts or stops.
+         */
+        abstract void install();
+
+        abstract <T> T read(Object end, ChannelInternals<T> channel, boolean extended);
+
+        abstract <T> void write(Object end, ChannelInternals<T> channel, T object);
+
+        abstract void poison(Object end, boolean reader, int strength);
+
+        abstract Object startSelect();
+
+        abstract void selected(Object event, Alternative alt, int guards, int selected);
+
+        abstract Object startSync();
+
+        abstract void synced(Object event, Barrier barrier);
+
+        abstract void run(CSProcess process);
+    }
+
+    /** Whether a flight recording is running, set by the recorder */
+    static volatile boolean recording = false;
+
+    /** The recorder of the events, or null if there is none */
+    private static final Recorder recorder;
+
+    /** The names given to channel ends by their metrics */
+    private static final Map<Object, String> names = new WeakHashMap<Object, String>();
+
+    static
+    {
+        Recorder r = null;
+        if (!"false".equals(System.getProperty("org.jcsp.jfr")))
+        {
+            try
+            {
+                r = (Recorder) Class.forName("org.jcsp.lang.FlightRecording").getDeclaredConstructor().newInstance();
+                r.install();
+            }
+            catch (Exception e)
+            {
+                // the recorder was not built, or there is no JFR on this platform
+                r = null;
+            }
+            catch (LinkageError e)
+            {
+                // no JFR on this platform
+                r = null;
+            }
+        }
+        recorder = r;
+    }
+
+    private FlightEvents()
+    {
+        //this class should not be instantiated
+    }
+
+    /**
+     * Names an object (the end of a channel) in the events it is the subject of.
+     */
+    static void setName(Object end, String name)
+    {
+        synchronized (names)
+        {
+            names.put(end, name);
+        }
+    }
+
+    /**
+     * Returns the name of an object in its events.
+     */
+    static String nameOf(Object o)
+    {
+        final String name;
+        synchronized (names)
+        {
+            name = names.get(o);
+        }
+        return (name != null) ? name : o.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(o));
+    }
+
+    /**
+     * Reads from a channel (or starts an extended read), recording the time the read blocks.
+     * Only called while recording.
+     */
+    static <T> T read(Object end, ChannelInternals<T> channel, boolean extended)
+    {
+        return recorder.read(end, channel, extended);
+    }
+
+    /**
+     * Writes to a channel, recording the time the write blocks.  Only called while recording.
+     */
+    static <T> void write(Object end, ChannelInternals<T> channel, T object)
+    {
+        recorder.write(end, channel, object);
+    }
+
+    /**
+     * Records the poisoning of a channel through one of its ends.  Only called while recording.
+     */
+    static void poison(Object end, boolean reader, int strength)
+    {
+        recorder.poison(end, reader, strength);
+    }
+
+    /**
+     * Starts recording a selection, returning the event to be passed to {@link #selected},
+     * or null if nothing is being recorded.
+     */
+    static Object startSelect()
+    {
+        return recording ? recorder.startSelect() : null;
+    }
+
+    /**
+     * Records the end of a selection of an <TT>Alternative</TT> with the given number of guards.
+     */
+    static void selected(Object event, Alternative alt, int guards, int selected)
+    {
+        recorder.selected(event, alt, guards, selected);
+    }
+
+    /**
+     * Starts recording a barrier synchronisation, returning the event to be passed to
+     * {@link #synced}, or null if nothing is being recorded.
+     */
+    static Object startSync()
+    {
+        return recording ? recorder.startSync() : null;
+    }
+
+    /**
+     * Records the end of a barrier synchronisation.
+     */
+    static void synced(Object event, Barrier barrier)
+    {
+        recorder.synced(event, barrier);
+    }
+
+    /**
+     * Runs a process, recording its start and its run if a flight recording is running.
+     */
+    static void run(CSProcess process)
+    {
+        if (recording)
+            recorder.run(process);
+        else
+            process.run();
+    }
+}
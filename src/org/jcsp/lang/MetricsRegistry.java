@@ -0,0 +1,129 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * Registers the metrics MBeans ({@link ChannelMetrics}, {@link AlternativeMetrics} and
+ * {@link BarrierMetrics}) with the platform MBean server, under the domain
+ * <TT>org.jcsp</TT>, with the kind of object as their <TT>type</TT> and the name
+ * they were given as their (quoted) <TT>name</TT>.
+ */
+final class MetricsRegistry
+{
+    /** The JMX domain of the metrics */
+    static final String DOMAIN = "org.jcsp";
+
+    private MetricsRegistry()
+    {
+    }
+
+    /**
+     * Registers an MBean with the platform MBean server.
+     *
+     * @param mbean the MBean.
+     * @param type the kind of object it measures.
+     * @param name the name of the object it measures.
+     * @return the name under which it is registered.
+     *
+     * @throws IllegalArgumentException if an MBean is already registered with that type and name.
+     */
+    static ObjectName register(Object mbean, String type, String name)
+    {
+        try
+        {
+            final ObjectName objectName =
+                new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+            return objectName;
+        }
+        catch (InstanceAlreadyExistsException e)
+        {
+            throw new IllegalArgumentException(
+                "*** " + type + " metrics are already registered with the name " + name + "\n"
+            );
+        }
+        catch (MalformedObjectNameException e)
+        {
+            throw new IllegalArgumentException(
+                "*** Cannot register " + type + " metrics with the name " + name + "\n" + e
+            );
+        }
+        catch (JMException e)
+        {
+            throw new JCSP_InternalError(
+                "*** Cannot register " + type + " metrics with the name " + name + "\n" + e
+            );
+        }
+    }
+
+    /**
+     * Unregisters an MBean from the platform MBean server, if it is still registered.
+     *
+     * @param objectName the name under which it was registered.
+     */
+    static void unregister(ObjectName objectName)
+    {
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        }
+        catch (InstanceNotFoundException e)
+        {
+            // already unregistered
+        }
+        catch (JMException e)
+        {
+            throw new JCSP_InternalError(
+                "*** Cannot unregister metrics " + objectName + "\n" + e
+            );
+        }
+    }
+
+    /**
+     * Raises a maximum to a value, if the value is greater.
+     */
+    static void max(AtomicLong max, long value)
+    {
+        long m;
+        while (value > (m = max.get()))
+        {
+            if (max.compareAndSet(m, value))
+                return;
+        }
+    }
+}
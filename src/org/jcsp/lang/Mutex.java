@@ -27,6 +27,9 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * A package-visible class that implements a straightforward mutex, for use by 
  * One2AnyChannel and Any2AnyChannel
@@ -37,12 +40,19 @@ package org.jcsp.lang;
 class Mutex {
 
   private boolean claimed = false;
+
+  /** The lock guarding claimed (a Java monitor would pin a waiting virtual thread) */
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** The condition on which claimers wait for the mutex to be released */
+  private final Condition released = lock.newCondition();
   
   public void claim() {
-    synchronized (this) {
+    lock.lock();
+    try {
       while (claimed) {
         try {
-          wait();
+          released.await();
         } catch (InterruptedException e) {
           throw new ProcessInterruptedException (
               "*** Thrown from Mutex.claim()\n" + e.toString ()
@@ -51,12 +61,19 @@ class Mutex {
       }
       claimed = true;
     } 
+    finally {
+      lock.unlock();
+    }
   }
   
   public void release() {
-    synchronized (this) {
+    lock.lock();
+    try {
       claimed = false;
-      notify();
+      released.signal();
+    }
+    finally {
+      lock.unlock();
     }
   }
 
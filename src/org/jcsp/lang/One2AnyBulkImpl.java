@@ -0,0 +1,70 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * A {@link One2AnyImpl} over a buffered channel, adding the bulk operations.
+ * A bulk read holds the shared read lock while it drains the buffer.
+ */
+class One2AnyBulkImpl<T> extends One2AnyImpl<T> implements BulkChannelInternals<T> {
+
+	private BulkChannelInternals<T> channel;
+
+	One2AnyBulkImpl(BulkChannelInternals<T> _channel) {
+		super(_channel);
+		channel = _channel;
+	}
+
+	public int drainTo(T[] values, int max) {
+		Mutex readMutex = getReadMutex();
+		readMutex.claim();
+		try
+		{
+			return channel.drainTo(values, max);
+		}
+		finally
+		{
+			readMutex.release();
+		}
+	}
+
+	//Never used:
+	public void write(T[] values, int off, int len) {
+		channel.write(values, off, len);
+	}
+
+	public SharedChannelInput<T> in() {
+		return new SharedBulkChannelInputImpl<T>(this,0);
+	}
+
+	public ChannelOutput<T> out() {
+		return new BulkChannelOutputImpl<T>(channel,0);
+	}
+
+}
@@ -29,6 +29,7 @@
 package org.jcsp.lang;
 
 import java.io.Serializable;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This is the super-class for one-to-any <TT>interface</TT>-specific CALL channels,
@@ -166,6 +167,13 @@ public abstract class One2AnyCallChannel implements ChannelAccept, Serializable
      */
     final private One2OneChannelImpl c = new One2OneChannelImpl();
 
+    /**
+     * This serialises the <I>servers</I> accepting on this channel.  It is a lock, rather
+     * than the monitor of a <TT>synchronized</TT> method, so that a <I>server</I> waiting
+     * for a CALL does not pin the carrier of a virtual thread.
+     */
+    final private ReentrantLock acceptLock = new ReentrantLock();
+
     /**
      * This holds a reference to a <I>server</I> process so that a <I>client</I> may
      * make the call.  The reference is only valid between the {@link #join <TT>join</TT>}
@@ -198,12 +206,20 @@ public abstract class One2AnyCallChannel implements ChannelAccept, Serializable
      *
      * @param server the <I>server</I> process receiving the CALL.
      */
-    public synchronized int accept(CSProcess server)
+    public int accept(CSProcess server)
     {
-        this.server = server;
-        c.read(); // ready to ACCEPT the CALL
-        c.read(); // wait until the CALL is complete
-        return selected;
+        acceptLock.lock();
+        try
+        {
+            this.server = server;
+            c.read(); // ready to ACCEPT the CALL
+            c.read(); // wait until the CALL is complete
+            return selected;
+        }
+        finally
+        {
+            acceptLock.unlock();
+        }
     }
 
     /**
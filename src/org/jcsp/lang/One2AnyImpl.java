@@ -36,6 +36,11 @@ class One2AnyImpl<T> implements One2AnyChannel<T>, ChannelInternals<T> {
     One2AnyImpl(ChannelInternals<T> _channel) {
 		channel = _channel;
 	}
+
+	/** The reader mutex, for the bulk reads of {@link One2AnyBulkImpl} */
+	Mutex getReadMutex() {
+		return readMutex;
+	}
 	
 	public SharedChannelInput<T> in() {
 		return new SharedChannelInputImpl<T>(this,0);
@@ -0,0 +1,86 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+/**
+ * This defines the interface for a <i>one-to-all</i> (broadcasting) Object channel.
+ * <P>
+ * The only methods provided are to obtain the <i>ends</i> of the channel,
+ * through which all reading and writing operations are done.
+ * There is one output end and a fixed number of input ends, one for each
+ * reading process.
+ * </P>
+ * <P>Actual channels conforming to this interface are made using the relevant
+ * <tt>static</tt> construction methods from {@link Channel}.
+ * Channels may be {@link Channel#one2broadcast(int) <i>synchronising</i>} or
+ * {@link Channel#one2broadcast(int,org.jcsp.util.RingBuffer) <i>buffered</i>}.
+ * </P>
+ * <H2>Description</H2>
+ * <TT>One2BroadcastChannel</TT> is an interface for a channel that delivers each
+ * object written to it to <i>every</i> one of its readers, in the order written.
+ * Each reader takes every object through its own input end (which must not be shared).
+ * <P>
+ * The reading processes may {@link Alternative <TT>ALT</TT>} on their input ends.
+ * The writing process is committed (i.e. it may not back off).
+ * </P>
+ * <P>
+ * A synchronising channel releases the writer once every reader has taken its
+ * object (or, for an extended rendezvous, once every reader has ended it).  A buffered
+ * channel lets the writer run ahead of the slowest reader by up to the capacity of
+ * its buffer.
+ * </P>
+ * <P>
+ * These channels cannot be poisoned.
+ * </P>
+ *
+ * @see org.jcsp.lang.Channel
+ * @see org.jcsp.lang.Alternative
+ * @see org.jcsp.lang.One2AnyChannel
+ * @see org.jcsp.plugNplay.Delta
+ */
+
+public interface One2BroadcastChannel<T>
+{
+    /**
+     * Returns the input channel end of one reader.
+     *
+     * @param reader the number of the reader (from 0 up to one less than the number of readers).
+     */
+    public AltingChannelInput<T> in(int reader);
+
+    /**
+     * Returns the output channel end.
+     */
+    public ChannelOutput<T> out();
+
+    /**
+     * Returns the number of readers.
+     */
+    public int readers();
+}
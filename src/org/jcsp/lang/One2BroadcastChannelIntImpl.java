@@ -0,0 +1,463 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jcsp.util.ints.RingBufferInt;
+
+/**
+ * This implements a one-to-all (broadcasting) integer channel, without a monitor.
+ * <H2>Description</H2>
+ * <TT>One2BroadcastChannelIntImpl</TT> delivers every value written to it to each of a
+ * fixed number of readers.  Without a buffer, a <TT>write</TT> completes when every
+ * reader has taken the value (or ended its extended rendezvous on it); with one, the
+ * writer may run ahead of the slowest reader by as many values as the buffer holds.
+ * <P>
+ * The values are held in a ring of slots (a single slot without a buffer).  Each
+ * reader follows the slots with a position of its own.  Each slot counts the readers
+ * that have yet to take its value: the writer sets the count when it publishes the
+ * value, and the last reader to take it clears the slot and frees it for the writer.
+ * So the writer meets the readers only through the count of the slot it wants, and
+ * the readers never meet each other.
+ * <P>
+ * A reader that has caught up with the writer spins for a short, bounded period (only
+ * on multi-processor machines), then publishes its thread and parks; the writer unparks
+ * the parked readers after publishing each value.  A writer waiting for a slot to be
+ * freed does the same, and the last reader to take the slot's value unparks it.  In both
+ * cases the thread is published before the condition is re-checked, so a wake-up cannot
+ * be lost.  A reader's {@link Alternative} is registered as for a
+ * {@link RingBufferedOne2OneChannelIntImpl}.
+ * <P>
+ * These channels cannot be poisoned.
+ *
+ * @see org.jcsp.lang.Channel#one2broadcastInt(int)
+ * @see org.jcsp.lang.Channel#one2broadcastInt(int, RingBufferInt)
+ */
+
+class One2BroadcastChannelIntImpl implements One2BroadcastChannelInt, ChannelInternalsInt
+{
+    private static final int IDLE = 0;
+    private static final int ALTING = 1;
+    private static final int SIGNALLING = 2;
+
+    /** The count of a slot while its last reader is clearing it */
+    private static final int CLEARING = -1;
+
+    /**
+     * The state of one reader, and the channel internals behind its input end.
+     */
+    private final class Reader implements ChannelInternalsInt
+    {
+        /** The position of the next value to be taken (only used by the reader) */
+        private long head = 0;
+
+        /** The thread of the reader while it is (or is about to be) blocked */
+        private volatile Thread thread;
+
+        /** Whether the reader has enabled its end in an Alternative */
+        private final AtomicInteger altState = new AtomicInteger (IDLE);
+
+        /** The Alternative class that controls the selection */
+        private volatile Alternative alt;
+
+        /**
+         * Returns whether there is a value for the reader to take.
+         */
+        private boolean ready ()
+        {
+            return head < tail;
+        }
+
+        /**
+         * Blocks the reader until there is a value for it to take.
+         */
+        private void awaitData (String where)
+        {
+            if (ready ())
+            {
+                return;
+            }
+            int spins = 0;
+            try
+            {
+                while (!ready ())
+                {
+                    if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                    {
+                        spins++;
+                    }
+                    else if (thread == null)
+                    {
+                        // publish (again, as the writer clears it), then re-check before parking
+                        thread = Thread.currentThread ();
+                    }
+                    else
+                    {
+                        LockSupport.park (this);
+                        if (Thread.interrupted ())
+                        {
+                            throw new ProcessInterruptedException ("*** Thrown from One2BroadcastChannelInt." + where + "\n"
+                                                                   + new InterruptedException ().toString ());
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                thread = null;
+            }
+        }
+
+        /**
+         * Called by the writer after publishing a value.  A parked reader is unparked
+         * once, however many values are published before it runs.
+         */
+        private void wake ()
+        {
+            final Thread r = thread;
+            if (r != null)
+            {
+                thread = null;
+                LockSupport.unpark (r);
+            }
+            if ((altState.get () == ALTING) && altState.compareAndSet (ALTING, SIGNALLING))
+            {
+                alt.schedule ();
+                altState.set (IDLE);
+            }
+        }
+
+        public int read ()
+        {
+            awaitData ("read ()");
+            final int value = buffer[(int) (head % buffer.length)];
+            taken (head++);
+            return value;
+        }
+
+        public int startRead ()
+        {
+            awaitData ("startRead ()");
+            return buffer[(int) (head % buffer.length)];
+        }
+
+        public void endRead ()
+        {
+            taken (head++);
+        }
+
+        public boolean readerEnable (Alternative alt)
+        {
+            if (ready ())
+            {
+                return true;
+            }
+            // the writer may still be scheduling the Alternative from a previous enable
+            while (altState.get () == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            this.alt = alt;
+            altState.set (ALTING);
+            // a value may have arrived before the ALTING state was visible to the writer
+            return ready ();
+        }
+
+        public boolean readerDisable ()
+        {
+            while (true)
+            {
+                final int s = altState.get ();
+                if (s == SIGNALLING)
+                {
+                    Thread.yield ();
+                }
+                else if ((s == IDLE) || altState.compareAndSet (ALTING, IDLE))
+                {
+                    break;
+                }
+            }
+            alt = null;
+            return ready ();
+        }
+
+        public boolean readerPending ()
+        {
+            return ready ();
+        }
+
+        public void write (int value)
+        {
+            throw new IllegalStateException ("*** Attempt to write to the input end of a One2BroadcastChannelInt\n");
+        }
+
+//      No poison in these channels:
+        public void writerPoison (int strength)
+        {
+        }
+
+        public void readerPoison (int strength)
+        {
+        }
+    }
+
+    /** The readers */
+    private final Reader[] readers;
+
+    /** Whether the writer waits for all the readers to take each value */
+    private final boolean synchronising;
+
+    /** The values held by the channel */
+    private final int[] buffer;
+
+    /** The number of readers yet to take the value in each slot (0 if it is free) */
+    private final AtomicIntegerArray remaining;
+
+    /** The position of the next value to be written */
+    private volatile long tail = 0;
+
+    /** The thread of the writer while it is (or is about to be) blocked */
+    private volatile Thread writer;
+
+    /**
+     * Constructs a new synchronising One2BroadcastChannelIntImpl.
+     *
+     * @param readers the number of readers.
+     */
+    One2BroadcastChannelIntImpl (int readers)
+    {
+        this (readers, 0, true);
+    }
+
+    /**
+     * Constructs a new One2BroadcastChannelIntImpl buffered with the size given to the
+     * specified RingBufferInt, rather than its rounded-up capacity, so that the writer runs
+     * ahead by no more than that (a size of zero gives a synchronising channel).
+     *
+     * @param readers the number of readers.
+     * @param data the RingBufferInt whose capacity the channel takes
+     */
+    One2BroadcastChannelIntImpl (int readers, RingBufferInt data)
+    {
+        this (readers, checked (data).getSize (), data.getSize () == 0);
+    }
+
+    private One2BroadcastChannelIntImpl (int readers, int capacity, boolean synchronising)
+    {
+        if (readers < 0)
+            throw new IllegalArgumentException
+                    ("*** Attempt to create a One2BroadcastChannelInt with a negative number of readers: " + readers + "\n");
+        this.readers = new Reader[readers];
+        for (int i = 0; i < readers; i++)
+        {
+            this.readers[i] = new Reader ();
+        }
+        this.synchronising = synchronising;
+        buffer = new int[Math.max (1, capacity)];
+        remaining = new AtomicIntegerArray (buffer.length);
+    }
+
+    private static RingBufferInt checked (RingBufferInt data)
+    {
+        if (data == null)
+            throw new IllegalArgumentException
+                    ("Null ChannelDataStoreInt given to channel constructor ...\n");
+        return data;
+    }
+
+    /*************Methods from One2BroadcastChannelInt*********************/
+
+    /**
+     * Returns the <code>AltingChannelInputInt</code> of one reader.
+     *
+     * @param reader the number of the reader.
+     * @return the <code>AltingChannelInputInt</code> object of that reader.
+     */
+    public AltingChannelInputInt in (int reader)
+    {
+        return new AltingChannelInputIntImpl (readers[reader], 0);
+    }
+
+    /**
+     * Returns the <code>ChannelOutputInt</code> object to use for this channel.
+     *
+     * @return the <code>ChannelOutputInt</code> object to use for this
+     *          channel.
+     */
+    public ChannelOutputInt out ()
+    {
+        return new ChannelOutputIntImpl (this, 0);
+    }
+
+    public int readers ()
+    {
+        return readers.length;
+    }
+
+    /**
+     * Called by a reader that has taken the value at a position.  The last reader to
+     * take it clears the slot and wakes the writer.
+     */
+    private void taken (long pos)
+    {
+        final int index = (int) (pos % buffer.length);
+        while (true)
+        {
+            final int n = remaining.get (index);
+            if (n > 1)
+            {
+                if (remaining.compareAndSet (index, n, n - 1))
+                {
+                    return;
+                }
+            }
+            else if (remaining.compareAndSet (index, 1, CLEARING))
+            {
+                remaining.set (index, 0);
+                final Thread w = writer;
+                if (w != null)
+                {
+                    LockSupport.unpark (w);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Blocks the writer until a slot is free.
+     */
+    private void awaitFree (int index)
+    {
+        if (remaining.get (index) == 0)
+        {
+            return;
+        }
+        int spins = 0;
+        try
+        {
+            while (remaining.get (index) != 0)
+            {
+                if (spins == SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    // publish, then re-check before parking
+                    writer = Thread.currentThread ();
+                }
+                else if (spins > SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    LockSupport.park (this);
+                    if (Thread.interrupted ())
+                    {
+                        throw new ProcessInterruptedException ("*** Thrown from One2BroadcastChannelInt.write (int)\n"
+                                                               + new InterruptedException ().toString ());
+                    }
+                }
+                spins++;
+            }
+        }
+        finally
+        {
+            writer = null;
+        }
+    }
+
+    /*************Methods from ChannelOutput*******************************/
+
+    /**
+     * Writes an <TT>int</TT> to the channel, for every reader.
+     *
+     * @param value the integer to write to the channel.
+     */
+    public void write (int value)
+    {
+        final long pos = tail;
+        final int index = (int) (pos % buffer.length);
+        // a synchronising channel's single slot was freed by the last write
+        awaitFree (index);
+        if (readers.length == 0)
+        {
+            return;
+        }
+        buffer[index] = value;
+        remaining.set (index, readers.length);
+        tail = pos + 1;
+        for (int i = 0; i < readers.length; i++)
+        {
+            readers[i].wake ();
+        }
+        if (synchronising)
+        {
+            awaitFree (index);
+        }
+    }
+
+//  The writer's end has no reader:
+    public int read ()
+    {
+        throw new IllegalStateException ("*** Attempt to read from the output end of a One2BroadcastChannelInt\n");
+    }
+
+    public int startRead ()
+    {
+        throw new IllegalStateException ("*** Attempt to read from the output end of a One2BroadcastChannelInt\n");
+    }
+
+    public void endRead ()
+    {
+        throw new IllegalStateException ("*** Attempt to read from the output end of a One2BroadcastChannelInt\n");
+    }
+
+    public boolean readerEnable (Alternative alt)
+    {
+        return false;
+    }
+
+    public boolean readerDisable ()
+    {
+        return false;
+    }
+
+    public boolean readerPending ()
+    {
+        return false;
+    }
+
+//  No poison in these channels:
+    public void writerPoison (int strength)
+    {
+    }
+
+    public void readerPoison (int strength)
+    {
+    }
+
+}
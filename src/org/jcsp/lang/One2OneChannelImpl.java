@@ -28,6 +28,9 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * This implements a one-to-one object channel.
  * <H2>Description</H2>
@@ -64,10 +67,13 @@ package org.jcsp.lang;
  * @author P.H. Welch
  */
 
-class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
+class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>, PersistentlyEnabled
 {
 	/** The monitor synchronising reader and writer on this channel */
-	  private Object rwMonitor = new Object ();
+	  private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+	  /** The condition on which the reader and writer wait for each other */
+	  private final Condition rwReady = rwMonitor.newCondition ();
 
 	  /** The (invisible-to-users) buffer used to store the data for the channel */
 	  private T hold;
@@ -119,7 +125,8 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 	   * @param value the object to write to the channel.
 	   */
   public void write(T value) {
-    synchronized (rwMonitor) {      
+    rwMonitor.lock ();
+    try {      
       hold = value;
       if (empty) {
         empty = false;
@@ -128,15 +135,15 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
         }
       } else {
         empty = true;
-        rwMonitor.notify();
+        rwReady.signal();
       }
       try {
-        rwMonitor.wait();        
+        rwReady.await();        
         while (spuriousWakeUp) {
           if (Spurious.logging) {
             SpuriousLog.record(SpuriousLog.One2OneChannelWrite);
           }
-          rwMonitor.wait();
+          rwReady.await();
         }        
         spuriousWakeUp = true;        
       } catch (InterruptedException e) {
@@ -144,6 +151,9 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
             "*** Thrown from One2OneChannel.write (Object)\n" + e.toString());
       }
     }
+    finally {
+      rwMonitor.unlock ();
+    }
   }
 
     /** ***********Methods from AltingChannelInput************************* */
@@ -154,16 +164,17 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 	   * @return the object read from the channel.
 	   */
 	  public T read () {
-	    synchronized (rwMonitor) {          
+	    rwMonitor.lock ();
+	    try {          
 	      if (empty) {
 	        empty = false;
 	        try {
-	          rwMonitor.wait ();
+	          rwReady.await ();
 		  while (!empty) {
 		    if (Spurious.logging) {
 		      SpuriousLog.record (SpuriousLog.One2OneChannelRead);
 		    }
-		    rwMonitor.wait ();
+		    rwReady.await ();
 		  }          
 	        }
 	        catch (InterruptedException e) {
@@ -174,22 +185,26 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 	        empty = true;
 	      }
 	      spuriousWakeUp = false;
-	      rwMonitor.notify ();
+	      rwReady.signal ();
 	      return hold;
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 	  
 	  public T startRead() {
-		    synchronized (rwMonitor) {              
+		    rwMonitor.lock ();
+		    try {              
 		      if (empty) {
 		        empty = false;
 		        try {
-		          rwMonitor.wait ();
+		          rwReady.await ();
 			  while (!empty) {
 			    if (Spurious.logging) {
 			      SpuriousLog.record (SpuriousLog.One2OneChannelRead);
 			    }
-			    rwMonitor.wait ();
+			    rwReady.await ();
 			  }              
 		        }
 		        catch (InterruptedException e) {
@@ -202,12 +217,19 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 		      
 		      return hold;
 		    }
+		    finally {
+		      rwMonitor.unlock ();
+		    }
 	  }	  
       
   public void endRead() {
-    synchronized (rwMonitor) {      
+    rwMonitor.lock ();
+    try {      
       spuriousWakeUp = false;
-      rwMonitor.notify ();
+      rwReady.signal ();
+    }
+    finally {
+      rwMonitor.unlock ();
     }
   }
 
@@ -223,7 +245,8 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 	   */
 
 	  public boolean readerEnable (Alternative alt) {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      if (empty) {
 	        this.alt = alt;
 	        return false;
@@ -232,6 +255,9 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 	        return true;
 	      }
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 
 	  /**
@@ -243,10 +269,14 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 	   * @return true if the channel has data that can be read, else false
 	   */
 	  public boolean readerDisable () {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      alt = null;
 	      return !empty;
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 
 	  /**
@@ -285,9 +315,13 @@ class One2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
 	   * @return state of the channel.
 	   */
 	  public boolean readerPending () {
-	    synchronized (rwMonitor) {          
+	    rwMonitor.lock ();
+	    try {          
 	      return !empty;
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 	  
 	  //No poison in these channels:
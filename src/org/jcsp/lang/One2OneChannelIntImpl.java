@@ -28,6 +28,9 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.jcsp.util.ints.ChannelDataStoreInt;
 
 /**
@@ -66,10 +69,13 @@ import org.jcsp.util.ints.ChannelDataStoreInt;
  * @author P.H. Welch
  */
 
-class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
+class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt, PersistentlyEnabled
 {
     /** The monitor synchronising reader and writer on this channel */
-    private Object rwMonitor = new Object();
+    private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+    /** The condition on which the reader and writer wait for each other */
+    private final Condition rwReady = rwMonitor.newCondition ();
 
     /** The (invisible-to-users) buffer used to store the data for the channel */
     private int hold;
@@ -121,16 +127,17 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      * @return the integer read from the channel.
      */
     public int read () {
-        synchronized (rwMonitor) {
+        rwMonitor.lock ();
+        try {
           if (empty) {
             empty = false;
             try {
-              rwMonitor.wait ();
+              rwReady.await ();
     	  while (!empty) {
     	    if (Spurious.logging) {
     	      SpuriousLog.record (SpuriousLog.One2OneChannelIntRead);
     	    }
-    	    rwMonitor.wait ();
+    	    rwReady.await ();
     	  }
             }
             catch (InterruptedException e) {
@@ -142,22 +149,26 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
             empty = true;
           }
           spuriousWakeUp = false;
-          rwMonitor.notify ();
+          rwReady.signal ();
           return hold;
         }
+        finally {
+          rwMonitor.unlock ();
+        }
       }
     
     public int startRead() {
-        synchronized (rwMonitor) {              
+        rwMonitor.lock ();
+        try {              
           if (empty) {
             empty = false;
             try {
-              rwMonitor.wait ();
+              rwReady.await ();
           while (!empty) {
             if (Spurious.logging) {
               SpuriousLog.record (SpuriousLog.One2OneChannelRead);
             }
-            rwMonitor.wait ();
+            rwReady.await ();
           }              
             }
             catch (InterruptedException e) {
@@ -170,12 +181,19 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
           
           return hold;
         }
+        finally {
+          rwMonitor.unlock ();
+        }
     }     
 
     public void endRead() {
-      synchronized (rwMonitor) {      
+      rwMonitor.lock ();
+      try {      
         spuriousWakeUp = false;
-        rwMonitor.notify ();
+        rwReady.signal ();
+      }
+      finally {
+        rwMonitor.unlock ();
       }
     }
 
@@ -185,7 +203,8 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      * @param value the integer to write to the channel.
      */
     public void write (int value) {
-        synchronized (rwMonitor) {
+        rwMonitor.lock ();
+        try {
           hold = value;
           if (empty) {
             empty = false;
@@ -194,15 +213,15 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
             }
           } else {
             empty = true;
-            rwMonitor.notify ();
+            rwReady.signal ();
           }
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
     	while (spuriousWakeUp) {
     	  if (Spurious.logging) {
     	    SpuriousLog.record (SpuriousLog.One2OneChannelIntWrite);
     	  }
-    	  rwMonitor.wait ();
+    	  rwReady.await ();
     	}
     	spuriousWakeUp = true;
           }
@@ -212,6 +231,9 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
             );
           }
         }
+        finally {
+          rwMonitor.unlock ();
+        }
       }
 
     /**
@@ -225,8 +247,8 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      */
     public boolean readerEnable(Alternative alt)
     {
-        synchronized (rwMonitor)
-        {
+        rwMonitor.lock ();
+        try {
             if (empty)
             {
                 this.alt = alt;
@@ -235,6 +257,9 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
             else
                 return true;
         }
+        finally {
+            rwMonitor.unlock ();
+        }
     }
 
     /**
@@ -247,11 +272,14 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      */
     public boolean readerDisable()
     {
-        synchronized (rwMonitor)
-        {
+        rwMonitor.lock ();
+        try {
             alt = null;
             return!empty;
         }
+        finally {
+            rwMonitor.unlock ();
+        }
     }
 
     /**
@@ -291,10 +319,13 @@ class One2OneChannelIntImpl implements ChannelInternalsInt, One2OneChannelInt
      */
     public boolean readerPending()
     {
-        synchronized (rwMonitor)
-        {
+        rwMonitor.lock ();
+        try {
             return !empty;
         }
+        finally {
+            rwMonitor.unlock ();
+        }
     }
 
     /**
@@ -29,12 +29,14 @@
 package org.jcsp.lang;
 
 /**
- * This is the <TT>Thread</TT> class used by {@link Parallel} to run all but
+ * This is the thread used by {@link Parallel} to run all but
  * one of its given processes.
  *
  * <H2>Description</H2>
- * A <TT>ParThread</TT> is a <TT>Thread</TT> used by {@link Parallel} to run
- * all but one of its given processes.
+ * A <TT>ParThread</TT> wraps a <TT>Thread</TT> used by {@link Parallel} to run
+ * all but one of its given processes.  The thread is either a platform or a
+ * virtual thread (see {@link Parallel#setVirtualThreads(boolean)}), which is why
+ * this class does not extend <TT>Thread</TT> itself.
  * <P>
  * The <TT>CSProcess</TT> to be executed can be changed using the
  * <TT>setProcess</TT> method providing the <TT>ParThread</TT> is not active.
@@ -48,8 +50,11 @@ package org.jcsp.lang;
  */
 //}}}
 
-class ParThread extends Thread
+class ParThread implements Runnable
 {
+    /** the thread executing the process */
+    private final Thread thread;
+
     /** the process to be executed */
     private CSProcess process;
 
@@ -66,13 +71,14 @@ class ParThread extends Thread
      *
      * @param process the process to be executed
      * @param barrier the barrier for then end of the PAR
+     * @param virtual whether to run the process on a virtual thread
      */
-    public ParThread(CSProcess process, Barrier barrier)
+    public ParThread(CSProcess process, Barrier barrier, boolean virtual)
     {
-        setDaemon(true);
         this.process = process;
         this.barrier = barrier;
-        setName(process.toString());
+        thread = ProcessThreadFactory.newThread(this, virtual);
+        thread.setName(process.toString());
     }
 
     /**
@@ -85,7 +91,33 @@ class ParThread extends Thread
     {
         this.process = process;
         this.barrier = barrier;
-        setName(process.toString());
+        thread.setName(process.toString());
+    }
+
+    /**
+     * Starts the thread.
+     */
+    public void start()
+    {
+        thread.start();
+    }
+
+    /**
+     * Sets the priority of the thread (ignored by virtual threads).
+     *
+     * @param priority the new priority
+     */
+    public void setPriority(int priority)
+    {
+        thread.setPriority(priority);
+    }
+
+    /**
+     * Interrupts the thread.
+     */
+    public void interrupt()
+    {
+        thread.interrupt();
     }
 
     /**
@@ -114,12 +146,12 @@ class ParThread extends Thread
     {
         try
         {
-            Parallel.addToAllParThreads(this);
+            Parallel.addToAllParThreads(thread);
             while (running)
             {
                 try
                 {
-                    process.run();
+                    FlightEvents.run(process);
                 }
                 catch (Throwable e)
                 {
@@ -135,7 +167,7 @@ class ParThread extends Thread
         }
         finally
         {
-            Parallel.removeFromAllParThreads(this);
+            Parallel.removeFromAllParThreads(thread);
         }
     }
 }
@@ -29,6 +29,7 @@
 package org.jcsp.lang;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 
 /**
  * This process constructor taks an array of <TT>CSProcess</TT>es
@@ -218,6 +219,29 @@ import java.util.*;
  * to be used again, its parked threads may be unparked and terminated by invoking
  * its {@link #releaseAllThreads <TT>releaseAllThreads</TT>} method.  This will release
  * the memory used by those threads.
+ * <H2>Flight Recording</H2>
+ * On a Java platform with the Java Flight Recorder (Java 11 on), JCSP records events,
+ * in the category <TT>JCSP</TT>, while a flight recording is running:
+ * <UL>
+ * <LI><TT>org.jcsp.ProcessStart</TT> and <TT>org.jcsp.ProcessRun</TT>: the start of
+ * each process run by a <TT>Parallel</TT> or {@link ProcessManager} and, when it
+ * terminates, the whole of its run, with the class of the process;
+ * <LI><TT>org.jcsp.ChannelRead</TT> and <TT>org.jcsp.ChannelWrite</TT>: each read from,
+ * or write to, an <TT>Object</TT> channel that blocks for longer than a threshold;
+ * <LI><TT>org.jcsp.AlternativeSelect</TT>: each {@link Alternative} selection that waits
+ * for longer than a threshold, with the number of guards and the index of the one selected;
+ * <LI><TT>org.jcsp.BarrierSync</TT>: each {@link Barrier} synchronisation that waits
+ * for longer than a threshold;
+ * <LI><TT>org.jcsp.Poison</TT>: each poisoning of an <TT>Object</TT> channel.
+ * </UL>
+ * The thresholds are 10 ms by default and, like the other settings of the events, may be
+ * changed in the configuration of the recording.  Channels, <TT>Alternative</TT>s and
+ * barriers are named in their events by their metrics (see {@link ChannelMetrics},
+ * {@link AlternativeMetrics} and {@link BarrierMetrics}) or, if they have none, by their
+ * class and identity hash code.  When no recording is running, this costs each operation
+ * the read of a volatile flag.  Recording is turned off altogether by setting the system
+ * property <TT>org.jcsp.jfr</TT> to <TT>false</TT>.  The events are only recorded by a
+ * JCSP built with Java 11 or later, which builds them from <TT>src/jcsp-jfr</TT>.
  *
  * @see org.jcsp.lang.CSProcess
  * @see org.jcsp.lang.ProcessManager
@@ -256,6 +280,18 @@ public class Parallel implements CSProcess
 
     private boolean processesChanged;
 
+    /** Whether the processes of this <TT>Parallel</TT> are run on virtual threads */
+    private boolean virtual = ProcessThreadFactory.isVirtualByDefault();
+
+    /** The executor the processes are handed to on each run, or null to use parThreads */
+    private Executor executor = null;
+
+    /** Whether, with an executor, the invoking thread runs the last process itself */
+    private boolean runInline = true;
+
+    /** The processes handed to the executor in the current run */
+    private PoolTask[] poolTasks = new PoolTask[0];
+
     /**
      * The threads created by <I>all</I> <TT>Parallel</TT> and {@link ProcessManager} objects.
      */
@@ -598,6 +634,203 @@ public class Parallel implements CSProcess
         return n;
     }
 
+    /**
+     * Sets whether the processes of this <TT>Parallel</TT> are run on virtual threads
+     * (rather than on platform threads).  Virtual threads are much cheaper to create and
+     * to block, so that networks of hundreds of thousands of processes become possible.
+     * The initial setting is taken from {@link #setDefaultVirtualThreads(boolean)}.
+     * <P>
+     * This should only be executed when the <TT>Parallel</TT> object is not running.
+     * Threads saved from previous runs of a different kind are released.
+     * If virtual threads are not supported by the Java platform
+     * (see {@link #isVirtualThreadsAvailable()}), platform threads are used regardless.
+     * <P>
+     * <I>Note: a virtual thread blocked inside a </I><TT>synchronized</TT><I> monitor
+     * may pin its carrier thread on Java platforms before 24.
+     * {@link Alternative}, {@link Barrier} and {@link Channel#one2oneSpinning()} channels
+     * do not block in monitors.</I>
+     *
+     * @param virtual true to use virtual threads, false to use platform threads.
+     */
+    public void setVirtualThreads(boolean virtual) {
+        synchronized (sync) {
+            if (virtual != this.virtual) {
+                releaseAllThreads();
+                this.virtual = virtual;
+            }
+        }
+    }
+
+    /**
+     * @return whether the processes of this <TT>Parallel</TT> are to be run on virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        synchronized (sync) {
+            return virtual;
+        }
+    }
+
+    /**
+     * Sets whether <TT>Parallel</TT> and {@link ProcessManager} objects constructed from
+     * now on run their processes on virtual threads.  The default is false.
+     *
+     * @param virtual true to use virtual threads, false to use platform threads.
+     * @see #setVirtualThreads(boolean)
+     */
+    public static void setDefaultVirtualThreads(boolean virtual) {
+        ProcessThreadFactory.setVirtualByDefault(virtual);
+    }
+
+    /**
+     * @return whether this Java platform supports virtual threads (Java 21 onwards).
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return ProcessThreadFactory.isVirtualAvailable();
+    }
+
+    /**
+     * Sets an executor to run the processes of this <TT>Parallel</TT>, instead of
+     * threads of its own.  On each <TT>run</TT>, every process (but the one run by the
+     * invoking thread, see {@link #setRunInline(boolean)}) is handed to the executor.
+     * A {@link ProcessPool}, such as {@link ProcessPool#getShared()}, reuses its threads
+     * across all the <TT>Parallel</TT> objects that share it, which suits a short
+     * <TT>Parallel</TT> that is run often.
+     * <P>
+     * The executor must start each process at once, as the processes may communicate
+     * with each other: an executor that queues them, or has a bounded number of threads,
+     * may deadlock the network.  A <TT>ProcessPool</TT> never queues a process.
+     * The priorities of a {@link PriParallel} and {@link #setVirtualThreads(boolean)}
+     * are left to the executor.
+     * <P>
+     * This should only be executed when the <TT>Parallel</TT> object is not running.
+     * Threads saved from previous runs are released.
+     *
+     * @param executor the executor to use, or null to go back to threads of its own.
+     */
+    public void setExecutor(Executor executor) {
+        synchronized (sync) {
+            releaseAllThreads();
+            this.executor = executor;
+        }
+    }
+
+    /**
+     * @return the executor set by {@link #setExecutor(Executor)}, or null.
+     */
+    public Executor getExecutor() {
+        synchronized (sync) {
+            return executor;
+        }
+    }
+
+    /**
+     * Sets whether, when an executor has been set, the thread invoking <TT>run</TT>
+     * runs the last process itself (the default, as without an executor) or hands all
+     * the processes to the executor and just waits for them to terminate.
+     *
+     * @param runInline true for the invoking thread to run a process itself.
+     * @see #setExecutor(Executor)
+     */
+    public void setRunInline(boolean runInline) {
+        synchronized (sync) {
+            this.runInline = runInline;
+        }
+    }
+
+    /**
+     * @return whether the invoking thread runs a process itself, when an executor has been set.
+     */
+    public boolean isRunInline() {
+        synchronized (sync) {
+            return runInline;
+        }
+    }
+
+    /**
+     * A process handed to the executor by a run of this <TT>Parallel</TT>.
+     */
+    private static final class PoolTask implements Runnable {
+
+        /** The process to run */
+        private final CSProcess process;
+
+        /** The barrier at the end of the PAR */
+        private final Barrier barrier;
+
+        /** The thread running the process, while it runs */
+        private volatile Thread thread;
+
+        PoolTask(CSProcess process, Barrier barrier) {
+            this.process = process;
+            this.barrier = barrier;
+        }
+
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                FlightEvents.run(process);
+            } catch (Throwable e) {
+                uncaughtException("org.jcsp.lang.Parallel", e);
+            } finally {
+                thread = null;
+                barrier.resign();
+            }
+        }
+
+        void interrupt() {
+            final Thread t = thread;
+            if (t != null) {
+                t.interrupt();
+            }
+        }
+    }
+
+    /**
+     * The <TT>run</TT> of a <TT>Parallel</TT> with an executor.
+     */
+    private void runWithExecutor() {
+        final Executor executor;
+        final PoolTask[] tasks;
+        CSProcess myProcess = null;
+        synchronized (sync) {
+            if (nProcesses == 0) {
+                return;
+            }
+            executor = this.executor;
+            final int nTasks = runInline ? (nProcesses - 1) : nProcesses;
+            barrier.reset(nTasks + 1);
+            if (poolTasks.length < nTasks) {
+                poolTasks = new PoolTask[processes.length];
+            }
+            tasks = poolTasks;
+            for (int i = 0; i < nTasks; i++) {
+                tasks[i] = new PoolTask(processes[i], barrier);
+            }
+            for (int i = nTasks; i < tasks.length; i++) {
+                tasks[i] = null;
+            }
+            if (runInline) {
+                myProcess = processes[nProcesses - 1];
+            }
+        }
+        for (int i = 0; (i < tasks.length) && (tasks[i] != null); i++) {
+            executor.execute(tasks[i]);
+        }
+        if (myProcess != null) {
+            try {
+                FlightEvents.run(myProcess);
+            } catch (ProcessInterruptedException e) {
+                // as for parThreads, below
+                for (int i = 0; (i < tasks.length) && (tasks[i] != null); i++) {
+                    tasks[i].interrupt();
+                }
+            } catch (Throwable e) {
+                uncaughtException("org.jcsp.lang.Parallel", e);
+            }
+        }
+        barrier.sync();
+    }
+
     /**
      * Run the parallel composition of the processes registered with this
      * <TT>Parallel</TT> object.  It terminates when, and only when, all its component
@@ -607,10 +840,16 @@ public class Parallel implements CSProcess
      * (numProcesses - 1) Threads are created to run the processes --
      * the last process is executed in the invoking Thread.
      * Sunsequent </I>run<I>s reuse these Threads (so the overhead
-     * of thread creation happens only once).</I></P>
+     * of thread creation happens only once).  If an executor has been set
+     * (see {@link #setExecutor(Executor)}), the processes are handed to it instead.</I></P>
      */
     public void run() {
 
+        if (getExecutor() != null) {
+            runWithExecutor();
+            return;
+        }
+
         boolean emptyRun = true;
 
         CSProcess myProcess = null;
@@ -653,7 +892,7 @@ public class Parallel implements CSProcess
                             parThreads[i].release();
                         }
                         for (int i = nThreads; i < nProcesses - 1; i++) {
-                            parThreads[i] = new ParThread(processes[i], barrier);
+                            parThreads[i] = new ParThread(processes[i], barrier, virtual);
                             if (priority) {
                                 parThreads[i].setPriority(Math.max(
                                         currentPriority, maxPriority - i));
@@ -688,7 +927,7 @@ public class Parallel implements CSProcess
         if (! emptyRun) {
 
             try {
-                myProcess.run();
+                FlightEvents.run(myProcess);
             } catch (ProcessInterruptedException e) {
                 // If this was raised then we must propogate the interrupt signal to other processes
                 // PHW: Why?  This seems unnecessary ... and, in any case, isn't done if sibling
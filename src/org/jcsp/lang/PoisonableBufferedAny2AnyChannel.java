@@ -29,7 +29,7 @@ package org.jcsp.lang;
 
 import org.jcsp.util.ChannelDataStore;
 
-class PoisonableBufferedAny2AnyChannel<T> extends Any2AnyImpl<T>
+class PoisonableBufferedAny2AnyChannel<T> extends Any2AnyBulkImpl<T>
 {
 	PoisonableBufferedAny2AnyChannel(ChannelDataStore<T> _data, int _immunity) {
 		super(new PoisonableBufferedOne2OneChannel<T>(_data,_immunity));
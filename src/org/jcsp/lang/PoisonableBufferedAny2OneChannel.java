@@ -29,7 +29,7 @@ package org.jcsp.lang;
 
 import org.jcsp.util.ChannelDataStore;
 
-class PoisonableBufferedAny2OneChannel<T> extends Any2OneImpl<T>
+class PoisonableBufferedAny2OneChannel<T> extends Any2OneBulkImpl<T>
 {
 	PoisonableBufferedAny2OneChannel(ChannelDataStore<T> _data, int _immunity) {
 		super(new PoisonableBufferedOne2OneChannel<T>(_data,_immunity));
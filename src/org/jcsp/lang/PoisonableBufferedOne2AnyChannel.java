@@ -29,7 +29,7 @@ package org.jcsp.lang;
 
 import org.jcsp.util.ChannelDataStore;
 
-class PoisonableBufferedOne2AnyChannel<T> extends One2AnyImpl<T>
+class PoisonableBufferedOne2AnyChannel<T> extends One2AnyBulkImpl<T>
 {
 	PoisonableBufferedOne2AnyChannel(ChannelDataStore<T> _data, int _immunity) {
 		super(new PoisonableBufferedOne2OneChannel<T>(_data,_immunity));
@@ -28,6 +28,9 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.jcsp.util.*;
 
 /**
@@ -61,12 +64,15 @@ import org.jcsp.util.*;
 * @author P.H. Welch
 */
 
-class PoisonableBufferedOne2OneChannel<T> implements One2OneChannel<T>, ChannelInternals<T>
+class PoisonableBufferedOne2OneChannel<T> implements One2OneChannel<T>, BulkChannelInternals<T>, PersistentlyEnabled
 {
 /** The ChannelDataStore used to store the data for the channel */
 private final ChannelDataStore<T> data;
 
-private final Object rwMonitor = new Object();
+private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+/** The condition on which the reader and writer wait for each other */
+private final Condition rwReady = rwMonitor.newCondition ();
 
 private Alternative alt;
 
@@ -99,7 +105,8 @@ private boolean isPoisoned() {
  * @return the object read from the channel.
  */
 public T read () {
-  synchronized (rwMonitor) {
+  rwMonitor.lock ();
+  try {
 	  
     if (data.getState () == ChannelDataStore.EMPTY) {
       //Reader only sees poison if buffer is empty:
@@ -108,12 +115,12 @@ public T read () {
     	}
     	
       try {
-        rwMonitor.wait ();
+        rwReady.await ();
 	  while (data.getState () == ChannelDataStore.EMPTY && !isPoisoned()) {
 	    if (Spurious.logging) {
 	      SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
 	    }
-	    rwMonitor.wait ();
+	    rwReady.await ();
 	  }
       }
       catch (InterruptedException e) {
@@ -127,13 +134,17 @@ public T read () {
   	  }
     }
            
-    rwMonitor.notify ();
+    rwReady.signal ();
     return data.get ();
   }
+  finally {
+    rwMonitor.unlock ();
+  }
 }
 
 public T startRead() {
-  synchronized (rwMonitor) {
+  rwMonitor.lock ();
+  try {
 	  
     if (data.getState () == ChannelDataStore.EMPTY) {
 //    	Reader only sees poison if buffer is empty:
@@ -141,12 +152,12 @@ public T startRead() {
     		throw new PoisonException(poisonStrength);
     	}
       try {
-        rwMonitor.wait ();
+        rwReady.await ();
   while (data.getState () == ChannelDataStore.EMPTY && !isPoisoned()) {
     if (Spurious.logging) {
       SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
     }
-    rwMonitor.wait ();
+    rwReady.await ();
   }
       }
       catch (InterruptedException e) {
@@ -163,12 +174,19 @@ public T startRead() {
         
     return data.startGet();
   }
+  finally {
+    rwMonitor.unlock ();
+  }
 }
 
 public void endRead() {
-  synchronized(rwMonitor) {
+  rwMonitor.lock ();
+  try {
     data.endGet();
-    rwMonitor.notify ();
+    rwReady.signal ();
+  }
+  finally {
+    rwMonitor.unlock ();
   }
 }
 
@@ -178,7 +196,8 @@ public void endRead() {
  * @param value the object to write to the channel.
  */
 public void write (T value) {
-  synchronized (rwMonitor) {
+  rwMonitor.lock ();
+  try {
 	  //Writer always sees poison:
 	  if (isPoisoned()) {
 			throw new PoisonException(poisonStrength);
@@ -188,16 +207,16 @@ public void write (T value) {
     if (alt != null) {
       alt.schedule ();
     } else {
-      rwMonitor.notify ();
+      rwReady.signal ();
     }
     if (data.getState () == ChannelDataStore.FULL) {
       try {
-        rwMonitor.wait ();
+        rwReady.await ();
 	  while (data.getState () == ChannelDataStore.FULL && !isPoisoned()) {
 	    if (Spurious.logging) {
 	      SpuriousLog.record (SpuriousLog.One2OneChannelXWrite);
 	    }
-	    rwMonitor.wait ();
+	    rwReady.await ();
 	  }
       }
       catch (InterruptedException e) {
@@ -211,6 +230,112 @@ public void write (T value) {
   	  }
     }
   }
+  finally {
+    rwMonitor.unlock ();
+  }
+}
+
+/**
+ * Writes <TT>len</TT> <TT>Object</TT>s, taken from <TT>values</TT> starting at
+ * <TT>off</TT>, to the channel.  Each time the buffer has room, as many as fit
+ * are put in one go and the reader is woken once.
+ *
+ * @param values the array holding the objects to write to the channel.
+ * @param off the index of the first object to write.
+ * @param len the number of objects to write.
+ */
+public void write (T[] values, int off, int len) {
+  if (off < 0 || len < 0 || off + len > values.length)
+    throw new IndexOutOfBoundsException
+            ("*** Bad range given to One2OneChannel.write (Object[], int, int)\n");
+  rwMonitor.lock ();
+  try {
+    while (len > 0) {
+      //Writer always sees poison:
+      if (isPoisoned()) {
+        throw new PoisonException(poisonStrength);
+      }
+      final int n = BufferedOne2OneChannel.putAll (data, values, off, len);
+      off += n;
+      len -= n;
+      if (alt != null) {
+        alt.schedule ();
+      } else {
+        rwReady.signal ();
+      }
+      if (data.getState () == ChannelDataStore.FULL) {
+        try {
+          rwReady.await ();
+          while (data.getState () == ChannelDataStore.FULL && !isPoisoned()) {
+            if (Spurious.logging) {
+              SpuriousLog.record (SpuriousLog.One2OneChannelXWrite);
+            }
+            rwReady.await ();
+          }
+        }
+        catch (InterruptedException e) {
+          throw new ProcessInterruptedException (
+            "*** Thrown from One2OneChannel.write (Object[], int, int)\n" + e.toString ()
+          );
+        }
+
+        if (isPoisoned()) {
+          throw new PoisonException(poisonStrength);
+        }
+      }
+    }
+  }
+  finally {
+    rwMonitor.unlock ();
+  }
+}
+
+/**
+ * Reads all the <TT>Object</TT>s held by the channel, up to <TT>max</TT> of them,
+ * into <TT>values</TT>.  Blocks until there is at least one.
+ *
+ * @param values the array to receive the objects read from the channel.
+ * @param max the maximum number of objects to read.
+ * @return the number of objects read.
+ */
+public int drainTo (T[] values, int max) {
+  if (max < 0 || max > values.length)
+    throw new IndexOutOfBoundsException
+            ("*** Bad maximum given to One2OneChannel.drainTo (Object[], int)\n");
+  if (max == 0)
+    return 0;
+  rwMonitor.lock ();
+  try {
+    if (data.getState () == ChannelDataStore.EMPTY) {
+      //Reader only sees poison if buffer is empty:
+      if (isPoisoned()) {
+        throw new PoisonException(poisonStrength);
+      }
+      try {
+        rwReady.await ();
+        while (data.getState () == ChannelDataStore.EMPTY && !isPoisoned()) {
+          if (Spurious.logging) {
+            SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
+          }
+          rwReady.await ();
+        }
+      }
+      catch (InterruptedException e) {
+        throw new ProcessInterruptedException (
+          "*** Thrown from One2OneChannel.drainTo (Object[], int)\n" + e.toString ()
+        );
+      }
+
+      if (isPoisoned()) {
+        throw new PoisonException(poisonStrength);
+      }
+    }
+    rwReady.signal ();
+    return BufferedOne2OneChannel.getAll (data, values, 0, max);
+  }
+  finally {
+    rwMonitor.unlock ();
+  }
 }
 
 /**
@@ -223,7 +348,8 @@ public void write (T value) {
  * @return true if the channel has data that can be read, else false
  */
 public boolean readerEnable (Alternative alt) {
-  synchronized (rwMonitor) {
+  rwMonitor.lock ();
+  try {
 	if (isPoisoned()) {
 		//If it's poisoned, it will be ready whether because of the poison, or because
 		//the buffer has data in it
@@ -236,6 +362,9 @@ public boolean readerEnable (Alternative alt) {
       return true;
     }
   }
+  finally {
+    rwMonitor.unlock ();
+  }
 }
 
 /**
@@ -247,10 +376,14 @@ public boolean readerEnable (Alternative alt) {
  * @return true if the channel has data that can be read, else false
  */
 public boolean readerDisable () {
-  synchronized (rwMonitor) {
+  rwMonitor.lock ();
+  try {
     alt = null;
     return data.getState () != ChannelDataStore.EMPTY || isPoisoned();
   }
+  finally {
+    rwMonitor.unlock ();
+  }
 }
 
 /**
@@ -289,9 +422,13 @@ public boolean readerDisable () {
  * @return state of the channel.
  */
 public boolean readerPending () {
-  synchronized (rwMonitor) {
+  rwMonitor.lock ();
+  try {
     return (data.getState () != ChannelDataStore.EMPTY) || isPoisoned();
   }
+  finally {
+    rwMonitor.unlock ();
+  }
 }
 
 /**
@@ -305,7 +442,7 @@ public boolean readerPending () {
  */
 public AltingChannelInput<T> in()
 {
-    return new AltingChannelInputImpl<T>(this,immunity);
+    return new AltingBulkChannelInputImpl<T>(this,immunity);
 }
 
 /**
@@ -319,33 +456,41 @@ public AltingChannelInput<T> in()
  */
 public ChannelOutput<T> out()
 {
-    return new ChannelOutputImpl<T>(this,immunity);
+    return new BulkChannelOutputImpl<T>(this,immunity);
 }
 
 public void writerPoison(int strength) {
 	  if (strength > 0) {
-		  synchronized (rwMonitor) {
+		  rwMonitor.lock ();
+		  try {
 			  this.poisonStrength = strength;
 			  
 			  //Poison by writer does *NOT* clear the buffer
 			  
-			  rwMonitor.notifyAll();
+			  rwReady.signalAll();
 			  
 			  if (null != alt) {
                   alt.schedule();
             }
 		  }
+		  finally {
+		    rwMonitor.unlock ();
+		  }
 	  }
 }
 public void readerPoison(int strength) {
 	  if (strength > 0) {
-		  synchronized (rwMonitor) {
+		  rwMonitor.lock ();
+		  try {
 			  this.poisonStrength = strength;
 			  
 			  //Poison by reader clears the buffer:
 			  data.removeAll();			  
 			  
-			  rwMonitor.notifyAll();			  			  
+			  rwReady.signalAll();			  			  
+		  }
+		  finally {
+		    rwMonitor.unlock ();
 		  }
 	  }
 }
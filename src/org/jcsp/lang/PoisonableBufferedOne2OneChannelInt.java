@@ -27,14 +27,20 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.jcsp.util.ints.ChannelDataStoreInt;
 
-class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelInternalsInt {
+class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelInternalsInt, PersistentlyEnabled {
 
     /** The ChannelDataStore used to store the data for the channel */
     private final ChannelDataStoreInt data;
     
-    private final Object rwMonitor = new Object();
+    private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+    /** The condition on which the reader and writer wait for each other */
+    private final Condition rwReady = rwMonitor.newCondition ();
     
     private Alternative alt;
     
@@ -67,7 +73,8 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
      * @return the object read from the channel.
      */
     public int read () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
               
         if (data.getState () == ChannelDataStoreInt.EMPTY) {
           //Reader only sees poison if buffer is empty:
@@ -76,12 +83,12 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
                 }
                 
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
               while (data.getState () == ChannelDataStoreInt.EMPTY && !isPoisoned()) {
                 if (Spurious.logging) {
                   SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
                 }
-                rwMonitor.wait ();
+                rwReady.await ();
               }
           }
           catch (InterruptedException e) {
@@ -95,13 +102,17 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
                 }
         }
                
-        rwMonitor.notify ();
+        rwReady.signal ();
         return data.get ();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     public int startRead() {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
               
         if (data.getState () == ChannelDataStoreInt.EMPTY) {
     //            Reader only sees poison if buffer is empty:
@@ -109,12 +120,12 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
                         throw new PoisonException(poisonStrength);
                 }
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
       while (data.getState () == ChannelDataStoreInt.EMPTY && !isPoisoned()) {
         if (Spurious.logging) {
           SpuriousLog.record (SpuriousLog.One2OneChannelXRead);
         }
-        rwMonitor.wait ();
+        rwReady.await ();
       }
           }
           catch (InterruptedException e) {
@@ -131,12 +142,19 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
             
         return data.startGet();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     public void endRead() {
-      synchronized(rwMonitor) {
+      rwMonitor.lock ();
+      try {
         data.endGet();
-        rwMonitor.notify ();
+        rwReady.signal ();
+      }
+      finally {
+        rwMonitor.unlock ();
       }
     }
     
@@ -146,7 +164,8 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
      * @param value the object to write to the channel.
      */
     public void write (int value) {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
               //Writer always sees poison:
               if (isPoisoned()) {
                             throw new PoisonException(poisonStrength);
@@ -156,16 +175,16 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
         if (alt != null) {
           alt.schedule ();
         } else {
-          rwMonitor.notify ();
+          rwReady.signal ();
         }
         if (data.getState () == ChannelDataStoreInt.FULL) {
           try {
-            rwMonitor.wait ();
+            rwReady.await ();
               while (data.getState () == ChannelDataStoreInt.FULL && !isPoisoned()) {
                 if (Spurious.logging) {
                   SpuriousLog.record (SpuriousLog.One2OneChannelXWrite);
                 }
-                rwMonitor.wait ();
+                rwReady.await ();
               }
           }
           catch (InterruptedException e) {
@@ -179,6 +198,9 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
                 }
         }
       }
+      finally {
+              rwMonitor.unlock ();
+      }
     }
     
     /**
@@ -191,7 +213,8 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
      * @return true if the channel has data that can be read, else false
      */
     public boolean readerEnable (Alternative alt) {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
             if (isPoisoned()) {
                     //If it's poisoned, it will be ready whether because of the poison, or because
                     //the buffer has data in it
@@ -204,6 +227,9 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
           return true;
         }
       }
+      finally {
+            rwMonitor.unlock ();
+      }
     }
     
     /**
@@ -215,10 +241,14 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
      * @return true if the channel has data that can be read, else false
      */
     public boolean readerDisable () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         alt = null;
         return data.getState () != ChannelDataStoreInt.EMPTY || isPoisoned();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     /**
@@ -257,9 +287,13 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
      * @return state of the channel.
      */
     public boolean readerPending () {
-      synchronized (rwMonitor) {
+      rwMonitor.lock ();
+      try {
         return (data.getState () != ChannelDataStoreInt.EMPTY) || isPoisoned();
       }
+      finally {
+        rwMonitor.unlock ();
+      }
     }
     
     /**
@@ -292,28 +326,36 @@ class PoisonableBufferedOne2OneChannelInt implements One2OneChannelInt, ChannelI
     
     public void writerPoison(int strength) {
               if (strength > 0) {
-                      synchronized (rwMonitor) {
+                      rwMonitor.lock ();
+                      try {
                               this.poisonStrength = strength;
                               
                               //Poison by writer does *NOT* clear the buffer
                               
-                              rwMonitor.notifyAll();
+                              rwReady.signalAll();
                               
                               if (null != alt) {
                       alt.schedule();
                 }
                       }
+                      finally {
+                              rwMonitor.unlock ();
+                      }
               }
     }
     public void readerPoison(int strength) {
               if (strength > 0) {
-                      synchronized (rwMonitor) {
+                      rwMonitor.lock ();
+                      try {
                               this.poisonStrength = strength;
                               
                               //Poison by reader clears the buffer:
                               data.removeAll();                          
                               
-                              rwMonitor.notifyAll();                                                    
+                              rwReady.signalAll();                                                    
+                      }
+                      finally {
+                              rwMonitor.unlock ();
                       }
               }
     }
@@ -28,6 +28,8 @@
 
 package org.jcsp.lang;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.io.Serializable;
 
 /**
@@ -66,10 +68,13 @@ import java.io.Serializable;
  * @author P.H. Welch
  */
 
-class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable, ChannelInternals<T>
+class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable, ChannelInternals<T>, PersistentlyEnabled
 {
 	/** The monitor synchronising reader and writer on this channel */
-	  private Object rwMonitor = new Object ();
+	  private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+	  /** The condition on which the reader and writer wait for each other */
+	  private final Condition rwReady = rwMonitor.newCondition ();
 
 	  /** The (invisible-to-users) buffer used to store the data for the channel */
 	  private T hold;
@@ -148,7 +153,8 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	   * @param value the object to write to the channel.
 	   */
   public void write(T value) {
-    synchronized (rwMonitor) {
+    rwMonitor.lock ();
+    try {
       if (isPoisoned()) {
     	  throw new PoisonException(poisonStrength);
       }    	
@@ -161,15 +167,15 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
         }
       } else {
         empty = true;
-        rwMonitor.notify();
+        rwReady.signal();
       }
       try {
-        rwMonitor.wait();        
+        rwReady.await();        
         while (spuriousWakeUp && !isPoisoned()) {
           if (Spurious.logging) {
             SpuriousLog.record(SpuriousLog.One2OneChannelWrite);
           }
-          rwMonitor.wait();
+          rwReady.await();
         }        
         spuriousWakeUp = true;        
       } catch (InterruptedException e) {
@@ -187,6 +193,9 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
       }
     	  
     }
+    finally {
+      rwMonitor.unlock ();
+    }
   }
 
     /** ***********Methods from AltingChannelInput************************* */
@@ -197,7 +206,8 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	   * @return the object read from the channel.
 	   */
 	  public T read () {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      if (isPoisoned()) {
 	    	  throw new PoisonException(poisonStrength);
 	      }
@@ -206,12 +216,12 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	      if (empty) {
 	        empty = false;
 	        try {
-	          rwMonitor.wait ();
+	          rwReady.await ();
 		  while (!empty && !isPoisoned()) {
 		    if (Spurious.logging) {
 		      SpuriousLog.record (SpuriousLog.One2OneChannelRead);
 		    }
-		    rwMonitor.wait ();
+		    rwReady.await ();
 		  }          
 	        }
 	        catch (InterruptedException e) {
@@ -227,14 +237,18 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	    	  throw new PoisonException(poisonStrength);
 	      } else {
 	    	  done = true;
-	    	  rwMonitor.notify();
+	    	  rwReady.signal();
 	    	  return hold;
 	      }	      
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 	  
 	  public T startRead() {
-		    synchronized (rwMonitor) {
+		    rwMonitor.lock ();
+		    try {
 		    	if (isPoisoned()) {
 			      throw new PoisonException(poisonStrength);
 			    }
@@ -242,12 +256,12 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 		      if (empty) {
 		        empty = false;
 		        try {
-		          rwMonitor.wait ();
+		          rwReady.await ();
 			  while (!empty && !isPoisoned()) {
 			    if (Spurious.logging) {
 			      SpuriousLog.record (SpuriousLog.One2OneChannelRead);
 			    }
-			    rwMonitor.wait ();
+			    rwReady.await ();
 			  }              
 		        }
 		        catch (InterruptedException e) {
@@ -264,12 +278,19 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 		      
 		      return hold;
 		    }
+		    finally {
+		    	rwMonitor.unlock ();
+		    }
 	  }	  
       
   public void endRead() {
-    synchronized (rwMonitor) {      
+    rwMonitor.lock ();
+    try {      
       spuriousWakeUp = false;
-      rwMonitor.notify ();
+      rwReady.signal ();
+    }
+    finally {
+      rwMonitor.unlock ();
     }
   }
 
@@ -284,7 +305,8 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	   * @return true if the channel has data that can be read, else false
 	   */
 	  public boolean readerEnable (Alternative alt) {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      if (isPoisoned()) {
 	    	  return true;
 	      }
@@ -298,6 +320,9 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	        return true;
 	      }
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 
 	  /**
@@ -309,10 +334,14 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	   * @return true if the channel has data that can be read, else false
 	   */
 	  public boolean readerDisable () {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      alt = null;
 	      return !empty || isPoisoned();
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 
 	  /**
@@ -351,30 +380,42 @@ class PoisonableOne2OneChannelImpl<T> implements One2OneChannel<T>, Serializable
 	   * @return state of the channel.
 	   */
 	  public boolean readerPending () {
-	    synchronized (rwMonitor) {          
+	    rwMonitor.lock ();
+	    try {          
 	      return !empty || isPoisoned();
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 	  
 	  public void writerPoison(int strength) {
 		  if (strength > 0) {
-			  synchronized (rwMonitor) {
+			  rwMonitor.lock ();
+			  try {
 				  this.poisonStrength = strength;
 				  
-				  rwMonitor.notifyAll();
+				  rwReady.signalAll();
 				  
 				  if (null != alt) {
 	                    alt.schedule();
 	              }
 			  }
+			  finally {
+			    rwMonitor.unlock ();
+			  }
 		  }
 	  }
 	  public void readerPoison(int strength) {
 		  if (strength > 0) {
-			  synchronized (rwMonitor) {
+			  rwMonitor.lock ();
+			  try {
 				  this.poisonStrength = strength;
 				  
-				  rwMonitor.notifyAll();				  
+				  rwReady.signalAll();				  
+			  }
+			  finally {
+			    rwMonitor.unlock ();
 			  }
 		  }
 	  }
@@ -27,10 +27,16 @@
 
 package org.jcsp.lang;
 
-class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInternalsInt
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInternalsInt, PersistentlyEnabled
 {
 	/** The monitor synchronising reader and writer on this channel */
-	  private Object rwMonitor = new Object ();
+	  private final ReentrantLock rwMonitor = new ReentrantLock ();
+
+	  /** The condition on which the reader and writer wait for each other */
+	  private final Condition rwReady = rwMonitor.newCondition ();
 
 	  /** The (invisible-to-users) buffer used to store the data for the channel */
 	  private int hold;
@@ -109,7 +115,8 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	   * @param value the object to write to the channel.
 	   */
   public void write(int value) {
-    synchronized (rwMonitor) {
+    rwMonitor.lock ();
+    try {
       if (isPoisoned()) {
     	  throw new PoisonException(poisonStrength);
       }    	
@@ -122,15 +129,15 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
         }
       } else {
         empty = true;
-        rwMonitor.notify();
+        rwReady.signal();
       }
       try {
-        rwMonitor.wait();        
+        rwReady.await();        
         while (spuriousWakeUp && !isPoisoned()) {
           if (Spurious.logging) {
             SpuriousLog.record(SpuriousLog.One2OneChannelWrite);
           }
-          rwMonitor.wait();
+          rwReady.await();
         }        
         spuriousWakeUp = true;        
       } catch (InterruptedException e) {
@@ -147,6 +154,9 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
       }
     	  
     }
+    finally {
+      rwMonitor.unlock ();
+    }
   }
 
     /** ***********Methods from AltingChannelInput************************* */
@@ -157,7 +167,8 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	   * @return the object read from the channel.
 	   */
 	  public int read () {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      if (isPoisoned()) {
 	    	  throw new PoisonException(poisonStrength);
 	      }
@@ -166,12 +177,12 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	      if (empty) {
 	        empty = false;
 	        try {
-	          rwMonitor.wait ();
+	          rwReady.await ();
 		  while (!empty && !isPoisoned()) {
 		    if (Spurious.logging) {
 		      SpuriousLog.record (SpuriousLog.One2OneChannelRead);
 		    }
-		    rwMonitor.wait ();
+		    rwReady.await ();
 		  }          
 	        }
 	        catch (InterruptedException e) {
@@ -187,14 +198,18 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	    	  throw new PoisonException(poisonStrength);
 	      } else {
 	    	  done = true;
-	    	  rwMonitor.notify();
+	    	  rwReady.signal();
 	    	  return hold;
 	      }	      
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 	  
 	  public int startRead() {
-		    synchronized (rwMonitor) {
+		    rwMonitor.lock ();
+		    try {
 		    	if (isPoisoned()) {
 			      throw new PoisonException(poisonStrength);
 			    }
@@ -202,12 +217,12 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 		      if (empty) {
 		        empty = false;
 		        try {
-		          rwMonitor.wait ();
+		          rwReady.await ();
 			  while (!empty && !isPoisoned()) {
 			    if (Spurious.logging) {
 			      SpuriousLog.record (SpuriousLog.One2OneChannelRead);
 			    }
-			    rwMonitor.wait ();
+			    rwReady.await ();
 			  }              
 		        }
 		        catch (InterruptedException e) {
@@ -224,12 +239,19 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 		      
 		      return hold;
 		    }
+		    finally {
+		    	rwMonitor.unlock ();
+		    }
 	  }	  
       
   public void endRead() {
-    synchronized (rwMonitor) {      
+    rwMonitor.lock ();
+    try {      
       spuriousWakeUp = false;
-      rwMonitor.notify ();
+      rwReady.signal ();
+    }
+    finally {
+      rwMonitor.unlock ();
     }
   }
 
@@ -244,7 +266,8 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	   * @return true if the channel has data that can be read, else false
 	   */
 	  public boolean readerEnable (Alternative alt) {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      if (isPoisoned()) {
 	    	  return true;
 	      }
@@ -258,6 +281,9 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	        return true;
 	      }
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 
 	  /**
@@ -269,10 +295,14 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	   * @return true if the channel has data that can be read, else false
 	   */
 	  public boolean readerDisable () {
-	    synchronized (rwMonitor) {
+	    rwMonitor.lock ();
+	    try {
 	      alt = null;
 	      return !empty || isPoisoned();
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 
 	  /**
@@ -311,30 +341,42 @@ class PoisonableOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInter
 	   * @return state of the channel.
 	   */
 	  public boolean readerPending () {
-	    synchronized (rwMonitor) {          
+	    rwMonitor.lock ();
+	    try {          
 	      return !empty || isPoisoned();
 	    }
+	    finally {
+	      rwMonitor.unlock ();
+	    }
 	  }
 	  
 	  public void writerPoison(int strength) {
 		  if (strength > 0) {
-			  synchronized (rwMonitor) {
+			  rwMonitor.lock ();
+			  try {
 				  this.poisonStrength = strength;
 				  
-				  rwMonitor.notifyAll();
+				  rwReady.signalAll();
 				  
 				  if (null != alt) {
 	                    alt.schedule();
 	              }
 			  }
+			  finally {
+			    rwMonitor.unlock ();
+			  }
 		  }
 	  }
 	  public void readerPoison(int strength) {
 		  if (strength > 0) {
-			  synchronized (rwMonitor) {
+			  rwMonitor.lock ();
+			  try {
 				  this.poisonStrength = strength;
 				  
-				  rwMonitor.notifyAll();				  
+				  rwReady.signalAll();				  
+			  }
+			  finally {
+			    rwMonitor.unlock ();
 			  }
 		  }
 	  }
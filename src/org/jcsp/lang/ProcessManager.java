@@ -180,16 +180,27 @@ public class ProcessManager implements CSProcess
      * @param proc the {@link CSProcess} to be executed by this ProcessManager
      */
     public ProcessManager(CSProcess proc)
+    {
+        this(proc, ProcessThreadFactory.isVirtualByDefault());
+    }
+
+    /**
+     * @param proc the {@link CSProcess} to be executed by this ProcessManager
+     * @param virtual whether to execute it on a virtual thread
+     *   (see {@link Parallel#setVirtualThreads(boolean)}).
+     */
+    public ProcessManager(CSProcess proc, boolean virtual)
     {
         this.process = proc;
-        thread = new Thread()
+        thread = ProcessThreadFactory.newThread(new Runnable()
         {
             public void run()
             {
+                final Thread self = Thread.currentThread();
                 try
                 {
-                    Parallel.addToAllParThreads(this);
-                    process.run();
+                    Parallel.addToAllParThreads(self);
+                    FlightEvents.run(process);
                 }
                 catch (Throwable e)
                 {
@@ -197,11 +208,10 @@ public class ProcessManager implements CSProcess
                 }
                 finally
                 {
-                    Parallel.removeFromAllParThreads(this);
+                    Parallel.removeFromAllParThreads(self);
                 }
             }
-        };
-        thread.setDaemon(true);
+        }, virtual);
     }
 
     //}}}
@@ -286,7 +296,7 @@ public class ProcessManager implements CSProcess
     {
         int oldPriority = Thread.currentThread().getPriority();
         Thread.currentThread().setPriority(thread.getPriority());
-        process.run();
+        FlightEvents.run(process);
         Thread.currentThread().setPriority(oldPriority);
     }
 
@@ -0,0 +1,349 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This is a pool of threads, shared between {@link Parallel} objects, on which
+ * their processes may be run.
+ * <H2>Description</H2>
+ * By default, each <TT>Parallel</TT> object keeps its own threads, one for each of its
+ * processes but one, and releases them all on each <TT>run</TT>.  A <TT>Parallel</TT>
+ * given an {@link Executor} with {@link Parallel#setExecutor(Executor)} instead hands
+ * its processes to that on each <TT>run</TT>, so that threads are reused across
+ * <TT>Parallel</TT> objects and a short <TT>Parallel</TT>, run often, does not keep
+ * threads of its own.  A <TT>ProcessPool</TT> is such an executor.
+ * <P>
+ * The processes of a <TT>Parallel</TT> must all run at the same time, as they may
+ * communicate with each other.  So a <TT>ProcessPool</TT> never queues a process: it
+ * runs each on an idle thread if there is one, and otherwise starts a new thread.
+ * Idle threads are kept for reuse, the most recently used first, up to a maximum
+ * number and for a limited time.  A thread of the pool is interrupted by
+ * {@link Parallel#destroy()}, like any other, and then leaves the pool once idle.
+ * <P>
+ * The pool keeps statistics on its use: the number of threads it has, how many of them
+ * are busy (and the most there have been), and how many processes it has run,
+ * and of those how many on a reused thread.
+ * <P>
+ * {@link #getShared()} returns a pool shared by the whole application.
+ *
+ * @see org.jcsp.lang.Parallel#setExecutor(Executor)
+ */
+
+public final class ProcessPool implements Executor
+{
+    /**
+     * A thread of the pool.
+     */
+    private final class Worker implements Runnable
+    {
+        /** The thread of the worker */
+        final Thread thread;
+
+        /** The next task to run, handed over by <TT>execute</TT> while the worker is idle */
+        volatile Runnable task;
+
+        Worker(Runnable task, long number)
+        {
+            this.task = task;
+            thread = ProcessThreadFactory.newThread(this, virtual);
+            thread.setName(name + "-" + number);
+        }
+
+        public void run()
+        {
+            try
+            {
+                Parallel.addToAllParThreads(thread);
+                Runnable next;
+                while ((next = task) != null)
+                {
+                    task = null;
+                    try
+                    {
+                        next.run();
+                    }
+                    catch (Throwable e)
+                    {
+                        Parallel.uncaughtException("org.jcsp.lang.ProcessPool", e);
+                    }
+                    // an interrupt aimed at the task is not kept for the next one
+                    Thread.interrupted();
+                    if (!idle(this))
+                        break;
+                    awaitTask();
+                }
+            }
+            catch (Throwable t)
+            {
+                Parallel.uncaughtException("org.jcsp.lang.ProcessPool", t);
+            }
+            finally
+            {
+                Parallel.removeFromAllParThreads(thread);
+            }
+        }
+
+        /**
+         * Waits, while idle, until a task is handed over or the worker leaves the pool
+         * (leaving <TT>task</TT> null).
+         */
+        private void awaitTask()
+        {
+            final long deadline = System.nanoTime() + keepAlive;
+            while (task == null)
+            {
+                final long remaining = deadline - System.nanoTime();
+                if ((remaining <= 0) || Thread.interrupted())
+                {
+                    if (retire(this))
+                        return;
+                    // a task was handed over meanwhile
+                }
+                else
+                {
+                    LockSupport.parkNanos(ProcessPool.this, remaining);
+                }
+            }
+        }
+    }
+
+    /** The pool returned by {@link #getShared()} */
+    private static ProcessPool shared;
+
+    /** The name of the pool, prefixed to the names of its threads */
+    private final String name;
+
+    /** The most idle threads kept */
+    private final int maxIdle;
+
+    /** How long an idle thread is kept (in nanoseconds) */
+    private final long keepAlive;
+
+    /** Whether the threads are virtual */
+    private final boolean virtual;
+
+    /** The idle workers, the most recently used last (guarded by <TT>this</TT>) */
+    private final ArrayList<Worker> idle = new ArrayList<Worker>();
+
+    // Statistics (all guarded by this)
+
+    private int threads = 0;
+
+    private int peakBusy = 0;
+
+    private long threadsCreated = 0;
+
+    private long tasksRun = 0;
+
+    private long tasksReused = 0;
+
+    /**
+     * Constructs a new pool of platform threads.
+     *
+     * @param name the name of the pool, prefixed to the names of its threads.
+     * @param maxIdle the most idle threads to keep for reuse.
+     * @param keepAlive how long (in milliseconds) to keep an idle thread.
+     */
+    public ProcessPool(String name, int maxIdle, long keepAlive)
+    {
+        this(name, maxIdle, keepAlive, false);
+    }
+
+    /**
+     * Constructs a new pool.
+     * <P>
+     * <I>Note: virtual threads are cheap to create, so there is little to gain from
+     * pooling them except the statistics.</I>
+     *
+     * @param name the name of the pool, prefixed to the names of its threads.
+     * @param maxIdle the most idle threads to keep for reuse.
+     * @param keepAlive how long (in milliseconds) to keep an idle thread.
+     * @param virtual whether to run the processes on virtual threads
+     *            (see {@link Parallel#isVirtualThreadsAvailable()}).
+     */
+    public ProcessPool(String name, int maxIdle, long keepAlive, boolean virtual)
+    {
+        if (maxIdle < 0)
+            throw new IllegalArgumentException("*** Attempt to make a ProcessPool with a negative maxIdle: " + maxIdle);
+        if (keepAlive < 0)
+            throw new IllegalArgumentException("*** Attempt to make a ProcessPool with a negative keepAlive: " + keepAlive);
+        this.name = name;
+        this.maxIdle = maxIdle;
+        this.keepAlive = keepAlive * 1000000L;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Returns the pool shared by the whole application, creating it on first use.  It
+     * keeps up to 256 idle platform threads (or sixteen per processor, if more), each
+     * for up to a minute.
+     *
+     * @return the shared pool.
+     */
+    public static synchronized ProcessPool getShared()
+    {
+        if (shared == null)
+        {
+            final int n = Math.max(256, 16 * Runtime.getRuntime().availableProcessors());
+            shared = new ProcessPool("jcsp-pool", n, 60000);
+        }
+        return shared;
+    }
+
+    /**
+     * Runs a task at once: on an idle thread of the pool if there is one, else on a
+     * new thread.
+     *
+     * @param task the task to run.
+     */
+    public void execute(Runnable task)
+    {
+        if (task == null)
+            throw new NullPointerException();
+        Worker w = null;
+        long number = 0;
+        synchronized (this)
+        {
+            tasksRun++;
+            final int n = idle.size();
+            if (n > 0)
+            {
+                w = idle.remove(n - 1);
+                tasksReused++;
+            }
+            else
+            {
+                threads++;
+                number = ++threadsCreated;
+            }
+            final int busy = threads - idle.size();
+            if (busy > peakBusy)
+                peakBusy = busy;
+        }
+        if (w != null)
+        {
+            w.task = task;
+            LockSupport.unpark(w.thread);
+        }
+        else
+        {
+            new Worker(task, number).thread.start();
+        }
+    }
+
+    /**
+     * Called by a worker that has finished its task.  Returns true if it has been
+     * added to the idle workers, or false if it must leave the pool.
+     */
+    private synchronized boolean idle(Worker w)
+    {
+        if ((idle.size() >= maxIdle) || (keepAlive == 0))
+        {
+            threads--;
+            return false;
+        }
+        idle.add(w);
+        return true;
+    }
+
+    /**
+     * Called by an idle worker that has waited too long, or been interrupted.  Returns
+     * true if it has left the pool, or false if a task has been handed to it first.
+     */
+    private synchronized boolean retire(Worker w)
+    {
+        if (!idle.remove(w))
+            return false;
+        threads--;
+        return true;
+    }
+
+    /**
+     * @return the number of threads in the pool, busy or idle.
+     */
+    public synchronized int getThreadCount()
+    {
+        return threads;
+    }
+
+    /**
+     * @return the number of threads in the pool running a process.
+     */
+    public synchronized int getBusyCount()
+    {
+        return threads - idle.size();
+    }
+
+    /**
+     * @return the most threads that have been running processes at the same time.
+     */
+    public synchronized int getPeakBusyCount()
+    {
+        return peakBusy;
+    }
+
+    /**
+     * @return the number of threads the pool has started.
+     */
+    public synchronized long getThreadsCreated()
+    {
+        return threadsCreated;
+    }
+
+    /**
+     * @return the number of processes (or other tasks) the pool has been given to run.
+     */
+    public synchronized long getTasksRun()
+    {
+        return tasksRun;
+    }
+
+    /**
+     * @return the number of processes (or other tasks) the pool has run on an idle
+     *         thread, rather than on a new one.
+     */
+    public synchronized long getTasksReused()
+    {
+        return tasksReused;
+    }
+
+    /**
+     * @return a summary of the statistics of the pool.
+     */
+    public synchronized String toString()
+    {
+        return name + " [threads = " + threads + ", busy = " + (threads - idle.size()) +
+               ", peak busy = " + peakBusy + ", threads created = " + threadsCreated +
+               ", tasks run = " + tasksRun + ", on reused threads = " + tasksReused + "]";
+    }
+}
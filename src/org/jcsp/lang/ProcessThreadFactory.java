@@ -0,0 +1,128 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.lang.reflect.Method;
+
+/**
+ * This creates the threads on which {@link Parallel} and {@link ProcessManager}
+ * run their processes.
+ * <H2>Description</H2>
+ * Processes may be run either on ordinary (<I>platform</I>) threads, each of which
+ * is backed by an operating system thread, or on <I>virtual</I> threads.  Virtual
+ * threads are scheduled by the Java runtime over a small pool of carrier threads
+ * and are cheap enough to allow very large numbers (millions) of processes.
+ * <P>
+ * Virtual threads are only available from Java 21.  They are found by reflection,
+ * so that JCSP still runs on earlier Java platforms: there, a request for a virtual
+ * thread silently yields a platform thread instead.
+ *
+ * @see org.jcsp.lang.Parallel#setVirtualThreads(boolean)
+ * @see org.jcsp.lang.Parallel#setDefaultVirtualThreads(boolean)
+ */
+
+final class ProcessThreadFactory
+{
+    /** <TT>Thread.ofVirtual()</TT>, or null if virtual threads are not supported */
+    private static final Method ofVirtual;
+
+    /** <TT>Thread.Builder.unstarted(Runnable)</TT>, or null if virtual threads are not supported */
+    private static final Method unstarted;
+
+    static
+    {
+        Method o = null;
+        Method u = null;
+        try
+        {
+            o = Thread.class.getMethod("ofVirtual");
+            u = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+        }
+        catch (Exception e)
+        {
+            o = null;
+            u = null;
+        }
+        ofVirtual = o;
+        unstarted = u;
+    }
+
+    /** Whether new processes are run on virtual threads unless stated otherwise */
+    private static volatile boolean virtualByDefault = false;
+
+    private ProcessThreadFactory()
+    {
+        //this class should not be instantiated
+    }
+
+    /**
+     * Returns whether this Java platform supports virtual threads.
+     */
+    static boolean isVirtualAvailable()
+    {
+        return ofVirtual != null;
+    }
+
+    static boolean isVirtualByDefault()
+    {
+        return virtualByDefault;
+    }
+
+    static void setVirtualByDefault(boolean virtual)
+    {
+        virtualByDefault = virtual;
+    }
+
+    /**
+     * Creates (but does not start) a thread for running a process.  Platform threads
+     * are made daemons, so that running processes do not prevent the JVM from exiting
+     * (virtual threads are always daemons).
+     *
+     * @param body what the thread will run.
+     * @param virtual whether a virtual thread is wanted (ignored if they are not supported).
+     * @return the new thread.
+     */
+    static Thread newThread(Runnable body, boolean virtual)
+    {
+        if (virtual && (ofVirtual != null))
+        {
+            try
+            {
+                return (Thread) unstarted.invoke(ofVirtual.invoke(null), body);
+            }
+            catch (Exception e)
+            {
+                throw new JCSP_InternalError("*** Unable to create a virtual thread\n" + e.toString());
+            }
+        }
+        final Thread thread = new Thread(body);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
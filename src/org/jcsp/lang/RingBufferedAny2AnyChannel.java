@@ -0,0 +1,589 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jcsp.util.RingBuffer;
+
+/**
+ * This implements an any-to-any object channel, buffered by a lock-free ring,
+ * for farms of worker processes.
+ * <H2>Description</H2>
+ * <TT>RingBufferedAny2AnyChannel</TT> has the semantics of a {@link BufferedAny2AnyChannel}
+ * plugged with a {@link org.jcsp.util.Buffer}, except that readers do not claim a
+ * {@link Mutex} before entering the channel: any number of them may take values at the
+ * same time.  The bulk operations of {@link BulkChannelInput} and {@link BulkChannelOutput}
+ * are available on its ends.
+ * <P>
+ * The buffer is a ring of slots, as in a {@link RingBufferedAny2OneChannel}, but readers
+ * as well as writers claim slots by advancing a shared counter with a compare-and-set.
+ * A <TT>drainTo</TT> claims the whole run of values ready at the head in one go, so
+ * a worker can take a batch of work at the cost of a single update.
+ * <P>
+ * A reader that finds the buffer empty spins for a short, bounded period (only on
+ * multi-processor machines), then pushes itself on a lock-free stack of idle readers
+ * and parks.  A writer, after publishing values, pops one idle reader off the stack
+ * and unparks it, unless another woken reader has yet to run; a woken reader that
+ * leaves values behind wakes the next.  So values are still taken in the order they
+ * were written, readers are not woken faster than they can take work, and readers
+ * that keep finding work never touch the stack.  Writers that find the buffer full wait as
+ * for a {@link RingBufferedAny2OneChannel}: a reader unparks one of them for each slot it frees.
+ * <P>
+ * An extended rendezvous takes the value out of the buffer when it starts, so another
+ * reader may take the next value while it is in progress.
+ * <P>
+ * These channels cannot be poisoned.
+ *
+ * @see org.jcsp.lang.Channel#one2anyRing(RingBuffer)
+ * @see org.jcsp.lang.Channel#any2anyRing(RingBuffer)
+ * @see org.jcsp.lang.BufferedAny2AnyChannel
+ * @see org.jcsp.lang.RingBufferedAny2OneChannel
+ */
+
+class RingBufferedAny2AnyChannel<T> implements One2AnyChannel<T>, Any2AnyChannel<T>, BulkChannelInternals<T>
+{
+    private static final int WAITING = 0;
+    private static final int WOKEN = 1;
+    private static final int LEFT = 2;
+
+    /**
+     * An idle reader on the stack.
+     */
+    private static final class Waiter
+    {
+        final Thread thread = Thread.currentThread ();
+
+        /** WAITING, until WOKEN by a writer or LEFT by the reader */
+        final AtomicInteger state = new AtomicInteger (WAITING);
+
+        /** The next idle reader down the stack */
+        Waiter next;
+    }
+
+    /** The values held by the channel (its length is a power of two) */
+    private final Object[] buffer;
+
+    /** <TT>buffer.length - 1</TT> */
+    private final int mask;
+
+    /**
+     * The sequence number of each slot.  A slot whose sequence number equals a position
+     * is free for the writer claiming that position; one whose sequence number is one
+     * more holds the value at that position, ready for a reader.
+     */
+    private final AtomicLongArray sequence;
+
+    /** The next position to be claimed by a writer */
+    private final AtomicLong tail = new AtomicLong ();
+
+    /** The next position to be claimed by a reader */
+    private final AtomicLong head = new AtomicLong ();
+
+    /** The top of the stack of idle readers */
+    private final AtomicReference<Waiter> idle = new AtomicReference<Waiter> ();
+
+    /** Set while an idle reader has been woken and has yet to run */
+    private volatile boolean readerWaking = false;
+
+    /** The threads of writers blocked (or about to block) on a full buffer */
+    private final ConcurrentLinkedQueue<Thread> writers = new ConcurrentLinkedQueue<Thread> ();
+
+    /**
+     * Constructs a new RingBufferedAny2AnyChannel with the capacity of the specified
+     * RingBuffer (but room for at least two values).
+     *
+     * @param data the RingBuffer whose capacity the channel takes
+     */
+    RingBufferedAny2AnyChannel (RingBuffer<T> data)
+    {
+        if (data == null)
+            throw new IllegalArgumentException
+                    ("Null ChannelDataStore given to channel constructor ...\n");
+        // a slot's sequence numbers for one position and the next must differ
+        buffer = new Object[Math.max (2, data.getCapacity ())];
+        mask = buffer.length - 1;
+        sequence = new AtomicLongArray (buffer.length);
+        for (int i = 0; i < buffer.length; i++)
+        {
+            sequence.set (i, i);
+        }
+    }
+
+    /*************Methods from Any2AnyChannel******************************/
+
+    /**
+     * Returns the <code>SharedChannelInput</code> object to use for this channel.
+     *
+     * @return the <code>SharedChannelInput</code> object to use for this
+     *          channel.
+     */
+    public SharedChannelInput<T> in ()
+    {
+        return new SharedBulkChannelInputImpl<T> (this, 0);
+    }
+
+    /**
+     * Returns the <code>SharedChannelOutput</code> object to use for this channel.
+     *
+     * @return the <code>SharedChannelOutput</code> object to use for this
+     *          channel.
+     */
+    public SharedChannelOutput<T> out ()
+    {
+        return new SharedBulkChannelOutputImpl<T> (this, 0);
+    }
+
+    /**
+     * Claims up to <TT>max</TT> consecutive free slots and returns the first position
+     * claimed, or -1 if the buffer is full.  If <TT>max</TT> is more than one, the number
+     * claimed is left in <TT>claimed[0]</TT>.
+     */
+    private long claim (int max, int[] claimed)
+    {
+        while (true)
+        {
+            final long pos = tail.get ();
+            final long s = sequence.get ((int) pos & mask);
+            if (s < pos)
+            {
+                return -1;                  // the slot is still held from the last lap
+            }
+            if (s == pos)
+            {
+                int n = 1;
+                while ((n < max) && (sequence.get ((int) (pos + n) & mask) == pos + n))
+                {
+                    n++;
+                }
+                if (tail.compareAndSet (pos, pos + n))
+                {
+                    if (claimed != null)
+                    {
+                        claimed[0] = n;
+                    }
+                    return pos;
+                }
+            }
+            // another writer claimed the position first
+        }
+    }
+
+    /**
+     * Claims up to <TT>max</TT> consecutive slots holding values and returns the first
+     * position claimed, or -1 if the buffer is empty.  If <TT>max</TT> is more than one,
+     * the number claimed is left in <TT>claimed[0]</TT>.
+     */
+    private long take (int max, int[] claimed)
+    {
+        while (true)
+        {
+            final long pos = head.get ();
+            final long s = sequence.get ((int) pos & mask);
+            if (s < pos + 1)
+            {
+                return -1;                  // the slot has yet to be written
+            }
+            if (s == pos + 1)
+            {
+                int n = 1;
+                while ((n < max) && (sequence.get ((int) (pos + n) & mask) == pos + n + 1))
+                {
+                    n++;
+                }
+                if (head.compareAndSet (pos, pos + n))
+                {
+                    if (claimed != null)
+                    {
+                        claimed[0] = n;
+                    }
+                    return pos;
+                }
+            }
+            // another reader claimed the position first
+        }
+    }
+
+    /**
+     * Spins (for a bounded number of calls) or blocks a writer until a slot may be free,
+     * and tries to claim slots again.
+     *
+     * @param spins the number of times this has been called in the current wait.
+     * @param where the operation to report if the thread is interrupted.
+     * @return the first position claimed, or -1 if the writer must call again.
+     */
+    private long awaitSpace (int spins, int max, int[] claimed, String where)
+    {
+        if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+        {
+            return claim (max, claimed);
+        }
+        final Thread me = Thread.currentThread ();
+        writers.add (me);
+        // re-check after queueing, so that a slot freed meanwhile is not missed
+        final long pos = claim (max, claimed);
+        if (pos >= 0)
+        {
+            leaveQueue (me);
+            return pos;
+        }
+        LockSupport.park (this);
+        if (Thread.interrupted ())
+        {
+            leaveQueue (me);
+            throw new ProcessInterruptedException ("*** Thrown from Any2AnyChannel." + where + "\n"
+                                                   + new InterruptedException ().toString ());
+        }
+        // if woken spuriously, queue again on the next call
+        writers.remove (me);
+        return -1;
+    }
+
+    /**
+     * Removes a writer, that is not going to use a wake-up, from the queue of blocked
+     * writers.  If a reader has already removed it, to wake it, the wake-up is passed
+     * on to the next blocked writer.
+     */
+    private void leaveQueue (Thread me)
+    {
+        if (!writers.remove (me))
+        {
+            wakeWriter ();
+        }
+    }
+
+    /**
+     * Claims slots for a writer, waiting while the buffer is full.
+     */
+    private long claimOrWait (int max, int[] claimed, String where)
+    {
+        long pos = claim (max, claimed);
+        for (int spins = 0; pos < 0; spins++)
+        {
+            pos = awaitSpace (spins, max, claimed, where);
+        }
+        return pos;
+    }
+
+    /**
+     * Claims values for a reader, waiting while the buffer is empty.
+     */
+    private long takeOrWait (int max, int[] claimed, String where)
+    {
+        long pos = take (max, claimed);
+        for (int spins = 0; pos < 0; spins++)
+        {
+            if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+            {
+                pos = take (max, claimed);
+            }
+            else
+            {
+                pos = awaitData (max, claimed, where);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Pushes a reader on the stack of idle readers and parks it until a writer wakes it,
+     * unless values arrive first.  Once woken, it tries to claim values again.
+     *
+     * @return the first position claimed, or -1 if the reader must wait again.
+     */
+    private long awaitData (int max, int[] claimed, String where)
+    {
+        final Waiter w = new Waiter ();
+        Waiter h;
+        do
+        {
+            h = idle.get ();
+            w.next = h;
+        }
+        while (!idle.compareAndSet (h, w));
+        // re-check after pushing, so that a value published meanwhile is not missed
+        long pos = take (max, claimed);
+        if (pos < 0)
+        {
+            while (w.state.get () == WAITING)
+            {
+                LockSupport.park (this);
+                if (Thread.interrupted ())
+                {
+                    leaveStack (w);
+                    throw new ProcessInterruptedException ("*** Thrown from Any2AnyChannel." + where + "\n"
+                                                           + new InterruptedException ().toString ());
+                }
+            }
+            readerWaking = false;
+            pos = take (max, claimed);
+            if ((pos >= 0) && readerPending ())
+            {
+                wakeReader ();
+            }
+            return pos;
+        }
+        leaveStack (w);
+        return pos;
+    }
+
+    /**
+     * Marks an idle reader, that is not going to use a wake-up, as having left the stack
+     * (where it stays until a writer pops it).  If a writer has already woken it, the
+     * wake-up is passed on to another idle reader, if there are values left.
+     */
+    private void leaveStack (Waiter w)
+    {
+        if (!w.state.compareAndSet (WAITING, LEFT))
+        {
+            readerWaking = false;
+            if (readerPending ())
+            {
+                wakeReader ();
+            }
+        }
+    }
+
+    /**
+     * Called after publishing values: wakes one idle reader, if there is one and no
+     * other woken reader has yet to run.
+     */
+    private void wakeReader ()
+    {
+        if (readerWaking || (idle.get () == null))
+        {
+            return;
+        }
+        // set first, so that the reader woken clears it after we set it
+        readerWaking = true;
+        while (true)
+        {
+            final Waiter h = idle.get ();
+            if (h == null)
+            {
+                readerWaking = false;
+                // a reader may have pushed itself since, and seen the flag set
+                if ((idle.get () != null) && readerPending ())
+                {
+                    wakeReader ();
+                }
+                return;
+            }
+            if (idle.compareAndSet (h, h.next))
+            {
+                if (h.state.compareAndSet (WAITING, WOKEN))
+                {
+                    LockSupport.unpark (h.thread);
+                    return;
+                }
+                // the reader has left: try the next
+            }
+        }
+    }
+
+    /**
+     * Called by a reader after freeing <TT>n</TT> slots: wakes a blocked writer for each
+     * of them, while there are any.  A writer that finds its slot taken by another queues
+     * again, so no writer is left blocked while a slot is free.
+     */
+    private void freed (int n)
+    {
+        for (int i = 0; (i < n) && !writers.isEmpty (); i++)
+        {
+            wakeWriter ();
+        }
+    }
+
+    /**
+     * Wakes the longest blocked writer, if there is one.
+     */
+    private void wakeWriter ()
+    {
+        final Thread w = writers.poll ();
+        if (w != null)
+        {
+            LockSupport.unpark (w);
+        }
+    }
+
+    /**
+     * Takes the value at a claimed position and frees its slot for the next lap of writers.
+     */
+    private T free (long pos)
+    {
+        final int index = (int) pos & mask;
+        final T value = (T) buffer[index];
+        buffer[index] = null;
+        sequence.set (index, pos + buffer.length);
+        return value;
+    }
+
+    /*************Methods from SharedChannelOutput*************************/
+
+    /**
+     * Writes an <TT>Object</TT> to the channel.
+     *
+     * @param value the object to write to the channel.
+     */
+    public void write (T value)
+    {
+        final long pos = claimOrWait (1, null, "write (Object)");
+        final int index = (int) pos & mask;
+        buffer[index] = value;
+        sequence.set (index, pos + 1);
+        wakeReader ();
+    }
+
+    /**
+     * Writes <TT>len</TT> <TT>Object</TT>s, taken from <TT>values</TT> starting at
+     * <TT>off</TT>, to the channel.  Each time there is room, a run of as many as fit
+     * is claimed and put in one go, and an idle reader is woken once.
+     *
+     * @param values the array holding the objects to write to the channel.
+     * @param off the index of the first object to write.
+     * @param len the number of objects to write.
+     */
+    public void write (T[] values, int off, int len)
+    {
+        if (off < 0 || len < 0 || off + len > values.length)
+            throw new IndexOutOfBoundsException
+                    ("*** Bad range given to Any2AnyChannel.write (Object[], int, int)\n");
+        final int[] claimed = new int[1];
+        while (len > 0)
+        {
+            final long pos = claimOrWait (len, claimed, "write (Object[], int, int)");
+            final int n = claimed[0];
+            for (int i = 0; i < n; i++)
+            {
+                buffer[(int) (pos + i) & mask] = values[off + i];
+            }
+            // publish in order, as readers take them in order
+            for (int i = 0; i < n; i++)
+            {
+                sequence.set ((int) (pos + i) & mask, pos + i + 1);
+            }
+            off += n;
+            len -= n;
+            wakeReader ();
+        }
+    }
+
+    /** ***********Methods from SharedChannelInput************************* */
+
+    /**
+     * Reads an <TT>Object</TT> from the channel.
+     *
+     * @return the object read from the channel.
+     */
+    public T read ()
+    {
+        final T value = free (takeOrWait (1, null, "read ()"));
+        freed (1);
+        return value;
+    }
+
+    /**
+     * Begins an extended rendezvous.  The value is taken out of the buffer at once,
+     * so this is the same as {@link #read}.
+     *
+     * @return the object read from the channel.
+     */
+    public T startRead ()
+    {
+        return read ();
+    }
+
+    public void endRead ()
+    {
+    }
+
+    /**
+     * Reads the <TT>Object</TT>s ready at the head of the channel, up to <TT>max</TT>
+     * of them, into <TT>values</TT>.  They are claimed with a single update, so other
+     * readers take none of them.  Blocks until there is at least one.
+     *
+     * @param values the array to receive the objects read from the channel.
+     * @param max the maximum number of objects to read.
+     * @return the number of objects read.
+     */
+    public int drainTo (T[] values, int max)
+    {
+        if (max < 0 || max > values.length)
+            throw new IndexOutOfBoundsException
+                    ("*** Bad maximum given to Any2AnyChannel.drainTo (Object[], int)\n");
+        if (max == 0)
+            return 0;
+        final int[] claimed = new int[1];
+        final long pos = takeOrWait (max, claimed, "drainTo (Object[], int)");
+        final int n = claimed[0];
+        for (int i = 0; i < n; i++)
+        {
+            values[i] = free (pos + i);
+        }
+        freed (n);
+        return n;
+    }
+
+//  Only used by Alternative, which cannot select on a shared input:
+    public boolean readerEnable (Alternative alt)
+    {
+        return false;
+    }
+
+    public boolean readerDisable ()
+    {
+        return false;
+    }
+
+    /**
+     * Returns whether there is data pending on this channel.
+     *
+     * @return state of the channel.
+     */
+    public boolean readerPending ()
+    {
+        final long pos = head.get ();
+        return sequence.get ((int) pos & mask) == pos + 1;
+    }
+
+//  No poison in these channels:
+    public void writerPoison (int strength)
+    {
+    }
+
+    public void readerPoison (int strength)
+    {
+    }
+
+}
@@ -0,0 +1,530 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jcsp.util.RingBuffer;
+
+/**
+ * This implements an any-to-one object channel, buffered by a lock-free ring,
+ * without a monitor.
+ * <H2>Description</H2>
+ * <TT>RingBufferedAny2OneChannel</TT> has the semantics of a {@link BufferedAny2OneChannel}
+ * plugged with a {@link org.jcsp.util.Buffer}, except that writers only wait while the
+ * buffer is full: the reading process may {@link Alternative <TT>ALT</TT>} on it,
+ * extended rendezvous is supported and the bulk operations of
+ * {@link BulkChannelInput} and {@link BulkChannelOutput} are available on its ends.
+ * <P>
+ * The buffer is a ring of slots, each with a sequence number saying whether it is free
+ * for the next lap of writers or holds a value for the reader.  A writer claims a slot
+ * by advancing the shared tail counter with a compare-and-set, stores its value and
+ * then publishes it through the slot's sequence number.  The single reader follows
+ * the slots in order, and frees each one it takes in the same way.  So writers never
+ * take a lock, only contend with each other for the tail counter, and meet the reader
+ * only when the buffer is empty or full.
+ * <P>
+ * A reader that finds the buffer empty spins for a short, bounded period (only on
+ * multi-processor machines), then publishes its thread and parks; each writer unparks
+ * it after publishing a value.  Writers that find the buffer full queue themselves
+ * and park; the reader unparks one of them for each slot it frees.  In both cases the
+ * thread is published before the buffer is re-checked, so a wake-up cannot be lost.  An
+ * {@link Alternative} is registered as by a {@link RingBufferedOne2OneChannel}.
+ * <P>
+ * A bulk write puts its values in runs of consecutive slots.  Each run is contiguous,
+ * but values from other writers may come between the runs of a batch that does not
+ * fit in the free space.
+ * <P>
+ * These channels cannot be poisoned.
+ *
+ * @see org.jcsp.lang.Channel#any2oneRing(RingBuffer)
+ * @see org.jcsp.lang.BufferedAny2OneChannel
+ * @see org.jcsp.lang.RingBufferedOne2OneChannel
+ */
+
+class RingBufferedAny2OneChannel<T> implements Any2OneChannel<T>, BulkChannelInternals<T>
+{
+    private static final int IDLE = 0;
+    private static final int ALTING = 1;
+    private static final int SIGNALLING = 2;
+
+    /** The values held by the channel (its length is a power of two) */
+    private final Object[] buffer;
+
+    /** <TT>buffer.length - 1</TT> */
+    private final int mask;
+
+    /**
+     * The sequence number of each slot.  A slot whose sequence number equals a position
+     * is free for the writer claiming that position; one whose sequence number is one
+     * more holds the value at that position, ready for the reader.
+     */
+    private final AtomicLongArray sequence;
+
+    /** The next position to be claimed by a writer */
+    private final AtomicLong tail = new AtomicLong ();
+
+    /** The next position to be taken by the reader (only used by the reader) */
+    private long head = 0;
+
+    /** The thread of the reader while it is (or is about to be) blocked */
+    private volatile Thread reader;
+
+    /** The threads of writers blocked (or about to block) on a full buffer */
+    private final ConcurrentLinkedQueue<Thread> writers = new ConcurrentLinkedQueue<Thread> ();
+
+    /** Whether the reader has enabled this channel in an Alternative */
+    private final AtomicInteger altState = new AtomicInteger (IDLE);
+
+    /** The Alternative class that controls the selection */
+    private volatile Alternative alt;
+
+    /**
+     * Constructs a new RingBufferedAny2OneChannel with the capacity of the specified
+     * RingBuffer (but room for at least two values).
+     *
+     * @param data the RingBuffer whose capacity the channel takes
+     */
+    RingBufferedAny2OneChannel (RingBuffer<T> data)
+    {
+        if (data == null)
+            throw new IllegalArgumentException
+                    ("Null ChannelDataStore given to channel constructor ...\n");
+        // a slot's sequence numbers for one position and the next must differ
+        buffer = new Object[Math.max (2, data.getCapacity ())];
+        mask = buffer.length - 1;
+        sequence = new AtomicLongArray (buffer.length);
+        for (int i = 0; i < buffer.length; i++)
+        {
+            sequence.set (i, i);
+        }
+    }
+
+    /*************Methods from Any2OneChannel******************************/
+
+    /**
+     * Returns the <code>AltingChannelInput</code> to use for this channel.
+     *
+     * @return the <code>AltingChannelInput</code> object to use for this
+     *          channel.
+     */
+    public AltingChannelInput<T> in ()
+    {
+        return new AltingBulkChannelInputImpl<T> (this, 0);
+    }
+
+    /**
+     * Returns the <code>SharedChannelOutput</code> object to use for this channel.
+     *
+     * @return the <code>SharedChannelOutput</code> object to use for this
+     *          channel.
+     */
+    public SharedChannelOutput<T> out ()
+    {
+        return new SharedBulkChannelOutputImpl<T> (this, 0);
+    }
+
+    /**
+     * Claims up to <TT>max</TT> consecutive free slots and returns the first position
+     * claimed, or -1 if the buffer is full.  If <TT>max</TT> is more than one, the number
+     * claimed is left in <TT>claimed[0]</TT>.
+     */
+    private long claim (int max, int[] claimed)
+    {
+        while (true)
+        {
+            final long pos = tail.get ();
+            final long s = sequence.get ((int) pos & mask);
+            if (s < pos)
+            {
+                return -1;                  // the slot is still held from the last lap
+            }
+            if (s == pos)
+            {
+                int n = 1;
+                while ((n < max) && (sequence.get ((int) (pos + n) & mask) == pos + n))
+                {
+                    n++;
+                }
+                if (tail.compareAndSet (pos, pos + n))
+                {
+                    if (claimed != null)
+                    {
+                        claimed[0] = n;
+                    }
+                    return pos;
+                }
+            }
+            // another writer claimed the position first
+        }
+    }
+
+    /**
+     * Spins (for a bounded number of calls) or blocks a writer until a slot may be free,
+     * and tries to claim slots again.
+     *
+     * @param spins the number of times this has been called in the current wait.
+     * @param where the operation to report if the thread is interrupted.
+     * @return the first position claimed, or -1 if the writer must call again.
+     */
+    private long awaitSpace (int spins, int max, int[] claimed, String where)
+    {
+        if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+        {
+            return claim (max, claimed);
+        }
+        final Thread me = Thread.currentThread ();
+        writers.add (me);
+        // re-check after queueing, so that a slot freed meanwhile is not missed
+        final long pos = claim (max, claimed);
+        if (pos >= 0)
+        {
+            leaveQueue (me);
+            return pos;
+        }
+        LockSupport.park (this);
+        if (Thread.interrupted ())
+        {
+            leaveQueue (me);
+            throw new ProcessInterruptedException ("*** Thrown from Any2OneChannel." + where + "\n"
+                                                   + new InterruptedException ().toString ());
+        }
+        // if woken spuriously, queue again on the next call
+        writers.remove (me);
+        return -1;
+    }
+
+    /**
+     * Removes a writer, that is not going to use a wake-up, from the queue of blocked
+     * writers.  If the reader has already removed it, to wake it, the wake-up is passed
+     * on to the next blocked writer.
+     */
+    private void leaveQueue (Thread me)
+    {
+        if (!writers.remove (me))
+        {
+            wakeWriter ();
+        }
+    }
+
+    /**
+     * Claims slots for a writer, waiting while the buffer is full.
+     */
+    private long claimOrWait (int max, int[] claimed, String where)
+    {
+        long pos = claim (max, claimed);
+        for (int spins = 0; pos < 0; spins++)
+        {
+            pos = awaitSpace (spins, max, claimed, where);
+        }
+        return pos;
+    }
+
+    /**
+     * Blocks the reader until the slot at the head holds a value.
+     */
+    private void awaitData (String where)
+    {
+        if (ready ())
+        {
+            return;
+        }
+        int spins = 0;
+        try
+        {
+            while (!ready ())
+            {
+                if (spins == SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    // publish, then re-check before parking
+                    reader = Thread.currentThread ();
+                }
+                else if (spins > SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    LockSupport.park (this);
+                    if (Thread.interrupted ())
+                    {
+                        throw new ProcessInterruptedException ("*** Thrown from Any2OneChannel." + where + "\n"
+                                                               + new InterruptedException ().toString ());
+                    }
+                }
+                spins++;
+            }
+        }
+        finally
+        {
+            reader = null;
+        }
+    }
+
+    /**
+     * Returns whether the slot at the head holds a value.  Only called by the reader.
+     */
+    private boolean ready ()
+    {
+        return sequence.get ((int) head & mask) == head + 1;
+    }
+
+    /**
+     * Called by a writer after publishing its values.
+     */
+    private void wakeReader ()
+    {
+        final Thread r = reader;
+        if (r != null)
+        {
+            LockSupport.unpark (r);
+        }
+        if ((altState.get () == ALTING) && altState.compareAndSet (ALTING, SIGNALLING))
+        {
+            alt.schedule ();
+            altState.set (IDLE);
+        }
+    }
+
+    /**
+     * Called by the reader after freeing <TT>n</TT> slots: wakes a blocked writer for each
+     * of them, while there are any.  A writer that finds its slot taken by another queues
+     * again, so no writer is left blocked while a slot is free.
+     */
+    private void freed (int n)
+    {
+        for (int i = 0; (i < n) && !writers.isEmpty (); i++)
+        {
+            wakeWriter ();
+        }
+    }
+
+    /**
+     * Wakes the longest blocked writer, if there is one.
+     */
+    private void wakeWriter ()
+    {
+        final Thread w = writers.poll ();
+        if (w != null)
+        {
+            LockSupport.unpark (w);
+        }
+    }
+
+    /**
+     * Frees the slot at the head, ready for the next lap of writers.
+     */
+    private void free ()
+    {
+        final int index = (int) head & mask;
+        buffer[index] = null;
+        sequence.set (index, head + buffer.length);
+        head++;
+    }
+
+    /*************Methods from SharedChannelOutput*************************/
+
+    /**
+     * Writes an <TT>Object</TT> to the channel.
+     *
+     * @param value the object to write to the channel.
+     */
+    public void write (T value)
+    {
+        final long pos = claimOrWait (1, null, "write (Object)");
+        final int index = (int) pos & mask;
+        buffer[index] = value;
+        sequence.set (index, pos + 1);
+        wakeReader ();
+    }
+
+    /**
+     * Writes <TT>len</TT> <TT>Object</TT>s, taken from <TT>values</TT> starting at
+     * <TT>off</TT>, to the channel.  Each time there is room, a run of as many as fit
+     * is claimed and put in one go and the reader is woken once.
+     *
+     * @param values the array holding the objects to write to the channel.
+     * @param off the index of the first object to write.
+     * @param len the number of objects to write.
+     */
+    public void write (T[] values, int off, int len)
+    {
+        if (off < 0 || len < 0 || off + len > values.length)
+            throw new IndexOutOfBoundsException
+                    ("*** Bad range given to Any2OneChannel.write (Object[], int, int)\n");
+        final int[] claimed = new int[1];
+        while (len > 0)
+        {
+            final long pos = claimOrWait (len, claimed, "write (Object[], int, int)");
+            final int n = claimed[0];
+            for (int i = 0; i < n; i++)
+            {
+                buffer[(int) (pos + i) & mask] = values[off + i];
+            }
+            // publish in order, as the reader takes them in order
+            for (int i = 0; i < n; i++)
+            {
+                sequence.set ((int) (pos + i) & mask, pos + i + 1);
+            }
+            off += n;
+            len -= n;
+            wakeReader ();
+        }
+    }
+
+    /** ***********Methods from AltingChannelInput************************* */
+
+    /**
+     * Reads an <TT>Object</TT> from the channel.
+     *
+     * @return the object read from the channel.
+     */
+    public T read ()
+    {
+        awaitData ("read ()");
+        final T value = (T) buffer[(int) head & mask];
+        free ();
+        freed (1);
+        return value;
+    }
+
+    public T startRead ()
+    {
+        awaitData ("startRead ()");
+        return (T) buffer[(int) head & mask];
+    }
+
+    public void endRead ()
+    {
+        free ();
+        freed (1);
+    }
+
+    /**
+     * Reads all the <TT>Object</TT>s held by the channel, up to <TT>max</TT> of them,
+     * into <TT>values</TT>.  Blocks until there is at least one.
+     *
+     * @param values the array to receive the objects read from the channel.
+     * @param max the maximum number of objects to read.
+     * @return the number of objects read.
+     */
+    public int drainTo (T[] values, int max)
+    {
+        if (max < 0 || max > values.length)
+            throw new IndexOutOfBoundsException
+                    ("*** Bad maximum given to Any2OneChannel.drainTo (Object[], int)\n");
+        if (max == 0)
+            return 0;
+        awaitData ("drainTo (Object[], int)");
+        int n = 0;
+        do
+        {
+            values[n++] = (T) buffer[(int) head & mask];
+            free ();
+        }
+        while ((n < max) && ready ());
+        freed (n);
+        return n;
+    }
+
+    /**
+     * turns on Alternative selection for the channel. Returns true if the
+     * channel has data that can be read immediately.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @param alt the Alternative class which will control the selection
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerEnable (Alternative alt)
+    {
+        if (ready ())
+        {
+            return true;
+        }
+        // a writer may still be scheduling the Alternative from a previous enable
+        while (altState.get () == SIGNALLING)
+        {
+            Thread.yield ();
+        }
+        this.alt = alt;
+        altState.set (ALTING);
+        // data may have arrived before the ALTING state was visible to the writers
+        return ready ();
+    }
+
+    /**
+     * turns off Alternative selection for the channel. Returns true if the
+     * channel contained data that can be read.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerDisable ()
+    {
+        while (true)
+        {
+            final int s = altState.get ();
+            if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else if ((s == IDLE) || altState.compareAndSet (ALTING, IDLE))
+            {
+                break;
+            }
+        }
+        alt = null;
+        return ready ();
+    }
+
+    /**
+     * Returns whether there is data pending on this channel.
+     * <P>
+     * <I>Note: if there is, it won't go away until you read it.  But if there
+     * isn't, there may be some by the time you check the result of this method.</I>
+     *
+     * @return state of the channel.
+     */
+    public boolean readerPending ()
+    {
+        return ready ();
+    }
+
+//  No poison in these channels:
+    public void writerPoison (int strength)
+    {
+    }
+
+    public void readerPoison (int strength)
+    {
+    }
+
+}
@@ -0,0 +1,395 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jcsp.util.ChannelDataStore;
+import org.jcsp.util.RingBuffer;
+
+/**
+ * This implements a one-to-one object channel, buffered by a {@link RingBuffer},
+ * without a monitor.
+ * <H2>Description</H2>
+ * <TT>RingBufferedOne2OneChannel</TT> has the same semantics as a
+ * {@link BufferedOne2OneChannel} plugged with a {@link org.jcsp.util.Buffer} of the same
+ * capacity: the reading process may {@link Alternative <TT>ALT</TT>} on it,
+ * extended rendezvous is supported and the bulk operations of
+ * {@link BulkChannelInput} and {@link BulkChannelOutput} are available on its ends.
+ * <P>
+ * The writer only touches the ring's tail counter and the reader only its head
+ * counter.  So while the buffer is neither empty nor full, they proceed without
+ * sharing a lock or (after each one's single sequence-counter update) any
+ * cache line.  A process that must wait (the reader for data, or the writer for
+ * space) first spins for a short, bounded period (only on multi-processor
+ * machines), then publishes its thread and parks.  Its partner unparks it after
+ * its next update of the ring.  Because the thread is published before the ring
+ * is re-checked, and the partner updates the ring before looking for a published
+ * thread, a wake-up cannot be lost.
+ * <P>
+ * An {@link Alternative} is registered in the same way.  A transient
+ * <TT>SIGNALLING</TT> state makes sure that a writer's scheduling of the
+ * <TT>Alternative</TT> is complete before the reader can disable this guard.
+ * <P>
+ * These channels cannot be poisoned.
+ *
+ * @see org.jcsp.lang.Channel#one2one(RingBuffer)
+ * @see org.jcsp.lang.BufferedOne2OneChannel
+ * @see org.jcsp.util.RingBuffer
+ */
+
+class RingBufferedOne2OneChannel<T> implements One2OneChannel<T>, BulkChannelInternals<T>
+{
+    private static final int IDLE = 0;
+    private static final int ALTING = 1;
+    private static final int SIGNALLING = 2;
+
+    /** The RingBuffer used to store the data for the channel */
+    private final RingBuffer<T> data;
+
+    /** The thread of the reader while it is (or is about to be) blocked */
+    private volatile Thread reader;
+
+    /** The thread of the writer while it is (or is about to be) blocked */
+    private volatile Thread writer;
+
+    /** Whether the reader has enabled this channel in an Alternative */
+    private final AtomicInteger altState = new AtomicInteger (IDLE);
+
+    /** The Alternative class that controls the selection */
+    private volatile Alternative alt;
+
+    /**
+     * Constructs a new RingBufferedOne2OneChannel with the specified RingBuffer.
+     *
+     * @param data the RingBuffer used to store the data for the channel
+     */
+    RingBufferedOne2OneChannel (RingBuffer<T> data)
+    {
+        if (data == null)
+            throw new IllegalArgumentException
+                    ("Null ChannelDataStore given to channel constructor ...\n");
+        this.data = (RingBuffer<T>) data.clone ();
+    }
+
+    /*************Methods from One2OneChannel******************************/
+
+    /**
+     * Returns the <code>AltingChannelInput</code> to use for this channel.
+     *
+     * @return the <code>AltingChannelInput</code> object to use for this
+     *          channel.
+     */
+    public AltingChannelInput<T> in ()
+    {
+        return new AltingBulkChannelInputImpl<T> (this, 0);
+    }
+
+    /**
+     * Returns the <code>ChannelOutput</code> object to use for this channel.
+     *
+     * @return the <code>ChannelOutput</code> object to use for this
+     *          channel.
+     */
+    public ChannelOutput<T> out ()
+    {
+        return new BulkChannelOutputImpl<T> (this, 0);
+    }
+
+    /**
+     * Spins (for a bounded number of calls) and then parks the current thread.
+     * The caller must re-check its condition on return.
+     *
+     * @param spins the number of times this has been called in the current wait.
+     * @param where the operation to report if the thread is interrupted.
+     */
+    private void pause (int spins, String where)
+    {
+        if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+        {
+            return;
+        }
+        LockSupport.park (this);
+        if (Thread.interrupted ())
+        {
+            throw new ProcessInterruptedException ("*** Thrown from One2OneChannel." + where + "\n"
+                                                   + new InterruptedException ().toString ());
+        }
+    }
+
+    /**
+     * Blocks the reader until the ring is not empty.
+     */
+    private void awaitData (String where)
+    {
+        if (data.getState () != ChannelDataStore.EMPTY)
+        {
+            return;
+        }
+        int spins = 0;
+        try
+        {
+            while (data.getState () == ChannelDataStore.EMPTY)
+            {
+                if (spins == SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    // publish, then re-check before parking
+                    reader = Thread.currentThread ();
+                    spins++;
+                }
+                else
+                {
+                    pause (spins++, where);
+                }
+            }
+        }
+        finally
+        {
+            reader = null;
+        }
+    }
+
+    /**
+     * Blocks the writer while the ring is full.
+     */
+    private void awaitSpace (String where)
+    {
+        if (data.getState () != ChannelDataStore.FULL)
+        {
+            return;
+        }
+        int spins = 0;
+        try
+        {
+            while (data.getState () == ChannelDataStore.FULL)
+            {
+                if (spins == SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    // publish, then re-check before parking
+                    writer = Thread.currentThread ();
+                    spins++;
+                }
+                else
+                {
+                    pause (spins++, where);
+                }
+            }
+        }
+        finally
+        {
+            writer = null;
+        }
+    }
+
+    /**
+     * Called by the writer after each update of the ring.
+     */
+    private void wakeReader ()
+    {
+        final Thread r = reader;
+        if (r != null)
+        {
+            LockSupport.unpark (r);
+        }
+        if ((altState.get () == ALTING) && altState.compareAndSet (ALTING, SIGNALLING))
+        {
+            alt.schedule ();
+            altState.set (IDLE);
+        }
+    }
+
+    /**
+     * Called by the reader after each update of the ring.
+     */
+    private void wakeWriter ()
+    {
+        final Thread w = writer;
+        if (w != null)
+        {
+            LockSupport.unpark (w);
+        }
+    }
+
+    /*************Methods from ChannelOutput*******************************/
+
+    /**
+     * Writes an <TT>Object</TT> to the channel.
+     *
+     * @param value the object to write to the channel.
+     */
+    public void write (T value)
+    {
+        data.put (value);
+        wakeReader ();
+        awaitSpace ("write (Object)");
+    }
+
+    /**
+     * Writes <TT>len</TT> <TT>Object</TT>s, taken from <TT>values</TT> starting at
+     * <TT>off</TT>, to the channel.  Each time the ring has room, as many as fit
+     * are put in one go and the reader is woken once.
+     *
+     * @param values the array holding the objects to write to the channel.
+     * @param off the index of the first object to write.
+     * @param len the number of objects to write.
+     */
+    public void write (T[] values, int off, int len)
+    {
+        if (off < 0 || len < 0 || off + len > values.length)
+            throw new IndexOutOfBoundsException
+                    ("*** Bad range given to One2OneChannel.write (Object[], int, int)\n");
+        while (len > 0)
+        {
+            final int n = data.putAll (values, off, len);
+            off += n;
+            len -= n;
+            wakeReader ();
+            awaitSpace ("write (Object[], int, int)");
+        }
+    }
+
+    /** ***********Methods from AltingChannelInput************************* */
+
+    /**
+     * Reads an <TT>Object</TT> from the channel.
+     *
+     * @return the object read from the channel.
+     */
+    public T read ()
+    {
+        awaitData ("read ()");
+        final T value = data.get ();
+        wakeWriter ();
+        return value;
+    }
+
+    public T startRead ()
+    {
+        awaitData ("startRead ()");
+        return data.startGet ();
+    }
+
+    public void endRead ()
+    {
+        data.endGet ();
+        wakeWriter ();
+    }
+
+    /**
+     * Reads all the <TT>Object</TT>s held by the channel, up to <TT>max</TT> of them,
+     * into <TT>values</TT>.  Blocks until there is at least one.
+     *
+     * @param values the array to receive the objects read from the channel.
+     * @param max the maximum number of objects to read.
+     * @return the number of objects read.
+     */
+    public int drainTo (T[] values, int max)
+    {
+        if (max < 0 || max > values.length)
+            throw new IndexOutOfBoundsException
+                    ("*** Bad maximum given to One2OneChannel.drainTo (Object[], int)\n");
+        if (max == 0)
+            return 0;
+        awaitData ("drainTo (Object[], int)");
+        final int n = data.getAll (values, 0, max);
+        wakeWriter ();
+        return n;
+    }
+
+    /**
+     * turns on Alternative selection for the channel. Returns true if the
+     * channel has data that can be read immediately.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @param alt the Alternative class which will control the selection
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerEnable (Alternative alt)
+    {
+        if (data.getState () != ChannelDataStore.EMPTY)
+        {
+            return true;
+        }
+        this.alt = alt;
+        altState.set (ALTING);
+        // data may have arrived before the ALTING state was visible to the writer
+        return data.getState () != ChannelDataStore.EMPTY;
+    }
+
+    /**
+     * turns off Alternative selection for the channel. Returns true if the
+     * channel contained data that can be read.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerDisable ()
+    {
+        while (true)
+        {
+            final int s = altState.get ();
+            if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else if ((s == IDLE) || altState.compareAndSet (ALTING, IDLE))
+            {
+                break;
+            }
+        }
+        alt = null;
+        return data.getState () != ChannelDataStore.EMPTY;
+    }
+
+    /**
+     * Returns whether there is data pending on this channel.
+     * <P>
+     * <I>Note: if there is, it won't go away until you read it.  But if there
+     * isn't, there may be some by the time you check the result of this method.</I>
+     *
+     * @return state of the channel.
+     */
+    public boolean readerPending ()
+    {
+        return data.getState () != ChannelDataStore.EMPTY;
+    }
+
+//  No poison in these channels:
+    public void writerPoison (int strength)
+    {
+    }
+
+    public void readerPoison (int strength)
+    {
+    }
+
+}
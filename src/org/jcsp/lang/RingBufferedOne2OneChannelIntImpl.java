@@ -0,0 +1,336 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jcsp.util.ints.ChannelDataStoreInt;
+import org.jcsp.util.ints.RingBufferInt;
+
+/**
+ * This implements a one-to-one integer channel, buffered by a {@link RingBufferInt},
+ * without a monitor.
+ * <H2>Description</H2>
+ * <TT>RingBufferedOne2OneChannelIntImpl</TT> is the integer version of
+ * {@link RingBufferedOne2OneChannel}: it has the same semantics as a
+ * {@link BufferedOne2OneChannelIntImpl} plugged with a {@link org.jcsp.util.ints.BufferInt}
+ * of the same capacity, but its writer and reader share no lock and only meet
+ * when the buffer is empty or full.
+ * <P>
+ * These channels cannot be poisoned.
+ *
+ * @see org.jcsp.lang.Channel#one2oneInt(RingBufferInt)
+ * @see org.jcsp.lang.RingBufferedOne2OneChannel
+ * @see org.jcsp.util.ints.RingBufferInt
+ */
+
+class RingBufferedOne2OneChannelIntImpl implements One2OneChannelInt, ChannelInternalsInt
+{
+    private static final int IDLE = 0;
+    private static final int ALTING = 1;
+    private static final int SIGNALLING = 2;
+
+    /** The RingBufferInt used to store the data for the channel */
+    private final RingBufferInt data;
+
+    /** The thread of the reader while it is (or is about to be) blocked */
+    private volatile Thread reader;
+
+    /** The thread of the writer while it is (or is about to be) blocked */
+    private volatile Thread writer;
+
+    /** Whether the reader has enabled this channel in an Alternative */
+    private final AtomicInteger altState = new AtomicInteger (IDLE);
+
+    /** The Alternative class that controls the selection */
+    private volatile Alternative alt;
+
+    /**
+     * Constructs a new RingBufferedOne2OneChannelIntImpl with the specified RingBufferInt.
+     *
+     * @param data the RingBufferInt used to store the data for the channel
+     */
+    RingBufferedOne2OneChannelIntImpl (RingBufferInt data)
+    {
+        if (data == null)
+            throw new IllegalArgumentException
+                    ("Null ChannelDataStore given to channel constructor ...\n");
+        this.data = (RingBufferInt) data.clone ();
+    }
+
+    /*************Methods from One2OneChannelInt***************************/
+
+    /**
+     * Returns the <code>AltingChannelInputInt</code> to use for this channel.
+     *
+     * @return the <code>AltingChannelInputInt</code> object to use for this
+     *          channel.
+     */
+    public AltingChannelInputInt in ()
+    {
+        return new AltingChannelInputIntImpl (this, 0);
+    }
+
+    /**
+     * Returns the <code>ChannelOutputInt</code> object to use for this channel.
+     *
+     * @return the <code>ChannelOutputInt</code> object to use for this
+     *          channel.
+     */
+    public ChannelOutputInt out ()
+    {
+        return new ChannelOutputIntImpl (this, 0);
+    }
+
+    /**
+     * Spins (for a bounded number of calls) and then parks the current thread.
+     * The caller must re-check its condition on return.
+     *
+     * @param spins the number of times this has been called in the current wait.
+     * @param where the operation to report if the thread is interrupted.
+     */
+    private void pause (int spins, String where)
+    {
+        if (spins < SpinningOne2OneChannelImpl.SPIN_LIMIT)
+        {
+            return;
+        }
+        LockSupport.park (this);
+        if (Thread.interrupted ())
+        {
+            throw new ProcessInterruptedException ("*** Thrown from One2OneChannel." + where + "\n"
+                                                   + new InterruptedException ().toString ());
+        }
+    }
+
+    /**
+     * Blocks the reader until the ring is not empty.
+     */
+    private void awaitData (String where)
+    {
+        if (data.getState () != ChannelDataStoreInt.EMPTY)
+        {
+            return;
+        }
+        int spins = 0;
+        try
+        {
+            while (data.getState () == ChannelDataStoreInt.EMPTY)
+            {
+                if (spins == SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    // publish, then re-check before parking
+                    reader = Thread.currentThread ();
+                    spins++;
+                }
+                else
+                {
+                    pause (spins++, where);
+                }
+            }
+        }
+        finally
+        {
+            reader = null;
+        }
+    }
+
+    /**
+     * Blocks the writer while the ring is full.
+     */
+    private void awaitSpace (String where)
+    {
+        if (data.getState () != ChannelDataStoreInt.FULL)
+        {
+            return;
+        }
+        int spins = 0;
+        try
+        {
+            while (data.getState () == ChannelDataStoreInt.FULL)
+            {
+                if (spins == SpinningOne2OneChannelImpl.SPIN_LIMIT)
+                {
+                    // publish, then re-check before parking
+                    writer = Thread.currentThread ();
+                    spins++;
+                }
+                else
+                {
+                    pause (spins++, where);
+                }
+            }
+        }
+        finally
+        {
+            writer = null;
+        }
+    }
+
+    /**
+     * Called by the writer after each update of the ring.
+     */
+    private void wakeReader ()
+    {
+        final Thread r = reader;
+        if (r != null)
+        {
+            LockSupport.unpark (r);
+        }
+        if ((altState.get () == ALTING) && altState.compareAndSet (ALTING, SIGNALLING))
+        {
+            alt.schedule ();
+            altState.set (IDLE);
+        }
+    }
+
+    /**
+     * Called by the reader after each update of the ring.
+     */
+    private void wakeWriter ()
+    {
+        final Thread w = writer;
+        if (w != null)
+        {
+            LockSupport.unpark (w);
+        }
+    }
+
+    /*************Methods from ChannelOutputInt****************************/
+
+    /**
+     * Writes an <TT>int</TT> to the channel.
+     *
+     * @param value the integer to write to the channel.
+     */
+    public void write (int value)
+    {
+        data.put (value);
+        wakeReader ();
+        awaitSpace ("write (int)");
+    }
+
+    /** ***********Methods from AltingChannelInputInt********************** */
+
+    /**
+     * Reads an <TT>int</TT> from the channel.
+     *
+     * @return the integer read from the channel.
+     */
+    public int read ()
+    {
+        awaitData ("read ()");
+        final int value = data.get ();
+        wakeWriter ();
+        return value;
+    }
+
+    public int startRead ()
+    {
+        awaitData ("startRead ()");
+        return data.startGet ();
+    }
+
+    public void endRead ()
+    {
+        data.endGet ();
+        wakeWriter ();
+    }
+
+    /**
+     * turns on Alternative selection for the channel. Returns true if the
+     * channel has data that can be read immediately.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @param alt the Alternative class which will control the selection
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerEnable (Alternative alt)
+    {
+        if (data.getState () != ChannelDataStoreInt.EMPTY)
+        {
+            return true;
+        }
+        this.alt = alt;
+        altState.set (ALTING);
+        // data may have arrived before the ALTING state was visible to the writer
+        return data.getState () != ChannelDataStoreInt.EMPTY;
+    }
+
+    /**
+     * turns off Alternative selection for the channel. Returns true if the
+     * channel contained data that can be read.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerDisable ()
+    {
+        while (true)
+        {
+            final int s = altState.get ();
+            if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else if ((s == IDLE) || altState.compareAndSet (ALTING, IDLE))
+            {
+                break;
+            }
+        }
+        alt = null;
+        return data.getState () != ChannelDataStoreInt.EMPTY;
+    }
+
+    /**
+     * Returns whether there is data pending on this channel.
+     * <P>
+     * <I>Note: if there is, it won't go away until you read it.  But if there
+     * isn't, there may be some by the time you check the result of this method.</I>
+     *
+     * @return state of the channel.
+     */
+    public boolean readerPending ()
+    {
+        return data.getState () != ChannelDataStoreInt.EMPTY;
+    }
+
+//  No poison in these channels:
+    public void writerPoison (int strength)
+    {
+    }
+
+    public void readerPoison (int strength)
+    {
+    }
+
+}
@@ -43,15 +43,24 @@ class SharedChannelInputImpl<T> implements SharedChannelInput<T> {
 	}
 
 	public T read() {
+		if (FlightEvents.recording) {
+			return FlightEvents.read(this, channel, false);
+		}
 		return channel.read();
 	}
 
 	public T startRead() {
+		if (FlightEvents.recording) {
+			return FlightEvents.read(this, channel, true);
+		}
 		return channel.startRead();
 	}
 
 	public void poison(int strength) {
 		if (strength > immunity) {
+			if (FlightEvents.recording) {
+				FlightEvents.poison(this, true, strength);
+			}
 			channel.readerPoison(strength);
 		}
 	}
@@ -38,12 +38,19 @@ class SharedChannelOutputImpl<T> implements SharedChannelOutput<T> {
 	}
 
 	public void write(T object) {
+		if (FlightEvents.recording) {
+			FlightEvents.write(this, channel, object);
+			return;
+		}
 		channel.write(object);
 
 	}
 
 	public void poison(int strength) {
 		if (strength > immunity) {
+			if (FlightEvents.recording) {
+				FlightEvents.poison(this, false, strength);
+			}
 			channel.writerPoison(strength);
 		}
 	}
@@ -0,0 +1,453 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This implements a one-to-one object channel without a monitor.
+ * <H2>Description</H2>
+ * <TT>SpinningOne2OneChannelImpl</TT> has the same semantics as
+ * {@link One2OneChannelImpl} (or, if constructed with a finite immunity,
+ * {@link PoisonableOne2OneChannelImpl}): it is zero-buffered and fully
+ * synchronised, the reading process may {@link Alternative <TT>ALT</TT>} on it
+ * and extended rendezvous is supported.
+ * <P>
+ * Instead of a <TT>synchronized</TT> monitor with <TT>wait/notify</TT>, the
+ * rendezvous is driven by a single atomic state word.  A process that must wait
+ * for its partner first spins for a short, bounded period (only on
+ * multi-processor machines) and then parks its thread with
+ * {@link LockSupport#park(Object)}.  The partner releases it with
+ * {@link LockSupport#unpark(Thread)}.  When the partner arrives within the spin
+ * period, no thread is descheduled at all.
+ * <P>
+ * The states of the channel are:
+ * <UL>
+ *   <LI><TT>EMPTY</TT>: no process is at the channel;
+ *   <LI><TT>READER_WAITING</TT>: the reader is waiting for a writer;
+ *   <LI><TT>ALTING</TT>: the reader has enabled this channel in an {@link Alternative};
+ *   <LI><TT>SIGNALLING</TT>: transient &ndash; the <TT>Alternative</TT> registered
+ *       by the reader is being scheduled;
+ *   <LI><TT>DATA</TT>: the writer has deposited its object and is waiting for a reader;
+ *   <LI><TT>READING</TT>: the reader is in an extended rendezvous with the writer.
+ * </UL>
+ * The <TT>SIGNALLING</TT> state guarantees that a scheduling of the reader's
+ * <TT>Alternative</TT> is complete before that reader can disable this guard
+ * (which is what holding the channel monitor guaranteed in the classic implementation).
+ *
+ * @see org.jcsp.lang.Channel#one2oneSpinning()
+ * @see org.jcsp.lang.Channel#one2oneSpinning(int)
+ * @see org.jcsp.lang.One2OneChannelImpl
+ */
+
+class SpinningOne2OneChannelImpl<T> implements One2OneChannel<T>, ChannelInternals<T>
+{
+    private static final int EMPTY = 0;
+    private static final int READER_WAITING = 1;
+    private static final int ALTING = 2;
+    private static final int SIGNALLING = 3;
+    private static final int DATA = 4;
+    private static final int READING = 5;
+
+    /**
+     * The number of times a waiting process re-checks the state before parking.
+     * Spinning is pointless on a uni-processor, since the partner cannot make
+     * progress until we give up the processor.
+     */
+    static final int SPIN_LIMIT =
+        (Runtime.getRuntime ().availableProcessors () > 1) ? 2048 : 0;
+
+    /** The rendezvous state word */
+    private final AtomicInteger state = new AtomicInteger (EMPTY);
+
+    /** The (invisible-to-users) buffer used to store the data for the channel */
+    private volatile T hold;
+
+    /** The thread of the writer while it is (or is about to be) blocked */
+    private volatile Thread writer;
+
+    /** The thread of the reader while it is (or is about to be) blocked */
+    private volatile Thread reader;
+
+    /** The Alternative class that controls the selection */
+    private volatile Alternative alt;
+
+    /**
+     * 0 means unpoisoned
+     */
+    private volatile int poisonStrength = 0;
+
+    /**
+     * Immunity is passed to the channel-ends, and is not used directly by the channel algorithms
+     */
+    private final int immunity;
+
+    /**
+     * Constructs a channel that cannot be poisoned.
+     */
+    SpinningOne2OneChannelImpl ()
+    {
+        this (Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a poisonable channel.
+     *
+     * @param immunity the channel is immune to poison strengths up to and including this level.
+     */
+    SpinningOne2OneChannelImpl (int immunity)
+    {
+        this.immunity = immunity;
+    }
+
+    /*************Methods from One2OneChannel******************************/
+
+    /**
+     * Returns the <code>AltingChannelInput</code> to use for this channel.
+     *
+     * @return the <code>AltingChannelInput</code> object to use for this
+     *          channel.
+     */
+    public AltingChannelInput<T> in ()
+    {
+        return new AltingChannelInputImpl<T> (this, immunity);
+    }
+
+    /**
+     * Returns the <code>ChannelOutput</code> object to use for this channel.
+     *
+     * @return the <code>ChannelOutput</code> object to use for this
+     *          channel.
+     */
+    public ChannelOutput<T> out ()
+    {
+        return new ChannelOutputImpl<T> (this, immunity);
+    }
+
+    private boolean isPoisoned ()
+    {
+        return poisonStrength > 0;
+    }
+
+    /**
+     * Spins (for a bounded number of calls) and then parks the current thread.
+     * The caller must re-check its condition on return.
+     *
+     * @param spins the number of times this has been called in the current wait.
+     * @param where the operation to report if the thread is interrupted.
+     */
+    private void pause (int spins, String where)
+    {
+        if (spins < SPIN_LIMIT)
+        {
+            return;
+        }
+        LockSupport.park (this);
+        if (Thread.interrupted ())
+        {
+            throw new ProcessInterruptedException ("*** Thrown from One2OneChannel." + where + "\n"
+                                                   + new InterruptedException ().toString ());
+        }
+    }
+
+    /*************Methods from ChannelOutput*******************************/
+
+    /**
+     * Writes an <TT>Object</TT> to the channel.
+     *
+     * @param value the object to write to the channel.
+     */
+    public void write (T value)
+    {
+        if (isPoisoned ())
+        {
+            throw new PoisonException (poisonStrength);
+        }
+        hold = value;
+        writer = Thread.currentThread ();
+        int spins = 0;
+        while (true)
+        {
+            final int s = state.get ();
+            if (s == EMPTY)
+            {
+                if (state.compareAndSet (EMPTY, DATA))
+                {
+                    break;
+                }
+            }
+            else if (s == READER_WAITING)
+            {
+                if (state.compareAndSet (READER_WAITING, DATA))
+                {
+                    LockSupport.unpark (reader);
+                    break;
+                }
+            }
+            else if (s == ALTING)
+            {
+                if (state.compareAndSet (ALTING, SIGNALLING))
+                {
+                    alt.schedule ();
+                    state.set (DATA);
+                    break;
+                }
+            }
+            else if (s == SIGNALLING)
+            {
+                // poison is being delivered to the reader's Alternative
+                Thread.yield ();
+            }
+            else
+            {
+                throw new JCSP_InternalError ("*** Second writer on a One2OneChannel (state " + s + ")");
+            }
+        }
+        // wait for the reader to take the object (or finish its extended rendezvous)
+        while (true)
+        {
+            final int s = state.get ();
+            if ((s != DATA) && (s != READING))
+            {
+                return;
+            }
+            if (isPoisoned ())
+            {
+                if (s == READING)
+                {
+                    throw new PoisonException (poisonStrength);
+                }
+                if (state.compareAndSet (DATA, EMPTY))
+                {
+                    hold = null;
+                    throw new PoisonException (poisonStrength);
+                }
+            }
+            else
+            {
+                pause (spins++, "write (Object)");
+            }
+        }
+    }
+
+    /** ***********Methods from AltingChannelInput************************* */
+
+    /**
+     * Blocks the reader until the writer has deposited its object
+     * and then moves the state from <TT>DATA</TT> to <TT>next</TT>.
+     */
+    private T take (int next, String where)
+    {
+        if (isPoisoned ())
+        {
+            throw new PoisonException (poisonStrength);
+        }
+        int spins = 0;
+        while (true)
+        {
+            final int s = state.get ();
+            if (s == DATA)
+            {
+                final T value = hold;
+                if (state.compareAndSet (DATA, next))
+                {
+                    return value;
+                }
+            }
+            else if (s == EMPTY)
+            {
+                reader = Thread.currentThread ();
+                state.compareAndSet (EMPTY, READER_WAITING);
+            }
+            else if (s == READER_WAITING)
+            {
+                if (isPoisoned ())
+                {
+                    state.compareAndSet (READER_WAITING, EMPTY);
+                    throw new PoisonException (poisonStrength);
+                }
+                pause (spins++, where);
+            }
+            else if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else
+            {
+                throw new JCSP_InternalError ("*** Illegal read on a One2OneChannel (state " + s + ")");
+            }
+        }
+    }
+
+    /**
+     * Reads an <TT>Object</TT> from the channel.
+     *
+     * @return the object read from the channel.
+     */
+    public T read ()
+    {
+        final T value = take (EMPTY, "read ()");
+        LockSupport.unpark (writer);
+        return value;
+    }
+
+    public T startRead ()
+    {
+        final T value = take (READING, "startRead ()");
+        if (isPoisoned ())
+        {
+            throw new PoisonException (poisonStrength);
+        }
+        return value;
+    }
+
+    public void endRead ()
+    {
+        state.compareAndSet (READING, EMPTY);
+        LockSupport.unpark (writer);
+    }
+
+    /**
+     * turns on Alternative selection for the channel. Returns true if the
+     * channel has data that can be read immediately.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @param alt the Alternative class which will control the selection
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerEnable (Alternative alt)
+    {
+        if (isPoisoned ())
+        {
+            return true;
+        }
+        this.alt = alt;
+        int spins = 0;
+        while (true)
+        {
+            final int s = state.get ();
+            if (s == DATA)
+            {
+                return true;
+            }
+            if (s != EMPTY)
+            {
+                // only the reader enables, so it cannot be waiting, reading or alting already
+                throw new JCSP_InternalError ("*** Illegal readerEnable on a One2OneChannel (state " + s + ")");
+            }
+            if (state.compareAndSet (EMPTY, ALTING))
+            {
+                // poison may have arrived before the ALTING state was visible to the poisoner
+                return isPoisoned ();
+            }
+            // the writer got in first and is depositing its object
+            if (++spins > SPIN_LIMIT)
+            {
+                Thread.yield ();
+            }
+        }
+    }
+
+    /**
+     * turns off Alternative selection for the channel. Returns true if the
+     * channel contained data that can be read.
+     * <P>
+     * <I>Note: this method should only be called by the Alternative class</I>
+     *
+     * @return true if the channel has data that can be read, else false
+     */
+    public boolean readerDisable ()
+    {
+        while (true)
+        {
+            final int s = state.get ();
+            if (s == ALTING)
+            {
+                if (state.compareAndSet (ALTING, EMPTY))
+                {
+                    alt = null;
+                    return isPoisoned ();
+                }
+            }
+            else if (s == SIGNALLING)
+            {
+                Thread.yield ();
+            }
+            else
+            {
+                alt = null;
+                return (s == DATA) || isPoisoned ();
+            }
+        }
+    }
+
+    /**
+     * Returns whether there is data pending on this channel.
+     * <P>
+     * <I>Note: if there is, it won't go away until you read it.  But if there
+     * isn't, there may be some by the time you check the result of this method.</I>
+     *
+     * @return state of the channel.
+     */
+    public boolean readerPending ()
+    {
+        int s = state.get ();
+        while (s == SIGNALLING)
+        {
+            Thread.yield ();
+            s = state.get ();
+        }
+        return (s == DATA) || isPoisoned ();
+    }
+
+    public void writerPoison (int strength)
+    {
+        if (strength > 0)
+        {
+            poisonStrength = strength;
+            LockSupport.unpark (reader);
+            if (state.compareAndSet (ALTING, SIGNALLING))
+            {
+                alt.schedule ();
+                state.set (ALTING);
+            }
+        }
+    }
+
+    public void readerPoison (int strength)
+    {
+        if (strength > 0)
+        {
+            poisonStrength = strength;
+            LockSupport.unpark (writer);
+        }
+    }
+}
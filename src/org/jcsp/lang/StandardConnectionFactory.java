@@ -70,6 +70,30 @@ public class StandardConnectionFactory
         return new Any2AnyConnectionImpl<T>();
     }
 
+    /**
+     * Constructs a <code>One2OneConnection</code> that carries each request and
+     * reply through a single slot rather than over channels, allocating nothing
+     * per request.
+     *
+     * @return the connection.
+     */
+    public <T> One2OneConnection<T> createDirectOne2One()
+    {
+        return new DirectConnectionImpl<T>(false);
+    }
+
+    /**
+     * Constructs an <code>Any2OneConnection</code> that carries each request and
+     * reply through a single slot rather than over channels, allocating nothing
+     * per request.  Clients claim the connection in turn for each session.
+     *
+     * @return the connection.
+     */
+    public <T> Any2OneConnection<T> createDirectAny2One()
+    {
+        return new DirectConnectionImpl<T>(true);
+    }
+
     /**
      * @see ConnectionArrayFactory#createOne2One
      */
@@ -0,0 +1,99 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that many threads may add to at once without contending for the same
+ * cache line.  Each thread adds to one of a number of padded cells, chosen by its
+ * id, and the value of the counter is the sum of the cells.  It is used by the
+ * metrics classes, whose counters are updated on every communication.
+ * <P>
+ * A sum taken while the counter is being added to may or may not include those
+ * additions.
+ */
+final class StripedCounter
+{
+    /** The number of longs between cells, so that each has a cache line (and its neighbour) to itself */
+    private static final int PAD = 16;
+
+    /** The number of cells: a power of two, at least twice the number of processors, up to 64 */
+    private static final int CELLS;
+
+    static
+    {
+        int n = 2;
+        while ((n < 2 * Runtime.getRuntime().availableProcessors()) && (n < 64))
+            n <<= 1;
+        CELLS = n;
+    }
+
+    /** The cells, PAD apart */
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS * PAD);
+
+    /**
+     * Adds to the counter.
+     *
+     * @param delta the amount to add.
+     */
+    void add(long delta)
+    {
+        cells.getAndAdd(cell(), delta);
+    }
+
+    /**
+     * Returns the value of the counter.
+     */
+    long sum()
+    {
+        long sum = 0;
+        for (int i = 0; i < CELLS; i++)
+            sum += cells.get(i * PAD);
+        return sum;
+    }
+
+    /**
+     * Sets the counter to zero.  Additions made at the same time may or may not be lost.
+     */
+    void reset()
+    {
+        for (int i = 0; i < CELLS; i++)
+            cells.set(i * PAD, 0);
+    }
+
+    /**
+     * Returns the index of the cell of the invoking thread.
+     */
+    private static int cell()
+    {
+        final int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & (CELLS - 1)) * PAD;
+    }
+}
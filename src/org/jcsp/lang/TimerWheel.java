@@ -0,0 +1,400 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.lang;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This is the timer service shared by all {@link CSTimer} timeouts and sleeps.
+ * <H2>Description</H2>
+ * Rather than each waiting process making its own timed wait, each timeout is
+ * recorded as an {@link Alarm} in a hashed timing wheel, and a single daemon thread
+ * expires the alarms as their deadlines pass.  Timeouts of {@link Alternative}s
+ * schedule the <TT>Alternative</TT>, and sleeping processes are unparked.
+ * <P>
+ * Deadlines are <TT>System.nanoTime</TT> values.  The wheel has <TT>SLOTS</TT> slots,
+ * each covering a tick of <TT>2^TICK_SHIFT</TT> nanoseconds (about a millisecond):
+ * an alarm goes in the slot for its tick, however many turns of the wheel away that
+ * is.  Adding and cancelling an alarm is constant time.  The thread does not tick:
+ * it parks until the earliest deadline in the wheel, found from the next occupied
+ * slot, so it uses no processor time between alarms and expires each one as soon
+ * as its deadline is reached.
+ *
+ * @see org.jcsp.lang.CSTimer
+ */
+
+final class TimerWheel
+{
+  /** The number of slots in the wheel, a power of two. */
+  private static final int SLOTS = 1024;
+
+  /** Log (base 2) of the nanoseconds covered by one slot. */
+  private static final int TICK_SHIFT = 20;
+
+  /**
+   * A deadline held in the wheel.  An alarm may be held in only one wheel at a time,
+   * and its fields are guarded by that wheel's lock.
+   */
+  static abstract class Alarm
+  {
+    /** The deadline, as a <TT>System.nanoTime</TT> value. */
+    long deadline;
+
+    /** The tick of the slot holding this alarm. */
+    long tick;
+
+    /** The slot holding this alarm, or -1 if it is not in the wheel. */
+    int slot = -1;
+
+    /** The neighbouring alarms in the slot. */
+    Alarm prev, next;
+
+    /**
+     * Called by the wheel's thread, outside the wheel's lock, once the deadline has passed.
+     */
+    abstract void expire ();
+  }
+
+  /**
+   * Unparks a process sleeping in {@link TimerWheel#sleepUntil(long, String)}.
+   */
+  private static final class Wakeup extends Alarm
+  {
+    /** The thread of the sleeping process. */
+    private final Thread thread = Thread.currentThread ();
+
+    /** Set once the deadline has passed. */
+    volatile boolean expired = false;
+
+    void expire ()
+    {
+      expired = true;
+      LockSupport.unpark (thread);
+    }
+  }
+
+  /** The wheel used by all timers. */
+  private static final TimerWheel wheel = new TimerWheel ();
+
+  /** The lock guarding the wheel and its alarms. */
+  private final ReentrantLock lock = new ReentrantLock ();
+
+  /** The first alarm in each slot. */
+  private final Alarm[] head = new Alarm[SLOTS];
+
+  /** A bit for each slot that holds alarms. */
+  private final long[] occupied = new long[SLOTS / 64];
+
+  /** The number of alarms in the wheel. */
+  private int count = 0;
+
+  /** The nanoTime from which ticks are counted, so that every tick is positive. */
+  private final long origin = System.nanoTime ();
+
+  /** The lowest tick whose slot may hold alarms that have not expired. */
+  private long current = 0;
+
+  /**
+   * The deadline the thread is parked until.  Only valid while parked and timed are set.
+   */
+  private long wakeAt;
+
+  /** Set while the thread is parked waiting for a deadline or an alarm. */
+  private boolean parked = false;
+
+  /** Set if the thread is parked until wakeAt, rather than until an alarm is added. */
+  private boolean timed = false;
+
+  /** The thread expiring the alarms.  Started with the first alarm. */
+  private Thread thread = null;
+
+  /**
+   * Returns the wheel used by all timers.
+   */
+  static TimerWheel getInstance ()
+  {
+    return wheel;
+  }
+
+  /**
+   * Adds an alarm to the wheel.  If it is already in the wheel, it is moved.
+   *
+   * @param alarm the alarm to add.
+   * @param deadline its deadline, as a <TT>System.nanoTime</TT> value.
+   */
+  void add (final Alarm alarm, final long deadline)
+  {
+    lock.lock ();
+    try
+    {
+      if (alarm.slot >= 0)
+        unlink (alarm);
+      alarm.deadline = deadline;
+      alarm.tick = Math.max ((deadline - origin) >> TICK_SHIFT, current);
+      link (alarm);
+      if (thread == null)
+      {
+        thread = new Thread (new Runnable ()
+        {
+          public void run ()
+          {
+            expireAlarms ();
+          }
+        }, "JCSP TimerWheel");
+        thread.setDaemon (true);
+        thread.start ();
+      }
+      else if (parked && (!timed || ((deadline - wakeAt) < 0)))
+      {
+        parked = false;
+        LockSupport.unpark (thread);
+      }
+    }
+    finally
+    {
+      lock.unlock ();
+    }
+  }
+
+  /**
+   * Removes an alarm from the wheel.  Once this returns, the alarm will not be
+   * expired, unless its expiry has already started.
+   *
+   * @param alarm the alarm to remove.  It need not be in the wheel.
+   */
+  void cancel (final Alarm alarm)
+  {
+    lock.lock ();
+    try
+    {
+      if (alarm.slot >= 0)
+        unlink (alarm);
+    }
+    finally
+    {
+      lock.unlock ();
+    }
+  }
+
+  /**
+   * Parks the calling process until a deadline has passed.
+   *
+   * @param deadline the deadline, as a <TT>System.nanoTime</TT> value.
+   * @param from the method to name if the process is interrupted.
+   */
+  void sleepUntil (final long deadline, final String from)
+  {
+    if ((deadline - System.nanoTime ()) <= 0)
+      return;
+    final Wakeup wakeup = new Wakeup ();
+    add (wakeup, deadline);
+    while (!wakeup.expired)
+    {
+      LockSupport.park (this);
+      if (Thread.interrupted ())
+      {
+        cancel (wakeup);
+        throw new ProcessInterruptedException ("*** Thrown from " + from + "\n"
+                                               + new InterruptedException ().toString ());
+      }
+    }
+  }
+
+  /**
+   * Puts an alarm at the tail of the slot for its tick.
+   */
+  private void link (final Alarm alarm)
+  {
+    final int slot = (int) alarm.tick & (SLOTS - 1);
+    final Alarm first = head[slot];
+    if (first == null)
+    {
+      alarm.prev = alarm;
+      alarm.next = null;
+      head[slot] = alarm;
+      occupied[slot >>> 6] |= 1L << slot;
+    }
+    else
+    {
+      alarm.prev = first.prev;
+      alarm.next = null;
+      first.prev.next = alarm;
+      first.prev = alarm;
+    }
+    alarm.slot = slot;
+    count++;
+  }
+
+  /**
+   * Takes an alarm out of its slot.  The head of a slot keeps the slot's tail in its
+   * prev field.
+   */
+  private void unlink (final Alarm alarm)
+  {
+    final int slot = alarm.slot;
+    final Alarm first = head[slot];
+    if (alarm == first)
+    {
+      head[slot] = alarm.next;
+      if (alarm.next == null)
+        occupied[slot >>> 6] &= ~(1L << slot);
+      else
+        alarm.next.prev = alarm.prev;
+    }
+    else
+    {
+      alarm.prev.next = alarm.next;
+      if (alarm.next == null)
+        first.prev = alarm.prev;
+      else
+        alarm.next.prev = alarm.prev;
+    }
+    alarm.prev = null;
+    alarm.next = null;
+    alarm.slot = -1;
+    count--;
+  }
+
+  /**
+   * Returns the first occupied slot at or after the given one, wrapping round, or -1
+   * if the wheel is empty.
+   */
+  private int nextOccupied (final int slot)
+  {
+    int word = slot >>> 6;
+    long bits = occupied[word] & (-1L << slot);
+    for (int i = 0; i <= occupied.length; i++)
+    {
+      if (bits != 0)
+        return (word << 6) + Long.numberOfTrailingZeros (bits);
+      word = (word + 1) & (occupied.length - 1);
+      bits = occupied[word];
+    }
+    return -1;
+  }
+
+  /**
+   * The run method of the wheel's thread.  Each time round, it removes the alarms
+   * whose deadlines have passed and works out the next deadline.  It then expires the
+   * removed alarms or, if there were none, parks until that deadline.
+   */
+  private void expireAlarms ()
+  {
+    final int mask = SLOTS - 1;
+    while (true)
+    {
+      Alarm expired = null;
+      long wake = 0;
+      boolean any = false;
+      lock.lock ();
+      try
+      {
+        final long now = System.nanoTime ();
+        final long nowTick = (now - origin) >> TICK_SHIFT;
+
+        // Look at each occupied slot from the current tick up to now, taking out the
+        // alarms whose deadlines have passed.  Alarms for later turns are left in place.
+        final long span = Math.min (nowTick - current, SLOTS - 1);
+        final int first = (int) current & mask;
+        for (long d = 0; (d <= span) && (count > 0); d++)
+        {
+          final int from = (first + (int) d) & mask;
+          final int slot = nextOccupied (from);
+          d += (slot - from) & mask;
+          if (d > span)
+            break;
+          for (Alarm alarm = head[slot]; alarm != null;)
+          {
+            final Alarm next = alarm.next;
+            if ((alarm.tick <= nowTick) && ((alarm.deadline - now) <= 0))
+            {
+              unlink (alarm);
+              alarm.next = expired;
+              expired = alarm;
+            }
+            alarm = next;
+          }
+        }
+        current = nowTick;
+
+        // Find the earliest deadline.  It is in the first slot holding an alarm for this
+        // turn of the wheel or, if no slot does, every alarm has been looked at.
+        final int here = (int) nowTick & mask;
+        for (int d = 0; (d < SLOTS) && (count > 0); d++)
+        {
+          final int from = (here + d) & mask;
+          final int slot = nextOccupied (from);
+          d += (slot - from) & mask;
+          if (d >= SLOTS)
+            break;
+          boolean thisTurn = false;
+          for (Alarm alarm = head[slot]; alarm != null; alarm = alarm.next)
+          {
+            if (!any || ((alarm.deadline - wake) < 0))
+              wake = alarm.deadline;
+            any = true;
+            thisTurn |= (alarm.tick <= nowTick + d);
+          }
+          if (thisTurn)
+            break;
+        }
+        parked = (expired == null);
+        timed = any;
+        wakeAt = wake;
+      }
+      finally
+      {
+        lock.unlock ();
+      }
+
+      if (expired == null)
+      {
+        if (any)
+          LockSupport.parkNanos (this, wake - System.nanoTime ());
+        else
+          LockSupport.park (this);
+      }
+      while (expired != null)
+      {
+        final Alarm next = expired.next;
+        expired.next = null;
+        try
+        {
+          expired.expire ();
+        }
+        catch (RuntimeException e)
+        {
+          // An alarm must not stop the others from expiring
+        }
+        expired = next;
+      }
+    }
+  }
+}
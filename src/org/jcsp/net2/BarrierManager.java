@@ -1,9 +1,7 @@
 package org.jcsp.net2;
 
-import java.util.Hashtable;
-
 /**
- * Manages the networked Barriers in the system. This object wraps a Hashtable containing the NetBarrier data objects,
+ * Manages the networked Barriers in the system. This object wraps a table containing the NetBarrier data objects,
  * and manages the allocation and removal of NetBarrier front ends within the JCSP networking architecture. For
  * information on the NetBarrier, see the appropriate documentation.
  * 
@@ -19,10 +17,10 @@ final class BarrierManager
     private static int index = 50;
 
     /**
-     * The table containing the Barriers. An Integer (object wrapped int) is used as the key, and the BarrierData as the
+     * The table containing the Barriers. The barrier number is used as the key, and the BarrierData as the
      * value.
      */
-    private final Hashtable barriers = new Hashtable();
+    private final IntHashMap<BarrierData> barriers = new IntHashMap<BarrierData>();
 
     /**
      * Singleton instance of the BarrierManager
@@ -56,15 +54,14 @@ final class BarrierManager
     synchronized void create(BarrierData bd)
     {
         // First allocate the next available number for the Barrier index (VBN).
-        Integer objIndex = new Integer(index);
-        while (this.barriers.get(objIndex) != null)
-            objIndex = new Integer(++index);
+        while (this.barriers.get(index) != null)
+            ++index;
 
         // Now set the index of the BarrierData to the required index
         bd.vbn = index;
 
-        // And add the BarrierData at the given index in the Hashtable
-        this.barriers.put(objIndex, bd);
+        // And add the BarrierData at the given index in the table
+        this.barriers.put(index, bd);
 
         // Increment the index for the next allocation
         index++;
@@ -83,17 +80,15 @@ final class BarrierManager
     synchronized void create(int idx, BarrierData bd)
         throws IllegalArgumentException
     {
-        Integer objIndex = new Integer(idx);
-
         // First, ensure that no barrier of the given index already exists. If it does, throw an exception
-        if (this.barriers.get(objIndex) != null)
+        if (this.barriers.get(idx) != null)
             throw new IllegalArgumentException("Barrier of given number already exists.");
 
         // Now allocate the index to the BarrierData object
         bd.vbn = idx;
 
         // And put the new barrier into the list of barriers, and increment the next index if necessary
-        this.barriers.put(objIndex, bd);
+        this.barriers.put(idx, bd);
         if (idx == BarrierManager.index)
             BarrierManager.index++;
     }
@@ -107,8 +102,7 @@ final class BarrierManager
      */
     BarrierData getBarrier(int idx)
     {
-        Integer objIndex = new Integer(idx);
-        return (BarrierData)this.barriers.get(objIndex);
+        return this.barriers.get(idx);
     }
 
     /**
@@ -119,7 +113,6 @@ final class BarrierManager
      */
     void removeBarrier(BarrierData data)
     {
-        Integer objIndex = new Integer(data.vbn);
-        this.barriers.remove(objIndex);
+        this.barriers.remove(data.vbn);
     }
 }
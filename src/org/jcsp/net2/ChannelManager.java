@@ -1,7 +1,5 @@
 package org.jcsp.net2;
 
-import java.util.Hashtable;
-
 /**
  * A class used to manage the networked channels on the Node. This is an internal object to JCSP networking. For a
  * description of networked channels, see the relevant documentation.
@@ -19,10 +17,10 @@ final class ChannelManager
     private static int index = 50;
 
     /**
-     * The table containing the channels. An Integer (object wrapped int) is used as the key, and the ChannelData as the
+     * The table containing the channels. The channel number is used as the key, and the ChannelData as the
      * value.
      */
-    private final Hashtable channels = new Hashtable();
+    private final IntHashMap<ChannelData> channels = new IntHashMap<ChannelData>();
 
     /**
      * Singleton instance of the ChannelManager
@@ -56,15 +54,14 @@ final class ChannelManager
     synchronized void create(ChannelData cd)
     {
         // First allocate a new number for the channel
-        Integer objIndex = new Integer(index);
-        while (this.channels.get(objIndex) != null)
-            objIndex = new Integer(++index);
+        while (this.channels.get(index) != null)
+            ++index;
 
         // Set the index of the ChannelData
         cd.vcn = index;
 
-        // Now put the channel in the channel Hashtable
-        this.channels.put(objIndex, cd);
+        // Now put the channel in the channel table
+        this.channels.put(index, cd);
 
         // Finally increment the index for the next channel to be created
         index++;
@@ -84,15 +81,14 @@ final class ChannelManager
         throws IllegalArgumentException
     {
         // First check that a channel of the given index does not exist. If it does, throw an exception
-        Integer objIndex = new Integer(idx);
-        if (this.channels.get(objIndex) != null)
+        if (this.channels.get(idx) != null)
             throw new IllegalArgumentException("Channel of given number already exists.");
 
         // Set the index of the channel data
         cd.vcn = idx;
 
         // Now add the channel to the channels table
-        this.channels.put(objIndex, cd);
+        this.channels.put(idx, cd);
 
         // Update the index if necessary
         if (idx == ChannelManager.index)
@@ -108,8 +104,7 @@ final class ChannelManager
      */
     ChannelData getChannel(int idx)
     {
-        Integer objIndex = new Integer(idx);
-        return (ChannelData)this.channels.get(objIndex);
+        return this.channels.get(idx);
     }
 
     /**
@@ -120,8 +115,7 @@ final class ChannelManager
      */
     void removeChannel(ChannelData data)
     {
-        Integer objIndex = new Integer(data.vcn);
-        this.channels.remove(objIndex);
+        this.channels.remove(data.vcn);
     }
 
 }
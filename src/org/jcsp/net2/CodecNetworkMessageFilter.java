@@ -0,0 +1,787 @@
+package org.jcsp.net2;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Hashtable;
+
+/**
+ * A filter that encodes messages in a compact binary form instead of using Java serialization. Each message starts with
+ * a tag byte identifying how the rest of the message is encoded. The common types (null, the primitive wrappers,
+ * String, byte[], int[], long[], double[] and Object[]) have built in encodings. Other types are encoded by a Codec
+ * registered with a Registry, either hand written or a SchemaCodec built from a list of declared fields. Any other
+ * object is sent using an ObjectNetworkMessageFilter, so all Serializable objects can still be sent.
+ * <p>
+ * The filter is selected for a channel by passing it to the NetChannel factory methods, for example:
+ * </p>
+ * <p>
+ * <code>
+ * NetChannelInput in = NetChannel.net2one(new CodecNetworkMessageFilter.FilterRX());<br>
+ * NetChannelOutput out = NetChannel.one2net(location, new CodecNetworkMessageFilter.FilterTX());
+ * </code>
+ * </p>
+ * <p>
+ * Both ends of a channel must use the same codecs under the same IDs.
+ * </p>
+ * 
+ * @see NetworkMessageFilter
+ * @see ObjectNetworkMessageFilter
+ */
+public final class CodecNetworkMessageFilter
+{
+    /**
+     * The initial size of the buffer messages are encoded into. The buffer grows if a message is larger, and is reset
+     * to this size for the next message.
+     */
+    public static int BUFFER_SIZE = 256;
+
+    /**
+     * The lowest ID that can be used to register a Codec. Lower IDs are reserved for the built in encodings.
+     */
+    public static final int FIRST_CODEC_ID = 32;
+
+    /**
+     * The highest ID that can be used to register a Codec.
+     */
+    public static final int LAST_CODEC_ID = 255;
+
+    /*
+     * The tags of the built in encodings
+     */
+    private static final int NULL = 0;
+
+    private static final int BOOLEAN = 1;
+
+    private static final int BYTE = 2;
+
+    private static final int SHORT = 3;
+
+    private static final int CHAR = 4;
+
+    private static final int INTEGER = 5;
+
+    private static final int LONG = 6;
+
+    private static final int FLOAT = 7;
+
+    private static final int DOUBLE = 8;
+
+    private static final int STRING = 9;
+
+    private static final int BYTE_ARRAY = 10;
+
+    private static final int INT_ARRAY = 11;
+
+    private static final int LONG_ARRAY = 12;
+
+    private static final int DOUBLE_ARRAY = 13;
+
+    private static final int OBJECT_ARRAY = 14;
+
+    private static final int SERIALIZED = 15;
+
+    /**
+     * The Registry used by filters created without one
+     */
+    private static final Registry defaultRegistry = new Registry();
+
+    /**
+     * Private constructor. This class only holds the filter classes.
+     */
+    private CodecNetworkMessageFilter()
+    {
+        // Empty constructor
+    }
+
+    /**
+     * Gets the Registry used by filters created without one
+     * 
+     * @return The default Registry
+     */
+    public static Registry getDefaultRegistry()
+    {
+        return CodecNetworkMessageFilter.defaultRegistry;
+    }
+
+    /**
+     * Encodes and decodes objects of a single type.
+     */
+    public interface Codec
+    {
+        /**
+         * Writes an object to the output
+         * 
+         * @param obj
+         *            The object to encode. Never null.
+         * @param out
+         *            The output to write to. Nested objects can be written using writeValue.
+         * @throws IOException
+         *             Thrown if the object cannot be encoded
+         */
+        public void encode(Object obj, Output out)
+            throws IOException;
+
+        /**
+         * Reads an object written by encode from the input
+         * 
+         * @param in
+         *            The input to read from. Nested objects can be read using readValue.
+         * @return The decoded object
+         * @throws IOException
+         *             Thrown if the object cannot be decoded
+         */
+        public Object decode(Input in)
+            throws IOException;
+    }
+
+    /**
+     * A table of Codecs, indexed both by the class they encode and by the ID written before each encoded object.
+     */
+    public static final class Registry
+    {
+        /**
+         * The Codecs by class
+         */
+        private final Hashtable<Class<?>, Codec> byClass = new Hashtable<Class<?>, Codec>();
+
+        /**
+         * The IDs by class
+         */
+        private final Hashtable<Class<?>, Integer> idByClass = new Hashtable<Class<?>, Integer>();
+
+        /**
+         * The Codecs by ID
+         */
+        private final Codec[] byID = new Codec[CodecNetworkMessageFilter.LAST_CODEC_ID + 1];
+
+        /**
+         * Creates a new, empty, Registry
+         */
+        public Registry()
+        {
+            // Empty constructor
+        }
+
+        /**
+         * Registers a Codec for a class. The Codec is only used for objects of exactly that class, not subclasses.
+         * 
+         * @param id
+         *            The ID written before each object the Codec encodes. Between FIRST_CODEC_ID and LAST_CODEC_ID.
+         * @param type
+         *            The class the Codec encodes
+         * @param codec
+         *            The Codec
+         * @throws IllegalArgumentException
+         *             Thrown if the ID is out of range or already used, or the class already has a Codec
+         */
+        public synchronized void register(int id, Class<?> type, Codec codec)
+            throws IllegalArgumentException
+        {
+            if (id < CodecNetworkMessageFilter.FIRST_CODEC_ID || id > CodecNetworkMessageFilter.LAST_CODEC_ID)
+                throw new IllegalArgumentException("Codec ID must be between " + CodecNetworkMessageFilter.FIRST_CODEC_ID
+                                                   + " and " + CodecNetworkMessageFilter.LAST_CODEC_ID);
+            if (this.byID[id] != null)
+                throw new IllegalArgumentException("Codec ID " + id + " is already registered");
+            if (this.byClass.containsKey(type))
+                throw new IllegalArgumentException("A Codec is already registered for " + type.getName());
+            this.byID[id] = codec;
+            this.byClass.put(type, codec);
+            this.idByClass.put(type, Integer.valueOf(id));
+        }
+
+        /**
+         * Gets the Codec registered with an ID
+         * 
+         * @param id
+         *            The ID
+         * @return The Codec, or null if none is registered
+         */
+        Codec getCodec(int id)
+        {
+            return this.byID[id];
+        }
+
+        /**
+         * Gets the ID of the Codec registered for a class
+         * 
+         * @param type
+         *            The class
+         * @return The ID, or -1 if no Codec is registered
+         */
+        int getID(Class<?> type)
+        {
+            Integer id = this.idByClass.get(type);
+            return id == null ? -1 : id.intValue();
+        }
+    }
+
+    /**
+     * A Codec that encodes a list of declared fields of a class, in order. Primitive fields are written directly, and
+     * other fields are written with writeValue. The class must have a no argument constructor, which is used when
+     * decoding. Fields not in the list are left with the values set by that constructor.
+     */
+    public static final class SchemaCodec
+        implements Codec
+    {
+        /**
+         * The constructor used to create decoded objects
+         */
+        private final Constructor<?> constructor;
+
+        /**
+         * The fields encoded, in order
+         */
+        private final Field[] fields;
+
+        /**
+         * Creates a new SchemaCodec
+         * 
+         * @param type
+         *            The class to encode
+         * @param fieldNames
+         *            The names of the fields to encode, declared by the class itself
+         * @throws IllegalArgumentException
+         *             Thrown if a field does not exist, or the class has no no argument constructor
+         */
+        public SchemaCodec(Class<?> type, String[] fieldNames)
+            throws IllegalArgumentException
+        {
+            try
+            {
+                this.constructor = type.getDeclaredConstructor(new Class<?>[0]);
+                this.constructor.setAccessible(true);
+                this.fields = new Field[fieldNames.length];
+                for (int i = 0; i < fieldNames.length; i++)
+                {
+                    this.fields[i] = type.getDeclaredField(fieldNames[i]);
+                    this.fields[i].setAccessible(true);
+                }
+            }
+            catch (NoSuchFieldException nsfe)
+            {
+                throw new IllegalArgumentException("No such field in " + type.getName() + ": " + nsfe.getMessage());
+            }
+            catch (NoSuchMethodException nsme)
+            {
+                throw new IllegalArgumentException(type.getName() + " has no no argument constructor");
+            }
+        }
+
+        /**
+         * Writes the fields of the object
+         * 
+         * @param obj
+         *            The object to encode
+         * @param out
+         *            The output to write to
+         * @throws IOException
+         *             Thrown if a field cannot be read or written
+         */
+        public void encode(Object obj, Output out)
+            throws IOException
+        {
+            try
+            {
+                for (int i = 0; i < this.fields.length; i++)
+                {
+                    Field field = this.fields[i];
+                    Class<?> type = field.getType();
+                    if (type == Integer.TYPE)
+                        out.writeInt(field.getInt(obj));
+                    else if (type == Long.TYPE)
+                        out.writeLong(field.getLong(obj));
+                    else if (type == Double.TYPE)
+                        out.writeDouble(field.getDouble(obj));
+                    else if (type == Boolean.TYPE)
+                        out.writeBoolean(field.getBoolean(obj));
+                    else if (type == Float.TYPE)
+                        out.writeFloat(field.getFloat(obj));
+                    else if (type == Short.TYPE)
+                        out.writeShort(field.getShort(obj));
+                    else if (type == Byte.TYPE)
+                        out.writeByte(field.getByte(obj));
+                    else if (type == Character.TYPE)
+                        out.writeChar(field.getChar(obj));
+                    else
+                        out.writeValue(field.get(obj));
+                }
+            }
+            catch (IllegalAccessException iae)
+            {
+                throw new IOException("Cannot read field of " + obj.getClass().getName());
+            }
+        }
+
+        /**
+         * Creates a new object and reads its fields
+         * 
+         * @param in
+         *            The input to read from
+         * @return The decoded object
+         * @throws IOException
+         *             Thrown if the object cannot be created or a field cannot be set
+         */
+        public Object decode(Input in)
+            throws IOException
+        {
+            try
+            {
+                Object obj = this.constructor.newInstance(new Object[0]);
+                for (int i = 0; i < this.fields.length; i++)
+                {
+                    Field field = this.fields[i];
+                    Class<?> type = field.getType();
+                    if (type == Integer.TYPE)
+                        field.setInt(obj, in.readInt());
+                    else if (type == Long.TYPE)
+                        field.setLong(obj, in.readLong());
+                    else if (type == Double.TYPE)
+                        field.setDouble(obj, in.readDouble());
+                    else if (type == Boolean.TYPE)
+                        field.setBoolean(obj, in.readBoolean());
+                    else if (type == Float.TYPE)
+                        field.setFloat(obj, in.readFloat());
+                    else if (type == Short.TYPE)
+                        field.setShort(obj, in.readShort());
+                    else if (type == Byte.TYPE)
+                        field.setByte(obj, in.readByte());
+                    else if (type == Character.TYPE)
+                        field.setChar(obj, in.readChar());
+                    else
+                        field.set(obj, in.readValue());
+                }
+                return obj;
+            }
+            catch (IOException ioe)
+            {
+                throw ioe;
+            }
+            catch (Exception e)
+            {
+                // Creating the object or setting a field failed. Not an exception thrown by other filters, so we
+                // convert into an IOException
+                throw new IOException("Cannot decode " + this.constructor.getDeclaringClass().getName() + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * The stream messages are encoded into. Codecs write their objects using the DataOutput methods, and nested
+     * objects using writeValue.
+     */
+    public static final class Output
+        extends DataOutputStream
+    {
+        /**
+         * The buffer written to
+         */
+        private final ResettableByteArrayOutputStream baos;
+
+        /**
+         * The Registry holding the Codecs for non built in types
+         */
+        private final Registry registry;
+
+        /**
+         * Filter used for objects without an encoding. Created when first needed.
+         */
+        private ObjectNetworkMessageFilter.FilterTX fallback = null;
+
+        /**
+         * Creates a new Output
+         * 
+         * @param stream
+         *            The buffer to write to
+         * @param reg
+         *            The Registry to use
+         */
+        Output(ResettableByteArrayOutputStream stream, Registry reg)
+        {
+            super(stream);
+            this.baos = stream;
+            this.registry = reg;
+        }
+
+        /**
+         * Writes an object, preceded by the tag identifying its encoding
+         * 
+         * @param obj
+         *            The object to write. May be null.
+         * @throws IOException
+         *             Thrown if the object cannot be encoded
+         */
+        public void writeValue(Object obj)
+            throws IOException
+        {
+            if (obj == null)
+            {
+                this.write(CodecNetworkMessageFilter.NULL);
+                return;
+            }
+            Class<?> type = obj.getClass();
+            if (type == Integer.class)
+            {
+                this.write(CodecNetworkMessageFilter.INTEGER);
+                this.writeInt(((Integer)obj).intValue());
+            }
+            else if (type == String.class)
+            {
+                byte[] bytes = ((String)obj).getBytes("UTF-8");
+                this.write(CodecNetworkMessageFilter.STRING);
+                this.writeInt(bytes.length);
+                this.write(bytes);
+            }
+            else if (type == Long.class)
+            {
+                this.write(CodecNetworkMessageFilter.LONG);
+                this.writeLong(((Long)obj).longValue());
+            }
+            else if (type == Double.class)
+            {
+                this.write(CodecNetworkMessageFilter.DOUBLE);
+                this.writeDouble(((Double)obj).doubleValue());
+            }
+            else if (type == Boolean.class)
+            {
+                this.write(CodecNetworkMessageFilter.BOOLEAN);
+                this.writeBoolean(((Boolean)obj).booleanValue());
+            }
+            else if (type == Float.class)
+            {
+                this.write(CodecNetworkMessageFilter.FLOAT);
+                this.writeFloat(((Float)obj).floatValue());
+            }
+            else if (type == Short.class)
+            {
+                this.write(CodecNetworkMessageFilter.SHORT);
+                this.writeShort(((Short)obj).shortValue());
+            }
+            else if (type == Byte.class)
+            {
+                this.write(CodecNetworkMessageFilter.BYTE);
+                this.writeByte(((Byte)obj).byteValue());
+            }
+            else if (type == Character.class)
+            {
+                this.write(CodecNetworkMessageFilter.CHAR);
+                this.writeChar(((Character)obj).charValue());
+            }
+            else if (type == byte[].class)
+            {
+                byte[] array = (byte[])obj;
+                this.write(CodecNetworkMessageFilter.BYTE_ARRAY);
+                this.writeInt(array.length);
+                this.write(array);
+            }
+            else if (type == int[].class)
+            {
+                int[] array = (int[])obj;
+                this.write(CodecNetworkMessageFilter.INT_ARRAY);
+                this.writeInt(array.length);
+                for (int i = 0; i < array.length; i++)
+                    this.writeInt(array[i]);
+            }
+            else if (type == long[].class)
+            {
+                long[] array = (long[])obj;
+                this.write(CodecNetworkMessageFilter.LONG_ARRAY);
+                this.writeInt(array.length);
+                for (int i = 0; i < array.length; i++)
+                    this.writeLong(array[i]);
+            }
+            else if (type == double[].class)
+            {
+                double[] array = (double[])obj;
+                this.write(CodecNetworkMessageFilter.DOUBLE_ARRAY);
+                this.writeInt(array.length);
+                for (int i = 0; i < array.length; i++)
+                    this.writeDouble(array[i]);
+            }
+            else if (type == Object[].class)
+            {
+                Object[] array = (Object[])obj;
+                this.write(CodecNetworkMessageFilter.OBJECT_ARRAY);
+                this.writeInt(array.length);
+                for (int i = 0; i < array.length; i++)
+                    this.writeValue(array[i]);
+            }
+            else
+            {
+                int id = this.registry.getID(type);
+                if (id >= 0)
+                {
+                    this.write(id);
+                    this.registry.getCodec(id).encode(obj, this);
+                }
+                else
+                {
+                    // No encoding for this type. Fall back to serialization.
+                    if (this.fallback == null)
+                        this.fallback = new ObjectNetworkMessageFilter.FilterTX();
+                    byte[] bytes = this.fallback.filterTX(obj);
+                    this.write(CodecNetworkMessageFilter.SERIALIZED);
+                    this.writeInt(bytes.length);
+                    this.write(bytes);
+                }
+            }
+        }
+
+        /**
+         * Encodes a complete message
+         * 
+         * @param obj
+         *            The message
+         * @return The encoded bytes
+         * @throws IOException
+         *             Thrown if the message cannot be encoded
+         */
+        byte[] encode(Object obj)
+            throws IOException
+        {
+            // Reset the byte buffer to the buffer size, just in case a previous message caused it to grow
+            this.baos.reset(CodecNetworkMessageFilter.BUFFER_SIZE);
+            this.written = 0;
+            this.writeValue(obj);
+            this.flush();
+            return this.baos.toByteArray();
+        }
+    }
+
+    /**
+     * The stream messages are decoded from. Codecs read their objects using the DataInput methods, and nested objects
+     * using readValue.
+     */
+    public static final class Input
+        extends DataInputStream
+    {
+        /**
+         * The buffer read from
+         */
+        private final ResettableByteArrayInputStream bais;
+
+        /**
+         * The Registry holding the Codecs for non built in types
+         */
+        private final Registry registry;
+
+        /**
+         * Filter used for objects sent without an encoding. Created when first needed.
+         */
+        private ObjectNetworkMessageFilter.FilterRX fallback = null;
+
+        /**
+         * Creates a new Input
+         * 
+         * @param stream
+         *            The buffer to read from
+         * @param reg
+         *            The Registry to use
+         */
+        Input(ResettableByteArrayInputStream stream, Registry reg)
+        {
+            super(stream);
+            this.bais = stream;
+            this.registry = reg;
+        }
+
+        /**
+         * Reads an object written by writeValue
+         * 
+         * @return The object read. May be null.
+         * @throws IOException
+         *             Thrown if the object cannot be decoded
+         */
+        public Object readValue()
+            throws IOException
+        {
+            int tag = this.readUnsignedByte();
+            switch (tag)
+            {
+                case CodecNetworkMessageFilter.NULL:
+                    return null;
+                case CodecNetworkMessageFilter.BOOLEAN:
+                    return this.readBoolean() ? Boolean.TRUE : Boolean.FALSE;
+                case CodecNetworkMessageFilter.BYTE:
+                    return Byte.valueOf(this.readByte());
+                case CodecNetworkMessageFilter.SHORT:
+                    return Short.valueOf(this.readShort());
+                case CodecNetworkMessageFilter.CHAR:
+                    return Character.valueOf(this.readChar());
+                case CodecNetworkMessageFilter.INTEGER:
+                    return Integer.valueOf(this.readInt());
+                case CodecNetworkMessageFilter.LONG:
+                    return Long.valueOf(this.readLong());
+                case CodecNetworkMessageFilter.FLOAT:
+                    return Float.valueOf(this.readFloat());
+                case CodecNetworkMessageFilter.DOUBLE:
+                    return Double.valueOf(this.readDouble());
+                case CodecNetworkMessageFilter.STRING:
+                {
+                    byte[] bytes = new byte[this.readInt()];
+                    this.readFully(bytes);
+                    return new String(bytes, "UTF-8");
+                }
+                case CodecNetworkMessageFilter.BYTE_ARRAY:
+                {
+                    byte[] array = new byte[this.readInt()];
+                    this.readFully(array);
+                    return array;
+                }
+                case CodecNetworkMessageFilter.INT_ARRAY:
+                {
+                    int[] array = new int[this.readInt()];
+                    for (int i = 0; i < array.length; i++)
+                        array[i] = this.readInt();
+                    return array;
+                }
+                case CodecNetworkMessageFilter.LONG_ARRAY:
+                {
+                    long[] array = new long[this.readInt()];
+                    for (int i = 0; i < array.length; i++)
+                        array[i] = this.readLong();
+                    return array;
+                }
+                case CodecNetworkMessageFilter.DOUBLE_ARRAY:
+                {
+                    double[] array = new double[this.readInt()];
+                    for (int i = 0; i < array.length; i++)
+                        array[i] = this.readDouble();
+                    return array;
+                }
+                case CodecNetworkMessageFilter.OBJECT_ARRAY:
+                {
+                    Object[] array = new Object[this.readInt()];
+                    for (int i = 0; i < array.length; i++)
+                        array[i] = this.readValue();
+                    return array;
+                }
+                case CodecNetworkMessageFilter.SERIALIZED:
+                {
+                    byte[] bytes = new byte[this.readInt()];
+                    this.readFully(bytes);
+                    if (this.fallback == null)
+                        this.fallback = new ObjectNetworkMessageFilter.FilterRX();
+                    return this.fallback.filterRX(bytes);
+                }
+                default:
+                {
+                    Codec codec = this.registry.getCodec(tag);
+                    if (codec == null)
+                        throw new IOException("No Codec registered with ID " + tag);
+                    return codec.decode(this);
+                }
+            }
+        }
+
+        /**
+         * Decodes a complete message
+         * 
+         * @param bytes
+         *            The encoded message
+         * @return The decoded object
+         * @throws IOException
+         *             Thrown if the message cannot be decoded
+         */
+        Object decode(byte[] bytes)
+            throws IOException
+        {
+            this.bais.reset(bytes);
+            return this.readValue();
+        }
+    }
+
+    /**
+     * The receiving (decoding) filter
+     */
+    public static final class FilterRX
+        implements NetworkMessageFilter.FilterRx
+    {
+        /**
+         * The input messages are decoded from
+         */
+        private final Input input;
+
+        /**
+         * Creates a new decoding filter using the default Registry
+         */
+        public FilterRX()
+        {
+            this(CodecNetworkMessageFilter.defaultRegistry);
+        }
+
+        /**
+         * Creates a new decoding filter
+         * 
+         * @param registry
+         *            The Registry holding the Codecs to use
+         */
+        public FilterRX(Registry registry)
+        {
+            this.input = new Input(new ResettableByteArrayInputStream(new byte[0]), registry);
+        }
+
+        /**
+         * Decodes an incoming message
+         * 
+         * @param bytes
+         *            The bytes received
+         * @return The decoded object
+         * @throws IOException
+         *             Thrown if the message cannot be decoded
+         */
+        public Object filterRX(byte[] bytes)
+            throws IOException
+        {
+            return this.input.decode(bytes);
+        }
+    }
+
+    /**
+     * The sending (encoding) filter
+     */
+    public static final class FilterTX
+        implements NetworkMessageFilter.FilterTx
+    {
+        /**
+         * The output messages are encoded into
+         */
+        private final Output output;
+
+        /**
+         * Creates a new encoding filter using the default Registry
+         */
+        public FilterTX()
+        {
+            this(CodecNetworkMessageFilter.defaultRegistry);
+        }
+
+        /**
+         * Creates a new encoding filter
+         * 
+         * @param registry
+         *            The Registry holding the Codecs to use
+         */
+        public FilterTX(Registry registry)
+        {
+            this.output = new Output(new ResettableByteArrayOutputStream(CodecNetworkMessageFilter.BUFFER_SIZE),
+                    registry);
+        }
+
+        /**
+         * Encodes an outgoing message
+         * 
+         * @param obj
+         *            The object to send
+         * @return The encoded bytes
+         * @throws IOException
+         *             Thrown if the object cannot be encoded
+         */
+        public byte[] filterTX(Object obj)
+            throws IOException
+        {
+            return this.output.encode(obj);
+        }
+    }
+}
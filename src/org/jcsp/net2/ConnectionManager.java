@@ -1,12 +1,10 @@
 package org.jcsp.net2;
 
-import java.util.Hashtable;
-
 final class ConnectionManager
 {
     private static int index = 50;
 
-    private final Hashtable connections = new Hashtable();
+    private final IntHashMap<ConnectionData> connections = new IntHashMap<ConnectionData>();
 
     private static ConnectionManager instance = new ConnectionManager();
 
@@ -22,15 +20,14 @@ final class ConnectionManager
 
     synchronized void create(ConnectionData data)
     {
-        Integer objIndex = new Integer(index);
-        while (this.connections.get(objIndex) != null)
+        while (this.connections.get(index) != null)
         {
-            objIndex = new Integer(++index);
+            ++index;
         }
 
         data.vconnn = index;
 
-        this.connections.put(objIndex, data);
+        this.connections.put(index, data);
 
         index++;
     }
@@ -38,15 +35,14 @@ final class ConnectionManager
     synchronized void create(int idx, ConnectionData data)
         throws IllegalArgumentException
     {
-        Integer objIndex = new Integer(idx);
-        if (this.connections.get(objIndex) != null)
+        if (this.connections.get(idx) != null)
         {
             throw new IllegalArgumentException("Connection of given number already exists");
         }
 
         data.vconnn = idx;
 
-        this.connections.put(objIndex, data);
+        this.connections.put(idx, data);
 
         if (idx == ConnectionManager.index)
         {
@@ -56,13 +52,11 @@ final class ConnectionManager
 
     ConnectionData getConnection(int idx)
     {
-        Integer objIndex = new Integer(idx);
-        return (ConnectionData)this.connections.get(objIndex);
+        return this.connections.get(idx);
     }
 
     void removeConnection(ConnectionData data)
     {
-        Integer objIndex = new Integer(data.vconnn);
-        this.connections.remove(objIndex);
+        this.connections.remove(data.vconnn);
     }
 }
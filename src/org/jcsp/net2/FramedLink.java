@@ -0,0 +1,414 @@
+package org.jcsp.net2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.jcsp.lang.ChannelOutput;
+
+/**
+ * Abstract class representing a Link that frames messages directly into ByteBuffers rather than running Tx and Rx
+ * processes over a pair of streams. Outgoing messages are encoded into a direct buffer by the process sending them,
+ * queued behind any bytes not yet sent, and handed to transmit. Incoming bytes are handed to receive by the
+ * implementation, which decodes and deals with every complete message in the buffer. The frame format is the same as
+ * that used by the stream based Link, so a FramedLink may be connected to a stream based Link on the opposite Node.
+ * <p>
+ * transmit never blocks. When the connection cannot take all the queued bytes, the rest are sent by flush once the
+ * implementation finds the connection writable again. A process sending a message waits until its message has been
+ * sent, except for the thread calling receive: replies sent while dealing with incoming messages are only queued, so
+ * that the thread receiving for a Link (which may serve other Links as well) is never blocked by it.
+ * </p>
+ * <p>
+ * Child classes must override connect, createResources, destroyResources, activate, transmit and requestWritable, must
+ * call flush when the connection becomes writable, and must call failed if the underlying connection goes down.
+ * </p>
+ * 
+ * @see Link
+ */
+public abstract class FramedLink
+    extends Link
+{
+    /**
+     * The initial size of the outgoing and incoming buffers. A buffer is replaced with a larger one when a message does
+     * not fit.
+     */
+    public static int BUFFER_SIZE = 65536;
+
+    /**
+     * The size of the fixed part of each message. The type byte plus the two attributes.
+     */
+    private static final int HEADER_SIZE = 9;
+
+    /**
+     * Lock held while a message is encoded and transmitted, and waited on by processes whose messages are queued.
+     */
+    private final Object txLock = new Object();
+
+    /**
+     * The buffer outgoing messages are encoded into, ready to be written to. It holds the bytes not yet sent.
+     */
+    private ByteBuffer txBuffer;
+
+    /**
+     * The number of bytes queued for sending since the Link was created.
+     */
+    private long queued = 0;
+
+    /**
+     * The number of bytes sent since the Link was created.
+     */
+    private long sent = 0;
+
+    /**
+     * The thread currently calling receive, which must not wait for its replies to be sent.
+     */
+    private volatile Thread receiver = null;
+
+    /**
+     * Used to deal with each incoming message. The RxLoop is never run as a process.
+     */
+    private final RxLoop rxLoop;
+
+    /**
+     * Lock held while the Link is being marked as failed. This is not txLock, as a process may be waiting in transmit
+     * while the Link fails.
+     */
+    private final Object downLock = new Object();
+
+    /**
+     * Flag set once the Link has gone down. Messages sent after this point are replied to with LINK_LOST.
+     */
+    private volatile boolean down = false;
+
+    /**
+     * Creates a new FramedLink
+     */
+    protected FramedLink()
+    {
+        super(new FrameOutput());
+        ((FrameOutput)getTxChannel()).link = this;
+        this.txBuffer = ByteBuffer.allocateDirect(FramedLink.BUFFER_SIZE);
+        this.rxLoop = new RxLoop(getTxChannel(), null);
+    }
+
+    /**
+     * Starts delivering incoming bytes to receive. This is called when the Link is run, once it has connected, in
+     * place of starting the Tx and Rx processes.
+     * 
+     * @throws JCSPNetworkException
+     *             Thrown if the Link cannot be started
+     */
+    protected abstract void activate()
+        throws JCSPNetworkException;
+
+    /**
+     * Writes as many of the remaining bytes in the buffer to the remote Node as can be written without blocking. Only
+     * one process calls this method at a time.
+     * 
+     * @param buffer
+     *            The buffer holding one or more encoded messages
+     * @throws IOException
+     *             Thrown if the bytes cannot be written. The Link is treated as failed.
+     */
+    protected abstract void transmit(ByteBuffer buffer)
+        throws IOException;
+
+    /**
+     * Asks for flush to be called once the connection can take more bytes, or stops asking. Called with the transmit
+     * lock held, so this must not block.
+     * 
+     * @param interested
+     *            True if there are bytes waiting to be sent, false once they have all gone
+     */
+    protected abstract void requestWritable(boolean interested);
+
+    /**
+     * Decodes and deals with every complete message in the buffer. Any incomplete message at the end of the buffer is
+     * kept until more bytes have been received.
+     * 
+     * @param buffer
+     *            A buffer ready to be read from (i.e. flipped) containing the bytes received
+     * @return The buffer to receive into next, ready to be written to. This is either the buffer passed in, compacted,
+     *         or a larger buffer if the next message is too large to fit in it.
+     */
+    protected final ByteBuffer receive(ByteBuffer buffer)
+    {
+        synchronized (this.rxLoop)
+        {
+            this.receiver = Thread.currentThread();
+            try
+            {
+                return receiveMessages(buffer);
+            }
+            finally
+            {
+                this.receiver = null;
+            }
+        }
+    }
+
+    /**
+     * Decodes and deals with every complete message in the buffer. Called with the receive lock held.
+     * 
+     * @param buffer
+     *            A buffer ready to be read from containing the bytes received
+     * @return The buffer to receive into next
+     */
+    private ByteBuffer receiveMessages(ByteBuffer buffer)
+    {
+        while (buffer.remaining() >= FramedLink.HEADER_SIZE)
+        {
+            // Read the fixed part of the message, remembering where it starts in case it is incomplete
+            int start = buffer.position();
+            byte type = buffer.get();
+            int attr1 = buffer.getInt();
+            int attr2 = buffer.getInt();
+            byte[] bytes = null;
+
+            // Check if message has data element
+            if (FramedLink.hasData(type))
+            {
+                if (buffer.remaining() < 4)
+                {
+                    buffer.position(start);
+                    break;
+                }
+                int size = buffer.getInt();
+                if (buffer.remaining() < size)
+                {
+                    buffer.position(start);
+                    // If the message can never fit in this buffer move to a larger one
+                    if (FramedLink.HEADER_SIZE + 4 + size > buffer.capacity())
+                    {
+                        ByteBuffer larger = ByteBuffer.allocateDirect(FramedLink.sizeFor(FramedLink.HEADER_SIZE
+                                                                                         + 4 + size));
+                        larger.put(buffer);
+                        return larger;
+                    }
+                    break;
+                }
+                bytes = new byte[size];
+                buffer.get(bytes);
+            }
+
+            // Reconstruct the message object and deal with it
+            NetworkMessage msg = new NetworkMessage();
+            msg.type = type;
+            msg.attr1 = attr1;
+            msg.attr2 = attr2;
+            msg.data = bytes;
+            this.rxLoop.dispatch(msg);
+        }
+        buffer.compact();
+        return buffer;
+    }
+
+    /**
+     * Marks the Link as failed. The resources of the Link are destroyed, and anything waiting on the Link is informed
+     * that it has gone. Calling this more than once has no further effect.
+     */
+    protected final void failed()
+    {
+        synchronized (this.downLock)
+        {
+            if (this.down)
+                return;
+            this.down = true;
+        }
+        destroyResources();
+        synchronized (this.txLock)
+        {
+            // Release any process waiting for its message to be sent
+            this.txLock.notifyAll();
+        }
+        synchronized (this.rxLoop)
+        {
+            this.rxLoop.linkLost();
+        }
+    }
+
+    /**
+     * Sends as many of the queued bytes as the connection will take. Called by the implementation when the connection
+     * becomes writable again.
+     */
+    protected final void flush()
+    {
+        synchronized (this.txLock)
+        {
+            if (this.down)
+                return;
+            try
+            {
+                sendQueued();
+                return;
+            }
+            catch (IOException ioe)
+            {
+                // Something went wrong during I/O. Fail the Link below, outside of the lock.
+            }
+        }
+        failed();
+    }
+
+    /**
+     * Transmits the queued bytes, asking to be flushed if some are left, and wakes the processes whose messages have
+     * gone. Called with the transmit lock held.
+     * 
+     * @throws IOException
+     *             Thrown if the bytes cannot be written
+     */
+    private void sendQueued()
+        throws IOException
+    {
+        ByteBuffer buffer = this.txBuffer;
+        buffer.flip();
+        int before = buffer.remaining();
+        try
+        {
+            transmit(buffer);
+        }
+        finally
+        {
+            this.sent += before - buffer.remaining();
+            buffer.compact();
+        }
+        requestWritable(buffer.position() > 0);
+        this.txLock.notifyAll();
+    }
+
+    /**
+     * Starts the Link once it has connected.
+     */
+    final void startFraming()
+    {
+        activate();
+    }
+
+    /**
+     * Encodes a message, queues it and transmits what the connection will take. Unless called by the thread receiving
+     * for this Link, waits until the message has been sent.
+     * 
+     * @param msg
+     *            The message to send
+     */
+    final void send(NetworkMessage msg)
+    {
+        synchronized (this.txLock)
+        {
+            if (!this.down)
+            {
+                try
+                {
+                    // Make sure the buffer has room for the message behind those still queued
+                    boolean hasData = FramedLink.hasData(msg.type);
+                    int size = FramedLink.HEADER_SIZE + (hasData ? 4 + msg.data.length : 0);
+                    if (size > this.txBuffer.remaining())
+                    {
+                        ByteBuffer larger = ByteBuffer.allocateDirect(FramedLink.sizeFor(this.txBuffer.position()
+                                                                                         + size));
+                        this.txBuffer.flip();
+                        larger.put(this.txBuffer);
+                        this.txBuffer = larger;
+                    }
+
+                    // Write message to the buffer
+                    ByteBuffer buffer = this.txBuffer;
+                    buffer.put(msg.type);
+                    buffer.putInt(msg.attr1);
+                    buffer.putInt(msg.attr2);
+                    if (hasData)
+                    {
+                        buffer.putInt(msg.data.length);
+                        buffer.put(msg.data);
+                    }
+                    this.queued += size;
+                    long end = this.queued;
+                    sendQueued();
+
+                    // The thread receiving for this Link must never wait. Anyone else waits for their message to go.
+                    if (Thread.currentThread() != this.receiver)
+                    {
+                        while (this.sent < end && !this.down)
+                            this.txLock.wait();
+                    }
+                    return;
+                }
+                catch (InterruptedException ie)
+                {
+                    // The message is still queued and will be sent. Keep the interrupt for the process.
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                catch (IOException ioe)
+                {
+                    // Something went wrong during I/O. Fail the Link below, outside of the lock.
+                }
+            }
+            else
+            {
+                Link.bounceLinkLost(msg);
+                return;
+            }
+        }
+        failed();
+    }
+
+    /**
+     * Checks whether messages of the given type carry a data element.
+     * 
+     * @param type
+     *            The message type
+     * @return True if the message has a data element, false otherwise
+     */
+    private static boolean hasData(byte type)
+    {
+        return type == NetworkProtocol.SEND || type == NetworkProtocol.ARRIVED || type == NetworkProtocol.ASYNC_SEND;
+    }
+
+    /**
+     * Gets the size of buffer to allocate for a message of the given size.
+     * 
+     * @param size
+     *            The number of bytes needed
+     * @return The smallest power of two that is at least size and BUFFER_SIZE
+     */
+    private static int sizeFor(int size)
+    {
+        int capacity = Integer.highestOneBit(Math.max(size, FramedLink.BUFFER_SIZE));
+        return capacity < size ? capacity << 1 : capacity;
+    }
+
+    /**
+     * The output end used to send messages via a FramedLink. Each message is written directly by the process sending
+     * it.
+     */
+    static final class FrameOutput
+        implements ChannelOutput
+    {
+        /**
+         * The Link this output sends messages via. Set once the Link has been constructed.
+         */
+        FramedLink link;
+
+        /**
+         * Sends a message to the remote Node
+         * 
+         * @param object
+         *            The NetworkMessage to send
+         */
+        public void write(Object object)
+        {
+            this.link.send((NetworkMessage)object);
+        }
+
+        /**
+         * The output to a Link cannot be poisoned. Does nothing.
+         * 
+         * @param strength
+         *            Ignored
+         */
+        public void poison(int strength)
+        {
+            // Links are not poisoned
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.jcsp.net2;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An open addressed hash table keyed by int, used by the managers and Links to look up channels, barriers and
+ * connections by number. Lookups take no lock and allocate nothing, as they are made for every message a Link
+ * receives. Updates are synchronized on the table. Updates that happen while a lookup is in progress may or may not be
+ * seen by it.
+ */
+final class IntHashMap<V>
+{
+    /**
+     * An immutable key and value pair. An entry with a null value marks a removed key, so that lookups continue past
+     * it.
+     */
+    private static final class Entry<V>
+    {
+        /**
+         * The key of the entry
+         */
+        final int key;
+
+        /**
+         * The value of the entry, or null if the key has been removed
+         */
+        final V value;
+
+        /**
+         * Creates a new Entry
+         * 
+         * @param k
+         *            The key
+         * @param v
+         *            The value
+         */
+        Entry(int k, V v)
+        {
+            this.key = k;
+            this.value = v;
+        }
+    }
+
+    /**
+     * The slots of the table. The length is always a power of two, and at most half the slots are in use, so every
+     * lookup reaches an empty slot.
+     */
+    private volatile AtomicReferenceArray<Entry<V>> table;
+
+    /**
+     * The number of slots in use, including removed keys
+     */
+    private int used = 0;
+
+    /**
+     * The number of keys with a value
+     */
+    private int size = 0;
+
+    /**
+     * Creates a new, empty, IntHashMap
+     */
+    IntHashMap()
+    {
+        this.table = new AtomicReferenceArray<Entry<V>>(64);
+    }
+
+    /**
+     * Gets the value stored with a key
+     * 
+     * @param key
+     *            The key to look up
+     * @return The value, or null if there is none
+     */
+    V get(int key)
+    {
+        AtomicReferenceArray<Entry<V>> slots = this.table;
+        int mask = slots.length() - 1;
+        for (int i = IntHashMap.hash(key) & mask;; i = (i + 1) & mask)
+        {
+            Entry<V> entry = slots.get(i);
+            if (entry == null)
+                return null;
+            if (entry.key == key)
+                return entry.value;
+        }
+    }
+
+    /**
+     * Stores a value with a key, replacing any existing value
+     * 
+     * @param key
+     *            The key
+     * @param value
+     *            The value to store. Must not be null.
+     * @return The previous value, or null if there was none
+     */
+    synchronized V put(int key, V value)
+    {
+        AtomicReferenceArray<Entry<V>> slots = this.table;
+        int mask = slots.length() - 1;
+        int i = IntHashMap.hash(key) & mask;
+        for (Entry<V> entry = slots.get(i); entry != null; entry = slots.get(i))
+        {
+            if (entry.key == key)
+            {
+                slots.set(i, new Entry<V>(key, value));
+                if (entry.value == null)
+                    this.size++;
+                return entry.value;
+            }
+            i = (i + 1) & mask;
+        }
+        slots.set(i, new Entry<V>(key, value));
+        this.size++;
+        if (++this.used * 2 > slots.length())
+            rehash();
+        return null;
+    }
+
+    /**
+     * Removes the value stored with a key
+     * 
+     * @param key
+     *            The key
+     * @return The value removed, or null if there was none
+     */
+    synchronized V remove(int key)
+    {
+        AtomicReferenceArray<Entry<V>> slots = this.table;
+        int mask = slots.length() - 1;
+        for (int i = IntHashMap.hash(key) & mask;; i = (i + 1) & mask)
+        {
+            Entry<V> entry = slots.get(i);
+            if (entry == null)
+                return null;
+            if (entry.key == key)
+            {
+                if (entry.value != null)
+                {
+                    slots.set(i, new Entry<V>(key, null));
+                    this.size--;
+                }
+                return entry.value;
+            }
+        }
+    }
+
+    /**
+     * Gets a snapshot of the values in the table
+     * 
+     * @return The values, in no particular order
+     */
+    synchronized Object[] values()
+    {
+        AtomicReferenceArray<Entry<V>> slots = this.table;
+        Object[] values = new Object[this.size];
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++)
+        {
+            Entry<V> entry = slots.get(i);
+            if (entry != null && entry.value != null)
+                values[count++] = entry.value;
+        }
+        return values;
+    }
+
+    /**
+     * Copies the keys with values into a new table, dropping removed keys, and publishes it. The table is doubled in
+     * size if more than a quarter of its slots hold values.
+     */
+    private void rehash()
+    {
+        AtomicReferenceArray<Entry<V>> slots = this.table;
+        int length = slots.length();
+        if (this.size * 4 > length)
+            length *= 2;
+        AtomicReferenceArray<Entry<V>> larger = new AtomicReferenceArray<Entry<V>>(length);
+        int mask = length - 1;
+        for (int i = 0; i < slots.length(); i++)
+        {
+            Entry<V> entry = slots.get(i);
+            if (entry != null && entry.value != null)
+            {
+                int j = IntHashMap.hash(entry.key) & mask;
+                while (larger.get(j) != null)
+                    j = (j + 1) & mask;
+                larger.set(j, entry);
+            }
+        }
+        this.used = this.size;
+        this.table = larger;
+    }
+
+    /**
+     * Spreads the bits of a key, as channel numbers are usually allocated in sequence
+     * 
+     * @param key
+     *            The key
+     * @return The hash of the key
+     */
+    private static int hash(int key)
+    {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
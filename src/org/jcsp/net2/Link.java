@@ -4,16 +4,20 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.Iterator;
 
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.Alternative;
 import org.jcsp.lang.Any2OneChannel;
 import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
 import org.jcsp.lang.Channel;
-import org.jcsp.lang.ChannelInput;
 import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.JCSP_InternalError;
 import org.jcsp.lang.Parallel;
 import org.jcsp.lang.ProcessManager;
+import org.jcsp.util.Buffer;
 
 /**
  * Abstract class representing a Link. This class defines the two processes (Link TX, Link RX) where the network
@@ -49,7 +53,13 @@ public abstract class Link
      * The channel connected to the Link Tx process. This is used by channels, barriers, and the Link Rx to send
      * messages to the node this Link is connected to.
      */
-    private final Any2OneChannel txChannel = Channel.any2one();
+    private final Any2OneChannel txChannel;
+
+    /**
+     * The output end used to send messages to the remote Node. For a stream based Link this is the writing end of
+     * txChannel. For a FramedLink it writes each message straight into the Link's outgoing buffer.
+     */
+    private final ChannelOutput toTx;
 
     /**
      * The NodeID of the opposite end of the connection. This should be set either during construction, or during the
@@ -62,6 +72,23 @@ public abstract class Link
      */
     public static int LINK_PRIORITY = ProcessManager.PRIORITY_NORM;
 
+    /**
+     * The largest number of messages the Link Tx process writes before flushing its stream. Messages already waiting
+     * when a message is written are written with it, and the stream is flushed once, so a burst of messages is sent in
+     * as few packets as possible. The Tx channel also buffers this many messages, so that a single writer of
+     * ASYNC_SEND messages can run ahead and fill a batch: an asynchronous write then returns once its message is
+     * queued for the Tx process, rather than once the Tx process has taken it, and a message still queued when the
+     * Link goes down is answered with LINK_LOST. Setting this to 1 leaves the Tx channel unbuffered and flushes every
+     * message on its own. This must be set before the Link is created.
+     */
+    public static int TX_BATCH_SIZE = 64;
+
+    /**
+     * The time, in milliseconds, the Link Tx process waits for further messages before flushing a batch smaller than
+     * TX_BATCH_SIZE. The default of 0 never delays a message.
+     */
+    public static long TX_BATCH_LATENCY = 0;
+
     /**
      * Link priority for this Link. This is exposed to child classes to allow specific Link priorities for different
      * Link types.
@@ -69,18 +96,39 @@ public abstract class Link
     protected int priority = Link.LINK_PRIORITY;
 
     /**
-     * This Hashtable is used to keep track of the current output channels that are connected to this Link. In the
+     * This table is used to keep track of the current output channels that are connected to this Link. In the
      * outcome of a connection failure to the remote Node, the Link uses this table to notify all registered output
      * ends, allowing them to throw an exception instead of deadlocking.
      */
-    private Hashtable connectedOutputs = new Hashtable();
+    private IntHashMap<ChannelData> connectedOutputs = new IntHashMap<ChannelData>();
 
     /**
-     * This Hashtable is used to keep track of the current barriers that are connected to this Link. In the outcome of a
+     * This table is used to keep track of the current barriers that are connected to this Link. In the outcome of a
      * connection failure to the remote Node, the Link uses this table to notify all registered barriers, allowing them
      * to throw an exception instead of deadlocking.
      */
-    private Hashtable connectedBarriers = new Hashtable();
+    private IntHashMap<BarrierData> connectedBarriers = new IntHashMap<BarrierData>();
+
+    /**
+     * Creates a new stream based Link. The Tx and Rx processes are started when the Link is run.
+     */
+    protected Link()
+    {
+        this.txChannel = Link.TX_BATCH_SIZE > 1 ? Channel.any2one(new Buffer(Link.TX_BATCH_SIZE)) : Channel.any2one();
+        this.toTx = this.txChannel.out();
+    }
+
+    /**
+     * Creates a new Link that does not use the Tx and Rx processes. Used by FramedLink.
+     * 
+     * @param tx
+     *            The output end messages to the remote Node are written to
+     */
+    Link(ChannelOutput tx)
+    {
+        this.txChannel = null;
+        this.toTx = tx;
+    }
 
     /**
      * Returns the NodeID of the connected Link.
@@ -99,7 +147,7 @@ public abstract class Link
      */
     protected final ChannelOutput getTxChannel()
     {
-        return this.txChannel.out();
+        return this.toTx;
     }
 
     /**
@@ -154,32 +202,32 @@ public abstract class Link
             LinkManager.getInstance().lostLink(this);
 
             // Iterate through the registered channels and send them all LINK_LOST messages.
-            for (Iterator iter = this.connectedOutputs.values().iterator(); iter.hasNext();)
+            Object[] outputs = this.connectedOutputs.values();
+            for (int i = 0; i < outputs.length; i++)
             {
                 // Really we could send just the same LINK_LOST message to all channels. Aliasing should not be a
                 // concern
                 // as the channel will effectively be broken after this
-                ChannelOutput toChannel = ((ChannelData)iter.next()).toChannel;
+                ChannelOutput toChannel = ((ChannelData)outputs[i]).toChannel;
                 NetworkMessage message = new NetworkMessage();
                 message.type = NetworkProtocol.LINK_LOST;
                 toChannel.write(message);
             }
 
-            // Clear the table of registered channels, and then set it to null.
-            this.connectedOutputs.clear();
+            // Set the table of registered channels to null.
             this.connectedOutputs = null;
 
             // Now do the same for the barriers, sending LINK_LOST to each.
-            for (Iterator iter = this.connectedBarriers.values().iterator(); iter.hasNext();)
+            Object[] barriers = this.connectedBarriers.values();
+            for (int i = 0; i < barriers.length; i++)
             {
-                ChannelOutput toBar = ((BarrierData)iter.next()).toBarrier;
+                ChannelOutput toBar = ((BarrierData)barriers[i]).toBarrier;
                 NetworkMessage message = new NetworkMessage();
                 message.type = NetworkProtocol.LINK_LOST;
                 toBar.write(message);
             }
 
-            // Clear the table of registered barriers, and then set it to null.
-            this.connectedBarriers.clear();
+            // Set the table of registered barriers to null.
             this.connectedBarriers = null;
         }
     }
@@ -213,8 +261,7 @@ public abstract class Link
             // Otherwise the Link can take the channel. Add the channel to the table of registered channels.
             else
             {
-                Integer objIndex = new Integer(data.vcn);
-                this.connectedOutputs.put(objIndex, data);
+                this.connectedOutputs.put(data.vcn, data);
             }
         }
     }
@@ -230,13 +277,12 @@ public abstract class Link
         // Acquire a lock on the Link.
         synchronized (this)
         {
-            // All we need to do is ensure that the Hashtable of connected channels still exists. It is unlikely that
+            // All we need to do is ensure that the table of connected channels still exists. It is unlikely that
             // this occurrence can happen, but destroy may be called on the channel as the Link is going down.
             if (this.connectedOutputs != null)
             {
-                // Remove the channel from the registered channels Hashtable
-                Integer objIndex = new Integer(data.vcn);
-                this.connectedOutputs.remove(objIndex);
+                // Remove the channel from the registered channels table
+                this.connectedOutputs.remove(data.vcn);
             }
         }
     }
@@ -268,9 +314,8 @@ public abstract class Link
             }
             else
             {
-                // Otherwise add the barrier to the connected Hashtable of connected barriers
-                Integer objIndex = new Integer(data.vbn);
-                this.connectedBarriers.put(objIndex, data);
+                // Otherwise add the barrier to the table of connected barriers
+                this.connectedBarriers.put(data.vbn, data);
             }
         }
     }
@@ -291,8 +336,7 @@ public abstract class Link
             // going down.
             if (this.connectedBarriers != null)
             {
-                Integer objIndex = new Integer(data.vbn);
-                this.connectedBarriers.remove(objIndex);
+                this.connectedBarriers.remove(data.vbn);
             }
         }
     }
@@ -324,6 +368,13 @@ public abstract class Link
             }
         }
 
+        // A FramedLink has no Tx and Rx loops. It is started and its work carried out by the implementation.
+        if (this.txChannel == null)
+        {
+            startFraming();
+            return;
+        }
+
         // Create and start Tx and Rx loops.
         TxLoop txLoop = new TxLoop(this.txChannel.in(), this.txStream);
         RxLoop rxLoop = new RxLoop(this.txChannel.out(), this.rxStream);
@@ -337,29 +388,46 @@ public abstract class Link
         // At this point the Link has gone down. Should we be accepting messages? This should have really been
         // handled during the destroy resources stage. But just in case we send LINK_LOST messages appropriately.
         while (true)
+            bounceLinkLost((NetworkMessage)this.txChannel.in().read());
+    }
+
+    /**
+     * Replies to a message sent to a Link that has gone down with a LINK_LOST message.
+     * 
+     * @param msg
+     *            The message that could not be sent
+     */
+    static void bounceLinkLost(NetworkMessage msg)
+    {
+        NetworkMessage linkLost = new NetworkMessage();
+        linkLost.type = NetworkProtocol.LINK_LOST;
+        switch (msg.type)
         {
-            NetworkMessage linkLost = new NetworkMessage();
-            linkLost.type = NetworkProtocol.LINK_LOST;
-            NetworkMessage msg = (NetworkMessage)this.txChannel.in().read();
-            switch (msg.type)
-            {
-                // We only respond to certain message types.
-                case NetworkProtocol.SEND:
-                case NetworkProtocol.ASYNC_SEND:
-                    // Get the appropriate channel
-                    ChannelData chan = ChannelManager.getInstance().getChannel(msg.attr2);
-                    chan.toChannel.write(linkLost);
-                    break;
-
-                case NetworkProtocol.SYNC:
-                    // Get the appropriate barrier
-                    BarrierData bar = BarrierManager.getInstance().getBarrier(msg.attr2);
-                    bar.toBarrier.write(linkLost);
-                    break;
-            }
+            // We only respond to certain message types.
+            case NetworkProtocol.SEND:
+            case NetworkProtocol.ASYNC_SEND:
+                // Get the appropriate channel
+                ChannelData chan = ChannelManager.getInstance().getChannel(msg.attr2);
+                chan.toChannel.write(linkLost);
+                break;
+
+            case NetworkProtocol.SYNC:
+                // Get the appropriate barrier
+                BarrierData bar = BarrierManager.getInstance().getBarrier(msg.attr2);
+                bar.toBarrier.write(linkLost);
+                break;
         }
     }
 
+    /**
+     * Starts a Link that does not use the Tx and Rx processes. Overridden by FramedLink.
+     */
+    void startFraming()
+    {
+        // Only a FramedLink is created without a Tx channel
+        throw new JCSP_InternalError("Link created without a Tx channel");
+    }
+
     /**
      * The TxLoop for the Link. This could be implemented as a synchronized method call.
      * 
@@ -371,7 +439,17 @@ public abstract class Link
         /**
          * The input channel to the TX process. Channels and Barriers send outgoing messages via this channel
          */
-        private final ChannelInput input;
+        private final AltingChannelInput input;
+
+        /**
+         * Timer used to wait for further messages when TX_BATCH_LATENCY is set.
+         */
+        private final CSTimer timer = new CSTimer();
+
+        /**
+         * Used to wait for either a further message or the end of the batch latency.
+         */
+        private final Alternative alt;
 
         /**
          * The output stream connecting to the remote node's input stream.
@@ -386,10 +464,11 @@ public abstract class Link
          * @param stream
          *            The output stream connected to the remote node
          */
-        TxLoop(ChannelInput in, DataOutputStream stream)
+        TxLoop(AltingChannelInput in, DataOutputStream stream)
         {
             this.input = in;
             this.outputStream = stream;
+            this.alt = new Alternative(new Guard[] { in, this.timer });
         }
 
         /**
@@ -402,22 +481,13 @@ public abstract class Link
                 // Loop forever.
                 while (true)
                 {
-                    // Read in next message
-                    NetworkMessage msg = (NetworkMessage)this.input.read();
+                    // Read in next message and write it to the stream.
+                    write((NetworkMessage)this.input.read());
 
-                    // Write message to the stream.
-                    this.outputStream.writeByte(msg.type);
-                    this.outputStream.writeInt(msg.attr1);
-                    this.outputStream.writeInt(msg.attr2);
-
-                    // Check if message has data element
-                    if (msg.type == NetworkProtocol.SEND || msg.type == NetworkProtocol.ARRIVED
-                        || msg.type == NetworkProtocol.ASYNC_SEND)
-                    {
-                        // Write data element
-                        this.outputStream.writeInt(msg.data.length);
-                        this.outputStream.write(msg.data);
-                    }
+                    // Write any further messages that are waiting, up to the batch size, before flushing
+                    long deadline = this.timer.read() + Link.TX_BATCH_LATENCY;
+                    for (int batched = 1; batched < Link.TX_BATCH_SIZE && morePending(deadline); batched++)
+                        write((NetworkMessage)this.input.read());
 
                     // Flush the stream.
                     this.outputStream.flush();
@@ -429,6 +499,49 @@ public abstract class Link
                 destroyResources();
             }
         }
+
+        /**
+         * Writes a message to the stream without flushing it
+         * 
+         * @param msg
+         *            The message to write
+         * @throws IOException
+         *             Thrown if the message cannot be written
+         */
+        private void write(NetworkMessage msg)
+            throws IOException
+        {
+            this.outputStream.writeByte(msg.type);
+            this.outputStream.writeInt(msg.attr1);
+            this.outputStream.writeInt(msg.attr2);
+
+            // Check if message has data element
+            if (msg.type == NetworkProtocol.SEND || msg.type == NetworkProtocol.ARRIVED
+                || msg.type == NetworkProtocol.ASYNC_SEND)
+            {
+                // Write data element
+                this.outputStream.writeInt(msg.data.length);
+                this.outputStream.write(msg.data);
+            }
+        }
+
+        /**
+         * Checks whether a further message can be added to the current batch. If none is waiting, waits until the
+         * deadline for one to arrive.
+         * 
+         * @param deadline
+         *            The time after which the batch is flushed without waiting
+         * @return True if a message is ready to be read, false if the batch should be flushed
+         */
+        private boolean morePending(long deadline)
+        {
+            if (this.input.pending())
+                return true;
+            if (Link.TX_BATCH_LATENCY <= 0)
+                return false;
+            this.timer.setAlarm(deadline);
+            return this.alt.priSelect() == 0;
+        }
     }
 
     /**
@@ -457,6 +570,11 @@ public abstract class Link
          */
         private final ArrayList incomingEnrolledBarriers = new ArrayList();
 
+        /**
+         * The message handed to dispatch by a FramedLink, which has no input stream
+         */
+        private NetworkMessage framed;
+
         /**
          * Constructor for the RX part of the Link
          * 
@@ -484,20 +602,10 @@ public abstract class Link
                 ChannelData data = null;
                 BarrierData bar = null;
 
-                // Loop forever (or until something goes wrong)
-                while (true)
+                // Loop forever (or until something goes wrong). A FramedLink has only the one message to deal with.
+                NetworkMessage msg;
+                while ((msg = nextMessage()) != null)
                 {
-                    // Read in the next message from the stream
-                    byte type = this.inputStream.readByte();
-                    int attr1 = this.inputStream.readInt();
-                    int attr2 = this.inputStream.readInt();
-
-                    // Reconstruct the message object
-                    NetworkMessage msg = new NetworkMessage();
-                    msg.type = type;
-                    msg.attr1 = attr1;
-                    msg.attr2 = attr2;
-
                     // Now operate on the message
                     switch (msg.type)
                     {
@@ -509,22 +617,6 @@ public abstract class Link
                         case NetworkProtocol.SEND:
                         case NetworkProtocol.ASYNC_SEND:
 
-                            // First also read the data portion of the message
-
-                            // Read the size
-                            int size = this.inputStream.readInt();
-
-                            // Declare a buffer of the correct size
-                            byte[] bytes = new byte[size];
-
-                            // Now keeping reading from the stream until the buffer is filled
-                            int read = 0;
-                            while (read < size)
-                                read += this.inputStream.read(bytes, read, size - read);
-
-                            // Set the data part of the message to the buffer
-                            msg.data = bytes;
-
                             // Attach the channel to allow the acknowledge message to be sent later.
                             msg.toLink = this.toTxProcess;
 
@@ -851,7 +943,7 @@ public abstract class Link
                                         case BarrierDataState.OK_CLIENT:
 
                                             // TODO: Should we be checking that this Link is indeed connected to this
-                                            // Barrier? This would require the Hashtable of registered barriers to be
+                                            // Barrier? This would require the table of registered barriers to be
                                             // passed into this process.
 
                                             // Forward on the message
@@ -1027,19 +1119,88 @@ public abstract class Link
                 // First destroyResources as appropriate for the implementation
                 destroyResources();
 
-                // Now we wish to inform any server ends of a barrier that may have had enrollments via this Link that
-                // the Link is now dead.
-                Iterator iter = this.incomingEnrolledBarriers.iterator();
-                for (; iter.hasNext();)
-                {
-                    BarrierData bar = (BarrierData)iter.next();
-                    NetworkMessage message = new NetworkMessage();
-                    message.type = NetworkProtocol.LINK_LOST;
-                    bar.toBarrier.write(message);
-                }
+                // Now inform any barrier server ends enrolled via this Link
+                linkLost();
+            }
+        }
+
+        /**
+         * Reads the next message from the input stream. A FramedLink has no input stream, and the message it handed to
+         * dispatch is returned instead.
+         * 
+         * @return The next message, or null if a FramedLink has no further message
+         * @throws IOException
+         *             Thrown if the message cannot be read from the stream
+         */
+        private NetworkMessage nextMessage()
+            throws IOException
+        {
+            if (this.inputStream == null)
+            {
+                NetworkMessage msg = this.framed;
+                this.framed = null;
+                return msg;
+            }
+
+            // Read in the next message from the stream
+            byte type = this.inputStream.readByte();
+            int attr1 = this.inputStream.readInt();
+            int attr2 = this.inputStream.readInt();
+
+            // Reconstruct the message object
+            NetworkMessage msg = new NetworkMessage();
+            msg.type = type;
+            msg.attr1 = attr1;
+            msg.attr2 = attr2;
+
+            // SEND and ASYNC_SEND messages also carry a data portion
+            if (msg.type == NetworkProtocol.SEND || msg.type == NetworkProtocol.ASYNC_SEND)
+            {
+                // Read the size
+                int size = this.inputStream.readInt();
+
+                // Declare a buffer of the correct size
+                byte[] bytes = new byte[size];
+
+                // Now keeping reading from the stream until the buffer is filled
+                int read = 0;
+                while (read < size)
+                    read += this.inputStream.read(bytes, read, size - read);
+
+                // Set the data part of the message to the buffer
+                msg.data = bytes;
+            }
+            return msg;
+        }
 
-                this.incomingEnrolledBarriers.clear();
+        /**
+         * Deals with a message decoded by a FramedLink. The message is handled by run in the same way as a message read
+         * from the input stream of a stream based Link.
+         * 
+         * @param msg
+         *            The message received from the remote Node
+         */
+        void dispatch(NetworkMessage msg)
+        {
+            this.framed = msg;
+            run();
+        }
+
+        /**
+         * Informs any server ends of a barrier that may have had enrollments via this Link that the Link is now dead.
+         */
+        void linkLost()
+        {
+            Iterator iter = this.incomingEnrolledBarriers.iterator();
+            for (; iter.hasNext();)
+            {
+                BarrierData bar = (BarrierData)iter.next();
+                NetworkMessage message = new NetworkMessage();
+                message.type = NetworkProtocol.LINK_LOST;
+                bar.toBarrier.write(message);
             }
+
+            this.incomingEnrolledBarriers.clear();
         }
     }
 }
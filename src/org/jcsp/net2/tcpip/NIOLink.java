@@ -0,0 +1,392 @@
+package org.jcsp.net2.tcpip;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import org.jcsp.net2.FramedLink;
+import org.jcsp.net2.JCSPNetworkException;
+import org.jcsp.net2.Node;
+import org.jcsp.net2.NodeAddress;
+import org.jcsp.net2.NodeID;
+
+/**
+ * A concrete implementation of a Link that operates over a non-blocking SocketChannel. No processes are dedicated to
+ * an NIOLink. Messages are written to the SocketChannel from a direct buffer by the process sending them, and incoming
+ * messages are read and dealt with by one of a small pool of selector threads shared by all NIOLinks in the JVM. When
+ * the socket's send buffer is full, the bytes left over stay queued and the selector thread sends them once the
+ * channel is writable again, so a selector thread never blocks on a write. An NIOLink uses the same protocol as a
+ * TCPIPLink, and may be connected to a TCPIPLink on the opposite Node.
+ * <p>
+ * NIOLinks are created for TCPIPNodeAddresses when TCPIPNodeAddress.USE_NIO is set, or when the Node is initialised
+ * with an NIONodeFactory.
+ * </p>
+ * 
+ * @see FramedLink
+ * @see TCPIPLink
+ * @see TCPIPNodeAddress
+ */
+public final class NIOLink
+    extends FramedLink
+{
+    /**
+     * The number of selector threads shared by all NIOLinks. This must be set before the first NIOLink is started.
+     */
+    public static int SELECTOR_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The channel connected to the remote Node.
+     */
+    private volatile SocketChannel channel;
+
+    /**
+     * The address of the remote Node.
+     */
+    private TCPIPNodeAddress remoteAddress;
+
+    /**
+     * The selector process the Link is registered with. Set when the Link is activated.
+     */
+    SelectorPool.SelectorLoop loop = null;
+
+    /**
+     * The key of the channel's registration with the selector. Only used by the selector thread.
+     */
+    private SelectionKey key = null;
+
+    /**
+     * Set while there are queued bytes waiting for the channel to become writable.
+     */
+    private volatile boolean writeWanted = false;
+
+    /**
+     * The buffer incoming bytes are read into. Only used by the selector thread the Link is registered with.
+     */
+    private ByteBuffer rxBuffer;
+
+    /**
+     * Creates a new NIOLink
+     * 
+     * @param address
+     *            The address of the remote Node to connect to
+     * @throws JCSPNetworkException
+     *             Thrown if something goes wrong during the creation process
+     */
+    public NIOLink(TCPIPNodeAddress address)
+        throws JCSPNetworkException
+    {
+        try
+        {
+            // First check if we have an ip address in the string. If not, we assume that this is to be connected
+            // to the local machine but to a different JVM
+            if (address.getIpAddress().equals(""))
+            {
+                InetAddress toUse = TCPIPNodeAddress.getLocalIPAddress();
+                address.setIpAddress(toUse.getHostAddress());
+                address.setAddress(address.getIpAddress() + ":" + address.getPort());
+            }
+
+            // Connect the channel to the server on the remote Node. The channel stays blocking until the Link is
+            // activated
+            this.channel = SocketChannel.open(new InetSocketAddress(address.getIpAddress(), address.getPort()));
+            this.channel.socket().setTcpNoDelay(!TCPIPLink.NAGLE);
+            // Set the remote address
+            this.remoteAddress = address;
+            // We are not connected, so set connected to false.
+            this.connected = false;
+            // Log Node connection
+            Node.log.log(this.getClass(), "Link created to " + address.toString());
+        }
+        catch (IOException ioe)
+        {
+            // Something went wrong during connection. Log and throw exception
+            Node.err.log(this.getClass(), "Failed to create Link to " + address.toString());
+            throw new JCSPNetworkException("Failed to create NIOLink to: " + address.getAddress());
+        }
+    }
+
+    /**
+     * Creates a new NIOLink from a connected SocketChannel. This is used internally by JCSP
+     * 
+     * @param socketChannel
+     *            The channel to create the NIOLink with
+     * @param nodeID
+     *            The NodeID of the remote Node
+     * @throws JCSPNetworkException
+     *             Thrown if there is a problem during the connection
+     */
+    NIOLink(SocketChannel socketChannel, NodeID nodeID)
+        throws JCSPNetworkException
+    {
+        try
+        {
+            this.channel = socketChannel;
+            socketChannel.socket().setTcpNoDelay(!TCPIPLink.NAGLE);
+            this.remoteID = nodeID;
+            this.remoteAddress = (TCPIPNodeAddress)this.remoteID.getNodeAddress();
+            this.connected = true;
+            // Log Link creation and Link connection
+            Node.log.log(this.getClass(), "Link created to " + nodeID.toString());
+            Node.log.log(this.getClass(), "Link to " + nodeID.toString() + " connected");
+        }
+        catch (IOException ioe)
+        {
+            Node.err.log(this.getClass(), "Failed to create Link to " + nodeID.toString());
+            throw new JCSPNetworkException("Failed to create NIOLink to: " + nodeID.getNodeAddress().getAddress());
+        }
+    }
+
+    /**
+     * Connects the Link to the remote Node. Exchanges the NodeIDs. The exchange is carried out while the channel is
+     * still blocking.
+     * 
+     * @return True if the Link successfully connected to the remote Link
+     * @throws JCSPNetworkException
+     *             Thrown if something goes wrong during the connection
+     */
+    public boolean connect()
+        throws JCSPNetworkException
+    {
+        // First check if we are connected.
+        if (this.connected)
+            return true;
+
+        // Flag to determine if we are connected at the end of the process.
+        boolean toReturn = false;
+
+        try
+        {
+            // The streams are unbuffered, so nothing beyond the exchange is read from the channel
+            DataOutputStream outStream = new DataOutputStream(Channels.newOutputStream(this.channel));
+            DataInputStream inStream = new DataInputStream(Channels.newInputStream(this.channel));
+
+            // Write the string representation of our NodeID to the remote Node
+            outStream.writeUTF(Node.getInstance().getNodeID().toString());
+            outStream.flush();
+
+            // Read in the response from the opposite Node. OK if the connection is accepted, EXISTS otherwise.
+            String response = inStream.readUTF();
+            if (response.equalsIgnoreCase("OK"))
+            {
+                Node.log.log(this.getClass(), "Link to " + this.remoteAddress.toString() + " connected");
+                toReturn = true;
+            }
+
+            // Read in Remote NodeID as string
+            String nodeIDString = inStream.readUTF();
+            NodeID otherID = NodeID.parse(nodeIDString);
+
+            // First check we have a tcpip Node connection. This should always be the case
+            if (otherID.getNodeAddress() instanceof TCPIPNodeAddress)
+            {
+                this.remoteAddress = (TCPIPNodeAddress)otherID.getNodeAddress();
+                this.remoteID = otherID;
+                this.connected = toReturn;
+                return toReturn;
+            }
+            Node.err.log(this.getClass(), "Tried to connect a NIOLink to a non TCPIP connection");
+            throw new JCSPNetworkException("Tried to connect a NIOLink to a non TCPIP connection");
+        }
+        catch (IOException ioe)
+        {
+            Node.err.log(this.getClass(), "Failed to connect NIOLink to: " + this.remoteAddress.getAddress());
+            throw new JCSPNetworkException("Failed to connect NIOLink to: " + this.remoteAddress.getAddress());
+        }
+    }
+
+    /**
+     * Creates any required resources. The receive buffer is created when the Link is activated.
+     * 
+     * @return True if all resources were created OK. Always the case
+     * @throws JCSPNetworkException
+     *             Thrown if anything goes wrong during the creation process.
+     */
+    protected boolean createResources()
+        throws JCSPNetworkException
+    {
+        return true;
+    }
+
+    /**
+     * Registers the Link with one of the shared selector threads.
+     * 
+     * @throws JCSPNetworkException
+     *             Thrown if the selector threads cannot be started
+     */
+    protected void activate()
+        throws JCSPNetworkException
+    {
+        this.rxBuffer = ByteBuffer.allocateDirect(FramedLink.BUFFER_SIZE);
+        try
+        {
+            SelectorPool.register(this);
+        }
+        catch (IOException ioe)
+        {
+            Node.err.log(this.getClass(), "Failed to start NIOLink to " + this.remoteAddress.getAddress());
+            throw new JCSPNetworkException("Failed to start NIOLink to: " + this.remoteAddress.getAddress());
+        }
+    }
+
+    /**
+     * Writes as much of the buffer to the channel as the socket's send buffer will take. Until the Link is activated
+     * the channel is blocking, and all of it is written.
+     * 
+     * @param buffer
+     *            The buffer to write
+     * @throws IOException
+     *             Thrown if the channel has failed
+     */
+    protected void transmit(ByteBuffer buffer)
+        throws IOException
+    {
+        SocketChannel chan = this.channel;
+        if (chan == null)
+            throw new IOException("NIOLink closed");
+        while (buffer.hasRemaining() && chan.write(buffer) > 0)
+        {
+            // Keep writing while the channel takes bytes
+        }
+    }
+
+    /**
+     * Asks the selector thread to wait for the channel to become writable, or stops asking.
+     * 
+     * @param interested
+     *            True if there are bytes waiting to be sent
+     */
+    protected void requestWritable(boolean interested)
+    {
+        if (interested == this.writeWanted)
+            return;
+        this.writeWanted = interested;
+        // Only the selector thread changes the registration. It stops waiting once nothing is left to send.
+        SelectorPool.SelectorLoop selectorLoop = this.loop;
+        if (interested && selectorLoop != null)
+            selectorLoop.wantWrite(this);
+    }
+
+    /**
+     * Destroys any resources used by the Link
+     */
+    protected void destroyResources()
+    {
+        try
+        {
+            // We must ensure only one process can call destroy at any time
+            synchronized (this)
+            {
+                // Check that the channel is still in existence
+                if (this.channel != null)
+                {
+                    // Closing the channel also cancels its registration with the selectors
+                    SocketChannel chan = this.channel;
+                    this.channel = null;
+                    chan.close();
+                    // Remove the Link from the LinkManager
+                    this.lostLink();
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            // Hopefully nothing bad has happened. If it has, we still need to
+            // register the Link as lost
+            this.lostLink();
+        }
+    }
+
+    /**
+     * Gets the NodeAddress of the Node that this Link is connected to
+     * 
+     * @return The NodeAddress of the remotely connected Node
+     */
+    public NodeAddress getRemoteAddress()
+    {
+        return this.remoteAddress;
+    }
+
+    /**
+     * Makes the channel non-blocking and registers it for reading with the given selector. Called by the selector
+     * thread.
+     * 
+     * @param selector
+     *            The selector to register with
+     */
+    void register(Selector selector)
+    {
+        try
+        {
+            SocketChannel chan = this.channel;
+            if (chan != null)
+            {
+                chan.configureBlocking(false);
+                this.key = chan.register(selector, SelectionKey.OP_READ, this);
+                // Anything left queued while the channel was being registered is sent, or waited for, from here
+                flush();
+                enableWrite();
+            }
+        }
+        catch (IOException ioe)
+        {
+            failed();
+        }
+    }
+
+    /**
+     * Adds interest in the channel becoming writable to its registration, if there are bytes waiting. Called by the
+     * selector thread.
+     */
+    void enableWrite()
+    {
+        SelectionKey selectionKey = this.key;
+        if (this.writeWanted && selectionKey != null && selectionKey.isValid())
+            selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Sends the queued bytes. Called by the selector thread when the channel is writable. Interest in writability is
+     * dropped once nothing is left to send.
+     */
+    void writable()
+    {
+        flush();
+        SelectionKey selectionKey = this.key;
+        if (!this.writeWanted && selectionKey != null && selectionKey.isValid())
+            selectionKey.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * Reads the bytes available on the channel and deals with the messages received. Called by the selector thread
+     * when the channel is readable.
+     */
+    void readable()
+    {
+        try
+        {
+            SocketChannel chan = this.channel;
+            if (chan == null)
+                return;
+            if (chan.read(this.rxBuffer) < 0)
+            {
+                // The remote Node has closed the connection
+                failed();
+                return;
+            }
+            this.rxBuffer.flip();
+            this.rxBuffer = receive(this.rxBuffer);
+        }
+        catch (IOException ioe)
+        {
+            // Something went wrong during I/O. Destroy the Link.
+            failed();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.jcsp.net2.tcpip;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.jcsp.net2.JCSPNetworkException;
+import org.jcsp.net2.LinkServer;
+import org.jcsp.net2.Node;
+import org.jcsp.net2.NodeID;
+
+/**
+ * Concrete implementation of a LinkServer that listens on a ServerSocketChannel and creates an NIOLink for each
+ * accepted connection. The NodeIDs are exchanged while the accepted channel is still blocking. The NIOLink is then
+ * registered with one of the shared selector threads, so no process is started for it.
+ * 
+ * @see LinkServer
+ * @see NIOLink
+ */
+public final class NIOLinkServer
+    extends LinkServer
+{
+    /**
+     * The ServerSocketChannel this process listens on
+     */
+    private final ServerSocketChannel serv;
+
+    /**
+     * The NodeAddress that this LinkServer is listening on. This should be the same as the Node's address.
+     */
+    final TCPIPNodeAddress listeningAddress;
+
+    /**
+     * Creates LinkServer by wrapping round an existing bound ServerSocketChannel. Used internally by JCSP
+     * 
+     * @param serverChannel
+     *            The ServerSocketChannel to create the LinkServer with
+     */
+    NIOLinkServer(ServerSocketChannel serverChannel)
+    {
+        this.listeningAddress = new TCPIPNodeAddress(serverChannel.socket().getInetAddress().getHostAddress(),
+                serverChannel.socket().getLocalPort());
+        this.serv = serverChannel;
+    }
+
+    /**
+     * Creates a new NIOLinkServer listening on the given address
+     * 
+     * @param address
+     *            The address to listen on for new connections
+     * @throws JCSPNetworkException
+     *             Thrown if something goes wrong during the creation of the ServerSocketChannel
+     */
+    public NIOLinkServer(TCPIPNodeAddress address)
+        throws JCSPNetworkException
+    {
+        try
+        {
+            // First check if we have an ip address in the string
+            if (address.getIpAddress().equals(""))
+            {
+                InetAddress toUse = TCPIPNodeAddress.getLocalIPAddress();
+                address.setIpAddress(toUse.getHostAddress());
+                address.setAddress(address.getIpAddress() + ":" + address.getPort());
+            }
+
+            // Bind the channel. If no port number is supplied, one is chosen as we bind
+            InetAddress inetAddress = InetAddress.getByName(address.getIpAddress());
+            this.serv = ServerSocketChannel.open();
+            this.serv.socket().bind(new InetSocketAddress(inetAddress, address.getPort()), 10);
+            if (address.getPort() == 0)
+            {
+                address.setPort(this.serv.socket().getLocalPort());
+                address.setAddress(address.getIpAddress() + ":" + address.getPort());
+            }
+            this.listeningAddress = address;
+        }
+        catch (IOException ioe)
+        {
+            throw new JCSPNetworkException("Failed to create NIOLinkServer on: " + address.getAddress());
+        }
+    }
+
+    /**
+     * The run method for the NIOLinkServer process
+     */
+    public void run()
+    {
+        // Log start of Link Server
+        Node.log.log(this.getClass(), "NIO Link Server started on " + this.listeningAddress.getAddress());
+        try
+        {
+            // Now we loop until something goes wrong
+            while (true)
+            {
+                // Receive incoming connection
+                SocketChannel incoming = this.serv.accept();
+                Node.log.log(this.getClass(), "Received new incoming connection");
+                incoming.socket().setTcpNoDelay(!TCPIPLink.NAGLE);
+
+                // Now we want to receive the connecting Node's NodeID. The stream is unbuffered, so nothing else is
+                // read from the channel.
+                DataInputStream inStream = new DataInputStream(Channels.newInputStream(incoming));
+                String otherID = inStream.readUTF();
+                NodeID remoteID = NodeID.parse(otherID);
+
+                // First check we have a tcpip Node connection
+                if (remoteID.getNodeAddress() instanceof TCPIPNodeAddress)
+                {
+                    DataOutputStream outStream = new DataOutputStream(Channels.newOutputStream(incoming));
+                    Node.log.log(this.getClass(), "Received connection from: " + remoteID.toString());
+
+                    // Check if already connected
+                    if (requestLink(remoteID) == null)
+                    {
+                        // No existing connection to incoming Node exists. Keep connection
+                        outStream.writeUTF("OK");
+                        outStream.writeUTF(Node.getInstance().getNodeID().toString());
+                        outStream.flush();
+
+                        // Create Link, register, and start. Starting an NIOLink only registers it with a selector, so
+                        // it is run directly.
+                        NIOLink link = new NIOLink(incoming, remoteID);
+                        registerLink(link);
+                        link.run();
+                    }
+                    else
+                    {
+                        // We already have a connection to the incoming Node
+                        Node.log.log(this.getClass(), "Connection to " + remoteID
+                                                      + " already exists.  Informing remote Node.");
+
+                        // Write EXISTS and our NodeID, so the opposite Node can find its own connection
+                        outStream.writeUTF("EXISTS");
+                        outStream.writeUTF(Node.getInstance().getNodeID().toString());
+                        outStream.flush();
+                        incoming.close();
+                    }
+                }
+
+                // Address is not a TCPIP address. Close channel. This will cause an exception on the opposite Node
+                else
+                    incoming.close();
+            }
+        }
+        catch (IOException ioe)
+        {
+            // We can't really recover from this. This may happen if the network connection was lost.
+            // Log and fail
+            Node.err.log(this.getClass(), "NIOLinkServer failed.  " + ioe.getMessage());
+        }
+    }
+}
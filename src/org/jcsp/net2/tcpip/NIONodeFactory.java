@@ -0,0 +1,94 @@
+package org.jcsp.net2.tcpip;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
+
+import org.jcsp.lang.ProcessManager;
+import org.jcsp.net2.JCSPNetworkException;
+import org.jcsp.net2.Link;
+import org.jcsp.net2.Node;
+import org.jcsp.net2.NodeAddress;
+import org.jcsp.net2.NodeFactory;
+
+/**
+ * Used to initialise a Node that uses NIOLinks, connecting to the CNS / BNS. Initialising a Node with this factory sets
+ * TCPIPNodeAddress.USE_NIO, so every Link the Node creates is an NIOLink.
+ * 
+ * @see Node
+ * @see NodeFactory
+ * @see NIOLink
+ */
+public final class NIONodeFactory
+    extends NodeFactory
+{
+    /**
+     * Creates a new NIONodeFactory
+     * 
+     * @param addr
+     *            The address of the CNS / BNS
+     */
+    public NIONodeFactory(TCPIPNodeAddress addr)
+    {
+        this.cnsAddress = addr;
+    }
+
+    /**
+     * Creates a new NIONodeFactory
+     * 
+     * @param serverIP
+     *            The IP address of the CNS / BNS
+     */
+    public NIONodeFactory(String serverIP)
+    {
+        this.cnsAddress = new TCPIPNodeAddress(serverIP, 7890);
+    }
+
+    /**
+     * Initialises the Node, starting an NIOLinkServer on the local address
+     * 
+     * @param node
+     *            The Node to initialise
+     * @return A new NodeAddress which the Node is registered at
+     * @throws JCSPNetworkException
+     *             Thrown if something goes wrong during the Node initialisation process
+     */
+    protected NodeAddress initNode(Node node)
+        throws JCSPNetworkException
+    {
+        // Use NIO for all Links, and install TCPIPProtocolID
+        TCPIPNodeAddress.USE_NIO = true;
+        NodeAddress.installProtocol("tcpip", TCPIPProtocolID.getInstance());
+        try
+        {
+            InetAddress toUse = TCPIPNodeAddress.getLocalIPAddress();
+
+            // Create a new ServerSocketChannel listening on this address
+            ServerSocketChannel serv = ServerSocketChannel.open();
+            serv.socket().bind(new InetSocketAddress(toUse, 0), 10);
+
+            // Create the local address
+            TCPIPNodeAddress localAddr = new TCPIPNodeAddress(toUse.getHostAddress(), serv.socket().getLocalPort());
+
+            // Create and start the LinkServer
+            NIOLinkServer server = new NIOLinkServer(serv);
+            ProcessManager servProc = new ProcessManager(server);
+            servProc.setPriority(Link.LINK_PRIORITY);
+            servProc.start();
+
+            // Return the NodeAddress
+            return localAddr;
+        }
+        catch (UnknownHostException uhe)
+        {
+            throw new JCSPNetworkException("Failed to start NIOLinkServer.  Could not get local IP address.\n"
+                                           + uhe.getMessage());
+        }
+        catch (IOException ioe)
+        {
+            throw new JCSPNetworkException("Failed to open new Server Socket Channel.\n" + ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.jcsp.net2.tcpip;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.ProcessManager;
+import org.jcsp.net2.Link;
+import org.jcsp.net2.Node;
+
+/**
+ * The pool of selector threads shared by all NIOLinks. Each NIOLink is registered with one selector, chosen in turn,
+ * and the selector's process reads and deals with the incoming messages of all the Links registered with it, and sends
+ * the bytes they could not write straight away. The processes are started when the first NIOLink is registered.
+ */
+final class SelectorPool
+{
+    /**
+     * The selector processes. Null until the first NIOLink is registered.
+     */
+    private static SelectorLoop[] loops = null;
+
+    /**
+     * The index of the selector process the next NIOLink is registered with.
+     */
+    private static int next = 0;
+
+    /**
+     * Private constructor. The pool is used statically.
+     */
+    private SelectorPool()
+    {
+        // Empty constructor
+    }
+
+    /**
+     * Registers an NIOLink with one of the selector processes, starting the processes if necessary.
+     * 
+     * @param link
+     *            The NIOLink to register
+     * @throws IOException
+     *             Thrown if a selector cannot be opened
+     */
+    static synchronized void register(NIOLink link)
+        throws IOException
+    {
+        if (SelectorPool.loops == null)
+        {
+            SelectorLoop[] created = new SelectorLoop[Math.max(1, NIOLink.SELECTOR_THREADS)];
+            for (int i = 0; i < created.length; i++)
+                created[i] = new SelectorLoop();
+            for (int i = 0; i < created.length; i++)
+            {
+                ProcessManager proc = new ProcessManager(created[i]);
+                proc.setPriority(Link.LINK_PRIORITY);
+                proc.start();
+            }
+            SelectorPool.loops = created;
+        }
+        SelectorPool.loops[SelectorPool.next].register(link);
+        SelectorPool.next = (SelectorPool.next + 1) % SelectorPool.loops.length;
+    }
+
+    /**
+     * A process that waits on a single selector and deals with incoming data for each NIOLink registered with it.
+     */
+    static final class SelectorLoop
+        implements CSProcess
+    {
+        /**
+         * The selector the NIOLinks are registered with
+         */
+        private final Selector selector;
+
+        /**
+         * NIOLinks waiting to be registered. A channel can only be registered with a selector without blocking by the
+         * thread selecting on it.
+         */
+        private final ArrayList<NIOLink> pending = new ArrayList<NIOLink>();
+
+        /**
+         * NIOLinks with bytes waiting for their channel to become writable, whose registrations are to be changed by
+         * the thread selecting on them.
+         */
+        private final ArrayList<NIOLink> writers = new ArrayList<NIOLink>();
+
+        /**
+         * Creates a new SelectorLoop
+         * 
+         * @throws IOException
+         *             Thrown if the selector cannot be opened
+         */
+        SelectorLoop()
+            throws IOException
+        {
+            this.selector = Selector.open();
+        }
+
+        /**
+         * Adds an NIOLink to this selector, waking the selector so that the registration happens straight away.
+         * 
+         * @param link
+         *            The NIOLink to add
+         */
+        void register(NIOLink link)
+        {
+            link.loop = this;
+            synchronized (this.pending)
+            {
+                this.pending.add(link);
+            }
+            this.selector.wakeup();
+        }
+
+        /**
+         * Asks for an NIOLink to be told when its channel becomes writable, waking the selector so that the change is
+         * made straight away.
+         * 
+         * @param link
+         *            The NIOLink with bytes waiting to be sent
+         */
+        void wantWrite(NIOLink link)
+        {
+            synchronized (this.pending)
+            {
+                this.writers.add(link);
+            }
+            this.selector.wakeup();
+        }
+
+        /**
+         * The run method of the selector process
+         */
+        public void run()
+        {
+            while (true)
+            {
+                try
+                {
+                    this.selector.select();
+
+                    // Register any new Links
+                    synchronized (this.pending)
+                    {
+                        for (Iterator<NIOLink> iter = this.pending.iterator(); iter.hasNext();)
+                            iter.next().register(this.selector);
+                        this.pending.clear();
+
+                        // Wait for the channels of Links with bytes left to send to become writable
+                        for (Iterator<NIOLink> iter = this.writers.iterator(); iter.hasNext();)
+                            iter.next().enableWrite();
+                        this.writers.clear();
+                    }
+
+                    // Now deal with the Links that have data available
+                    for (Iterator<SelectionKey> iter = this.selector.selectedKeys().iterator(); iter.hasNext();)
+                    {
+                        SelectionKey key = iter.next();
+                        iter.remove();
+                        try
+                        {
+                            if (key.isValid() && key.isWritable())
+                                ((NIOLink)key.attachment()).writable();
+                            if (key.isValid() && key.isReadable())
+                                ((NIOLink)key.attachment()).readable();
+                        }
+                        catch (RuntimeException re)
+                        {
+                            // Do not let a single Link stop the selector serving the others
+                            Node.err.log(this.getClass(), "Failed to deal with NIOLink.  " + re);
+                        }
+                    }
+                }
+                catch (IOException ioe)
+                {
+                    // We can't really recover from this. Log and fail
+                    Node.err.log(this.getClass(), "NIO selector failed.  " + ioe.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.jcsp.net2.tcpip;
 
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
 import org.jcsp.net2.JCSPNetworkException;
 import org.jcsp.net2.Link;
 import org.jcsp.net2.LinkServer;
@@ -30,6 +34,14 @@ public final class TCPIPNodeAddress
      */
     private int port;
 
+    /**
+     * Flag to determine whether Links and LinkServers created from a TCPIPNodeAddress use NIO (NIOLink and
+     * NIOLinkServer) rather than a Socket per Link with its own Tx and Rx processes. Default is false. This must be set
+     * before the Node is initialised. The two implementations use the same protocol, so Nodes using either can be
+     * connected together.
+     */
+    public static boolean USE_NIO = false;
+
     /**
      * Creates a new TCPIPNodeAddress from an IP address and port
      * 
@@ -132,6 +144,8 @@ public final class TCPIPNodeAddress
     protected Link createLink()
         throws JCSPNetworkException
     {
+        if (TCPIPNodeAddress.USE_NIO)
+            return new NIOLink(this);
         return new TCPIPLink(this);
     }
 
@@ -145,9 +159,70 @@ public final class TCPIPNodeAddress
     protected LinkServer createLinkServer()
         throws JCSPNetworkException
     {
+        if (TCPIPNodeAddress.USE_NIO)
+            return new NIOLinkServer(this);
         return new TCPIPLinkServer(this);
     }
 
+    /**
+     * Gets the IP address of the local machine to use when none is given. Loopback, link local and local addresses are
+     * only used if there is no better IPv4 address available.
+     * 
+     * @return The local IP address to use
+     * @throws UnknownHostException
+     *             Thrown if the local IP addresses cannot be found
+     */
+    static InetAddress getLocalIPAddress()
+        throws UnknownHostException
+    {
+        // Get the local IP addresses
+        InetAddress[] local = InetAddress.getAllByName(InetAddress.getLocalHost().getHostName());
+        InetAddress toUse = InetAddress.getLocalHost();
+
+        // We basically have four types of addresses to worry about. Loopback (127), link local (169),
+        // local (192) and (possibly) global. Grade each 1, 2, 3, 4 and use highest scoring address. In all
+        // cases use first address of that score.
+        int current = 0;
+
+        // Loop until we have checked all the addresses
+        for (int i = 0; i < local.length; i++)
+        {
+            // Ensure we have an IPv4 address
+            if (local[i] instanceof Inet4Address)
+            {
+                // Get the first byte of the address
+                byte first = local[i].getAddress()[0];
+
+                // Now check the value
+                if (first == (byte)127 && current < 1)
+                {
+                    // We have a Loopback address
+                    current = 1;
+                    toUse = local[i];
+                }
+                else if (first == (byte)169 && current < 2)
+                {
+                    // We have a link local address
+                    current = 2;
+                    toUse = local[i];
+                }
+                else if (first == (byte)192 && current < 3)
+                {
+                    // We have a local address
+                    current = 3;
+                    toUse = local[i];
+                }
+                else
+                {
+                    // Assume the address is globally accessible and use by default.
+                    toUse = local[i];
+                    break;
+                }
+            }
+        }
+        return toUse;
+    }
+
     /**
      * Returns the TCPIPProtocolID
      * 
@@ -0,0 +1,129 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.plugNplay;
+
+import org.jcsp.lang.*;
+
+/**
+ * Copies each <TT>Object</TT> broadcast to it to its output channel.
+ * <H2>Description</H2>
+ * <TT>BroadcastWrite</TT> is used by {@link Delta} and {@link DynamicDelta}, one for
+ * each of their output channels.  It reads each value from its input end of a
+ * {@link One2BroadcastChannel} with an extended rendezvous, and writes it to its
+ * <TT>out</TT> channel before ending the rendezvous.  So, with a synchronising
+ * broadcast channel, the writer of the broadcast is released only when the value
+ * has been written to every output channel, in whatever order they are read.
+ * <P>
+ * A {@link PoisonException} thrown by its output channel is kept for the broadcasting
+ * process to find (see {@link #checkPoison}).  The processes are terminated by
+ * {@link #stop}.
+ */
+
+final class BroadcastWrite<T> implements CSProcess
+{
+   /** The input end of the broadcast channel */
+   private final ChannelInput<T> in;
+   
+   /** The channel to which to write */
+   private final ChannelOutput<T> out;
+   
+   /** Set before the broadcast that terminates this process */
+   private volatile boolean stopping = false;
+   
+   /** The poison thrown by the output channel, if any */
+   private volatile PoisonException poison;
+   
+   /**
+    * Construct a new <TT>BroadcastWrite</TT>.
+    *
+    * @param in the input end of the broadcast channel
+    * @param out the channel to which to write
+    */
+   BroadcastWrite(ChannelInput<T> in, ChannelOutput<T> out)
+   {
+      this.in = in;
+      this.out = out;
+   }
+   
+   /**
+    * Throws the poison thrown by the output channel of any of the processes, if any.
+    *
+    * @param procs the processes
+    */
+   static void checkPoison(BroadcastWrite<?>[] procs)
+   {
+      for (int i = 0; i < procs.length; i++)
+      {
+         final PoisonException p = procs[i].poison;
+         if (p != null)
+            throw p;
+      }
+   }
+   
+   /**
+    * Terminates the processes, which must all read from the given broadcast channel,
+    * and waits for them.
+    *
+    * @param procs the processes
+    * @param broadcast the output end of their broadcast channel
+    * @param writers the manager running them
+    */
+   static <T> void stop(BroadcastWrite<T>[] procs, ChannelOutput<T> broadcast, ProcessManager writers)
+   {
+      for (int i = 0; i < procs.length; i++)
+         procs[i].stopping = true;
+      broadcast.write(null);
+      writers.join();
+   }
+   
+   /**
+    * The main body of this process.
+    */
+   public void run()
+   {
+      while (true)
+      {
+         final T value = in.startRead();
+         try
+         {
+            if (stopping)
+               return;
+            out.write(value);
+         }
+         catch (PoisonException p)
+         {
+            poison = p;
+         }
+         finally
+         {
+            in.endRead();
+         }
+      }
+   }
+}
@@ -42,6 +42,11 @@ import org.jcsp.lang.*;
  * writes the reference to the Object in parallel down each of the Channels
  * in the out array.
  * <P>
+ * The Object is handed to the writing processes, one for each output Channel, through
+ * a synchronising {@link One2BroadcastChannel}, and the next Object is read only once
+ * all of them have written it.  The writing processes are started once, when this
+ * process starts, rather than for each Object.
+ * <P>
  * <H2>Channel Protocols</H2>
  * <TABLE BORDER="2">
  *   <TR>
@@ -69,13 +74,13 @@ import org.jcsp.lang.*;
  *
  * @author P.H. Welch and P.D. Austin
  */
-public final class Delta implements CSProcess
+public final class Delta<T> implements CSProcess
 {
    /** The input Channel */
-   private ChannelInput  in;
+   private ChannelInput<T>  in;
    
    /** The output Channels */
-   private ChannelOutput[] out;
+   private ChannelOutput<T>[] out;
    
    /**
     * Construct a new Delta process with the input Channel in and the output
@@ -85,7 +90,7 @@ public final class Delta implements CSProcess
     * @param in the input channel
     * @param out the output Channels
     */
-   public Delta(ChannelInput in, ChannelOutput[] out)
+   public Delta(ChannelInput<T> in, ChannelOutput<T>[] out)
    {
       this.in   = in;
       this.out = out;
@@ -96,18 +101,18 @@ public final class Delta implements CSProcess
     */
    public void run()
    {
+      final One2BroadcastChannel<T> values = Channel.one2broadcast(out.length);
+      final BroadcastWrite<T>[] procs = newWriters(out.length);
+      for (int i = 0; i < out.length; i++)
+         procs[i] = new BroadcastWrite<T>(values.in(i), out[i]);
+      final ProcessManager writers = new ProcessManager(new Parallel(procs));
+      writers.start();
+      final ChannelOutput<T> broadcast = values.out();
       try {
-         ProcessWrite[] procs = new ProcessWrite[out.length];
-         for (int i = 0; i < out.length; i++)
-            procs[i] = new ProcessWrite(out[i]);
-         Parallel par = new Parallel(procs);
-      
          while (true)
          {
-            Object value = in.read();
-            for (int i = 0; i < out.length; i++)
-               procs[i].value = value;
-            par.run();
+            broadcast.write(in.read());
+            BroadcastWrite.checkPoison(procs);
          }
       } catch (PoisonException p) {
          // <i>don't know which channel was posioned ... so, poison them all!</i>
@@ -116,7 +121,16 @@ public final class Delta implements CSProcess
          for  (int i = 0; i < out.length; i++) {
             out[i].poison (strength);
          }
+      } finally {
+         BroadcastWrite.stop(procs, broadcast, writers);
       }
    }
+   
+   @SuppressWarnings("unchecked")
+   private static <T> BroadcastWrite<T>[] newWriters(int n)
+   {
+      // an array of a generic type can only be made raw
+      return new BroadcastWrite[n];
+   }
 
 }
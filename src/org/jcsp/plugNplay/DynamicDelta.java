@@ -47,7 +47,9 @@ import org.jcsp.lang.*;
  * channel to become ready, giving priority to <TT>configure</TT>.
  * <P>
  * Anything arriving from <TT>in</TT> is broadcast <I>in parallel</I> down each element
- * of its array of <TT>out</TT> channels.
+ * of its array of <TT>out</TT> channels.  It is handed to the writing processes, one
+ * for each output channel, through a synchronising {@link One2BroadcastChannel}; they
+ * are only replaced when the output channels have changed.
  * <P>
  * The <TT>configure</TT> channel delivers <TT>ChannelOutput</TT> channels -- anything
  * else is discarded.  If the delivered <TT>ChannelOutput</TT> channel is <I>not</I>
@@ -88,13 +90,16 @@ import org.jcsp.lang.*;
  *
  * @author P.H. Welch and P.D. Austin
  */
-public final class DynamicDelta implements CSProcess
+public final class DynamicDelta<T> implements CSProcess
 {
-   private AltingChannelInput in;
-   private AltingChannelInput config;
+   private AltingChannelInput<T> in;
+   private AltingChannelInput<?> config;
    
-   private Hashtable hash;
-   private Parallel par;
+   /** The output channels */
+   private final ArrayList<ChannelOutput<T>> outs = new ArrayList<ChannelOutput<T>>();
+   
+   /** Whether the output channels have changed since the broadcast was set up */
+   private boolean changed = true;
    
    /**
     * Construct a new <TT>DynamicDelta</TT> process with the input channel <TT>in</TT> and
@@ -103,7 +108,7 @@ public final class DynamicDelta implements CSProcess
     * @param in the input Channel
     * @param config the configuration Channel
     */
-   public DynamicDelta(AltingChannelInput in, AltingChannelInput config)
+   public DynamicDelta(AltingChannelInput<T> in, AltingChannelInput<?> config)
    {
       this(in, config, null);
    }
@@ -118,18 +123,14 @@ public final class DynamicDelta implements CSProcess
     * @param config the configuration channel
     * @param out the output channels
     */
-   public DynamicDelta(AltingChannelInput in, AltingChannelInput config, ChannelOutput[] out)
+   public DynamicDelta(AltingChannelInput<T> in, AltingChannelInput<?> config, ChannelOutput<T>[] out)
    {
       this.in  = in;
-      par = new Parallel();
       if (out != null)
       {
-         hash = new Hashtable(out.length);
          for (int i = 0; i < out.length; i++)
             addOutputChannel(out[i]);
       }
-      else
-         hash = new Hashtable();
       this.config = config;
    }
    
@@ -138,31 +139,71 @@ public final class DynamicDelta implements CSProcess
     */
    public void run()
    {
-      AltingChannelInput[] chans = {config, in};
+      AltingChannelInput<?>[] chans = {config, in};
       Alternative alt = new Alternative(chans);
-      while (true)
+      BroadcastWrite<T>[] procs = null;
+      ProcessManager writers = null;
+      ChannelOutput<T> broadcast = null;
+      try
       {
-         switch (alt.priSelect())
+         while (true)
          {
-            case 0:
-               Object object = config.read();
-               if (object instanceof ChannelOutput)
-               {
-                  if (hash.containsKey(object))
-                     removeOutputChannel((ChannelOutput) object);
-                  else
-                     addOutputChannel((ChannelOutput) object);
-               }
-               break;
-            case 1:
-               Object message = in.read();
-               Enumeration hashChans = hash.elements();
-               while (hashChans.hasMoreElements())
-                  ((ProcessWrite) hashChans.nextElement()).value = message;
-               par.run();
-               break;
+            switch (alt.priSelect())
+            {
+               case 0:
+                  Object object = config.read();
+                  if (object instanceof ChannelOutput)
+                     configure((ChannelOutput<?>) object);
+                  break;
+               case 1:
+                  T message = in.read();
+                  if (changed)
+                  {
+                     // replace the processes writing to the old set of channels
+                     if (writers != null)
+                        BroadcastWrite.stop(procs, broadcast, writers);
+                     One2BroadcastChannel<T> values = Channel.one2broadcast(outs.size());
+                     procs = newWriters(outs.size());
+                     for (int i = 0; i < procs.length; i++)
+                        procs[i] = new BroadcastWrite<T>(values.in(i), outs.get(i));
+                     writers = new ProcessManager(new Parallel(procs));
+                     writers.start();
+                     broadcast = values.out();
+                     changed = false;
+                  }
+                  broadcast.write(message);
+                  BroadcastWrite.checkPoison(procs);
+                  break;
+            }
          }
       }
+      finally
+      {
+         if (writers != null)
+            BroadcastWrite.stop(procs, broadcast, writers);
+      }
+   }
+   
+   @SuppressWarnings("unchecked")
+   private static <T> BroadcastWrite<T>[] newWriters(int n)
+   {
+      // an array of a generic type can only be made raw
+      return new BroadcastWrite[n];
+   }
+   
+   /**
+    * Adds a Channel delivered on the configure Channel to the list of output
+    * Channels, or removes it if it is already there.
+    */
+   @SuppressWarnings("unchecked")
+   private void configure(ChannelOutput<?> c)
+   {
+      // The configure Channel carries the output Channels for the Objects of in
+      ChannelOutput<T> out = (ChannelOutput<T>) c;
+      if (outs.contains(out))
+         removeOutputChannel(out);
+      else
+         addOutputChannel(out);
    }
    
    /**
@@ -170,11 +211,10 @@ public final class DynamicDelta implements CSProcess
     * private as the only way clients can add Channels is via the
     * configure Channel.
     */
-   private void addOutputChannel(ChannelOutput c)
+   private void addOutputChannel(ChannelOutput<T> c)
    {
-      ProcessWrite p = new ProcessWrite(c);
-      par.addProcess(p);
-      hash.put(c, p);
+      outs.add(c);
+      changed = true;
    }
    
    /**
@@ -182,10 +222,9 @@ public final class DynamicDelta implements CSProcess
     * private as the only way clients can remove Channels is via the
     * configure Channel.
     */
-   private void removeOutputChannel(ChannelOutput c)
+   private void removeOutputChannel(ChannelOutput<T> c)
    {
-      ProcessWrite p = (ProcessWrite) hash.get(c);
-      par.removeProcess(p);
-      hash.remove(c);
+      outs.remove(c);
+      changed = true;
    }
 }
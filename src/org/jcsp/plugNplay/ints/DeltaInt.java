@@ -37,9 +37,14 @@ import org.jcsp.lang.*;
  * <H2>Process Diagram</H2>
  * <p><IMG SRC="doc-files/DeltaInt1.gif"></p>
  * <H2>Description</H2>
- * <TT>Delta2Int</TT> is a process that broadcasts (<I>in parallel</I>) on its
+ * <TT>DeltaInt</TT> is a process that broadcasts (<I>in parallel</I>) on its
  * array of output channels everything that arrives on its input channel.
  * <P>
+ * The integer is handed to the writing processes, one for each output channel, through
+ * a synchronising {@link One2BroadcastChannelInt}, and the next integer is read only
+ * once all of them have written it.  The writing processes are started once, when this
+ * process starts, rather than for each integer.
+ * <P>
  * <H2>Channel Protocols</H2>
  * <TABLE BORDER="2">
  *   <TR>
@@ -95,17 +100,24 @@ public final class DeltaInt implements CSProcess
     */
    public void run()
    {
-      final ProcessWriteInt[] procs = new ProcessWriteInt[out.length];
+      final One2BroadcastChannelInt values = Channel.one2broadcastInt(out.length);
+      final BroadcastWriteInt[] procs = new BroadcastWriteInt[out.length];
       for (int i = 0; i < out.length; i++)
-         procs[i] = new ProcessWriteInt(out[i]);
-      Parallel par = new Parallel(procs);
-      
-      while (true)
+         procs[i] = new BroadcastWriteInt(values.in(i), out[i]);
+      final ProcessManager writers = new ProcessManager(new Parallel(procs));
+      writers.start();
+      final ChannelOutputInt broadcast = values.out();
+      try
+      {
+         while (true)
+         {
+            broadcast.write(in.read());
+            BroadcastWriteInt.checkPoison(procs);
+         }
+      }
+      finally
       {
-         final int value = in.read();
-         for (int i = 0; i < out.length; i++)
-            procs[i].value = value;
-         par.run();
+         BroadcastWriteInt.stop(procs, broadcast, writers);
       }
    }
 }
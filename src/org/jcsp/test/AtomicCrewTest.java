@@ -0,0 +1,256 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jcsp.lang.AtomicCrew;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Parallel;
+import org.jcsp.lang.ProcessInterruptedException;
+import org.jcsp.lang.ProcessManager;
+
+/**
+ * Checks the exclusion, cancellation and fairness of an {@link AtomicCrew}.
+ * <H2>Description</H2>
+ * First, readers, writers and optimistic readers share a pair of fields for a few
+ * seconds.  The writers change the fields in two steps, and no reader may see them
+ * part way through, nor see a writer in the crew with it.  An optimistic read that
+ * is validated must also see the fields unchanged.
+ * <P>
+ * Then, while a writer holds the crew, a waiting reader is interrupted (which must
+ * throw <TT>ProcessInterruptedException</TT>), and a waiting writer, with readers
+ * queued behind it, is interrupted.  Those readers must not get in before the
+ * writer holding the crew leaves, and must all get in once it does.  Last, a writer
+ * must get in among readers that keep the crew busy.  A fault is thrown as an
+ * <TT>Error</TT>; otherwise the counts are printed.
+ */
+
+public class AtomicCrewTest implements CSProcess {
+
+  private static final int READERS = 6;
+
+  private static final int WRITERS = 2;
+
+  private static final int OPTIMISTS = 2;
+
+  private static final long MILLIS = 3000;
+
+  private final AtomicCrew crew = new AtomicCrew ();
+
+  /** Written by the writers: always equal, except while a writer is changing them */
+  private int a, b;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** AtomicCrewTest: " + message);
+    }
+  }
+
+  private void testExclusion () {
+    final AtomicInteger readers = new AtomicInteger ();
+    final AtomicInteger writers = new AtomicInteger ();
+    final AtomicLong reads = new AtomicLong ();
+    final AtomicLong writes = new AtomicLong ();
+    final AtomicLong validated = new AtomicLong ();
+    final AtomicLong failed = new AtomicLong ();
+    final long end = System.currentTimeMillis () + MILLIS;
+    final CSProcess[] processes = new CSProcess[READERS + WRITERS + OPTIMISTS];
+    for (int i = 0; i < READERS; i++) {
+      processes[i] = new CSProcess () {
+        public void run () {
+          while (System.currentTimeMillis () < end) {
+            crew.startRead ();
+            readers.incrementAndGet ();
+            check (writers.get () == 0, "a reader shared the crew with a writer");
+            check (a == b, "a reader saw a write part way through");
+            readers.decrementAndGet ();
+            crew.endRead ();
+            reads.incrementAndGet ();
+          }
+        }
+      };
+    }
+    for (int i = READERS; i < READERS + WRITERS; i++) {
+      processes[i] = new CSProcess () {
+        public void run () {
+          while (System.currentTimeMillis () < end) {
+            crew.startWrite ();
+            check (writers.incrementAndGet () == 1, "two writers shared the crew");
+            check (readers.get () == 0, "a writer shared the crew with a reader");
+            a++;
+            Thread.yield ();
+            b++;
+            writers.decrementAndGet ();
+            crew.endWrite ();
+            writes.incrementAndGet ();
+          }
+        }
+      };
+    }
+    for (int i = READERS + WRITERS; i < processes.length; i++) {
+      processes[i] = new CSProcess () {
+        public void run () {
+          while (System.currentTimeMillis () < end) {
+            final long stamp = crew.tryOptimisticRead ();
+            final int x = a;
+            final int y = b;
+            if (crew.validate (stamp)) {
+              check (x == y, "a validated optimistic read saw a write part way through");
+              validated.incrementAndGet ();
+            } else {
+              failed.incrementAndGet ();
+            }
+          }
+        }
+      };
+    }
+    new Parallel (processes).run ();
+    System.out.println ("AtomicCrewTest: " + reads + " reads, " + writes + " writes, "
+                        + validated + " optimistic reads validated, " + failed + " failed");
+  }
+
+  private void testCancellation () {
+    final CSTimer tim = new CSTimer ();
+    final AtomicReference<String> reader = new AtomicReference<String> ("none");
+    crew.startWrite ();
+
+    final ProcessManager waitingReader = new ProcessManager (new CSProcess () {
+      public void run () {
+        try {
+          crew.startRead ();
+          reader.set ("got in");
+          crew.endRead ();
+        } catch (ProcessInterruptedException e) {
+          reader.set ("interrupted");
+        }
+      }
+    });
+    waitingReader.start ();
+    tim.sleep (100);
+    waitingReader.interrupt ();
+    waitingReader.join ();
+    check (reader.get ().equals ("interrupted"), "the waiting reader " + reader.get ());
+
+    final AtomicReference<String> writer = new AtomicReference<String> ("none");
+    final ProcessManager waitingWriter = new ProcessManager (new CSProcess () {
+      public void run () {
+        try {
+          crew.startWrite ();
+          writer.set ("got in");
+          crew.endWrite ();
+        } catch (ProcessInterruptedException e) {
+          writer.set ("interrupted");
+        }
+      }
+    });
+    waitingWriter.start ();
+    tim.sleep (50);
+    final AtomicInteger got = new AtomicInteger ();
+    final ProcessManager[] queued = new ProcessManager[3];
+    for (int i = 0; i < queued.length; i++) {
+      queued[i] = new ProcessManager (new CSProcess () {
+        public void run () {
+          crew.startRead ();
+          got.incrementAndGet ();
+          crew.endRead ();
+        }
+      });
+      queued[i].start ();
+    }
+    tim.sleep (50);
+    waitingWriter.interrupt ();
+    waitingWriter.join ();
+    check (writer.get ().equals ("interrupted"), "the waiting writer " + writer.get ());
+    tim.sleep (50);
+    check (got.get () == 0, got.get () + " readers got in while a writer held the crew");
+    crew.endWrite ();
+    for (int i = 0; i < queued.length; i++) {
+      queued[i].join ();
+    }
+    check (got.get () == queued.length, got.get () + " readers got in after the writer left");
+  }
+
+  private void testFairness () {
+    final boolean[] stop = new boolean[1];
+    final CSTimer tim = new CSTimer ();
+    final ProcessManager[] busy = new ProcessManager[4];
+    for (int i = 0; i < busy.length; i++) {
+      busy[i] = new ProcessManager (new CSProcess () {
+        public void run () {
+          final CSTimer t = new CSTimer ();
+          while (true) {
+            crew.startRead ();
+            final boolean done;
+            synchronized (stop) {
+              done = stop[0];
+            }
+            t.sleep (1);
+            crew.endRead ();
+            if (done) {
+              return;
+            }
+          }
+        }
+      });
+      busy[i].start ();
+    }
+    tim.sleep (100);
+    final long t0 = System.currentTimeMillis ();
+    crew.startWrite ();
+    crew.endWrite ();
+    System.out.println ("AtomicCrewTest: a writer waited " + (System.currentTimeMillis () - t0)
+                        + " ms among busy readers");
+    synchronized (stop) {
+      stop[0] = true;
+    }
+    for (int i = 0; i < busy.length; i++) {
+      busy[i].join ();
+    }
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    testExclusion ();
+    testCancellation ();
+    testFairness ();
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new AtomicCrewTest ().run ();
+  }
+}
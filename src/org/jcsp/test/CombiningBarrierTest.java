@@ -0,0 +1,157 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jcsp.lang.Barrier;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.CombiningBarrier;
+import org.jcsp.lang.Parallel;
+
+/**
+ * Checks the {@link CombiningBarrier} against the {@link Barrier}.
+ * <H2>Description</H2>
+ * A number of processes each count themselves in and then synchronise on the
+ * barrier, many times over.  Just after each synchronisation, every process must
+ * see that all of them have counted themselves in for that phase.  This is run
+ * with a <TT>Barrier</TT> and with a <TT>CombiningBarrier</TT>, printing the time
+ * per synchronisation of each, and then rerun with the same processes, and so on
+ * the same barrier, by a second <TT>Parallel</TT>.
+ * <P>
+ * Then the processes of a <TT>CombiningBarrier</TT> resign from it at different
+ * phases while others enroll on it part way through, and the barriers with no
+ * process, or one process, enrolled are checked not to block.  A fault is thrown as
+ * an <TT>Error</TT>.
+ */
+
+public class CombiningBarrierTest implements CSProcess {
+
+  private static final int PROCESSES = 64;
+
+  private static final int SYNCS = 2000;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** CombiningBarrierTest: " + message);
+    }
+  }
+
+  private void testPhases (final Barrier barrier, String name) {
+    final AtomicInteger count = new AtomicInteger ();
+    final CSProcess[] processes = new CSProcess[PROCESSES];
+    for (int i = 0; i < PROCESSES; i++) {
+      processes[i] = new CSProcess () {
+        public void run () {
+          for (int k = 0; k < SYNCS; k++) {
+            count.incrementAndGet ();
+            barrier.sync ();
+            final int n = count.get ();
+            check ((n >= PROCESSES * (k + 1)) && (n <= PROCESSES * (k + 2)),
+                   "count " + n + " after synchronisation " + k);
+          }
+        }
+      };
+    }
+    final long t0 = System.nanoTime ();
+    final Parallel par = new Parallel (processes);
+    par.run ();
+    System.out.println ("CombiningBarrierTest " + name + ": "
+                        + (System.nanoTime () - t0) / SYNCS + " ns/sync");
+    count.set (0);
+    par.run ();
+    par.releaseAllThreads ();
+  }
+
+  private void testMembership () {
+    final CombiningBarrier barrier = new CombiningBarrier (PROCESSES);
+    final AtomicInteger done = new AtomicInteger ();
+    final CSProcess[] processes = new CSProcess[PROCESSES + 2];
+    for (int i = 0; i < PROCESSES; i++) {
+      final int stop = (i % 2 == 0) ? SYNCS : (i * 7) % SYNCS;
+      processes[i] = new CSProcess () {
+        public void run () {
+          for (int k = 0; k < stop; k++) {
+            barrier.sync ();
+          }
+          barrier.resign ();
+          done.incrementAndGet ();
+        }
+      };
+    }
+    processes[PROCESSES] = new CSProcess () {
+      public void run () {
+        barrier.enroll ();
+        for (int k = 0; k < SYNCS; k++) {
+          barrier.sync ();
+        }
+        barrier.resign ();
+        done.incrementAndGet ();
+      }
+    };
+    processes[PROCESSES + 1] = new CSProcess () {
+      public void run () {
+        new CSTimer ().sleep (20);
+        barrier.enroll ();
+        for (int k = 0; k < 50; k++) {
+          barrier.sync ();
+        }
+        barrier.resign ();
+        done.incrementAndGet ();
+      }
+    };
+    new Parallel (processes).run ();
+    check (done.get () == PROCESSES + 2, done.get () + " processes finished");
+
+    new CombiningBarrier (0).sync ();
+    new CombiningBarrier ().sync ();
+    final CombiningBarrier one = new CombiningBarrier (1);
+    for (int k = 0; k < SYNCS; k++) {
+      one.sync ();
+    }
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    testPhases (new Barrier (PROCESSES), "Barrier");
+    testPhases (new CombiningBarrier (PROCESSES), "CombiningBarrier");
+    testMembership ();
+    System.out.println ("CombiningBarrierTest: membership changes ok");
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new CombiningBarrierTest ().run ();
+  }
+}
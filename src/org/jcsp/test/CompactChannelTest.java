@@ -0,0 +1,201 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import java.util.Arrays;
+
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelInput;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.Parallel;
+
+/**
+ * Checks the compact channel of {@link Channel#one2oneCompact()}.
+ * <H2>Description</H2>
+ * The ends of a compact channel must be the channel itself, however often they are
+ * asked for.  Then several writers each send a sequence of numbers, ending with
+ * <TT>-1</TT>, down their own compact channel, and one reader selects the channels
+ * (with a short timeout, so that it keeps enabling and disabling them) in an
+ * {@link Alternative}, taking every eighth message by an extended rendezvous.  Each
+ * sequence must arrive in order.  Last, a sequence of numbers is passed along a
+ * pipeline of compact channels, through a process at each stage, and must come out
+ * in order.  A fault is thrown as an <TT>Error</TT>; otherwise the time per message is
+ * printed.
+ */
+
+public class CompactChannelTest implements CSProcess {
+
+  private static final int WRITERS = 4;
+
+  private static final int N = 100000;
+
+  private static final int STAGES = 100;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** CompactChannelTest: " + message);
+    }
+  }
+
+  private void testEnds () {
+    final One2OneChannel<Integer> c = Channel.one2oneCompact ();
+    check (c.in () == c.in (), "in () returned a new end");
+    check (c.out () == c.out (), "out () returned a new end");
+    check ((Object) c.in () == c.out (), "the ends are not the same object");
+  }
+
+  private void testFanIn () {
+    final One2OneChannel<Integer>[] c = newChannels (WRITERS);
+    final CSProcess[] processes = new CSProcess[WRITERS + 1];
+    for (int w = 0; w < WRITERS; w++) {
+      c[w] = Channel.one2oneCompact ();
+      final ChannelOutput<Integer> out = c[w].out ();
+      processes[w] = new CSProcess () {
+        public void run () {
+          for (int i = 0; i < N; i++) {
+            out.write (i);
+          }
+          out.write (-1);
+        }
+      };
+    }
+    processes[WRITERS] = new CSProcess () {
+      public void run () {
+        final Guard[] guards = new Guard[WRITERS + 1];
+        for (int w = 0; w < WRITERS; w++) {
+          guards[w] = c[w].in ();
+        }
+        final CSTimer tim = new CSTimer ();
+        guards[WRITERS] = tim;
+        final Alternative alt = new Alternative (guards);
+        final int[] next = new int[WRITERS];
+        final boolean[] open = new boolean[WRITERS + 1];
+        Arrays.fill (open, true);
+        int finished = 0;
+        while (finished < WRITERS) {
+          tim.setAlarm (tim.read () + 5);
+          final int w = alt.fairSelect (open);
+          if (w == WRITERS) {
+            continue;
+          }
+          final AltingChannelInput<Integer> in = c[w].in ();
+          final int x;
+          if (next[w] % 8 == 3) {
+            x = in.startRead ();
+            in.endRead ();
+          } else {
+            x = in.read ();
+          }
+          if (x == -1) {
+            check (next[w] == N, "writer " + w + " stopped after " + next[w]);
+            open[w] = false;
+            finished++;
+          } else {
+            check (x == next[w], "writer " + w + " sent " + next[w] + " but " + x + " was read");
+            next[w]++;
+          }
+        }
+      }
+    };
+    final long t0 = System.nanoTime ();
+    new Parallel (processes).run ();
+    System.out.println ("CompactChannelTest fan-in: " + (System.nanoTime () - t0) / (WRITERS * N) + " ns/message");
+  }
+
+  private void testPipeline () {
+    final One2OneChannel<Integer>[] c = newChannels (STAGES + 1);
+    for (int i = 0; i <= STAGES; i++) {
+      c[i] = Channel.one2oneCompact ();
+    }
+    final int messages = N / 10;
+    final CSProcess[] processes = new CSProcess[STAGES + 2];
+    processes[0] = new CSProcess () {
+      public void run () {
+        for (int i = 0; i < messages; i++) {
+          c[0].out ().write (i);
+        }
+        c[0].out ().write (-1);
+      }
+    };
+    for (int s = 0; s < STAGES; s++) {
+      final ChannelInput<Integer> in = c[s].in ();
+      final ChannelOutput<Integer> out = c[s + 1].out ();
+      processes[1 + s] = new CSProcess () {
+        public void run () {
+          int x;
+          do {
+            x = in.read ();
+            out.write (x);
+          } while (x != -1);
+        }
+      };
+    }
+    processes[STAGES + 1] = new CSProcess () {
+      public void run () {
+        for (int i = 0; i < messages; i++) {
+          final int x = c[STAGES].in ().read ();
+          check (x == i, "the pipeline delivered " + x + " for " + i);
+        }
+        check (c[STAGES].in ().read () == -1, "the pipeline did not end");
+      }
+    };
+    final long t0 = System.nanoTime ();
+    new Parallel (processes).run ();
+    System.out.println ("CompactChannelTest pipeline: " + (System.nanoTime () - t0) / ((long) messages * STAGES)
+                        + " ns/message/stage");
+  }
+
+  @SuppressWarnings ("unchecked")
+  private static One2OneChannel<Integer>[] newChannels (int n) {
+    // an array of a generic type can only be made raw
+    return new One2OneChannel[n];
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    testEnds ();
+    testFanIn ();
+    testPipeline ();
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new CompactChannelTest ().run ();
+  }
+}
@@ -0,0 +1,263 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.Any2AnyDirectCallChannel;
+import org.jcsp.lang.Any2OneDirectCallChannel;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.DirectCall;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.Parallel;
+import org.jcsp.lang.Sequence;
+
+/**
+ * Checks the direct CALL channels, {@link Any2OneDirectCallChannel} and
+ * {@link Any2AnyDirectCallChannel}.
+ * <H2>Description</H2>
+ * The CALL channels carry an <TT>Echo</TT> interface, whose <TT>echo</TT> method
+ * returns twice its argument (and throws for a negative one), and whose
+ * <TT>shutdown</TT> method stops a <I>server</I>.
+ * <P>
+ * On two <I>any-one</I> channels, several <I>clients</I> each make many calls, which
+ * one <I>server</I> accepts by selecting the channels (with a timer) in an
+ * {@link Alternative}.  On an <I>any-any</I> channel, several <I>clients</I> call a farm
+ * of <I>servers</I>.  Every call must return its own result, the exception thrown by
+ * the <I>server</I>'s method must reach the <I>client</I>, and every call must be served
+ * once.  A fault is thrown as an <TT>Error</TT>; otherwise the time per call is printed.
+ */
+
+public class DirectCallTest implements CSProcess {
+
+  private static final int CLIENTS = 8;
+
+  private static final int SERVERS = 3;
+
+  private static final int CALLS = 20000;
+
+  private static final int ECHO = 0;
+
+  private static final int SHUTDOWN = 1;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** DirectCallTest: " + message);
+    }
+  }
+
+  /**
+   * The interface carried by the CALL channels.
+   */
+  public interface Echo {
+
+    public int echo (int x);
+
+    public void shutdown ();
+
+  }
+
+  private static class EchoCall extends DirectCall {
+    private final int x;
+    int result;
+    EchoCall (final int x) {
+      this.x = x;
+    }
+    protected void run (final CSProcess server) {
+      result = ((Echo) server).echo (x);
+    }
+  }
+
+  private static class ShutdownCall extends DirectCall {
+    protected void run (final CSProcess server) {
+      ((Echo) server).shutdown ();
+    }
+  }
+
+  private static class Any2OneEchoChannel extends Any2OneDirectCallChannel implements Echo {
+
+    public int echo (final int x) {
+      final EchoCall call = new EchoCall (x);
+      call (call, ECHO);
+      return call.result;
+    }
+
+    public void shutdown () {
+      call (new ShutdownCall (), SHUTDOWN);
+    }
+
+  }
+
+  private static class Any2AnyEchoChannel extends Any2AnyDirectCallChannel implements Echo {
+
+    public int echo (final int x) {
+      final EchoCall call = new EchoCall (x);
+      call (call, ECHO);
+      return call.result;
+    }
+
+    public void shutdown () {
+      call (new ShutdownCall (), SHUTDOWN);
+    }
+
+  }
+
+  /**
+   * The <TT>echo</TT> of the servers, counting the calls served.
+   */
+  private static abstract class EchoServer implements CSProcess, Echo {
+
+    private final AtomicLong served;
+
+    EchoServer (final AtomicLong served) {
+      this.served = served;
+    }
+
+    public int echo (final int x) {
+      if (x < 0) {
+        throw new IllegalArgumentException ("negative echo " + x);
+      }
+      served.incrementAndGet ();
+      return 2 * x;
+    }
+
+  }
+
+  private static CSProcess client (final Echo channel, final boolean last) {
+    return new CSProcess () {
+      public void run () {
+        for (int i = 0; i < CALLS; i++) {
+          final int r = channel.echo (i);
+          check (r == 2 * i, "echo (" + i + ") returned " + r);
+        }
+        if (last) {
+          try {
+            channel.echo (-1);
+            check (false, "the server's exception was not thrown to the client");
+          } catch (IllegalArgumentException e) {
+            // thrown by the server's echo
+          }
+        }
+      }
+    };
+  }
+
+  private void testAny2One () {
+    final Any2OneEchoChannel[] channels = {new Any2OneEchoChannel (), new Any2OneEchoChannel ()};
+    final AtomicLong served = new AtomicLong ();
+    final CSProcess server = new EchoServer (served) {
+      private int open = channels.length;
+      public void shutdown () {
+        open--;
+      }
+      public void run () {
+        final CSTimer tim = new CSTimer ();
+        final Alternative alt = new Alternative (new Guard[] {channels[0], channels[1], tim});
+        while (open > 0) {
+          tim.setAlarm (tim.read () + 1);
+          final int i = alt.fairSelect ();
+          if (i < channels.length) {
+            channels[i].accept (this);
+          }
+        }
+      }
+    };
+    final CSProcess[] clients = new CSProcess[CLIENTS];
+    for (int k = 0; k < CLIENTS; k++) {
+      clients[k] = client (channels[k % 2], k == 0);
+    }
+    final CSProcess shutdown = new CSProcess () {
+      public void run () {
+        channels[0].shutdown ();
+        channels[1].shutdown ();
+      }
+    };
+    final long t0 = System.nanoTime ();
+    new Parallel (
+      new CSProcess[] {
+        server,
+        new Sequence (new CSProcess[] {new Parallel (clients), shutdown})
+      }
+    ).run ();
+    System.out.println ("DirectCallTest any2one: " + (System.nanoTime () - t0) / (CLIENTS * CALLS) + " ns/call");
+    check (served.get () == CLIENTS * CALLS, served.get () + " calls served");
+  }
+
+  private void testAny2Any () {
+    final Any2AnyEchoChannel channel = new Any2AnyEchoChannel ();
+    final AtomicLong served = new AtomicLong ();
+    final CSProcess[] processes = new CSProcess[SERVERS + 1];
+    for (int s = 0; s < SERVERS; s++) {
+      processes[s] = new EchoServer (served) {
+        private boolean running = true;
+        public void shutdown () {
+          running = false;
+        }
+        public void run () {
+          while (running) {
+            channel.accept (this);
+          }
+        }
+      };
+    }
+    final CSProcess[] clients = new CSProcess[CLIENTS];
+    for (int k = 0; k < CLIENTS; k++) {
+      clients[k] = client (channel, k == 0);
+    }
+    final CSProcess shutdown = new CSProcess () {
+      public void run () {
+        for (int s = 0; s < SERVERS; s++) {
+          channel.shutdown ();
+        }
+      }
+    };
+    processes[SERVERS] = new Sequence (new CSProcess[] {new Parallel (clients), shutdown});
+    final long t0 = System.nanoTime ();
+    new Parallel (processes).run ();
+    System.out.println ("DirectCallTest any2any: " + (System.nanoTime () - t0) / (CLIENTS * CALLS) + " ns/call");
+    check (served.get () == CLIENTS * CALLS, served.get () + " calls served");
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    testAny2One ();
+    testAny2Any ();
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new DirectCallTest ().run ();
+  }
+}
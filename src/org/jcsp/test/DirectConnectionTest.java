@@ -0,0 +1,176 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jcsp.lang.AltingConnectionClient;
+import org.jcsp.lang.AltingConnectionServer;
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.Any2OneConnection;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Connection;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.One2OneConnection;
+import org.jcsp.lang.Parallel;
+
+/**
+ * Checks the connections of {@link Connection#createDirectOne2One()} and
+ * {@link Connection#createDirectAny2One()}.
+ * <H2>Description</H2>
+ * One <I>server</I> selects two <I>any-one</I> direct connections and a <I>one-one</I>
+ * direct connection (with a timer) in an {@link Alternative}, and serves a whole
+ * session on the one selected: it replies to each request with the request plus one,
+ * and closes the session after each request that is a multiple of three.  Several
+ * <I>clients</I> on each connection make numbered requests and check each reply and
+ * whether the connection is still open.  Half of them wait for each reply by selecting
+ * their client end in an <TT>Alternative</TT>.  Each <I>client</I> finishes with a
+ * request of <TT>-1</TT>, and the <I>server</I> stops when it has had one from each.
+ * A fault is thrown as an <TT>Error</TT>; otherwise the time per request is printed.
+ */
+
+public class DirectConnectionTest implements CSProcess {
+
+  private static final int CLIENTS = 4;
+
+  private static final int REQUESTS = 20000;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** DirectConnectionTest: " + message);
+    }
+  }
+
+  private static CSProcess client (final AltingConnectionClient<Integer> client, final boolean alting) {
+    return new CSProcess () {
+      public void run () {
+        final Alternative alt = alting ? new Alternative (new Guard[] {client}) : null;
+        for (int i = 1; i <= REQUESTS; i++) {
+          client.request (i);
+          if (alt != null) {
+            alt.select ();
+          }
+          final int reply = client.reply ();
+          check (reply == i + 1, "the reply to " + i + " was " + reply);
+          check (client.isOpen () == (i % 3 != 0),
+                 "the session was wrongly left " + (client.isOpen () ? "open" : "closed") + " after " + i);
+        }
+        if (client.isOpen ()) {
+          // a multiple of three closes the session
+          client.request (3);
+          client.reply ();
+        }
+        client.request (-1);
+        client.reply ();
+        check (!client.isOpen (), "the session was left open after the last request");
+      }
+    };
+  }
+
+  /**
+   * Serves a session of a client, returning whether it was the client's last.
+   */
+  private static boolean serveSession (final AltingConnectionServer<Integer> server, final AtomicLong served) {
+    while (true) {
+      final int request = server.request ();
+      served.incrementAndGet ();
+      if (request < 0) {
+        server.replyAndClose (request);
+        return true;
+      } else if (request % 3 == 0) {
+        server.replyAndClose (request + 1);
+        return false;
+      } else {
+        server.reply (request + 1);
+      }
+    }
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    final Any2OneConnection<Integer> a = Connection.createDirectAny2One ();
+    final Any2OneConnection<Integer> b = Connection.createDirectAny2One ();
+    final One2OneConnection<Integer> c = Connection.createDirectOne2One ();
+    final int clients = 2 * CLIENTS + 1;
+    final AtomicLong served = new AtomicLong ();
+
+    final CSProcess server = new CSProcess () {
+      public void run () {
+        final AltingConnectionServer<Integer> serverA = a.server ();
+        final AltingConnectionServer<Integer> serverB = b.server ();
+        final AltingConnectionServer<Integer> serverC = c.server ();
+        final CSTimer tim = new CSTimer ();
+        final Alternative alt = new Alternative (new Guard[] {serverA, serverB, serverC, tim});
+        int finished = 0;
+        while (finished < clients) {
+          tim.setAlarm (tim.read () + 50);
+          final boolean last;
+          switch (alt.fairSelect ()) {
+            case 0:
+              last = serveSession (serverA, served);
+            break;
+            case 1:
+              last = serveSession (serverB, served);
+            break;
+            case 2:
+              last = serveSession (serverC, served);
+            break;
+            default:
+              last = false;
+            break;
+          }
+          if (last) {
+            finished++;
+          }
+        }
+      }
+    };
+
+    final CSProcess[] processes = new CSProcess[clients + 1];
+    processes[0] = server;
+    for (int k = 0; k < CLIENTS; k++) {
+      processes[1 + k] = client (a.client (), k % 2 == 1);
+      processes[1 + CLIENTS + k] = client (b.client (), k % 2 == 0);
+    }
+    processes[clients] = client (c.client (), true);
+    final long t0 = System.nanoTime ();
+    new Parallel (processes).run ();
+    System.out.println ("DirectConnectionTest: " + (System.nanoTime () - t0) / served.get () + " ns/request");
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new DirectConnectionTest ().run ();
+  }
+}
@@ -0,0 +1,191 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import java.util.Random;
+
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.Parallel;
+import org.jcsp.lang.Skip;
+import org.jcsp.util.Buffer;
+
+/**
+ * Checks an {@link Alternative} that keeps its guards enabled between selections
+ * (see {@link Alternative#Alternative(Guard[], boolean)}).
+ * <H2>Description</H2>
+ * First, the selections of a persistent <TT>Alternative</TT> over buffered channels,
+ * a timer and a {@link Skip} are checked against the <TT>PRI</TT> semantics: the
+ * ready guard with the lowest index, honouring pre-conditions, is the one selected.
+ * <P>
+ * Then a large fan-in is run twice, with and without persistent enabling, for
+ * each kind of channel: several writers send, at random, down many channels, which
+ * one reader selects with <TT>fairSelect</TT>.  Every message must be read.  The time
+ * per message is printed, so that the two may be compared.  Channels that cannot
+ * stay enabled (such as the spinning channel) fall back to being enabled for each
+ * selection.
+ */
+
+public class PersistentAltTest implements CSProcess {
+
+  private static final int CHANNELS = 1000;
+
+  private static final int WRITERS = 8;
+
+  private static final int MESSAGES = 5000;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** PersistentAltTest: " + message);
+    }
+  }
+
+  private void testSemantics () {
+    final One2OneChannel<String>[] c = Channel.one2oneArray (5, new Buffer<String> (10));
+    final Guard[] guards = new Guard[6];
+    final AltingChannelInput<String>[] in = Channel.getInputArray (c);
+    System.arraycopy (in, 0, guards, 0, 5);
+    final CSTimer tim = new CSTimer ();
+    guards[5] = tim;
+    final Alternative alt = new Alternative (guards, true);
+
+    tim.setAlarm (tim.read () + 50);
+    check (alt.priSelect () == 5, "the timeout was not selected");
+
+    c[3].out ().write ("a");
+    c[1].out ().write ("b");
+    c[1].out ().write ("c");
+    tim.setAlarm (tim.read () + 100000);
+    check (alt.priSelect () == 1, "channel 1 was not selected first");
+    in[1].read ();
+    check (alt.priSelect () == 1, "channel 1 was not selected again");
+    in[1].read ();
+    check (alt.priSelect () == 3, "channel 3 was not selected");
+    in[3].read ();
+
+    final boolean[] pre = {true, true, true, true, false, true};
+    c[4].out ().write ("x");
+    c[0].out ().write ("y");
+    check (alt.priSelect (pre) == 0, "channel 0 was not selected");
+    in[0].read ();
+    tim.setAlarm (tim.read () + 30);
+    check (alt.priSelect (pre) == 5, "the pre-condition of channel 4 was ignored");
+    check (alt.priSelect () == 4, "channel 4 was not selected");
+    in[4].read ();
+
+    final Alternative skip = new Alternative (new Guard[] {in[0], new Skip ()}, true);
+    check (skip.priSelect () == 1, "the Skip was not selected");
+    c[0].out ().write ("z");
+    check (skip.priSelect () == 0, "channel 0 was not selected before the Skip");
+    in[0].read ();
+    skip.release ();
+    alt.release ();
+  }
+
+  private void testFanIn (final String kind, final boolean persistent) {
+    final AltingChannelInput<Integer>[] in = newInputs (CHANNELS);
+    final ChannelOutput<Integer>[] out = newOutputs (CHANNELS);
+    for (int i = 0; i < CHANNELS; i++) {
+      final One2OneChannel<Integer> c;
+      if (kind.equals ("one2one")) {
+        c = Channel.one2one ();
+      } else if (kind.equals ("spinning")) {
+        c = Channel.one2oneSpinning ();
+      } else {
+        c = Channel.one2one (new Buffer<Integer> (4));
+      }
+      in[i] = c.in ();
+      out[i] = c.out ();
+    }
+    final CSProcess[] processes = new CSProcess[WRITERS + 1];
+    for (int w = 0; w < WRITERS; w++) {
+      final int writer = w;
+      processes[w] = new CSProcess () {
+        public void run () {
+          final Random random = new Random (writer);
+          for (int k = 0; k < MESSAGES; k++) {
+            out[random.nextInt (CHANNELS / WRITERS) * WRITERS + writer].write (1);
+          }
+        }
+      };
+    }
+    final long[] sum = new long[1];
+    processes[WRITERS] = new CSProcess () {
+      public void run () {
+        final Alternative alt = new Alternative (in, persistent);
+        for (int k = 0; k < WRITERS * MESSAGES; k++) {
+          sum[0] += in[alt.fairSelect ()].read ();
+        }
+        alt.release ();
+      }
+    };
+    final long t0 = System.nanoTime ();
+    new Parallel (processes).run ();
+    check (sum[0] == WRITERS * MESSAGES, kind + " read " + sum[0] + " messages");
+    System.out.println ("PersistentAltTest " + kind + (persistent ? " persistent: " : ": ")
+                        + (System.nanoTime () - t0) / (WRITERS * MESSAGES) + " ns/message");
+  }
+
+  @SuppressWarnings ("unchecked")
+  private static AltingChannelInput<Integer>[] newInputs (int n) {
+    // an array of a generic type can only be made raw
+    return new AltingChannelInput[n];
+  }
+
+  @SuppressWarnings ("unchecked")
+  private static ChannelOutput<Integer>[] newOutputs (int n) {
+    // an array of a generic type can only be made raw
+    return new ChannelOutput[n];
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    testSemantics ();
+    final String[] kinds = {"one2one", "spinning", "buffered"};
+    for (int i = 0; i < kinds.length; i++) {
+      testFanIn (kinds[i], false);
+      testFanIn (kinds[i], true);
+    }
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new PersistentAltTest ().run ();
+  }
+}
@@ -0,0 +1,212 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.Any2OneChannel;
+import org.jcsp.lang.BulkChannelInput;
+import org.jcsp.lang.BulkChannelOutput;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.Parallel;
+import org.jcsp.lang.PoisonException;
+import org.jcsp.util.RingBuffer;
+
+/**
+ * Checks the lock-free <I>any-one</I> channel of {@link Channel#any2oneRing(RingBuffer)}.
+ * <H2>Description</H2>
+ * Several writers each send their own sequence of numbers down one small ring
+ * channel, some of them with bulk writes.  The reader takes the messages by plain
+ * reads, selections in an {@link Alternative} (against a timeout) and bulk reads,
+ * and checks that every message arrives and that those of each writer arrive in
+ * the order it sent them.  The time per message is printed.
+ * <P>
+ * Next, a writer fills the ring channel and blocks on one more message, and the reader
+ * takes a single message and then waits for the writer to say it has finished: the
+ * slot freed must let the writer go on.  This is done with a plain read and with a
+ * bulk read.
+ * <P>
+ * Then a poisonable <I>any-one</I> channel buffered by a {@link RingBuffer} (which
+ * is not the lock-free channel) is checked to deliver its messages before the poison.
+ * A fault is thrown as an <TT>Error</TT>.
+ */
+
+public class RingAny2OneTest implements CSProcess {
+
+  private static final int WRITERS = 4;
+
+  private static final int N = 100000;
+
+  private static final int BATCH = 8;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** RingAny2OneTest: " + message);
+    }
+  }
+
+  private void testOrder () {
+    final Any2OneChannel<Integer> c = Channel.any2oneRing (new RingBuffer<Integer> (16));
+    final CSProcess[] processes = new CSProcess[WRITERS + 1];
+    for (int w = 0; w < WRITERS; w++) {
+      final int writer = w;
+      processes[w] = new CSProcess () {
+        public void run () {
+          final BulkChannelOutput<Integer> out = Channel.getBulkOutput (c.out ());
+          final Integer[] batch = new Integer[BATCH];
+          for (int i = 0; i < N; i += BATCH) {
+            for (int j = 0; j < BATCH; j++) {
+              batch[j] = writer * N + i + j;
+            }
+            if (writer % 2 == 0) {
+              out.write (batch, 0, BATCH);
+            } else {
+              for (int j = 0; j < BATCH; j++) {
+                out.write (batch[j]);
+              }
+            }
+          }
+        }
+      };
+    }
+    processes[WRITERS] = new CSProcess () {
+      public void run () {
+        final AltingChannelInput<Integer> in = c.in ();
+        final BulkChannelInput<Integer> bulk = Channel.getBulkInput (in);
+        final CSTimer tim = new CSTimer ();
+        final Alternative alt = new Alternative (new Guard[] {in, tim});
+        final int[] next = new int[WRITERS];
+        final Integer[] batch = new Integer[BATCH];
+        int received = 0;
+        while (received < WRITERS * N) {
+          final int n;
+          switch (received % 3) {
+            case 0:
+              batch[0] = in.read ();
+              n = 1;
+            break;
+            case 1:
+              tim.setAlarm (tim.read () + 10000);
+              check (alt.fairSelect () == 0, "timed out after " + received + " messages");
+              batch[0] = in.read ();
+              n = 1;
+            break;
+            default:
+              n = bulk.drainTo (batch, BATCH);
+            break;
+          }
+          for (int j = 0; j < n; j++) {
+            final int writer = batch[j] / N;
+            check (batch[j] % N == next[writer], "writer " + writer + " sent " + next[writer]
+                                                 + " but " + (batch[j] % N) + " was read");
+            next[writer]++;
+          }
+          received += n;
+        }
+      }
+    };
+    final long t0 = System.nanoTime ();
+    new Parallel (processes).run ();
+    System.out.println ("RingAny2OneTest: " + (System.nanoTime () - t0) / (WRITERS * N) + " ns/message");
+  }
+
+  private void testFreedSlot (final boolean bulk) {
+    final RingBuffer<Integer> ring = new RingBuffer<Integer> (8);
+    final int messages = ring.getCapacity () + 1;
+    final Any2OneChannel<Integer> c = Channel.any2oneRing (ring);
+    final Any2OneChannel<Integer> done = Channel.any2one ();
+    final CSProcess writer = new CSProcess () {
+      public void run () {
+        for (int i = 0; i < messages; i++) {
+          c.out ().write (i);
+        }
+        done.out ().write (messages);
+      }
+    };
+    final CSProcess reader = new CSProcess () {
+      public void run () {
+        final CSTimer tim = new CSTimer ();
+        // let the writer fill the ring and block
+        tim.sleep (100);
+        if (bulk) {
+          final Integer[] first = new Integer[1];
+          check (Channel.getBulkInput (c.in ()).drainTo (first, 1) == 1, "the bulk read took nothing");
+          check (first[0] == 0, "the bulk read took " + first[0]);
+        } else {
+          check (c.in ().read () == 0, "the read was out of order");
+        }
+        tim.setAlarm (tim.read () + 5000);
+        final Alternative alt = new Alternative (new Guard[] {done.in (), tim});
+        check (alt.select () == 0, "a writer was left blocked on a freed slot");
+        done.in ().read ();
+        for (int i = 1; i < messages; i++) {
+          check (c.in ().read () == i, "the read was out of order");
+        }
+      }
+    };
+    new Parallel (new CSProcess[] {writer, reader}).run ();
+  }
+
+  private void testPoison () {
+    final Any2OneChannel<Integer> c = Channel.any2one (new RingBuffer<Integer> (16), 5);
+    for (int i = 0; i < 10; i++) {
+      c.out ().write (i);
+    }
+    for (int i = 0; i < 10; i++) {
+      check (c.in ().read () == i, "poisonable channel read out of order");
+    }
+    c.out ().poison (10);
+    try {
+      c.in ().read ();
+      check (false, "read past the poison");
+    } catch (PoisonException e) {
+      // the channel was poisoned after its last message
+    }
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    testOrder ();
+    testFreedSlot (false);
+    testFreedSlot (true);
+    testPoison ();
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new RingAny2OneTest ().run ();
+  }
+}
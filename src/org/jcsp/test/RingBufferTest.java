@@ -0,0 +1,188 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.AltingChannelInputInt;
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.BulkChannelInput;
+import org.jcsp.lang.BulkChannelOutput;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelOutputInt;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.One2OneChannelInt;
+import org.jcsp.lang.Parallel;
+import org.jcsp.util.RingBuffer;
+import org.jcsp.util.ints.RingBufferInt;
+
+/**
+ * Checks the <I>one-one</I> channels buffered by a {@link RingBuffer} or a
+ * {@link RingBufferInt}.
+ * <H2>Description</H2>
+ * A writer sends a sequence of numbers down a small ring-buffered channel, so that
+ * the ring keeps filling and emptying, and the reader checks that they arrive in
+ * order.  On the <TT>Object</TT> channel, the writer sends every other batch of
+ * numbers with a bulk write, and the reader takes them in turn by
+ * a plain read, an extended rendezvous, a selection in an {@link Alternative} (against
+ * a timeout) and a bulk read.  On the <TT>int</TT> channel, the reader alternates
+ * plain reads and selections.  A fault is thrown as an <TT>Error</TT>; otherwise
+ * the time per message is printed.
+ *
+ * @see org.jcsp.lang.Channel#one2one(RingBuffer)
+ * @see org.jcsp.lang.Channel#one2oneInt(RingBufferInt)
+ */
+
+public class RingBufferTest implements CSProcess {
+
+  private static final int N = 200000;
+
+  private static final int BATCH = 10;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** RingBufferTest: " + message);
+    }
+  }
+
+  private void testObject () {
+    final One2OneChannel<Integer> c = Channel.one2one (new RingBuffer<Integer> (16));
+    final long t0 = System.nanoTime ();
+    new Parallel (
+      new CSProcess[] {
+        new CSProcess () {
+          public void run () {
+            final BulkChannelOutput<Integer> out = Channel.getBulkOutput (c.out ());
+            final Integer[] batch = new Integer[BATCH];
+            for (int i = 0; i < N; i += BATCH) {
+              for (int j = 0; j < BATCH; j++) {
+                batch[j] = i + j;
+              }
+              if ((i / BATCH) % 2 == 0) {
+                out.write (batch, 0, BATCH);
+              } else {
+                for (int j = 0; j < BATCH; j++) {
+                  out.write (batch[j]);
+                }
+              }
+            }
+          }
+        },
+        new CSProcess () {
+          public void run () {
+            final AltingChannelInput<Integer> in = c.in ();
+            final BulkChannelInput<Integer> bulk = Channel.getBulkInput (in);
+            final CSTimer tim = new CSTimer ();
+            final Alternative alt = new Alternative (new Guard[] {in, tim});
+            final Integer[] batch = new Integer[BATCH];
+            int i = 0;
+            while (i < N) {
+              switch (i % 4) {
+                case 0:
+                  check (in.read () == i, "read out of order at " + i);
+                  i++;
+                break;
+                case 1:
+                  check (in.startRead () == i, "extended read out of order at " + i);
+                  in.endRead ();
+                  i++;
+                break;
+                case 2:
+                  tim.setAlarm (tim.read () + 10000);
+                  check (alt.fairSelect () == 0, "timed out waiting for message " + i);
+                  check (in.read () == i, "selected read out of order at " + i);
+                  i++;
+                break;
+                case 3:
+                  final int n = bulk.drainTo (batch, Math.min (BATCH, N - i));
+                  check ((n >= 1) && (n <= BATCH), "bulk read of " + n + " at " + i);
+                  for (int j = 0; j < n; j++) {
+                    check (batch[j] == i, "bulk read out of order at " + i);
+                    i++;
+                  }
+                break;
+              }
+            }
+          }
+        }
+      }
+    ).run ();
+    System.out.println ("RingBufferTest Object: " + (System.nanoTime () - t0) / N + " ns/message");
+  }
+
+  private void testInt () {
+    final One2OneChannelInt c = Channel.one2oneInt (new RingBufferInt (16));
+    final long t0 = System.nanoTime ();
+    new Parallel (
+      new CSProcess[] {
+        new CSProcess () {
+          public void run () {
+            final ChannelOutputInt out = c.out ();
+            for (int i = 0; i < N; i++) {
+              out.write (i);
+            }
+          }
+        },
+        new CSProcess () {
+          public void run () {
+            final AltingChannelInputInt in = c.in ();
+            final CSTimer tim = new CSTimer ();
+            final Alternative alt = new Alternative (new Guard[] {in, tim});
+            for (int i = 0; i < N; i++) {
+              if (i % 2 == 0) {
+                tim.setAlarm (tim.read () + 10000);
+                check (alt.priSelect () == 0, "timed out waiting for int " + i);
+              }
+              final int x = in.read ();
+              check (x == i, "read int " + x + " for " + i);
+            }
+          }
+        }
+      }
+    ).run ();
+    System.out.println ("RingBufferTest int: " + (System.nanoTime () - t0) / N + " ns/message");
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    testObject ();
+    testInt ();
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new RingBufferTest ().run ();
+  }
+}
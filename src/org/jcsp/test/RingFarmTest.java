@@ -0,0 +1,201 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.jcsp.lang.Any2AnyChannel;
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.Any2OneChannel;
+import org.jcsp.lang.BulkChannelInput;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.One2AnyChannel;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.Parallel;
+import org.jcsp.lang.Sequence;
+import org.jcsp.lang.SharedChannelInput;
+import org.jcsp.lang.SharedChannelOutput;
+import org.jcsp.util.RingBuffer;
+
+/**
+ * Checks the work-distributing channels of {@link Channel#one2anyRing(RingBuffer)}
+ * and {@link Channel#any2anyRing(RingBuffer)}.
+ * <H2>Description</H2>
+ * One producer (or, on the <I>any-any</I> channel, several) sends numbered jobs
+ * down a small ring channel to a farm of workers, followed by a stop message for
+ * each worker.  Half of the workers take jobs one at a time, and half take them in
+ * batches with a bulk read.  Every job must be taken by exactly one worker.  The
+ * time per job is printed.
+ * <P>
+ * Then, on each channel, a producer fills the ring and blocks on one more job, and a
+ * worker takes a single job and then waits for the producer to say it has finished:
+ * the slot freed must let the producer go on.  A fault is thrown as an <TT>Error</TT>.
+ */
+
+public class RingFarmTest implements CSProcess {
+
+  private static final int WORKERS = 6;
+
+  private static final int JOBS = 200000;
+
+  private static final int BATCH = 16;
+
+  private static final int STOP = -1;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** RingFarmTest: " + message);
+    }
+  }
+
+  private static CSProcess producer (final ChannelOutput<Integer> out, final int from, final int to) {
+    return new CSProcess () {
+      public void run () {
+        for (int i = from; i < to; i++) {
+          out.write (i);
+        }
+      }
+    };
+  }
+
+  private static CSProcess worker (final SharedChannelInput<Integer> in, final boolean bulk,
+                                   final AtomicIntegerArray taken, final SharedChannelOutput<Integer> stopped) {
+    return new CSProcess () {
+      public void run () {
+        final BulkChannelInput<Integer> batchIn = Channel.getBulkInput (in);
+        final Integer[] batch = new Integer[BATCH];
+        boolean stop = false;
+        while (!stop) {
+          final int n = bulk ? batchIn.drainTo (batch, BATCH) : 1;
+          if (!bulk) {
+            batch[0] = in.read ();
+          }
+          for (int j = 0; j < n; j++) {
+            if (batch[j].intValue () == STOP) {
+              stop = true;
+            } else {
+              taken.incrementAndGet (batch[j]);
+            }
+          }
+        }
+        stopped.write (STOP);
+      }
+    };
+  }
+
+  private void runFarm (String name, SharedChannelInput<Integer> in, final ChannelOutput<Integer> out,
+                        CSProcess[] producers) {
+    final AtomicIntegerArray taken = new AtomicIntegerArray (JOBS);
+    final Any2OneChannel<Integer> stopped = Channel.any2one ();
+    // a bulk read may take several stop messages, so each is only sent once the last has been taken
+    final CSProcess stopper = new CSProcess () {
+      public void run () {
+        for (int w = 0; w < WORKERS; w++) {
+          out.write (STOP);
+          stopped.in ().read ();
+        }
+      }
+    };
+    final CSProcess[] processes = new CSProcess[1 + WORKERS];
+    processes[0] = new Sequence (new CSProcess[] {new Parallel (producers), stopper});
+    for (int w = 0; w < WORKERS; w++) {
+      processes[1 + w] = worker (in, w % 2 == 0, taken, stopped.out ());
+    }
+    final long t0 = System.nanoTime ();
+    new Parallel (processes).run ();
+    System.out.println ("RingFarmTest " + name + ": " + (System.nanoTime () - t0) / JOBS + " ns/job");
+    for (int i = 0; i < JOBS; i++) {
+      check (taken.get (i) == 1, name + ": job " + i + " was taken " + taken.get (i) + " times");
+    }
+  }
+
+  private void testFreedSlot (final String name, final SharedChannelInput<Integer> in, final ChannelOutput<Integer> out,
+                             final int capacity) {
+    final One2OneChannel<Integer> done = Channel.one2one ();
+    final CSProcess producer = new CSProcess () {
+      public void run () {
+        for (int i = 0; i <= capacity; i++) {
+          out.write (i);
+        }
+        done.out ().write (capacity);
+      }
+    };
+    final CSProcess worker = new CSProcess () {
+      public void run () {
+        final CSTimer tim = new CSTimer ();
+        // let the producer fill the ring and block
+        tim.sleep (100);
+        check (in.read () == 0, "the read was out of order");
+        final AltingChannelInput<Integer> doneIn = done.in ();
+        tim.setAlarm (tim.read () + 5000);
+        final Alternative alt = new Alternative (new Guard[] {doneIn, tim});
+        check (alt.select () == 0, name + ": a producer was left blocked on a freed slot");
+        doneIn.read ();
+        for (int i = 1; i <= capacity; i++) {
+          check (in.read () == i, "the read was out of order");
+        }
+      }
+    };
+    new Parallel (new CSProcess[] {producer, worker}).run ();
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    final One2AnyChannel<Integer> one2any = Channel.one2anyRing (new RingBuffer<Integer> (16));
+    runFarm ("one2anyRing", one2any.in (), one2any.out (),
+             new CSProcess[] {producer (one2any.out (), 0, JOBS)});
+
+    final Any2AnyChannel<Integer> any2any = Channel.any2anyRing (new RingBuffer<Integer> (16));
+    final CSProcess[] producers = new CSProcess[WORKERS / 2];
+    for (int p = 0; p < producers.length; p++) {
+      producers[p] = producer (any2any.out (), p * JOBS / producers.length, (p + 1) * JOBS / producers.length);
+    }
+    runFarm ("any2anyRing", any2any.in (), any2any.out (), producers);
+
+    final RingBuffer<Integer> ring = new RingBuffer<Integer> (8);
+    final One2AnyChannel<Integer> one2anyFull = Channel.one2anyRing (ring);
+    testFreedSlot ("one2anyRing", one2anyFull.in (), one2anyFull.out (), ring.getCapacity ());
+    final Any2AnyChannel<Integer> any2anyFull = Channel.any2anyRing (ring);
+    testFreedSlot ("any2anyRing", any2anyFull.in (), any2anyFull.out (), ring.getCapacity ());
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new RingFarmTest ().run ();
+  }
+}
@@ -0,0 +1,123 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.test;
+
+import org.jcsp.lang.AltingChannelInput;
+import org.jcsp.lang.Alternative;
+import org.jcsp.lang.CSProcess;
+import org.jcsp.lang.CSTimer;
+import org.jcsp.lang.Channel;
+import org.jcsp.lang.ChannelOutput;
+import org.jcsp.lang.Guard;
+import org.jcsp.lang.One2OneChannel;
+import org.jcsp.lang.Parallel;
+import org.jcsp.lang.PoisonException;
+
+/**
+ * Checks the spin-then-park channel of {@link Channel#one2oneSpinning(int)}.
+ * <H2>Description</H2>
+ * A writer sends a sequence of numbers down a spinning channel and then poisons
+ * it.  The reader checks that the numbers arrive in order, taking every fifth by
+ * selecting the channel (against a timeout) in an {@link Alternative} and every
+ * third by an extended rendezvous, and that the poison arrives after the last of
+ * them.  A fault is thrown as an <TT>Error</TT>; otherwise the time per message
+ * is printed.
+ * <P>
+ * The channel only spins on a machine with more than one processor, so this
+ * should be run on one as well as on a single processor.
+ *
+ * @see org.jcsp.lang.Channel#one2oneSpinning()
+ */
+
+public class SpinningChannelTest implements CSProcess {
+
+  private static final int N = 200000;
+
+  private static void check (boolean ok, String message) {
+    if (!ok) {
+      throw new Error ("*** SpinningChannelTest: " + message);
+    }
+  }
+
+  /**
+   * The main body of this process.
+   */
+  public void run () {
+    final One2OneChannel<Integer> c = Channel.one2oneSpinning (0);
+    final long t0 = System.nanoTime ();
+    new Parallel (
+      new CSProcess[] {
+        new CSProcess () {
+          public void run () {
+            final ChannelOutput<Integer> out = c.out ();
+            for (int i = 0; i < N; i++) {
+              out.write (i);
+            }
+            out.poison (1);
+          }
+        },
+        new CSProcess () {
+          public void run () {
+            final AltingChannelInput<Integer> in = c.in ();
+            final CSTimer tim = new CSTimer ();
+            final Alternative alt = new Alternative (new Guard[] {in, tim});
+            for (int i = 0; i < N; i++) {
+              final int x;
+              if (i % 5 == 0) {
+                tim.setAlarm (tim.read () + 10000);
+                check (alt.priSelect () == 0, "timed out waiting for message " + i);
+                x = in.read ();
+              } else if (i % 3 == 0) {
+                x = in.startRead ();
+                in.endRead ();
+              } else {
+                x = in.read ();
+              }
+              check (x == i, "read " + x + " for message " + i);
+            }
+            try {
+              in.read ();
+              check (false, "read past the poison");
+            } catch (PoisonException e) {
+              // the writer poisoned the channel after its last message
+            }
+          }
+        }
+      }
+    ).run ();
+    System.out.println ("SpinningChannelTest: " + (System.nanoTime () - t0) / N + " ns/message");
+  }
+
+  /**
+   * Main entry point for the application.
+   */
+  public static void main (String argv[]) {
+    new SpinningChannelTest ().run ();
+  }
+}
@@ -29,6 +29,7 @@
 package org.jcsp.util;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 /**
  * This is used to create a buffered object channel that never loses data.
@@ -51,7 +52,7 @@ import java.io.Serializable;
  * @author P.D. Austin
  */
 
-public class Buffer<T> implements ChannelDataStore<T>, Serializable
+public class Buffer<T> implements BulkChannelDataStore<T>, Serializable
 {
     /** The storage for the buffered Objects */
     private final T[] buffer;
@@ -155,6 +156,53 @@ public class Buffer<T> implements ChannelDataStore<T>, Serializable
             return NONEMPTYFULL;
     }
 
+    /**
+     * Puts as many of the given <TT>Object</TT>s into the <TT>Buffer</TT> as it will
+     * accept, in order.  The values are block-copied into the ring.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+     *
+     * @param values the array holding the Objects to put into the Buffer
+     * @param off the index in <TT>values</TT> of the first Object to put
+     * @param len the number of Objects available to put
+     * @return the number of Objects actually put
+     */
+    public int putAll(T[] values, int off, int len)
+    {
+        int n = Math.min(len, buffer.length - counter);
+        int first = Math.min(n, buffer.length - lastIndex);
+        System.arraycopy(values, off, buffer, lastIndex, first);
+        System.arraycopy(values, off + first, buffer, 0, n - first);
+        lastIndex = (lastIndex + n) % buffer.length;
+        counter += n;
+        return n;
+    }
+
+    /**
+     * Removes up to <TT>max</TT> of the oldest <TT>Object</TT>s from the <TT>Buffer</TT>.
+     * The values are block-copied out of the ring.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @param values the array to receive the Objects
+     * @param off the index in <TT>values</TT> at which to store the first Object
+     * @param max the maximum number of Objects to remove
+     * @return the number of Objects actually removed
+     */
+    public int getAll(T[] values, int off, int max)
+    {
+        int n = Math.min(max, counter);
+        int first = Math.min(n, buffer.length - firstIndex);
+        System.arraycopy(buffer, firstIndex, values, off, first);
+        System.arraycopy(buffer, 0, values, off + first, n - first);
+        //Null the objects so they can be garbage collected:
+        Arrays.fill(buffer, firstIndex, firstIndex + first, null);
+        Arrays.fill(buffer, 0, n - first, null);
+        firstIndex = (firstIndex + n) % buffer.length;
+        counter -= n;
+        return n;
+    }
+
     /**
      * Returns a new (and <TT>EMPTY</TT>) <TT>Buffer</TT> with the same
      * creation parameters as this one.
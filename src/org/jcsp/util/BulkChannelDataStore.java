@@ -0,0 +1,80 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.util;
+
+/**
+ * This extends {@link ChannelDataStore} with operations that move a run of values at once.
+ * <H2>Description</H2>
+ * A buffered object channel whose plug-in implements <TT>BulkChannelDataStore</TT> uses
+ * these operations for the bulk <TT>write</TT> and <TT>drainTo</TT> of its ends
+ * (see {@link org.jcsp.lang.BulkChannelOutput} and {@link org.jcsp.lang.BulkChannelInput}),
+ * so that a batch is copied in or out with a single call.
+ * With any other <TT>ChannelDataStore</TT>, the channel loops over
+ * {@link #put(java.lang.Object) <tt>put</tt>} and {@link #get() <tt>get</tt>} instead,
+ * with the same result.
+ * <P>
+ * The same thread-safety guarantees are given as for <TT>ChannelDataStore</TT>.
+ *
+ * @see org.jcsp.util.Buffer
+ * @see org.jcsp.util.RingBuffer
+ * @see org.jcsp.util.MappedBuffer
+ */
+
+public interface BulkChannelDataStore<T> extends ChannelDataStore<T>
+{
+    /**
+     * Puts as many of the given <TT>Object</TT>s into the <TT>ChannelDataStore</TT>
+     * as it will accept, in order, stopping early if it becomes <TT>FULL</TT>.
+     * This has the same effect as calling {@link #put <code>put</code>} once for each
+     * of the values stored, but lets a channel move a whole batch under a single
+     * acquisition of its lock.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+     *
+     * @param values the array holding the Objects to put into the ChannelDataStore
+     * @param off the index in <TT>values</TT> of the first Object to put
+     * @param len the number of Objects available to put
+     * @return the number of Objects actually put (at least one if <TT>len</TT> is positive)
+     */
+    public abstract int putAll(T[] values, int off, int len);
+
+    /**
+     * Removes up to <TT>max</TT> <TT>Object</TT>s from the <TT>ChannelDataStore</TT>, in
+     * the order {@link #get <code>get</code>} would have returned them, stopping early if
+     * it becomes <TT>EMPTY</TT>.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @param values the array to receive the Objects
+     * @param off the index in <TT>values</TT> at which to store the first Object
+     * @param max the maximum number of Objects to remove
+     * @return the number of Objects actually removed (at least one if <TT>max</TT> is positive)
+     */
+    public abstract int getAll(T[] values, int off, int max);
+}
@@ -0,0 +1,619 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+/**
+ * This is used to create a buffered object channel whose messages are kept,
+ * encoded, in a memory-mapped file.
+ * <H2>Description</H2>
+ * <TT>MappedBuffer</TT> is an implementation of <TT>ChannelDataStore</TT> that yields
+ * the same blocking <I>FIFO</I> buffered semantics as {@link Buffer}, but holds its
+ * messages off the Java heap, in a file that is mapped into memory.  So its capacity
+ * is given in bytes and may be many gigabytes without adding to the work of the
+ * garbage collector, and the messages that have been put and not yet got are still
+ * there when the file is opened again by a new <TT>MappedBuffer</TT> &ndash; after
+ * a restart, or after a crash.
+ * <P>
+ * Each message is turned into bytes (and back) by a {@link Codec}.  Codecs are
+ * provided for <TT>byte[]</TT> ({@link #BYTES}), <TT>String</TT> ({@link #UTF8}) and
+ * any <TT>Serializable</TT> object ({@link Serializing}).  No message may encode to
+ * more than the <TT>maxMessageSize</TT> given to the constructor.
+ * <P>
+ * The file holds a small header and then a ring of bytes, mapped in segments of at
+ * most {@link #SEGMENT_SIZE} bytes.  Each message is written as its length and its
+ * bytes, and never crosses the end of a segment (the rest of the segment is skipped
+ * instead).  The header holds the positions of the oldest and the next message.  A
+ * message is written before the position of the next message is moved past it, so
+ * after a crash of the Java process the file holds exactly the messages that had
+ * been put and not got.  A message got by <TT>startGet</TT> is only removed by
+ * <TT>endGet</TT>, so one being read in an extended rendezvous is kept.  The
+ * operating system writes the file back to disk in its own time; call {@link #force}
+ * if the messages must survive a crash of the machine.
+ * <P>
+ * The <TT>getState</TT> method returns <TT>EMPTY</TT>, <TT>NONEMPTYFULL</TT> or
+ * <TT>FULL</TT> according to the state of the buffer.  It is <TT>FULL</TT> when a
+ * message of the largest size might not fit.
+ * <P>
+ * A <TT>MappedBuffer</TT> owns its file, which it locks.  Channels built by
+ * {@link org.jcsp.lang.Channel#one2oneMapped Channel.one2oneMapped} or
+ * {@link org.jcsp.lang.Channel#any2oneMapped Channel.any2oneMapped} use it directly,
+ * so that the messages in the file are those of the channel: it may back only one
+ * such channel.  When the channel is finished with, {@link #close} releases the file.
+ * The other channel factories, like those for an array of channels, each clone the
+ * buffer they are given: {@link #clone} makes a new, empty <TT>MappedBuffer</TT>
+ * over a temporary file of its own, which is deleted when it is closed.
+ *
+ * @see org.jcsp.util.Buffer
+ * @see org.jcsp.lang.Channel
+ */
+
+public class MappedBuffer<T> implements BulkChannelDataStore<T>
+{
+    /**
+     * Turns messages into bytes and back, for a {@link MappedBuffer}.
+     * <P>
+     * A codec must not keep the buffers it is given.
+     */
+    public interface Codec<T>
+    {
+        /**
+         * Writes a message into a buffer, from its position.
+         *
+         * @param value the message.
+         * @param out the buffer, with room for the largest message allowed.
+         * @throws BufferOverflowException if the message is too large.
+         */
+        public void encode(T value, ByteBuffer out);
+
+        /**
+         * Reads a message from a buffer.
+         *
+         * @param in the buffer, from the position to the limit of which are the bytes
+         * written by <TT>encode</TT>.
+         * @return the message.
+         */
+        public T decode(ByteBuffer in);
+    }
+
+    /** A codec for byte arrays, which are stored as they are */
+    public static final Codec<byte[]> BYTES = new Codec<byte[]>()
+    {
+        public void encode(byte[] value, ByteBuffer out)
+        {
+            out.put(value);
+        }
+
+        public byte[] decode(ByteBuffer in)
+        {
+            byte[] value = new byte[in.remaining()];
+            in.get(value);
+            return value;
+        }
+    };
+
+    /** A codec for Strings, which are stored in UTF-8 */
+    public static final Codec<String> UTF8 = new Codec<String>()
+    {
+        public void encode(String value, ByteBuffer out)
+        {
+            try
+            {
+                out.put(value.getBytes("UTF-8"));
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException(e.toString());
+            }
+        }
+
+        public String decode(ByteBuffer in)
+        {
+            byte[] bytes = new byte[in.remaining()];
+            in.get(bytes);
+            try
+            {
+                return new String(bytes, "UTF-8");
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException(e.toString());
+            }
+        }
+    };
+
+    /**
+     * A codec for any <TT>Serializable</TT> object, using Java serialization.
+     */
+    public static class Serializing<T> implements Codec<T>
+    {
+        public void encode(T value, final ByteBuffer out)
+        {
+            try
+            {
+                ObjectOutputStream objects = new ObjectOutputStream(new OutputStream()
+                {
+                    public void write(int b)
+                    {
+                        out.put((byte) b);
+                    }
+
+                    public void write(byte[] b, int off, int len)
+                    {
+                        out.put(b, off, len);
+                    }
+                });
+                objects.writeObject(value);
+                objects.close();
+            }
+            catch (IOException e)
+            {
+                throw new IllegalArgumentException("*** Cannot serialize " + value + ": " + e);
+            }
+        }
+
+        public T decode(final ByteBuffer in)
+        {
+            try
+            {
+                ObjectInputStream objects = new ObjectInputStream(new InputStream()
+                {
+                    public int read()
+                    {
+                        return in.hasRemaining() ? (in.get() & 0xFF) : -1;
+                    }
+
+                    public int read(byte[] b, int off, int len)
+                    {
+                        if (!in.hasRemaining())
+                            return -1;
+                        len = Math.min(len, in.remaining());
+                        in.get(b, off, len);
+                        return len;
+                    }
+                });
+                // the stream holds what encode wrote, which was a T
+                @SuppressWarnings("unchecked")
+                final T value = (T) objects.readObject();
+                return value;
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException("*** Cannot deserialize a stored message: " + e);
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new IllegalStateException("*** Cannot deserialize a stored message: " + e);
+            }
+        }
+    }
+
+    /** The largest segment of the file mapped at once */
+    public static final int SEGMENT_SIZE = 1 << 26;
+
+    /** Identifies a file written by a MappedBuffer */
+    private static final int MAGIC = 0x4A435350;
+
+    /** The version of the file layout */
+    private static final int VERSION = 1;
+
+    /** The bytes before the ring, holding the header */
+    private static final int HEADER_SIZE = 4096;
+
+    /** The offsets in the header of its fields */
+    private static final int CAPACITY_FIELD = 8;
+    private static final int SEGMENT_FIELD = 16;
+    private static final int HEAD_FIELD = 24;
+    private static final int TAIL_FIELD = 32;
+
+    /** The length written where the rest of a segment is skipped */
+    private static final int SKIP = -1;
+
+    /** The file */
+    private final File file;
+
+    /** The codec for the messages */
+    private final Codec<T> codec;
+
+    /** The most bytes a message may encode to */
+    private final int maxMessageSize;
+
+    /** The bytes taken by a message of the largest size, with its length */
+    private final int maxRecord;
+
+    /** The bytes in each segment */
+    private final int segmentSize;
+
+    /** The bytes in the ring (a multiple of segmentSize) */
+    private final long capacity;
+
+    private final RandomAccessFile raf;
+
+    private final FileLock lock;
+
+    /** The mapped header */
+    private final MappedByteBuffer header;
+
+    /** The mapped segments of the ring */
+    private final MappedByteBuffer[] segment;
+
+    /** The position in the ring (counting from its creation) of the oldest message */
+    private long head;
+
+    /** The position in the ring (counting from its creation) at which the next message goes */
+    private long tail;
+
+    /** The position of the message after the one got by startGet */
+    private long next;
+
+    /** Whether the file was made by clone, and is deleted by close */
+    private final boolean temporary;
+
+    /**
+     * Construct a new <TT>MappedBuffer</TT> over a file.  If the file was written by a
+     * <TT>MappedBuffer</TT> with the same capacity, the messages in it are kept.
+     * Otherwise, it is created (or replaced) empty.
+     *
+     * @param file the file to keep the messages in.
+     * @param capacity the number of bytes of messages the buffer can store.  This is
+     * rounded up to a whole number of segments.
+     * @param maxMessageSize the most bytes a message may encode to.
+     * @param codec the codec for the messages.
+     * @throws BufferSizeError if <TT>capacity</TT> cannot hold two messages of
+     * <TT>maxMessageSize</TT>, or <TT>maxMessageSize</TT> is not positive or will not
+     * fit in a segment.  Note: no action should be taken to <TT>try</TT>/<TT>catch</TT>
+     * this exception - application code generating it is in error and needs correcting.
+     * @throws IOException if the file cannot be opened, mapped or locked, or is locked
+     * by another <TT>MappedBuffer</TT>.
+     */
+    public MappedBuffer(File file, long capacity, int maxMessageSize, Codec<T> codec)
+        throws IOException
+    {
+        this(file, capacity, maxMessageSize, codec, false);
+    }
+
+    /**
+     * Construct a new <TT>MappedBuffer</TT> over a file, which is deleted by
+     * {@link #close} if it is <TT>temporary</TT>.
+     */
+    private MappedBuffer(File file, long capacity, int maxMessageSize, Codec<T> codec, boolean temporary)
+        throws IOException
+    {
+        if ((maxMessageSize <= 0) || (maxMessageSize > SEGMENT_SIZE - 8))
+            throw new BufferSizeError("\n*** Attempt to create a mapped buffer with a maximum message size of "
+                                      + maxMessageSize);
+        this.maxRecord = (int) align(4 + maxMessageSize);
+        if (capacity < 2 * maxRecord)
+            throw new BufferSizeError("\n*** Attempt to create a mapped buffer too small for two messages");
+        this.file = file;
+        this.temporary = temporary;
+        this.codec = codec;
+        this.maxMessageSize = maxMessageSize;
+        this.segmentSize = (int) align(Math.min(capacity, SEGMENT_SIZE));
+        this.capacity = ((capacity + segmentSize - 1) / segmentSize) * segmentSize;
+
+        raf = new RandomAccessFile(file, "rw");
+        FileChannel channel = raf.getChannel();
+        try
+        {
+            lock = channel.tryLock();
+        }
+        catch (RuntimeException e)
+        {
+            // an OverlappingFileLockException, as this JVM holds the lock
+            raf.close();
+            throw new IOException("*** " + file + " is in use by another MappedBuffer");
+        }
+        if (lock == null)
+        {
+            raf.close();
+            throw new IOException("*** " + file + " is in use by another MappedBuffer");
+        }
+        boolean kept = (raf.length() == HEADER_SIZE + this.capacity);
+        raf.setLength(HEADER_SIZE + this.capacity);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        kept = kept
+               && (header.getInt(0) == MAGIC)
+               && (header.getInt(4) == VERSION)
+               && (header.getLong(CAPACITY_FIELD) == this.capacity)
+               && (header.getInt(SEGMENT_FIELD) == segmentSize);
+        if (kept)
+        {
+            head = header.getLong(HEAD_FIELD);
+            tail = header.getLong(TAIL_FIELD);
+            kept = (head <= tail) && (tail - head <= this.capacity);
+        }
+        if (!kept)
+        {
+            head = 0;
+            tail = 0;
+            header.putLong(HEAD_FIELD, 0);
+            header.putLong(TAIL_FIELD, 0);
+            header.putLong(CAPACITY_FIELD, this.capacity);
+            header.putInt(SEGMENT_FIELD, segmentSize);
+            header.putInt(4, VERSION);
+            header.putInt(0, MAGIC);
+        }
+        next = head;
+        segment = new MappedByteBuffer[(int) (this.capacity / segmentSize)];
+        for (int i = 0; i < segment.length; i++)
+            segment[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) i * segmentSize, segmentSize);
+    }
+
+    /**
+     * Rounds a size up to a multiple of 8, so that every length written is aligned.
+     */
+    private static long align(long size)
+    {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Returns the number of bytes of a segment from a position to the end of its segment.
+     */
+    private int remaining(long position)
+    {
+        return segmentSize - (int) (position % segmentSize);
+    }
+
+    /**
+     * Returns the segment holding a position, with its position set to it.
+     */
+    private MappedByteBuffer at(long position)
+    {
+        long offset = position % capacity;
+        MappedByteBuffer buffer = segment[(int) (offset / segmentSize)];
+        buffer.limit(segmentSize);
+        buffer.position((int) (offset % segmentSize));
+        return buffer;
+    }
+
+    /**
+     * Returns the position of the oldest message at or after a position, skipping
+     * the end of a segment if it was too small for the message.
+     * <P>
+     * <I>Pre-condition</I>: there is a message at or after <TT>position</TT>.
+     */
+    private long skip(long position)
+    {
+        if (at(position).getInt() == SKIP)
+            return position + remaining(position);
+        return position;
+    }
+
+    /**
+     * Returns the oldest <TT>Object</TT> from the <TT>MappedBuffer</TT> and removes it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the oldest <TT>Object</TT> from the <TT>MappedBuffer</TT>
+     */
+    public T get()
+    {
+        T value = startGet();
+        endGet();
+        return value;
+    }
+
+    /**
+     * Returns the oldest object from the buffer but does not remove it.
+     *
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the oldest <TT>Object</TT> from the <TT>MappedBuffer</TT>
+     */
+    public T startGet()
+    {
+        long position = skip(head);
+        MappedByteBuffer buffer = at(position);
+        int length = buffer.getInt();
+        buffer.limit(buffer.position() + length);
+        T value = codec.decode(buffer);
+        buffer.limit(segmentSize);
+        next = position + align(4 + length);
+        return value;
+    }
+
+    /**
+     * Removes the oldest object from the buffer.
+     */
+    public void endGet()
+    {
+        head = next;
+        header.putLong(HEAD_FIELD, head);
+    }
+
+    /**
+     * Puts a new <TT>Object</TT> into the <TT>MappedBuffer</TT>.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+     *
+     * @param value the Object to put into the MappedBuffer
+     * @throws IllegalArgumentException if the Object encodes to more than the
+     * maximum message size.  Nothing is put.
+     */
+    public void put(T value)
+    {
+        long position = tail;
+        int room = remaining(position);
+        if (room < maxRecord)
+        {
+            at(position).putInt(SKIP);
+            position += room;
+        }
+        MappedByteBuffer buffer = at(position + 4);
+        int start = buffer.position();
+        buffer.limit(start + maxMessageSize);
+        try
+        {
+            codec.encode(value, buffer);
+        }
+        catch (BufferOverflowException e)
+        {
+            throw new IllegalArgumentException("*** Message encodes to more than the " + maxMessageSize
+                                               + " bytes allowed by the MappedBuffer: " + value);
+        }
+        int length = buffer.position() - start;
+        buffer.limit(segmentSize);
+        buffer.putInt(start - 4, length);
+        // the message is complete before the header counts it
+        tail = position + align(4 + length);
+        header.putLong(TAIL_FIELD, tail);
+    }
+
+    /**
+     * Returns the current state of the <TT>MappedBuffer</TT>.
+     *
+     * @return the current state of the <TT>MappedBuffer</TT> (<TT>EMPTY</TT>,
+     * <TT>NONEMPTYFULL</TT> or <TT>FULL</TT>)
+     */
+    public int getState()
+    {
+        if (head == tail)
+            return EMPTY;
+        int room = remaining(tail);
+        long needed = (room < maxRecord) ? room + maxRecord : maxRecord;
+        if (capacity - (tail - head) < needed)
+            return FULL;
+        return NONEMPTYFULL;
+    }
+
+    /**
+     * Puts as many of the given <TT>Object</TT>s into the <TT>MappedBuffer</TT> as it
+     * will accept, in order.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+     *
+     * @param values the array holding the Objects to put into the MappedBuffer
+     * @param off the index in <TT>values</TT> of the first Object to put
+     * @param len the number of Objects available to put
+     * @return the number of Objects actually put
+     */
+    public int putAll(T[] values, int off, int len)
+    {
+        int n = 0;
+        while ((n < len) && (getState() != FULL))
+            put(values[off + n++]);
+        return n;
+    }
+
+    /**
+     * Removes up to <TT>max</TT> of the oldest <TT>Object</TT>s from the <TT>MappedBuffer</TT>.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @param values the array to receive the Objects
+     * @param off the index in <TT>values</TT> at which to store the first Object
+     * @param max the maximum number of Objects to remove
+     * @return the number of Objects actually removed
+     */
+    public int getAll(T[] values, int off, int max)
+    {
+        int n = 0;
+        while ((n < max) && (head != tail))
+            values[off + n++] = get();
+        return n;
+    }
+
+    /**
+     * Returns a new (and <TT>EMPTY</TT>) <TT>MappedBuffer</TT> with the same capacity,
+     * maximum message size and codec as this one.
+     * <P>
+     * <I>Note: the new </I><TT>MappedBuffer</TT><I> keeps its messages in a temporary
+     * file of its own, in the directory of this one's file.  The file is deleted when
+     * the new </I><TT>MappedBuffer</TT><I> is closed, or else when the Java Virtual
+     * Machine exits.</I>
+     *
+     * @return the cloned instance of this <TT>MappedBuffer</TT>
+     * @throws IllegalStateException if the temporary file cannot be made.
+     */
+    public Object clone()
+    {
+        File copy = null;
+        try
+        {
+            copy = File.createTempFile("jcsp", ".buffer", file.getAbsoluteFile().getParentFile());
+            copy.deleteOnExit();
+            return new MappedBuffer<T>(copy, capacity, maxMessageSize, codec, true);
+        }
+        catch (IOException e)
+        {
+            if (copy != null)
+                copy.delete();
+            throw new IllegalStateException("*** Cannot make a file for a clone of the MappedBuffer " + file + ": " + e);
+        }
+    }
+
+    public void removeAll()
+    {
+        head = tail;
+        next = tail;
+        header.putLong(HEAD_FIELD, head);
+    }
+
+    /**
+     * Writes the messages held in memory back to the file, so that they will survive
+     * a crash of the machine as well as of the Java process.
+     */
+    public void force()
+    {
+        for (int i = 0; i < segment.length; i++)
+            segment[i].force();
+        header.force();
+    }
+
+    /**
+     * Writes the messages back to the file and releases it, or deletes it if it was
+     * made by {@link #clone}.  The <TT>MappedBuffer</TT>, and any channel using it, must
+     * not be used afterwards.
+     *
+     * @throws IOException if the file cannot be released.
+     */
+    public void close() throws IOException
+    {
+        if (!temporary)
+            force();
+        lock.release();
+        raf.close();
+        if (temporary)
+            file.delete();
+    }
+}
@@ -0,0 +1,271 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.util;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This is used to create a buffered object channel that never loses data,
+ * and whose single writer and single reader need not share a lock.
+ * <H2>Description</H2>
+ * <TT>RingBuffer</TT> is an implementation of <TT>ChannelDataStore</TT> that yields
+ * the same blocking <I>FIFO</I> buffered semantics as {@link Buffer}.
+ * <P>
+ * The storage is a ring whose length is a power of two, indexed by masking a pair
+ * of ever-increasing sequence counters: one advanced only by <TT>put</TT>, the other
+ * only by <TT>get</TT> and <TT>endGet</TT>.  The counters are kept on separate
+ * cache lines.  So one thread may put while another thread gets, with no locking.
+ * {@link org.jcsp.lang.Channel#one2one(RingBuffer)} exploits this to build a
+ * <I>one-one</I> channel whose writer and reader only ever meet when the buffer is
+ * empty or full.  Plugged into any other channel, a <TT>RingBuffer</TT> behaves
+ * exactly like a {@link Buffer} (of its rounded-up size).
+ * <P>
+ * The <TT>getState</TT> method returns <TT>EMPTY</TT>, <TT>NONEMPTYFULL</TT> or
+ * <TT>FULL</TT> according to the state of the buffer.
+ * <P>
+ * <I>Note: </I><TT>removeAll</TT><I> must not run concurrently with any other method.</I>
+ *
+ * @see org.jcsp.util.Buffer
+ * @see org.jcsp.util.ints.RingBufferInt
+ * @see org.jcsp.lang.Channel#one2one(RingBuffer)
+ */
+
+public class RingBuffer<T> implements BulkChannelDataStore<T>, Serializable
+{
+    /** The index in <TT>sequence</TT> of the count of Objects taken so far */
+    private static final int HEAD = 7;
+
+    /** The index in <TT>sequence</TT> of the count of Objects put so far */
+    private static final int TAIL = 15;
+
+    /** The storage for the buffered Objects (its length is a power of two) */
+    private final T[] buffer;
+
+    /** <TT>buffer.length - 1</TT> */
+    private final int mask;
+
+    /** The size given to the constructor (needed by clone) */
+    private final int size;
+
+    /**
+     * The HEAD and TAIL counters, padded so that each sits on its own cache line.
+     */
+    private final AtomicLongArray sequence = new AtomicLongArray(TAIL + 8);
+
+    /**
+     * Construct a new <TT>RingBuffer</TT> with (at least) the specified size.
+     * <P>
+     * As with {@link Buffer}, the storage has one more slot than the requested
+     * size.  Here it is then rounded up to a power of two, so the buffer may hold
+     * more than <TT>size</TT> Objects.
+     *
+     * @param size the minimum number of Objects the RingBuffer can store.
+     * @throws BufferSizeError if <TT>size</TT> is negative or too large.  Note: no action
+     * should be taken to <TT>try</TT>/<TT>catch</TT> this exception
+     * - application code generating it is in error and needs correcting.
+     */
+    public RingBuffer(int size)
+    {
+        if (size < 0)
+            throw new BufferSizeError("\n*** Attempt to create a buffered channel with negative capacity");
+        if (size >= (1 << 30))
+            throw new BufferSizeError("\n*** Attempt to create a ring-buffered channel with capacity above 2^30 - 1");
+        int length = 1;
+        while (length < size + 1)
+            length <<= 1;
+        this.size = size;
+        buffer = (T[]) new Object[length];
+        mask = length - 1;
+    }
+
+    /**
+     * Returns the number of Objects this <TT>RingBuffer</TT> can hold
+     * (<TT>size + 1</TT>, rounded up to a power of two).
+     *
+     * @return the length of the ring.
+     */
+    public int getCapacity()
+    {
+        return buffer.length;
+    }
+
+    /**
+     * Returns the size given to the constructor, before it was rounded up.
+     *
+     * @return the requested size of the ring.
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the oldest <TT>Object</TT> from the <TT>RingBuffer</TT> and removes it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the oldest <TT>Object</TT> from the <TT>RingBuffer</TT>
+     */
+    public T get()
+    {
+        final long head = sequence.get(HEAD);
+        final int index = (int) head & mask;
+        T value = buffer[index];
+        buffer[index] = null;
+        sequence.set(HEAD, head + 1);
+        return value;
+    }
+
+    /**
+     * Returns the oldest object from the <TT>RingBuffer</TT> but does not remove it.
+     *
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the oldest <TT>Object</TT> from the <TT>RingBuffer</TT>
+     */
+    public T startGet()
+    {
+        return buffer[(int) sequence.get(HEAD) & mask];
+    }
+
+    /**
+     * Removes the oldest object from the buffer.
+     */
+    public void endGet()
+    {
+        final long head = sequence.get(HEAD);
+        buffer[(int) head & mask] = null;
+        sequence.set(HEAD, head + 1);
+    }
+
+    /**
+     * Puts a new <TT>Object</TT> into the <TT>RingBuffer</TT>.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+     *
+     * @param value the Object to put into the RingBuffer
+     */
+    public void put(T value)
+    {
+        final long tail = sequence.get(TAIL);
+        buffer[(int) tail & mask] = value;
+        sequence.set(TAIL, tail + 1);
+    }
+
+    /**
+     * Puts as many of the given <TT>Object</TT>s into the <TT>RingBuffer</TT> as it will
+     * accept, in order.  The tail counter is advanced once for the whole batch.
+     *
+     * @param values the array holding the Objects to put into the RingBuffer
+     * @param off the index in <TT>values</TT> of the first Object to put
+     * @param len the number of Objects available to put
+     * @return the number of Objects actually put
+     */
+    public int putAll(T[] values, int off, int len)
+    {
+        final long tail = sequence.get(TAIL);
+        final int n = (int) Math.min(len, buffer.length - (tail - sequence.get(HEAD)));
+        final int index = (int) tail & mask;
+        final int first = Math.min(n, buffer.length - index);
+        System.arraycopy(values, off, buffer, index, first);
+        System.arraycopy(values, off + first, buffer, 0, n - first);
+        sequence.set(TAIL, tail + n);
+        return n;
+    }
+
+    /**
+     * Removes up to <TT>max</TT> of the oldest <TT>Object</TT>s from the <TT>RingBuffer</TT>.
+     * The head counter is advanced once for the whole batch.
+     *
+     * @param values the array to receive the Objects
+     * @param off the index in <TT>values</TT> at which to store the first Object
+     * @param max the maximum number of Objects to remove
+     * @return the number of Objects actually removed
+     */
+    public int getAll(T[] values, int off, int max)
+    {
+        final long head = sequence.get(HEAD);
+        final int n = (int) Math.min(max, sequence.get(TAIL) - head);
+        final int index = (int) head & mask;
+        final int first = Math.min(n, buffer.length - index);
+        System.arraycopy(buffer, index, values, off, first);
+        System.arraycopy(buffer, 0, values, off + first, n - first);
+        for (int i = 0; i < first; i++)
+            buffer[index + i] = null;
+        for (int i = 0; i < n - first; i++)
+            buffer[i] = null;
+        sequence.set(HEAD, head + n);
+        return n;
+    }
+
+    /**
+     * Returns the current state of the <TT>RingBuffer</TT>.
+     * <P>
+     * This may be called by the putting and the getting thread concurrently.
+     * The putting thread sees the exact state; the getting thread may see the buffer
+     * as emptier than it now is (but never as fuller).
+     *
+     * @return the current state of the <TT>RingBuffer</TT> (<TT>EMPTY</TT>,
+     * <TT>NONEMPTYFULL</TT> or <TT>FULL</TT>)
+     */
+    public int getState()
+    {
+        final long count = sequence.get(TAIL) - sequence.get(HEAD);
+        if (count == 0)
+            return EMPTY;
+        else if (count == buffer.length)
+            return FULL;
+        else
+            return NONEMPTYFULL;
+    }
+
+    /**
+     * Returns a new (and <TT>EMPTY</TT>) <TT>RingBuffer</TT> with the same
+     * creation parameters as this one.
+     * <P>
+     * <I>Note: Only the size and structure of the </I><TT>RingBuffer</TT><I> is
+     * cloned, not any stored data.</I>
+     *
+     * @return the cloned instance of this <TT>RingBuffer</TT>.
+     */
+    public Object clone()
+    {
+        return new RingBuffer<T>(size);
+    }
+
+    public void removeAll()
+    {
+        for (int i = 0; i < buffer.length; i++) {
+            //Null the objects so they can be garbage collected:
+            buffer[i] = null;
+        }
+        sequence.set(HEAD, sequence.get(TAIL));
+    }
+}
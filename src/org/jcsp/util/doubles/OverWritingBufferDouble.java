@@ -0,0 +1,197 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.util.doubles;
+
+import java.io.Serializable;
+
+import org.jcsp.util.OverWriteOldestBuffer;
+
+//{{{  javadoc
+/**
+ * This is used to create a buffered double channel that always accepts input,
+ * overwriting its last entered data if full.
+ * <H2>Description</H2>
+ * <TT>OverWritingBufferDouble</TT> is an implementation of <TT>ChannelDataStoreDouble</TT> that yields
+ * a <I>FIFO</I> buffered semantics for a channel.  When empty, the channel blocks readers.
+ * When full, a writer will overwrite the <I>latest</I> item written to the channel.
+ * See the <tt>static</tt> construction methods of {@link org.jcsp.lang.Channel}
+ * ({@link org.jcsp.lang.Channel#one2oneDouble(org.jcsp.util.doubles.ChannelDataStoreDouble)} etc.).
+ * <P>
+ * The <TT>getState</TT> method returns <TT>EMPTY</TT> or <TT>NONEMPTYFULL</TT>, but
+ * never <TT>FULL</TT>.
+ *
+ * @see org.jcsp.util.doubles.ZeroBufferDouble
+ * @see org.jcsp.util.doubles.BufferDouble
+ * @see org.jcsp.util.doubles.OverWriteOldestBufferDouble
+ * @see org.jcsp.util.doubles.OverFlowingBufferDouble
+ * @see org.jcsp.util.doubles.InfiniteBufferDouble
+ * @see org.jcsp.lang.ChannelDouble
+ *
+ */
+//}}}
+
+public class OverWritingBufferDouble implements ChannelDataStoreDouble, Serializable
+{
+    /** The storage for the buffered doubles */
+    private final double[] buffer;
+
+    /** The number of doubles stored in the Buffer */
+    private int counter = 0;
+
+    /** The index of the oldest element (when counter > 0) */
+    private int firstIndex = 0;
+
+    /** The index of the next free element (when counter < buffer.length) */
+    private int lastIndex = 0;
+    
+    private boolean valueWrittenWhileFull = false;
+
+    /**
+     * Construct a new <TT>OverWritingBufferDouble</TT> with the specified size.
+     *
+     * @param size the number of doubles the OverWritingBufferDouble can store.
+     * @throws BufferDoubleSizeError if <TT>size</TT> is zero or negative.  Note: no action
+     * should be taken to <TT>try</TT>/<TT>catch</TT> this exception
+     * - application code generating it is in error and needs correcting.
+     */
+    public OverWritingBufferDouble(int size)
+    {
+        if (size <= 0)
+            throw new BufferDoubleSizeError
+                    ("\n*** Attempt to create an overwriting buffered channel with negative or zero capacity");
+        buffer = new double[size];
+    }
+
+    /**
+     * Returns the oldest <TT>double</TT> from the <TT>OverWritingBufferDouble</TT> and removes it.
+     * <P>
+     * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+     *
+     * @return the oldest <TT>double</TT> from the <TT>OverWritingBufferDouble</TT>
+     */
+    public double get()
+    {
+        double value = buffer[firstIndex];
+        firstIndex = (firstIndex + 1) % buffer.length;
+        counter--;
+        return value;
+    }
+    
+    /**
+     * Begins an extended rendezvous by the reader.  
+     * 
+     * The semantics of an extended rendezvous on an overwrite-newest buffer are slightly
+     * complicated, but hopefully intuitive.
+     * 
+     * If the buffer is of size 2 or larger, the semantics are as follows.
+     * Beginning an extended rendezvous will return the oldest value in the buffer, but not remove it.
+     * If the writer writes to the buffer during the rendezvous, it will grow the buffer and end up
+     * overwriting the newest value as normal.  At the end of the extended rendezvous, the oldest
+     * value is removed.
+     * 
+     * If the buffer is of size 1, the semantics are identical to those of an {@link OverWriteOldestBuffer}.
+     * For a complete description, refer to the documentation for the {@link OverWriteOldestBuffer#startGet()} method.
+     * 
+     * @return The oldest value in the buffer at this time
+     */
+    public double startGet()
+    {
+      valueWrittenWhileFull = false;
+      return buffer[firstIndex];
+    }
+    
+    /**
+     * See {@link #startGet()} for a description of the semantics of this method.
+     */
+    public void endGet()
+    {
+      if (false == valueWrittenWhileFull || buffer.length != 1) {
+        //Our data hasn't been over-written so remove it:        
+        firstIndex = (firstIndex + 1) % buffer.length;
+        counter--;
+      }
+    }
+
+    /**
+     * Puts a new <TT>double</TT> into the <TT>OverWritingBufferDouble</TT>.
+     * <P>
+     * If <TT>OverWritingBufferDouble</TT> is full, the last item
+     * previously put into the buffer will be overwritten.
+     *
+     * @param value the double to put into the OverWritingBufferDouble
+     */
+    public void put(double value)
+    {      
+        if (counter == buffer.length)
+        {
+            buffer[(lastIndex - 1 + buffer.length) % buffer.length] = value;
+            valueWrittenWhileFull = true;
+        }
+        else
+        {
+            buffer[lastIndex] = value;
+            lastIndex = (lastIndex + 1) % buffer.length;
+            counter++;
+        }
+    }
+
+    /**
+     * Returns the current state of the <TT>OverWritingBufferDouble</TT>.
+     *
+     * @return the current state of the <TT>OverWritingBufferDouble</TT> (<TT>EMPTY</TT> or
+     * <TT>NONEMPTYFULL</TT>)
+     */
+    public int getState()
+    {
+        if (counter == 0)
+            return EMPTY;
+        else
+            return NONEMPTYFULL;
+    }
+
+    /**
+     * Returns a new (and <TT>EMPTY</TT>) <TT>OverWritingBufferDouble</TT> with the same
+     * creation parameters as this one.
+     * <P>
+     * <I>Note: Only the size and structure of the </I><TT>OverWritingBufferDouble</TT><I> is
+     * cloned, not any stored data.</I>
+     *
+     * @return the cloned instance of this <TT>OverWritingBufferDouble</TT>.
+     */
+    public Object clone()
+    {
+        return new OverWritingBufferDouble(buffer.length);
+    }
+    
+    public void removeAll() {
+  	  counter = 0;
+  	  firstIndex = 0;
+  	  lastIndex = 0;
+    }
+}
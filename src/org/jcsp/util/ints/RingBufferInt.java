@@ -0,0 +1,218 @@
+    //////////////////////////////////////////////////////////////////////
+    //                                                                  //
+    //  JCSP ("CSP for Java") Libraries                                 //
+    //  Copyright (C) 1996-2008 Peter Welch and Paul Austin.            //
+    //                2001-2004 Quickstone Technologies Limited.        //
+    //                                                                  //
+    //  This library is free software; you can redistribute it and/or   //
+    //  modify it under the terms of the GNU Lesser General Public      //
+    //  License as published by the Free Software Foundation; either    //
+    //  version 2.1 of the License, or (at your option) any later       //
+    //  version.                                                        //
+    //                                                                  //
+    //  This library is distributed in the hope that it will be         //
+    //  useful, but WITHOUT ANY WARRANTY; without even the implied      //
+    //  warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR         //
+    //  PURPOSE. See the GNU Lesser General Public License for more     //
+    //  details.                                                        //
+    //                                                                  //
+    //  You should have received a copy of the GNU Lesser General       //
+    //  Public License along with this library; if not, write to the    //
+    //  Free Software Foundation, Inc., 59 Temple Place, Suite 330,     //
+    //  Boston, MA 02111-1307, USA.                                     //
+    //                                                                  //
+    //  Author contact: P.H.Welch@kent.ac.uk                             //
+    //                                                                  //
+    //                                                                  //
+    //////////////////////////////////////////////////////////////////////
+
+package org.jcsp.util.ints;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This is used to create a buffered integer channel that never loses data,
+ * and whose single writer and single reader need not share a lock.
+ * <H2>Description</H2>
+ * <TT>RingBufferInt</TT> is an implementation of <TT>ChannelDataStoreInt</TT> that yields
+ * the same blocking <I>FIFO</I> buffered semantics as {@link BufferInt}.
+ * <P>
+ * The storage is a ring whose length is a power of two, indexed by masking a pair
+ * of ever-increasing sequence counters: one advanced only by <TT>put</TT>, the other
+ * only by <TT>get</TT> and <TT>endGet</TT>.  The counters are kept on separate
+ * cache lines.  So one thread may put while another thread gets, with no locking.
+ * {@link org.jcsp.lang.Channel#one2oneInt(RingBufferInt)} exploits this to build a
+ * <I>one-one</I> channel whose writer and reader only ever meet when the buffer is
+ * empty or full.  Plugged into any other channel, a <TT>RingBufferInt</TT> behaves
+ * exactly like a {@link BufferInt} (of its rounded-up size).
+ * <P>
+ * The <TT>getState</TT> method returns <TT>EMPTY</TT>, <TT>NONEMPTYFULL</TT> or
+ * <TT>FULL</TT> according to the state of the buffer.
+ * <P>
+ * <I>Note: </I><TT>removeAll</TT><I> must not run concurrently with any other method.</I>
+ *
+ * @see org.jcsp.util.ints.BufferInt
+ * @see org.jcsp.util.RingBuffer
+ * @see org.jcsp.lang.Channel#one2oneInt(RingBufferInt)
+ */
+
+public class RingBufferInt implements ChannelDataStoreInt, Serializable
+{
+  /** The index in <TT>sequence</TT> of the count of ints taken so far */
+  private static final int HEAD = 7;
+
+  /** The index in <TT>sequence</TT> of the count of ints put so far */
+  private static final int TAIL = 15;
+
+  /** The storage for the buffered ints (its length is a power of two) */
+  private final int[] buffer;
+
+  /** <TT>buffer.length - 1</TT> */
+  private final int mask;
+
+  /** The size given to the constructor (needed by clone) */
+  private final int size;
+
+  /**
+   * The HEAD and TAIL counters, padded so that each sits on its own cache line.
+   */
+  private final AtomicLongArray sequence = new AtomicLongArray (TAIL + 8);
+
+  /**
+   * Construct a new <TT>RingBufferInt</TT> with (at least) the specified size.
+   * <P>
+   * As with {@link BufferInt}, the storage has one more slot than the requested
+   * size.  Here it is then rounded up to a power of two, so the buffer may hold
+   * more than <TT>size</TT> ints.
+   *
+   * @param size the minimum number of ints the RingBufferInt can store.
+   * @throws BufferIntSizeError if <TT>size</TT> is negative or too large.  Note: no action
+   * should be taken to <TT>try</TT>/<TT>catch</TT> this exception
+   * - application code generating it is in error and needs correcting.
+   */
+  public RingBufferInt (int size) {
+    if (size < 0) {
+      throw new BufferIntSizeError (
+        "\n*** Attempt to create a buffered channel with negative capacity"
+      );
+    }
+    if (size >= (1 << 30)) {
+      throw new BufferIntSizeError (
+        "\n*** Attempt to create a ring-buffered channel with capacity above 2^30 - 1"
+      );
+    }
+    int length = 1;
+    while (length < size + 1) {
+      length <<= 1;
+    }
+    this.size = size;
+    buffer = new int[length];
+    mask = length - 1;
+  }
+
+  /**
+   * Returns the number of ints this <TT>RingBufferInt</TT> can hold
+   * (<TT>size + 1</TT>, rounded up to a power of two).
+   *
+   * @return the length of the ring.
+   */
+  public int getCapacity () {
+    return buffer.length;
+  }
+
+  /**
+   * Returns the size given to the constructor, before it was rounded up.
+   *
+   * @return the requested size of the ring.
+   */
+  public int getSize () {
+    return size;
+  }
+
+  /**
+   * Returns the oldest <TT>int</TT> from the <TT>RingBufferInt</TT> and removes it.
+   * <P>
+   * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+   *
+   * @return the oldest <TT>int</TT> from the <TT>RingBufferInt</TT>
+   */
+  public int get () {
+    final long head = sequence.get (HEAD);
+    final int value = buffer[(int) head & mask];
+    sequence.set (HEAD, head + 1);
+    return value;
+  }
+
+  /**
+   * Returns the oldest integer from the buffer but does not remove it.
+   *
+   * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>EMPTY</TT>.
+   *
+   * @return the oldest <TT>int</TT> from the <TT>RingBufferInt</TT>
+   */
+  public int startGet () {
+    return buffer[(int) sequence.get (HEAD) & mask];
+  }
+
+  /**
+   * Removes the oldest integer from the buffer.
+   */
+  public void endGet () {
+    sequence.set (HEAD, sequence.get (HEAD) + 1);
+  }
+
+  /**
+   * Puts a new <TT>int</TT> into the <TT>RingBufferInt</TT>.
+   * <P>
+   * <I>Pre-condition</I>: <TT>getState</TT> must not currently return <TT>FULL</TT>.
+   *
+   * @param value the int to put into the RingBufferInt
+   */
+  public void put (int value) {
+    final long tail = sequence.get (TAIL);
+    buffer[(int) tail & mask] = value;
+    sequence.set (TAIL, tail + 1);
+  }
+
+  /**
+   * Returns the current state of the <TT>RingBufferInt</TT>.
+   * <P>
+   * This may be called by the putting and the getting thread concurrently.
+   * The putting thread sees the exact state; the getting thread may see the buffer
+   * as emptier than it now is (but never as fuller).
+   *
+   * @return the current state of the <TT>RingBufferInt</TT> (<TT>EMPTY</TT>,
+   * <TT>NONEMPTYFULL</TT> or <TT>FULL</TT>)
+   */
+  public int getState () {
+    final long count = sequence.get (TAIL) - sequence.get (HEAD);
+    if (count == 0) {
+      return EMPTY;
+    }
+    else if (count == buffer.length) {
+      return FULL;
+    }
+    else {
+      return NONEMPTYFULL;
+    }
+  }
+
+  /**
+   * Returns a new (and <TT>EMPTY</TT>) <TT>RingBufferInt</TT> with the same
+   * creation parameters as this one.
+   * <P>
+   * <I>Note: Only the size and structure of the </I><TT>RingBufferInt</TT><I> is
+   * cloned, not any stored data.</I>
+   *
+   * @return the cloned instance of this <TT>RingBufferInt</TT>.
+   */
+  public Object clone () {
+    return new RingBufferInt (size);
+  }
+
+  public void removeAll () {
+    sequence.set (HEAD, sequence.get (TAIL));
+  }
+
+}